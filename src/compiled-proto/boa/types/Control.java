@@ -41,7 +41,7 @@ public final class Control {
      * <code>repeated .boa.types.CFGEdge edges = 2;</code>
      *
      * <pre>
-     * n x n matrix stored as 1D-array
+     * n x n matrix stored as 1D-array, no longer filled in (see successors)
      * </pre>
      */
     java.util.List<boa.types.Control.CFGEdge> 
@@ -50,7 +50,7 @@ public final class Control {
      * <code>repeated .boa.types.CFGEdge edges = 2;</code>
      *
      * <pre>
-     * n x n matrix stored as 1D-array
+     * n x n matrix stored as 1D-array, no longer filled in (see successors)
      * </pre>
      */
     boa.types.Control.CFGEdge getEdges(int index);
@@ -58,7 +58,7 @@ public final class Control {
      * <code>repeated .boa.types.CFGEdge edges = 2;</code>
      *
      * <pre>
-     * n x n matrix stored as 1D-array
+     * n x n matrix stored as 1D-array, no longer filled in (see successors)
      * </pre>
      */
     int getEdgesCount();
@@ -66,7 +66,7 @@ public final class Control {
      * <code>repeated .boa.types.CFGEdge edges = 2;</code>
      *
      * <pre>
-     * n x n matrix stored as 1D-array
+     * n x n matrix stored as 1D-array, no longer filled in (see successors)
      * </pre>
      */
     java.util.List<? extends boa.types.Control.CFGEdgeOrBuilder> 
@@ -75,11 +75,89 @@ public final class Control {
      * <code>repeated .boa.types.CFGEdge edges = 2;</code>
      *
      * <pre>
-     * n x n matrix stored as 1D-array
+     * n x n matrix stored as 1D-array, no longer filled in (see successors)
      * </pre>
      */
     boa.types.Control.CFGEdgeOrBuilder getEdgesOrBuilder(
         int index);
+
+    // repeated int32 successor_offsets = 3 [packed = true];
+    /**
+     * <code>repeated int32 successor_offsets = 3 [packed = true];</code>
+     *
+     * <pre>
+     * successors of node i are successors[successor_offsets[i]] up to successors[successor_offsets[i + 1]]
+     * </pre>
+     */
+    java.util.List<java.lang.Integer> getSuccessorOffsetsList();
+    /**
+     * <code>repeated int32 successor_offsets = 3 [packed = true];</code>
+     *
+     * <pre>
+     * successors of node i are successors[successor_offsets[i]] up to successors[successor_offsets[i + 1]]
+     * </pre>
+     */
+    int getSuccessorOffsetsCount();
+    /**
+     * <code>repeated int32 successor_offsets = 3 [packed = true];</code>
+     *
+     * <pre>
+     * successors of node i are successors[successor_offsets[i]] up to successors[successor_offsets[i + 1]]
+     * </pre>
+     */
+    int getSuccessorOffsets(int index);
+
+    // repeated int32 successors = 4 [packed = true];
+    /**
+     * <code>repeated int32 successors = 4 [packed = true];</code>
+     *
+     * <pre>
+     * ids of the successors of each node, in order of node id
+     * </pre>
+     */
+    java.util.List<java.lang.Integer> getSuccessorsList();
+    /**
+     * <code>repeated int32 successors = 4 [packed = true];</code>
+     *
+     * <pre>
+     * ids of the successors of each node, in order of node id
+     * </pre>
+     */
+    int getSuccessorsCount();
+    /**
+     * <code>repeated int32 successors = 4 [packed = true];</code>
+     *
+     * <pre>
+     * ids of the successors of each node, in order of node id
+     * </pre>
+     */
+    int getSuccessors(int index);
+
+    // repeated .boa.types.CFGEdge.CFGEdgeLabel successor_labels = 5 [packed = true];
+    /**
+     * <code>repeated .boa.types.CFGEdge.CFGEdgeLabel successor_labels = 5 [packed = true];</code>
+     *
+     * <pre>
+     * label of each edge in successors
+     * </pre>
+     */
+    java.util.List<boa.types.Control.CFGEdge.CFGEdgeLabel> getSuccessorLabelsList();
+    /**
+     * <code>repeated .boa.types.CFGEdge.CFGEdgeLabel successor_labels = 5 [packed = true];</code>
+     *
+     * <pre>
+     * label of each edge in successors
+     * </pre>
+     */
+    int getSuccessorLabelsCount();
+    /**
+     * <code>repeated .boa.types.CFGEdge.CFGEdgeLabel successor_labels = 5 [packed = true];</code>
+     *
+     * <pre>
+     * label of each edge in successors
+     * </pre>
+     */
+    boa.types.Control.CFGEdge.CFGEdgeLabel getSuccessorLabels(int index);
   }
   /**
    * Protobuf type {@code boa.types.CFG}
@@ -148,6 +226,81 @@ public final class Control {
               edges_.add(input.readMessage(boa.types.Control.CFGEdge.PARSER, extensionRegistry));
               break;
             }
+            case 24: {
+              if (!((mutable_bitField0_ & 0x00000004) == 0x00000004)) {
+                successorOffsets_ = new java.util.ArrayList<java.lang.Integer>();
+                mutable_bitField0_ |= 0x00000004;
+              }
+              successorOffsets_.add(input.readInt32());
+              break;
+            }
+            case 26: {
+              int length = input.readRawVarint32();
+              int limit = input.pushLimit(length);
+              if (!((mutable_bitField0_ & 0x00000004) == 0x00000004) && input.getBytesUntilLimit() > 0) {
+                successorOffsets_ = new java.util.ArrayList<java.lang.Integer>();
+                mutable_bitField0_ |= 0x00000004;
+              }
+              while (input.getBytesUntilLimit() > 0) {
+                successorOffsets_.add(input.readInt32());
+              }
+              input.popLimit(limit);
+              break;
+            }
+            case 32: {
+              if (!((mutable_bitField0_ & 0x00000008) == 0x00000008)) {
+                successors_ = new java.util.ArrayList<java.lang.Integer>();
+                mutable_bitField0_ |= 0x00000008;
+              }
+              successors_.add(input.readInt32());
+              break;
+            }
+            case 34: {
+              int length = input.readRawVarint32();
+              int limit = input.pushLimit(length);
+              if (!((mutable_bitField0_ & 0x00000008) == 0x00000008) && input.getBytesUntilLimit() > 0) {
+                successors_ = new java.util.ArrayList<java.lang.Integer>();
+                mutable_bitField0_ |= 0x00000008;
+              }
+              while (input.getBytesUntilLimit() > 0) {
+                successors_.add(input.readInt32());
+              }
+              input.popLimit(limit);
+              break;
+            }
+            case 40: {
+              int rawValue = input.readEnum();
+              boa.types.Control.CFGEdge.CFGEdgeLabel value = boa.types.Control.CFGEdge.CFGEdgeLabel.valueOf(rawValue);
+              if (value == null) {
+                unknownFields.mergeVarintField(5, rawValue);
+              } else {
+                if (!((mutable_bitField0_ & 0x00000010) == 0x00000010)) {
+                  successorLabels_ = new java.util.ArrayList<boa.types.Control.CFGEdge.CFGEdgeLabel>();
+                  mutable_bitField0_ |= 0x00000010;
+                }
+                successorLabels_.add(value);
+              }
+              break;
+            }
+            case 42: {
+              int length = input.readRawVarint32();
+              int oldLimit = input.pushLimit(length);
+              while(input.getBytesUntilLimit() > 0) {
+                int rawValue = input.readEnum();
+                boa.types.Control.CFGEdge.CFGEdgeLabel value = boa.types.Control.CFGEdge.CFGEdgeLabel.valueOf(rawValue);
+                if (value == null) {
+                  unknownFields.mergeVarintField(5, rawValue);
+                } else {
+                  if (!((mutable_bitField0_ & 0x00000010) == 0x00000010)) {
+                    successorLabels_ = new java.util.ArrayList<boa.types.Control.CFGEdge.CFGEdgeLabel>();
+                    mutable_bitField0_ |= 0x00000010;
+                  }
+                  successorLabels_.add(value);
+                }
+              }
+              input.popLimit(oldLimit);
+              break;
+            }
           }
         }
       } catch (com.google.protobuf.InvalidProtocolBufferException e) {
@@ -162,6 +315,15 @@ public final class Control {
         if (((mutable_bitField0_ & 0x00000002) == 0x00000002)) {
           edges_ = java.util.Collections.unmodifiableList(edges_);
         }
+        if (((mutable_bitField0_ & 0x00000004) == 0x00000004)) {
+          successorOffsets_ = java.util.Collections.unmodifiableList(successorOffsets_);
+        }
+        if (((mutable_bitField0_ & 0x00000008) == 0x00000008)) {
+          successors_ = java.util.Collections.unmodifiableList(successors_);
+        }
+        if (((mutable_bitField0_ & 0x00000010) == 0x00000010)) {
+          successorLabels_ = java.util.Collections.unmodifiableList(successorLabels_);
+        }
         this.unknownFields = unknownFields.build();
         makeExtensionsImmutable();
       }
@@ -236,7 +398,7 @@ public final class Control {
      * <code>repeated .boa.types.CFGEdge edges = 2;</code>
      *
      * <pre>
-     * n x n matrix stored as 1D-array
+     * n x n matrix stored as 1D-array, no longer filled in (see successors)
      * </pre>
      */
     public java.util.List<boa.types.Control.CFGEdge> getEdgesList() {
@@ -246,7 +408,7 @@ public final class Control {
      * <code>repeated .boa.types.CFGEdge edges = 2;</code>
      *
      * <pre>
-     * n x n matrix stored as 1D-array
+     * n x n matrix stored as 1D-array, no longer filled in (see successors)
      * </pre>
      */
     public java.util.List<? extends boa.types.Control.CFGEdgeOrBuilder> 
@@ -257,7 +419,7 @@ public final class Control {
      * <code>repeated .boa.types.CFGEdge edges = 2;</code>
      *
      * <pre>
-     * n x n matrix stored as 1D-array
+     * n x n matrix stored as 1D-array, no longer filled in (see successors)
      * </pre>
      */
     public int getEdgesCount() {
@@ -267,7 +429,7 @@ public final class Control {
      * <code>repeated .boa.types.CFGEdge edges = 2;</code>
      *
      * <pre>
-     * n x n matrix stored as 1D-array
+     * n x n matrix stored as 1D-array, no longer filled in (see successors)
      * </pre>
      */
     public boa.types.Control.CFGEdge getEdges(int index) {
@@ -277,7 +439,7 @@ public final class Control {
      * <code>repeated .boa.types.CFGEdge edges = 2;</code>
      *
      * <pre>
-     * n x n matrix stored as 1D-array
+     * n x n matrix stored as 1D-array, no longer filled in (see successors)
      * </pre>
      */
     public boa.types.Control.CFGEdgeOrBuilder getEdgesOrBuilder(
@@ -285,9 +447,120 @@ public final class Control {
       return edges_.get(index);
     }
 
+    // repeated int32 successor_offsets = 3 [packed = true];
+    public static final int SUCCESSOR_OFFSETS_FIELD_NUMBER = 3;
+    private java.util.List<java.lang.Integer> successorOffsets_;
+    /**
+     * <code>repeated int32 successor_offsets = 3 [packed = true];</code>
+     *
+     * <pre>
+     * successors of node i are successors[successor_offsets[i]] up to successors[successor_offsets[i + 1]]
+     * </pre>
+     */
+    public java.util.List<java.lang.Integer>
+        getSuccessorOffsetsList() {
+      return successorOffsets_;
+    }
+    /**
+     * <code>repeated int32 successor_offsets = 3 [packed = true];</code>
+     *
+     * <pre>
+     * successors of node i are successors[successor_offsets[i]] up to successors[successor_offsets[i + 1]]
+     * </pre>
+     */
+    public int getSuccessorOffsetsCount() {
+      return successorOffsets_.size();
+    }
+    /**
+     * <code>repeated int32 successor_offsets = 3 [packed = true];</code>
+     *
+     * <pre>
+     * successors of node i are successors[successor_offsets[i]] up to successors[successor_offsets[i + 1]]
+     * </pre>
+     */
+    public int getSuccessorOffsets(int index) {
+      return successorOffsets_.get(index);
+    }
+    private int successorOffsetsMemoizedSerializedSize = -1;
+
+    // repeated int32 successors = 4 [packed = true];
+    public static final int SUCCESSORS_FIELD_NUMBER = 4;
+    private java.util.List<java.lang.Integer> successors_;
+    /**
+     * <code>repeated int32 successors = 4 [packed = true];</code>
+     *
+     * <pre>
+     * ids of the successors of each node, in order of node id
+     * </pre>
+     */
+    public java.util.List<java.lang.Integer>
+        getSuccessorsList() {
+      return successors_;
+    }
+    /**
+     * <code>repeated int32 successors = 4 [packed = true];</code>
+     *
+     * <pre>
+     * ids of the successors of each node, in order of node id
+     * </pre>
+     */
+    public int getSuccessorsCount() {
+      return successors_.size();
+    }
+    /**
+     * <code>repeated int32 successors = 4 [packed = true];</code>
+     *
+     * <pre>
+     * ids of the successors of each node, in order of node id
+     * </pre>
+     */
+    public int getSuccessors(int index) {
+      return successors_.get(index);
+    }
+    private int successorsMemoizedSerializedSize = -1;
+
+    // repeated .boa.types.CFGEdge.CFGEdgeLabel successor_labels = 5 [packed = true];
+    public static final int SUCCESSOR_LABELS_FIELD_NUMBER = 5;
+    private java.util.List<boa.types.Control.CFGEdge.CFGEdgeLabel> successorLabels_;
+    /**
+     * <code>repeated .boa.types.CFGEdge.CFGEdgeLabel successor_labels = 5 [packed = true];</code>
+     *
+     * <pre>
+     * label of each edge in successors
+     * </pre>
+     */
+    public java.util.List<boa.types.Control.CFGEdge.CFGEdgeLabel>
+        getSuccessorLabelsList() {
+      return successorLabels_;
+    }
+    /**
+     * <code>repeated .boa.types.CFGEdge.CFGEdgeLabel successor_labels = 5 [packed = true];</code>
+     *
+     * <pre>
+     * label of each edge in successors
+     * </pre>
+     */
+    public int getSuccessorLabelsCount() {
+      return successorLabels_.size();
+    }
+    /**
+     * <code>repeated .boa.types.CFGEdge.CFGEdgeLabel successor_labels = 5 [packed = true];</code>
+     *
+     * <pre>
+     * label of each edge in successors
+     * </pre>
+     */
+    public boa.types.Control.CFGEdge.CFGEdgeLabel getSuccessorLabels(int index) {
+      return successorLabels_.get(index);
+    }
+    private int successorLabelsMemoizedSerializedSize = -1;
+
     private void initFields() {
       nodes_ = java.util.Collections.emptyList();
       edges_ = java.util.Collections.emptyList();
+      successorOffsets_ = java.util.Collections.emptyList();
+      successors_ = java.util.Collections.emptyList();
+      successorLabels_ = java.util.Collections.emptyList();
     }
     private byte memoizedIsInitialized = -1;
     public final boolean isInitialized() {
@@ -319,6 +592,27 @@ public final class Control {
       for (int i = 0; i < edges_.size(); i++) {
         output.writeMessage(2, edges_.get(i));
       }
+      if (getSuccessorOffsetsList().size() > 0) {
+        output.writeRawVarint32(26);
+        output.writeRawVarint32(successorOffsetsMemoizedSerializedSize);
+      }
+      for (int i = 0; i < successorOffsets_.size(); i++) {
+        output.writeInt32NoTag(successorOffsets_.get(i));
+      }
+      if (getSuccessorsList().size() > 0) {
+        output.writeRawVarint32(34);
+        output.writeRawVarint32(successorsMemoizedSerializedSize);
+      }
+      for (int i = 0; i < successors_.size(); i++) {
+        output.writeInt32NoTag(successors_.get(i));
+      }
+      if (getSuccessorLabelsList().size() > 0) {
+        output.writeRawVarint32(42);
+        output.writeRawVarint32(successorLabelsMemoizedSerializedSize);
+      }
+      for (int i = 0; i < successorLabels_.size(); i++) {
+        output.writeEnumNoTag(successorLabels_.get(i).getNumber());
+      }
       getUnknownFields().writeTo(output);
     }
 
@@ -336,6 +630,48 @@ public final class Control {
         size += com.google.protobuf.CodedOutputStream
           .computeMessageSize(2, edges_.get(i));
       }
+      {
+        int dataSize = 0;
+        for (int i = 0; i < successorOffsets_.size(); i++) {
+          dataSize += com.google.protobuf.CodedOutputStream
+            .computeInt32SizeNoTag(successorOffsets_.get(i));
+        }
+        size += dataSize;
+        if (!getSuccessorOffsetsList().isEmpty()) {
+          size += 1;
+          size += com.google.protobuf.CodedOutputStream
+              .computeInt32SizeNoTag(dataSize);
+        }
+        successorOffsetsMemoizedSerializedSize = dataSize;
+      }
+      {
+        int dataSize = 0;
+        for (int i = 0; i < successors_.size(); i++) {
+          dataSize += com.google.protobuf.CodedOutputStream
+            .computeInt32SizeNoTag(successors_.get(i));
+        }
+        size += dataSize;
+        if (!getSuccessorsList().isEmpty()) {
+          size += 1;
+          size += com.google.protobuf.CodedOutputStream
+              .computeInt32SizeNoTag(dataSize);
+        }
+        successorsMemoizedSerializedSize = dataSize;
+      }
+      {
+        int dataSize = 0;
+        for (int i = 0; i < successorLabels_.size(); i++) {
+          dataSize += com.google.protobuf.CodedOutputStream
+            .computeEnumSizeNoTag(successorLabels_.get(i).getNumber());
+        }
+        size += dataSize;
+        if (!getSuccessorLabelsList().isEmpty()) {
+          size += 1;
+          size += com.google.protobuf.CodedOutputStream
+            .computeRawVarint32Size(dataSize);
+        }
+        successorLabelsMemoizedSerializedSize = dataSize;
+      }
       size += getUnknownFields().getSerializedSize();
       memoizedSerializedSize = size;
       return size;
@@ -466,6 +802,12 @@ public final class Control {
         } else {
           edgesBuilder_.clear();
         }
+        successorOffsets_ = java.util.Collections.emptyList();
+        bitField0_ = (bitField0_ & ~0x00000004);
+        successors_ = java.util.Collections.emptyList();
+        bitField0_ = (bitField0_ & ~0x00000008);
+        successorLabels_ = java.util.Collections.emptyList();
+        bitField0_ = (bitField0_ & ~0x00000010);
         return this;
       }
 
@@ -511,6 +853,21 @@ public final class Control {
         } else {
           result.edges_ = edgesBuilder_.build();
         }
+        if (((bitField0_ & 0x00000004) == 0x00000004)) {
+          successorOffsets_ = java.util.Collections.unmodifiableList(successorOffsets_);
+          bitField0_ = (bitField0_ & ~0x00000004);
+        }
+        result.successorOffsets_ = successorOffsets_;
+        if (((bitField0_ & 0x00000008) == 0x00000008)) {
+          successors_ = java.util.Collections.unmodifiableList(successors_);
+          bitField0_ = (bitField0_ & ~0x00000008);
+        }
+        result.successors_ = successors_;
+        if (((bitField0_ & 0x00000010) == 0x00000010)) {
+          successorLabels_ = java.util.Collections.unmodifiableList(successorLabels_);
+          bitField0_ = (bitField0_ & ~0x00000010);
+        }
+        result.successorLabels_ = successorLabels_;
         onBuilt();
         return result;
       }
@@ -578,6 +935,36 @@ public final class Control {
             }
           }
         }
+        if (!other.successorOffsets_.isEmpty()) {
+          if (successorOffsets_.isEmpty()) {
+            successorOffsets_ = other.successorOffsets_;
+            bitField0_ = (bitField0_ & ~0x00000004);
+          } else {
+            ensureSuccessorOffsetsIsMutable();
+            successorOffsets_.addAll(other.successorOffsets_);
+          }
+          onChanged();
+        }
+        if (!other.successors_.isEmpty()) {
+          if (successors_.isEmpty()) {
+            successors_ = other.successors_;
+            bitField0_ = (bitField0_ & ~0x00000008);
+          } else {
+            ensureSuccessorsIsMutable();
+            successors_.addAll(other.successors_);
+          }
+          onChanged();
+        }
+        if (!other.successorLabels_.isEmpty()) {
+          if (successorLabels_.isEmpty()) {
+            successorLabels_ = other.successorLabels_;
+            bitField0_ = (bitField0_ & ~0x00000010);
+          } else {
+            ensureSuccessorLabelsIsMutable();
+            successorLabels_.addAll(other.successorLabels_);
+          }
+          onChanged();
+        }
         this.mergeUnknownFields(other.getUnknownFields());
         return this;
       }
@@ -874,7 +1261,7 @@ public final class Control {
        * <code>repeated .boa.types.CFGEdge edges = 2;</code>
        *
        * <pre>
-       * n x n matrix stored as 1D-array
+       * n x n matrix stored as 1D-array, no longer filled in (see successors)
        * </pre>
        */
       public java.util.List<boa.types.Control.CFGEdge> getEdgesList() {
@@ -888,7 +1275,7 @@ public final class Control {
        * <code>repeated .boa.types.CFGEdge edges = 2;</code>
        *
        * <pre>
-       * n x n matrix stored as 1D-array
+       * n x n matrix stored as 1D-array, no longer filled in (see successors)
        * </pre>
        */
       public int getEdgesCount() {
@@ -902,7 +1289,7 @@ public final class Control {
        * <code>repeated .boa.types.CFGEdge edges = 2;</code>
        *
        * <pre>
-       * n x n matrix stored as 1D-array
+       * n x n matrix stored as 1D-array, no longer filled in (see successors)
        * </pre>
        */
       public boa.types.Control.CFGEdge getEdges(int index) {
@@ -916,7 +1303,7 @@ public final class Control {
        * <code>repeated .boa.types.CFGEdge edges = 2;</code>
        *
        * <pre>
-       * n x n matrix stored as 1D-array
+       * n x n matrix stored as 1D-array, no longer filled in (see successors)
        * </pre>
        */
       public Builder setEdges(
@@ -937,7 +1324,7 @@ public final class Control {
        * <code>repeated .boa.types.CFGEdge edges = 2;</code>
        *
        * <pre>
-       * n x n matrix stored as 1D-array
+       * n x n matrix stored as 1D-array, no longer filled in (see successors)
        * </pre>
        */
       public Builder setEdges(
@@ -955,7 +1342,7 @@ public final class Control {
        * <code>repeated .boa.types.CFGEdge edges = 2;</code>
        *
        * <pre>
-       * n x n matrix stored as 1D-array
+       * n x n matrix stored as 1D-array, no longer filled in (see successors)
        * </pre>
        */
       public Builder addEdges(boa.types.Control.CFGEdge value) {
@@ -975,7 +1362,7 @@ public final class Control {
        * <code>repeated .boa.types.CFGEdge edges = 2;</code>
        *
        * <pre>
-       * n x n matrix stored as 1D-array
+       * n x n matrix stored as 1D-array, no longer filled in (see successors)
        * </pre>
        */
       public Builder addEdges(
@@ -996,7 +1383,7 @@ public final class Control {
        * <code>repeated .boa.types.CFGEdge edges = 2;</code>
        *
        * <pre>
-       * n x n matrix stored as 1D-array
+       * n x n matrix stored as 1D-array, no longer filled in (see successors)
        * </pre>
        */
       public Builder addEdges(
@@ -1014,7 +1401,7 @@ public final class Control {
        * <code>repeated .boa.types.CFGEdge edges = 2;</code>
        *
        * <pre>
-       * n x n matrix stored as 1D-array
+       * n x n matrix stored as 1D-array, no longer filled in (see successors)
        * </pre>
        */
       public Builder addEdges(
@@ -1032,7 +1419,7 @@ public final class Control {
        * <code>repeated .boa.types.CFGEdge edges = 2;</code>
        *
        * <pre>
-       * n x n matrix stored as 1D-array
+       * n x n matrix stored as 1D-array, no longer filled in (see successors)
        * </pre>
        */
       public Builder addAllEdges(
@@ -1050,7 +1437,7 @@ public final class Control {
        * <code>repeated .boa.types.CFGEdge edges = 2;</code>
        *
        * <pre>
-       * n x n matrix stored as 1D-array
+       * n x n matrix stored as 1D-array, no longer filled in (see successors)
        * </pre>
        */
       public Builder clearEdges() {
@@ -1067,7 +1454,7 @@ public final class Control {
        * <code>repeated .boa.types.CFGEdge edges = 2;</code>
        *
        * <pre>
-       * n x n matrix stored as 1D-array
+       * n x n matrix stored as 1D-array, no longer filled in (see successors)
        * </pre>
        */
       public Builder removeEdges(int index) {
@@ -1084,7 +1471,7 @@ public final class Control {
        * <code>repeated .boa.types.CFGEdge edges = 2;</code>
        *
        * <pre>
-       * n x n matrix stored as 1D-array
+       * n x n matrix stored as 1D-array, no longer filled in (see successors)
        * </pre>
        */
       public boa.types.Control.CFGEdge.Builder getEdgesBuilder(
@@ -1095,7 +1482,7 @@ public final class Control {
        * <code>repeated .boa.types.CFGEdge edges = 2;</code>
        *
        * <pre>
-       * n x n matrix stored as 1D-array
+       * n x n matrix stored as 1D-array, no longer filled in (see successors)
        * </pre>
        */
       public boa.types.Control.CFGEdgeOrBuilder getEdgesOrBuilder(
@@ -1109,7 +1496,7 @@ public final class Control {
        * <code>repeated .boa.types.CFGEdge edges = 2;</code>
        *
        * <pre>
-       * n x n matrix stored as 1D-array
+       * n x n matrix stored as 1D-array, no longer filled in (see successors)
        * </pre>
        */
       public java.util.List<? extends boa.types.Control.CFGEdgeOrBuilder> 
@@ -1124,7 +1511,7 @@ public final class Control {
        * <code>repeated .boa.types.CFGEdge edges = 2;</code>
        *
        * <pre>
-       * n x n matrix stored as 1D-array
+       * n x n matrix stored as 1D-array, no longer filled in (see successors)
        * </pre>
        */
       public boa.types.Control.CFGEdge.Builder addEdgesBuilder() {
@@ -1135,7 +1522,7 @@ public final class Control {
        * <code>repeated .boa.types.CFGEdge edges = 2;</code>
        *
        * <pre>
-       * n x n matrix stored as 1D-array
+       * n x n matrix stored as 1D-array, no longer filled in (see successors)
        * </pre>
        */
       public boa.types.Control.CFGEdge.Builder addEdgesBuilder(
@@ -1147,7 +1534,7 @@ public final class Control {
        * <code>repeated .boa.types.CFGEdge edges = 2;</code>
        *
        * <pre>
-       * n x n matrix stored as 1D-array
+       * n x n matrix stored as 1D-array, no longer filled in (see successors)
        * </pre>
        */
       public java.util.List<boa.types.Control.CFGEdge.Builder> 
@@ -1169,6 +1556,294 @@ public final class Control {
         return edgesBuilder_;
       }
 
+      // repeated int32 successor_offsets = 3 [packed = true];
+      private java.util.List<java.lang.Integer> successorOffsets_ = java.util.Collections.emptyList();
+      private void ensureSuccessorOffsetsIsMutable() {
+        if (!((bitField0_ & 0x00000004) == 0x00000004)) {
+          successorOffsets_ = new java.util.ArrayList<java.lang.Integer>(successorOffsets_);
+          bitField0_ |= 0x00000004;
+         }
+      }
+      /**
+       * <code>repeated int32 successor_offsets = 3 [packed = true];</code>
+       *
+       * <pre>
+       * successors of node i are successors[successor_offsets[i]] up to successors[successor_offsets[i + 1]]
+       * </pre>
+       */
+      public java.util.List<java.lang.Integer>
+          getSuccessorOffsetsList() {
+        return java.util.Collections.unmodifiableList(successorOffsets_);
+      }
+      /**
+       * <code>repeated int32 successor_offsets = 3 [packed = true];</code>
+       *
+       * <pre>
+       * successors of node i are successors[successor_offsets[i]] up to successors[successor_offsets[i + 1]]
+       * </pre>
+       */
+      public int getSuccessorOffsetsCount() {
+        return successorOffsets_.size();
+      }
+      /**
+       * <code>repeated int32 successor_offsets = 3 [packed = true];</code>
+       *
+       * <pre>
+       * successors of node i are successors[successor_offsets[i]] up to successors[successor_offsets[i + 1]]
+       * </pre>
+       */
+      public int getSuccessorOffsets(int index) {
+        return successorOffsets_.get(index);
+      }
+      /**
+       * <code>repeated int32 successor_offsets = 3 [packed = true];</code>
+       *
+       * <pre>
+       * successors of node i are successors[successor_offsets[i]] up to successors[successor_offsets[i + 1]]
+       * </pre>
+       */
+      public Builder setSuccessorOffsets(
+          int index, int value) {
+        ensureSuccessorOffsetsIsMutable();
+        successorOffsets_.set(index, value);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated int32 successor_offsets = 3 [packed = true];</code>
+       *
+       * <pre>
+       * successors of node i are successors[successor_offsets[i]] up to successors[successor_offsets[i + 1]]
+       * </pre>
+       */
+      public Builder addSuccessorOffsets(int value) {
+        ensureSuccessorOffsetsIsMutable();
+        successorOffsets_.add(value);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated int32 successor_offsets = 3 [packed = true];</code>
+       *
+       * <pre>
+       * successors of node i are successors[successor_offsets[i]] up to successors[successor_offsets[i + 1]]
+       * </pre>
+       */
+      public Builder addAllSuccessorOffsets(
+          java.lang.Iterable<? extends java.lang.Integer> values) {
+        ensureSuccessorOffsetsIsMutable();
+        super.addAll(values, successorOffsets_);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated int32 successor_offsets = 3 [packed = true];</code>
+       *
+       * <pre>
+       * successors of node i are successors[successor_offsets[i]] up to successors[successor_offsets[i + 1]]
+       * </pre>
+       */
+      public Builder clearSuccessorOffsets() {
+        successorOffsets_ = java.util.Collections.emptyList();
+        bitField0_ = (bitField0_ & ~0x00000004);
+        onChanged();
+        return this;
+      }
+
+      // repeated int32 successors = 4 [packed = true];
+      private java.util.List<java.lang.Integer> successors_ = java.util.Collections.emptyList();
+      private void ensureSuccessorsIsMutable() {
+        if (!((bitField0_ & 0x00000008) == 0x00000008)) {
+          successors_ = new java.util.ArrayList<java.lang.Integer>(successors_);
+          bitField0_ |= 0x00000008;
+         }
+      }
+      /**
+       * <code>repeated int32 successors = 4 [packed = true];</code>
+       *
+       * <pre>
+       * ids of the successors of each node, in order of node id
+       * </pre>
+       */
+      public java.util.List<java.lang.Integer>
+          getSuccessorsList() {
+        return java.util.Collections.unmodifiableList(successors_);
+      }
+      /**
+       * <code>repeated int32 successors = 4 [packed = true];</code>
+       *
+       * <pre>
+       * ids of the successors of each node, in order of node id
+       * </pre>
+       */
+      public int getSuccessorsCount() {
+        return successors_.size();
+      }
+      /**
+       * <code>repeated int32 successors = 4 [packed = true];</code>
+       *
+       * <pre>
+       * ids of the successors of each node, in order of node id
+       * </pre>
+       */
+      public int getSuccessors(int index) {
+        return successors_.get(index);
+      }
+      /**
+       * <code>repeated int32 successors = 4 [packed = true];</code>
+       *
+       * <pre>
+       * ids of the successors of each node, in order of node id
+       * </pre>
+       */
+      public Builder setSuccessors(
+          int index, int value) {
+        ensureSuccessorsIsMutable();
+        successors_.set(index, value);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated int32 successors = 4 [packed = true];</code>
+       *
+       * <pre>
+       * ids of the successors of each node, in order of node id
+       * </pre>
+       */
+      public Builder addSuccessors(int value) {
+        ensureSuccessorsIsMutable();
+        successors_.add(value);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated int32 successors = 4 [packed = true];</code>
+       *
+       * <pre>
+       * ids of the successors of each node, in order of node id
+       * </pre>
+       */
+      public Builder addAllSuccessors(
+          java.lang.Iterable<? extends java.lang.Integer> values) {
+        ensureSuccessorsIsMutable();
+        super.addAll(values, successors_);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated int32 successors = 4 [packed = true];</code>
+       *
+       * <pre>
+       * ids of the successors of each node, in order of node id
+       * </pre>
+       */
+      public Builder clearSuccessors() {
+        successors_ = java.util.Collections.emptyList();
+        bitField0_ = (bitField0_ & ~0x00000008);
+        onChanged();
+        return this;
+      }
+
+      // repeated .boa.types.CFGEdge.CFGEdgeLabel successor_labels = 5 [packed = true];
+      private java.util.List<boa.types.Control.CFGEdge.CFGEdgeLabel> successorLabels_ = java.util.Collections.emptyList();
+      private void ensureSuccessorLabelsIsMutable() {
+        if (!((bitField0_ & 0x00000010) == 0x00000010)) {
+          successorLabels_ = new java.util.ArrayList<boa.types.Control.CFGEdge.CFGEdgeLabel>(successorLabels_);
+          bitField0_ |= 0x00000010;
+         }
+      }
+      /**
+       * <code>repeated .boa.types.CFGEdge.CFGEdgeLabel successor_labels = 5 [packed = true];</code>
+       *
+       * <pre>
+       * label of each edge in successors
+       * </pre>
+       */
+      public java.util.List<boa.types.Control.CFGEdge.CFGEdgeLabel>
+          getSuccessorLabelsList() {
+        return java.util.Collections.unmodifiableList(successorLabels_);
+      }
+      /**
+       * <code>repeated .boa.types.CFGEdge.CFGEdgeLabel successor_labels = 5 [packed = true];</code>
+       *
+       * <pre>
+       * label of each edge in successors
+       * </pre>
+       */
+      public int getSuccessorLabelsCount() {
+        return successorLabels_.size();
+      }
+      /**
+       * <code>repeated .boa.types.CFGEdge.CFGEdgeLabel successor_labels = 5 [packed = true];</code>
+       *
+       * <pre>
+       * label of each edge in successors
+       * </pre>
+       */
+      public boa.types.Control.CFGEdge.CFGEdgeLabel getSuccessorLabels(int index) {
+        return successorLabels_.get(index);
+      }
+      /**
+       * <code>repeated .boa.types.CFGEdge.CFGEdgeLabel successor_labels = 5 [packed = true];</code>
+       *
+       * <pre>
+       * label of each edge in successors
+       * </pre>
+       */
+      public Builder setSuccessorLabels(
+          int index, boa.types.Control.CFGEdge.CFGEdgeLabel value) {
+        if (value == null) {
+          throw new NullPointerException();
+        }
+        ensureSuccessorLabelsIsMutable();
+        successorLabels_.set(index, value);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated .boa.types.CFGEdge.CFGEdgeLabel successor_labels = 5 [packed = true];</code>
+       *
+       * <pre>
+       * label of each edge in successors
+       * </pre>
+       */
+      public Builder addSuccessorLabels(boa.types.Control.CFGEdge.CFGEdgeLabel value) {
+        if (value == null) {
+          throw new NullPointerException();
+        }
+        ensureSuccessorLabelsIsMutable();
+        successorLabels_.add(value);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated .boa.types.CFGEdge.CFGEdgeLabel successor_labels = 5 [packed = true];</code>
+       *
+       * <pre>
+       * label of each edge in successors
+       * </pre>
+       */
+      public Builder addAllSuccessorLabels(
+          java.lang.Iterable<? extends boa.types.Control.CFGEdge.CFGEdgeLabel> values) {
+        ensureSuccessorLabelsIsMutable();
+        super.addAll(values, successorLabels_);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated .boa.types.CFGEdge.CFGEdgeLabel successor_labels = 5 [packed = true];</code>
+       *
+       * <pre>
+       * label of each edge in successors
+       * </pre>
+       */
+      public Builder clearSuccessorLabels() {
+        successorLabels_ = java.util.Collections.emptyList();
+        bitField0_ = (bitField0_ & ~0x00000010);
+        onChanged();
+        return this;
+      }
+
       // @@protoc_insertion_point(builder_scope:boa.types.CFG)
     }
 
@@ -2949,19 +3624,21 @@ public final class Control {
       descriptor;
   static {
     java.lang.String[] descriptorData = {
-      "\n\rcontrol.proto\022\tboa.types\032\tast.proto\"K\n" +
-      "\003CFG\022!\n\005nodes\030\001 \003(\0132\022.boa.types.CFGNode\022" +
-      "!\n\005edges\030\002 \003(\0132\022.boa.types.CFGEdge\"\325\001\n\007C" +
-      "FGNode\022\n\n\002id\030\001 \002(\005\022,\n\004type\030\002 \002(\0162\036.boa.t" +
-      "ypes.CFGNode.CFGNodeType\022\'\n\tstatement\030\003 " +
-      "\001(\0132\024.boa.types.Statement\022)\n\nexpression\030" +
-      "\004 \001(\0132\025.boa.types.Expression\"<\n\013CFGNodeT" +
-      "ype\022\t\n\005ENTRY\020\001\022\t\n\005OTHER\020\002\022\n\n\006METHOD\020\003\022\013\n" +
-      "\007CONTROL\020\004\"\220\001\n\007CFGEdge\022.\n\005label\030\001 \002(\0162\037." +
-      "boa.types.CFGEdge.CFGEdgeLabel\"U\n\014CFGEdg",
-      "eLabel\022\007\n\003NIL\020\001\022\013\n\007DEFAULT\020\002\022\010\n\004TRUE\020\003\022\t" +
-      "\n\005FALSE\020\004\022\014\n\010BACKEDGE\020\005\022\014\n\010EXITEDGE\020\006B\002H" +
-      "\001"
+      "\n\rcontrol.proto\022\tboa.types\032\tast.proto\"\301\001" +
+      "\n\003CFG\022!\n\005nodes\030\001 \003(\0132\022.boa.types.CFGNode" +
+      "\022!\n\005edges\030\002 \003(\0132\022.boa.types.CFGEdge\022\035\n\021s" +
+      "uccessor_offsets\030\003 \003(\005B\002\020\001\022\026\n\nsuccessors" +
+      "\030\004 \003(\005B\002\020\001\022=\n\020successor_labels\030\005 \003(\0162\037.b" +
+      "oa.types.CFGEdge.CFGEdgeLabelB\002\020\001\"\325\001\n\007CF" +
+      "GNode\022\n\n\002id\030\001 \002(\005\022,\n\004type\030\002 \002(\0162\036.boa.ty" +
+      "pes.CFGNode.CFGNodeType\022\'\n\tstatement\030\003 \001" +
+      "(\0132\024.boa.types.Statement\022)\n\nexpression\030\004" +
+      " \001(\0132\025.boa.types.Expression\"<\n\013CFGNodeTy",
+      "pe\022\t\n\005ENTRY\020\001\022\t\n\005OTHER\020\002\022\n\n\006METHOD\020\003\022\013\n\007" +
+      "CONTROL\020\004\"\220\001\n\007CFGEdge\022.\n\005label\030\001 \002(\0162\037.b" +
+      "oa.types.CFGEdge.CFGEdgeLabel\"U\n\014CFGEdge" +
+      "Label\022\007\n\003NIL\020\001\022\013\n\007DEFAULT\020\002\022\010\n\004TRUE\020\003\022\t\n" +
+      "\005FALSE\020\004\022\014\n\010BACKEDGE\020\005\022\014\n\010EXITEDGE\020\006B\002H\001"
     };
     com.google.protobuf.Descriptors.FileDescriptor.InternalDescriptorAssigner assigner =
       new com.google.protobuf.Descriptors.FileDescriptor.InternalDescriptorAssigner() {
@@ -2973,7 +3650,7 @@ public final class Control {
           internal_static_boa_types_CFG_fieldAccessorTable = new
             com.google.protobuf.GeneratedMessage.FieldAccessorTable(
               internal_static_boa_types_CFG_descriptor,
-              new java.lang.String[] { "Nodes", "Edges", });
+              new java.lang.String[] { "Nodes", "Edges", "SuccessorOffsets", "Successors", "SuccessorLabels", });
           internal_static_boa_types_CFGNode_descriptor =
             getDescriptor().getMessageTypes().get(1);
           internal_static_boa_types_CFGNode_fieldAccessorTable = new
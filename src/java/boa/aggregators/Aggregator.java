@@ -23,8 +23,8 @@ import boa.io.EmitKey;
 import boa.io.EmitValue;
 
 import org.apache.hadoop.mapreduce.Reducer.Context;
+import org.apache.hadoop.mapreduce.lib.output.MultipleOutputs;
 import org.apache.hadoop.io.Text;
-import org.apache.hadoop.io.NullWritable;
 
 /**
  * The base class for all Boa aggregators.
@@ -37,6 +37,8 @@ public abstract class Aggregator {
 	private long arg;
 	@SuppressWarnings("rawtypes")
 	private Context context;
+	@SuppressWarnings("rawtypes")
+	private MultipleOutputs outputs;
 	private EmitKey key;
 	private boolean combining;
 	private String optionArg;
@@ -112,9 +114,9 @@ public abstract class Aggregator {
 		if (this.combining)
 			this.getContext().write(this.getKey(), new EmitValue(data, metadata));
 		else if (metadata != null)
-			this.getContext().write(new Text(this.getKey() + " = " + data + " weight " + metadata), NullWritable.get());
+			this.getContext().write(new Text(this.getKey().toString()), new Text(data + " weight " + metadata));
 		else
-			this.getContext().write(new Text(this.getKey() + " = " + data), NullWritable.get());
+			this.getContext().write(new Text(this.getKey().toString()), new Text(data));
 	}
 
 	protected void collect(final String data) throws IOException, InterruptedException {
@@ -143,6 +145,16 @@ public abstract class Aggregator {
 		// do nothing by default
 	}
 
+	/**
+	 * Whether the result for the current key is decided, so no more values
+	 * for it need to be aggregated (or sent on from a combiner).
+	 * 
+	 * @return true if more values can not change the result
+	 */
+	public boolean isSaturated() {
+		return false;
+	}
+
 	public long getArg() {
 		return this.arg;
 	}
@@ -151,6 +163,18 @@ public abstract class Aggregator {
 		this.context = context;
 	}
 
+	/**
+	 * Sets where aggregators write output that is not lines of text.
+	 */
+	public void setOutputs(@SuppressWarnings("rawtypes") final MultipleOutputs outputs) {
+		this.outputs = outputs;
+	}
+
+	@SuppressWarnings("rawtypes")
+	public MultipleOutputs getOutputs() {
+		return this.outputs;
+	}
+
 	public boolean isCombining() {
 		return this.combining;
 	}
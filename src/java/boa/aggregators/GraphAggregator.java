@@ -16,53 +16,167 @@
  */
 package boa.aggregators;
 
-import java.util.*;
 import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Arrays;
 
 import org.apache.hadoop.io.NullWritable;
 import org.apache.hadoop.io.Text;
 
 import boa.io.EmitKey;
-import boa.io.EmitValue;
 
 
 /**
  * The base class for all graph output aggregators.
+ *
+ * The neighbors of a key are kept once each, as quoted UTF-8 bytes, in a
+ * table of their 64 bit hashes.  Output lines are written into one reused
+ * {@link Text}.
  * 
  * @author rdyer
  */
 public abstract class GraphAggregator extends Aggregator {
-	protected Set<String> neighbors;
-	protected Map<String,String> weights;
+	protected static final Charset UTF8 = Charset.forName("UTF-8");
+
+	// the current key, quoted
+	protected byte[] node;
+
+	// the neighbors of the current key, in the order they were first seen, and their last weights
+	protected int size;
+	protected byte[][] neighbors = new byte[16][];
+	protected String[] weights = new String[16];
+	protected long[] hashes = new long[16];
+
+	// open addressed, holding index + 1 of each neighbor, and the slot each neighbor is in
+	private int[] table = new int[32];
+	private int[] slots = new int[16];
+
+	// a key with more neighbors than this leaves its arrays behind instead of clearing them
+	private static final int MAX_KEPT = 1 << 12;
+
+	private final Text line = new Text();
 
 	/** {@inheritDoc} */
 	@Override
 	public void start(final EmitKey key) {
 		super.start(key);
 
-		this.neighbors = new HashSet<String>();
-		this.weights = new HashMap<String,String>();
+		final String idx = key.getIndex();
+		this.node = quote(idx.substring(1, idx.length() - 1));
+
+		if (this.size > MAX_KEPT) {
+			this.neighbors = new byte[16][];
+			this.weights = new String[16];
+			this.hashes = new long[16];
+			this.table = new int[32];
+			this.slots = new int[16];
+		} else {
+			// only the slots in use need clearing
+			for (int i = 0; i < this.size; i++)
+				this.table[this.slots[i]] = 0;
+			Arrays.fill(this.neighbors, 0, this.size, null);
+			Arrays.fill(this.weights, 0, this.size, null);
+		}
+		this.size = 0;
 	}
 
 	/** {@inheritDoc} */
 	@Override
 	public void aggregate(final String data, final String metadata) throws IOException, InterruptedException, FinishedException {
-		final String neighbor = data.startsWith("\"") ? data : "\"" + data + "\"";
-		this.neighbors.add(neighbor);
-		final String weight = metadata == null ? null : (metadata.startsWith("\"") ? metadata : "\"" + metadata + "\"");
-		this.weights.put(neighbor, weight);
+		final byte[] neighbor = data.startsWith("\"") ? data.getBytes(UTF8) : quote(data);
+		final long hash = hash(neighbor);
+
+		int mask = this.table.length - 1;
+		int slot = (int) (hash ^ (hash >>> 32)) & mask;
+		for (int i = this.table[slot]; i != 0; i = this.table[slot]) {
+			if (this.hashes[i - 1] == hash && Arrays.equals(this.neighbors[i - 1], neighbor)) {
+				this.weights[i - 1] = metadata;
+				return;
+			}
+			slot = (slot + 1) & mask;
+		}
+
+		if (this.size == this.neighbors.length) {
+			this.neighbors = Arrays.copyOf(this.neighbors, this.size * 2);
+			this.weights = Arrays.copyOf(this.weights, this.size * 2);
+			this.hashes = Arrays.copyOf(this.hashes, this.size * 2);
+			this.slots = Arrays.copyOf(this.slots, this.size * 2);
+		}
+		this.neighbors[this.size] = neighbor;
+		this.weights[this.size] = metadata;
+		this.hashes[this.size] = hash;
+		this.slots[this.size] = slot;
+		this.table[slot] = ++this.size;
+
+		// keep the table at most half full
+		if (this.size * 2 > this.table.length) {
+			this.table = new int[this.table.length * 2];
+			mask = this.table.length - 1;
+			for (int i = 0; i < this.size; i++) {
+				slot = (int) (this.hashes[i] ^ (this.hashes[i] >>> 32)) & mask;
+				while (this.table[slot] != 0)
+					slot = (slot + 1) & mask;
+				this.table[slot] = i + 1;
+				this.slots[i] = slot;
+			}
+		}
 	}
 
 	/** {@inheritDoc} */
 	@Override
-	@SuppressWarnings("unchecked")
-	protected void collect(final String data, final String metadata) throws IOException, InterruptedException {
+	public void finish() throws IOException, InterruptedException {
+		// combiners pass on each neighbor, so reducers can drop the duplicates
 		if (this.isCombining()) {
-			this.getContext().write(this.getKey(), new EmitValue(data, metadata));
+			for (int i = 0; i < this.size; i++)
+				this.collect(new String(this.neighbors[i], UTF8), this.weights[i]);
 			return;
 		}
-		this.getContext().write(new Text(format(this.getKey().getIndex(), data, metadata)), NullWritable.get());
+
+		this.write();
+	}
+
+	/**
+	 * Writes the current key's edges.
+	 */
+	protected abstract void write() throws IOException, InterruptedException;
+
+	/**
+	 * Starts an output line, to {@link #append(byte[])} to and then {@link #writeLine()}.
+	 */
+	protected void newLine() {
+		this.line.clear();
+	}
+
+	protected void append(final byte[] b) {
+		this.line.append(b, 0, b.length);
 	}
 
-	protected abstract String format(final String idx, final String data, final String metadata);
+	@SuppressWarnings("unchecked")
+	protected void writeLine() throws IOException, InterruptedException {
+		this.getContext().write(this.line, NullWritable.get());
+	}
+
+	/**
+	 * @return the UTF-8 bytes of a string in quotes
+	 */
+	protected static byte[] quote(final String s) {
+		final byte[] b = s.getBytes(UTF8);
+		final byte[] q = new byte[b.length + 2];
+		q[0] = '"';
+		System.arraycopy(b, 0, q, 1, b.length);
+		q[q.length - 1] = '"';
+		return q;
+	}
+
+	/**
+	 * @return the 64 bit FNV-1a hash of some bytes
+	 */
+	protected static long hash(final byte[] b) {
+		long h = 0xcbf29ce484222325L;
+		for (final byte c : b) {
+			h ^= c & 0xff;
+			h *= 0x100000001b3L;
+		}
+		return h;
+	}
 }
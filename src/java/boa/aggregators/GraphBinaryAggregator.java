@@ -0,0 +1,117 @@
+/*
+ * Copyright 2015, Hridesh Rajan, Robert Dyer, 
+ *                 and Iowa State University of Science and Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package boa.aggregators;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.hadoop.io.BytesWritable;
+import org.apache.hadoop.io.Text;
+
+
+/**
+ * A Boa aggregator to output graph data as a binary edge list, for graphs
+ * too large to output as text.  The edges are kept out of the text output,
+ * in sequence files of their own (the {@link #OUTPUT} named output), whose
+ * keys are the names of the tables and whose values are the edges.
+ *
+ * Each edge is the ids of its source and destination and its weight, in 24
+ * bytes.  A node's id is the 64 bit hash of its quoted name, so ids agree
+ * across reducers and with the names output by other aggregators.  Ids and
+ * weights are big-endian longs and doubles.  An edge with no weight weighs
+ * 1, and one whose weight is not a number weighs NaN.
+ *
+ * The names of the nodes are in the {@link #NAMES} named output, keyed the
+ * same way, as a node's id followed by its quoted UTF-8 name.  Each reducer
+ * names every node it writes an edge for once, so a node may be named by
+ * more than one reducer, always with the same id.
+ * 
+ * @author agent
+ */
+@AggregatorSpec(name = "binarygraph", weightType = "any", canCombine = true)
+public class GraphBinaryAggregator extends GraphAggregator {
+	/**
+	 * The name of the output the edges are written to.
+	 */
+	public static final String OUTPUT = "binarygraph";
+
+	/**
+	 * The name of the output the names of the nodes are written to.
+	 */
+	public static final String NAMES = "binarygraphnames";
+
+	private final byte[] edge = new byte[24];
+	private final BytesWritable value = new BytesWritable(edge);
+	private final BytesWritable name = new BytesWritable();
+	private final Text table = new Text();
+
+	// the ids of the nodes this reducer has named
+	private final Set<Long> named = new HashSet<Long>();
+
+	/** {@inheritDoc} */
+	@SuppressWarnings("unchecked")
+	@Override
+	protected void write() throws IOException, InterruptedException {
+		this.table.set(this.getKey().getName());
+
+		final long id = hash(this.node);
+		writeName(id, this.node);
+
+		putLong(this.edge, 0, id);
+		for (int i = 0; i < this.size; i++) {
+			writeName(this.hashes[i], this.neighbors[i]);
+
+			putLong(this.edge, 8, this.hashes[i]);
+			putLong(this.edge, 16, Double.doubleToLongBits(weight(this.weights[i])));
+
+			this.getOutputs().write(OUTPUT, this.table, this.value);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void writeName(final long id, final byte[] node) throws IOException, InterruptedException {
+		if (!this.named.add(id))
+			return;
+
+		this.name.setSize(8 + node.length);
+		final byte[] b = this.name.getBytes();
+		putLong(b, 0, id);
+		System.arraycopy(node, 0, b, 8, node.length);
+
+		this.getOutputs().write(NAMES, this.table, this.name);
+	}
+
+	private static void putLong(final byte[] b, final int offset, long l) {
+		for (int i = offset + 7; i >= offset; i--) {
+			b[i] = (byte) l;
+			l >>>= 8;
+		}
+	}
+
+	private static double weight(String w) {
+		if (w == null)
+			return 1;
+		if (w.length() >= 2 && w.startsWith("\"") && w.endsWith("\""))
+			w = w.substring(1, w.length() - 1);
+		try {
+			return Double.parseDouble(w);
+		} catch (final NumberFormatException e) {
+			return Double.NaN;
+		}
+	}
+}
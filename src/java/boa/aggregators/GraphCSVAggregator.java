@@ -16,7 +16,6 @@
  */
 package boa.aggregators;
 
-import java.util.*;
 import java.io.IOException;
 
 
@@ -27,25 +26,17 @@ import java.io.IOException;
  */
 @AggregatorSpec(name = "graph", canCombine = true)
 public class GraphCSVAggregator extends GraphAggregator {
-	/** {@inheritDoc} */
-	@Override
-	public void finish() throws IOException, InterruptedException {
-		this.collect(toString(this.neighbors));
-	}
-
-	private String toString(final Set<String> set) {
-		String str = "";
-		for (final String s : set) {
-			if (!str.isEmpty())
-				str += ",";
-			str += s;
-		}
-		return str;
-	}
+	private static final byte[] COMMA = { ',' };
 
 	/** {@inheritDoc} */
 	@Override
-	protected String format(final String idx, final String data, final String metadata) {
-		return "\"" + idx.substring(1, idx.length() - 1)  + "\"," + data + "";
+	protected void write() throws IOException, InterruptedException {
+		this.newLine();
+		this.append(this.node);
+		for (int i = 0; i < this.size; i++) {
+			this.append(COMMA);
+			this.append(this.neighbors[i]);
+		}
+		this.writeLine();
 	}
 }
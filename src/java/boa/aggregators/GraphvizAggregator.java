@@ -26,18 +26,27 @@ import java.io.IOException;
  */
 @AggregatorSpec(name = "graphviz", weightType = "any", canCombine = true)
 public class GraphvizAggregator extends GraphAggregator {
-	/** {@inheritDoc} */
-	@Override
-	public void finish() throws IOException, InterruptedException {
-		for (final String s : this.neighbors)
-			this.collect(s, weights.get(s));
-	}
+	private static final byte[] ARROW = " -> ".getBytes(UTF8);
+	private static final byte[] LABEL = " [label=".getBytes(UTF8);
+	private static final byte[] END = ";".getBytes(UTF8);
+	private static final byte[] END_LABEL = "];".getBytes(UTF8);
 
 	/** {@inheritDoc} */
 	@Override
-	protected String format(final String idx, final String data, final String metadata) {
-		if (metadata == null)
-			return "\"" + idx.substring(1, idx.length() - 1)  + "\" -> " + data + ";";
-		return "\"" + idx.substring(1, idx.length() - 1)  + "\" -> " + data + " [label=" + metadata + "];";
+	protected void write() throws IOException, InterruptedException {
+		for (int i = 0; i < this.size; i++) {
+			this.newLine();
+			this.append(this.node);
+			this.append(ARROW);
+			this.append(this.neighbors[i]);
+			if (this.weights[i] == null) {
+				this.append(END);
+			} else {
+				this.append(LABEL);
+				this.append(this.weights[i].startsWith("\"") ? this.weights[i].getBytes(UTF8) : quote(this.weights[i]));
+				this.append(END_LABEL);
+			}
+			this.writeLine();
+		}
 	}
 }
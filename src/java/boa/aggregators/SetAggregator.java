@@ -72,6 +72,13 @@ public class SetAggregator extends Aggregator {
 		this.set.add(data);
 	}
 
+	/** {@inheritDoc} */
+	@Override
+	public boolean isSaturated() {
+		// any values will do, so once it is full there is no need for more
+		return this.set.size() >= this.max;
+	}
+
 	/** {@inheritDoc} */
 	@Override
 	public void finish() throws IOException, InterruptedException {
@@ -28,7 +28,14 @@ import java.net.URL;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.jar.JarOutputStream;
 import java.util.zip.ZipEntry;
 
@@ -47,11 +54,13 @@ import org.scannotation.ClasspathUrlFinder;
 
 import boa.compiler.ast.Program;
 import boa.compiler.ast.Start;
+import boa.compiler.transforms.DeadCodeEliminationTransformer;
 import boa.compiler.transforms.LocalAggregationTransformer;
 import boa.compiler.transforms.VisitorMergingTransformer;
 import boa.compiler.transforms.VisitorOptimizingTransformer;
 import boa.compiler.visitors.AbstractCodeGeneratingVisitor;
 import boa.compiler.visitors.CodeGeneratingVisitor;
+import boa.compiler.visitors.ColumnFindingVisitor;
 import boa.compiler.visitors.TaskClassifyingVisitor;
 import boa.compiler.visitors.TypeCheckingVisitor;
 import boa.compiler.listeners.BoaErrorListener;
@@ -97,6 +106,14 @@ public class BoaCompiler {
 		else
 			jarName = className + ".jar";
 
+		// reuse the jar from an earlier compile of the same program, if possible
+		final CompileCache cache = getCache(cl);
+		final String programKey = cache == null ? null : cache.programKey(className, inputFiles);
+		if (cache != null && cache.restoreJar(programKey, new File(jarName))) {
+			LOG.info("using cached compile of " + className);
+			return;
+		}
+
 		// make the output directory
 		final File outputRoot = new File(new File(System.getProperty("java.io.tmpdir")), UUID.randomUUID().toString());
 		final File outputSrcDir = new File(outputRoot, "boa");
@@ -109,73 +126,44 @@ public class BoaCompiler {
 			for (final String lib : cl.getOptionValues('l'))
 				libs.add(new File(lib).toURI().toURL());
 
+		// a jar missing some of the inputs must not be reused for all of them
+		boolean allChecked = true;
+
 		final File outputFile = new File(outputSrcDir, className + ".java");
 		final BufferedOutputStream o = new BufferedOutputStream(new FileOutputStream(outputFile));
 		try {
 			final List<String> jobnames = new ArrayList<String>();
 			final List<String> jobs = new ArrayList<String>();
+			final List<String> combineTables = new ArrayList<String>();
+			final List<String> reduceTables = new ArrayList<String>();
 			boolean isSimple = true;
+			// the project fields every job reads, or null if any job needs whole projects
+			Set<String> columns = new TreeSet<String>();
 
 			final List<Program> visitorPrograms = new ArrayList<Program>();
 
 			SymbolTable.initialize(libs);
 
-			for (int i = 0; i < inputFiles.size(); i++) {
-				final File f = inputFiles.get(i);
-				try {
-					final BoaLexer lexer = new BoaLexer(new ANTLRFileStream(f.getAbsolutePath()));
-					lexer.removeErrorListeners();
-					lexer.addErrorListener(new LexerErrorListener());
-
-					final CommonTokenStream tokens = new CommonTokenStream(lexer);
-					final BoaParser parser = new BoaParser(tokens);
-					parser.removeErrorListeners();
-					parser.addErrorListener(new BaseErrorListener() {
-						@Override
-						public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line, int charPositionInLine, String msg, RecognitionException e) throws ParseCancellationException {
-							throw new ParseCancellationException(e);
-						}
-					});
-
-					final BoaErrorListener parserErrorListener = new ParserErrorListener();
-					Start p = parse(tokens, parser, parserErrorListener);
-
-					final String jobName = "" + i;
-
-					try {
-						if (!parserErrorListener.hasError) {
-							new TypeCheckingVisitor().start(p, new SymbolTable());
-							final TaskClassifyingVisitor simpleVisitor = new TaskClassifyingVisitor();
-							simpleVisitor.start(p);
-
-							LOG.info(f.getName() + ": task complexity: " + (!simpleVisitor.isComplex() ? "simple" : "complex"));
-							isSimple &= !simpleVisitor.isComplex();
-
-							new LocalAggregationTransformer().start(p);
-
-							// if a job has no visitor, let it have its own method
-							// also let jobs have own methods if visitor merging is disabled
-							if (!simpleVisitor.isComplex() || cl.hasOption("nv") || inputFiles.size() == 1) {
-								new VisitorOptimizingTransformer().start(p);
-
-								final CodeGeneratingVisitor cg = new CodeGeneratingVisitor(jobName);
-								cg.start(p);
-								jobs.add(cg.getCode());
+			// results come back in input order, regardless of which finished first
+			for (final CompilationUnit unit : compileUnits(cl, inputFiles, cache, "compilation failed")) {
+				if (!unit.isChecked()) {
+					allChecked = false;
+					continue;
+				}
 
-								jobnames.add(jobName);
-							}
-							// if a job has visitors, fuse them all together into a single program
-							else {
-								p.getProgram().jobName = jobName;
-								visitorPrograms.add(p.getProgram());
-							}
-						}
-					} catch (final TypeCheckException e) {
-						parserErrorListener.error("typecheck", lexer, null, e.n.beginLine, e.n.beginColumn, e.n2.endColumn - e.n.beginColumn + 1, e.getMessage(), e);
-					}
-				} catch (final Exception e) {
-					System.err.print(f.getName() + ": compilation failed: ");
-					e.printStackTrace();
+				isSimple &= !unit.isComplex();
+				if (columns != null && unit.getColumns() != null)
+					columns.addAll(unit.getColumns());
+				else
+					columns = null;
+
+				if (unit.getCode() != null) {
+					jobs.add(unit.getCode());
+					jobnames.add(unit.getJobName());
+					combineTables.addAll(unit.getCombineTables());
+					reduceTables.addAll(unit.getReduceTables());
+				} else if (unit.getProgram() != null) {
+					visitorPrograms.add(unit.getProgram());
 				}
 			}
 
@@ -193,7 +181,9 @@ public class BoaCompiler {
 						final CodeGeneratingVisitor cg = new CodeGeneratingVisitor(p.jobName);
 						cg.start(p);
 						jobs.add(cg.getCode());
-		
+						combineTables.addAll(cg.getCombineAggregatorStrings());
+						reduceTables.addAll(cg.getReduceAggregatorStrings());
+
 						jobnames.add(p.jobName);
 					}
 				} catch (final Exception e) {
@@ -206,6 +196,8 @@ public class BoaCompiler {
 						final CodeGeneratingVisitor cg = new CodeGeneratingVisitor(p.jobName);
 						cg.start(p);
 						jobs.add(cg.getCode());
+						combineTables.addAll(cg.getCombineAggregatorStrings());
+						reduceTables.addAll(cg.getReduceAggregatorStrings());
 
 						jobnames.add(p.jobName);
 					}
@@ -220,9 +212,17 @@ public class BoaCompiler {
 			st.add("numreducers", inputFiles.size());
 			st.add("jobs", jobs);
 			st.add("jobnames", jobnames);
-			st.add("combineTables", CodeGeneratingVisitor.combineAggregatorStrings);
-			st.add("reduceTables", CodeGeneratingVisitor.reduceAggregatorStrings);
+			st.add("combineTables", combineTables);
+			st.add("reduceTables", reduceTables);
 			st.add("splitsize", isSimple ? 64 * 1024 * 1024 : 10 * 1024 * 1024);
+			if (columns != null) {
+				// the key is always read
+				columns.add("Project.id");
+				final StringBuilder sb = new StringBuilder();
+				for (final String column : columns)
+					sb.append(sb.length() == 0 ? "" : ",").append(column);
+				st.add("columns", sb.toString());
+			}
 
 			o.write(st.render().getBytes());
 		} finally {
@@ -230,6 +230,11 @@ public class BoaCompiler {
 		}
 
 		compileGeneratedSrc(cl, jarName, outputRoot, outputFile);
+
+		if (cache != null && allChecked)
+			cache.storeJar(programKey, new File(jarName));
+
+		delete(outputRoot);
 	}
 	
 	public static void parseOnly(final String[] args) throws IOException {
@@ -243,16 +248,85 @@ public class BoaCompiler {
 			for (final String lib : cl.getOptionValues('l'))
 				libs.add(new File(lib).toURI().toURL());
 
-		final List<String> jobnames = new ArrayList<String>();
-		final List<String> jobs = new ArrayList<String>();
-		boolean isSimple = true;
+		SymbolTable.initialize(libs);
 
-		final List<Program> visitorPrograms = new ArrayList<Program>();
+		compileUnits(cl, inputFiles, null, "parsing failed");
+	}
 
-		SymbolTable.initialize(libs);
+	/**
+	 * Runs the front end over every input file on a thread pool.  The
+	 * returned units are in the same order as the input files, so the
+	 * generated jobs and tables do not depend on thread scheduling.
+	 */
+	private static List<CompilationUnit> compileUnits(final CommandLine cl, final List<File> inputFiles, final CompileCache cache, final String failureMessage) throws IOException {
+		// if a job has no visitor, let it have its own method
+		// also let jobs have own methods if visitor merging is disabled
+		final boolean standalone = cl.hasOption("nv") || inputFiles.size() == 1;
+		final boolean eliminateDeadCode = !cl.hasOption("nd");
+
+		int threads = Runtime.getRuntime().availableProcessors();
+		if (cl.hasOption('t'))
+			threads = Integer.parseInt(cl.getOptionValue('t'));
+		threads = Math.max(1, Math.min(threads, inputFiles.size()));
+
+		final ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try {
+			final List<Future<CompilationUnit>> futures = new ArrayList<Future<CompilationUnit>>();
+			for (int i = 0; i < inputFiles.size(); i++)
+				futures.add(pool.submit(new CompilationUnit(inputFiles.get(i), "" + i, standalone, eliminateDeadCode, cache, failureMessage)));
+
+			final List<CompilationUnit> units = new ArrayList<CompilationUnit>();
+			for (final Future<CompilationUnit> future : futures)
+				try {
+					units.add(future.get());
+				} catch (final ExecutionException e) {
+					throw new RuntimeException(e.getCause());
+				} catch (final InterruptedException e) {
+					throw new IOException("interrupted while compiling", e);
+				}
+			return units;
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Lexes, parses, type checks and classifies a single input file, and
+	 * generates its code unless it will be fused with other visitor jobs.
+	 * All state lives in the unit itself, so units can run concurrently.
+	 */
+	private static class CompilationUnit implements Callable<CompilationUnit> {
+		private final File f;
+		private final String jobName;
+		private final boolean standalone;
+		private final boolean eliminateDeadCode;
+		private final CompileCache cache;
+		private final String failureMessage;
+
+		private boolean checked = false;
+		private boolean complex = false;
+		private Program program;
+		private String code;
+		private List<String> combineTables;
+		private List<String> reduceTables;
+		private List<String> columns;
+
+		public CompilationUnit(final File f, final String jobName, final boolean standalone, final boolean eliminateDeadCode, final CompileCache cache, final String failureMessage) {
+			this.f = f;
+			this.jobName = jobName;
+			this.standalone = standalone;
+			this.eliminateDeadCode = eliminateDeadCode;
+			this.cache = cache;
+			this.failureMessage = failureMessage;
+		}
+
+		/** {@inheritDoc} */
+		@Override
+		public CompilationUnit call() {
+			final String key = cacheKey();
+			if (key != null && loadCached(key))
+				return this;
 
-		for (int i = 0; i < inputFiles.size(); i++) {
-			final File f = inputFiles.get(i);
 			try {
 				final BoaLexer lexer = new BoaLexer(new ANTLRFileStream(f.getAbsolutePath()));
 				lexer.removeErrorListeners();
@@ -271,44 +345,124 @@ public class BoaCompiler {
 				final BoaErrorListener parserErrorListener = new ParserErrorListener();
 				Start p = parse(tokens, parser, parserErrorListener);
 
-				final String jobName = "" + i;
-
 				try {
 					if (!parserErrorListener.hasError) {
 						new TypeCheckingVisitor().start(p, new SymbolTable());
-
+						if (this.eliminateDeadCode)
+							new DeadCodeEliminationTransformer().start(p);
 						final TaskClassifyingVisitor simpleVisitor = new TaskClassifyingVisitor();
 						simpleVisitor.start(p);
 
 						LOG.info(f.getName() + ": task complexity: " + (!simpleVisitor.isComplex() ? "simple" : "complex"));
-						isSimple &= !simpleVisitor.isComplex();
+						this.complex = simpleVisitor.isComplex();
+						this.checked = true;
+
+						final ColumnFindingVisitor columnFinder = new ColumnFindingVisitor();
+						columnFinder.start(p);
+						if (!this.complex && columnFinder.isMetadataOnly())
+							this.columns = new ArrayList<String>(columnFinder.getColumns());
 
 						new LocalAggregationTransformer().start(p);
 
-						// if a job has no visitor, let it have its own method
-						// also let jobs have own methods if visitor merging is disabled
-						if (!simpleVisitor.isComplex() || cl.hasOption("nv") || inputFiles.size() == 1) {
+						if (!this.complex || this.standalone) {
 							new VisitorOptimizingTransformer().start(p);
 
 							final CodeGeneratingVisitor cg = new CodeGeneratingVisitor(jobName);
 							cg.start(p);
-							jobs.add(cg.getCode());
+							this.code = cg.getCode();
+							this.combineTables = cg.getCombineAggregatorStrings();
+							this.reduceTables = cg.getReduceAggregatorStrings();
 
-							jobnames.add(jobName);
+							if (key != null)
+								storeCached(key);
 						}
 						// if a job has visitors, fuse them all together into a single program
 						else {
 							p.getProgram().jobName = jobName;
-							visitorPrograms.add(p.getProgram());
+							this.program = p.getProgram();
 						}
 					}
 				} catch (final TypeCheckException e) {
 					parserErrorListener.error("typecheck", lexer, null, e.n.beginLine, e.n.beginColumn, e.n2.endColumn - e.n.beginColumn + 1, e.getMessage(), e);
 				}
 			} catch (final Exception e) {
-				System.err.print(f.getName() + ": parsing failed: ");
+				System.err.print(f.getName() + ": " + failureMessage + ": ");
 				e.printStackTrace();
 			}
+
+			return this;
+		}
+
+		private String cacheKey() {
+			if (this.cache == null)
+				return null;
+			try {
+				return this.cache.unitKey(f, jobName, standalone);
+			} catch (final IOException e) {
+				LOG.warn(f.getName() + ": unable to use compile cache", e);
+				return null;
+			}
+		}
+
+		private boolean loadCached(final String key) {
+			final CompileCache.CachedUnit unit;
+			try {
+				unit = this.cache.loadUnit(key);
+			} catch (final IOException e) {
+				LOG.warn(f.getName() + ": unable to read compile cache", e);
+				return false;
+			}
+			if (unit == null)
+				return false;
+
+			LOG.info(f.getName() + ": using cached code");
+			this.checked = true;
+			this.complex = unit.complex;
+			this.code = unit.code;
+			this.combineTables = unit.combineTables;
+			this.reduceTables = unit.reduceTables;
+			this.columns = unit.columns;
+			return true;
+		}
+
+		private void storeCached(final String key) {
+			try {
+				this.cache.storeUnit(key, this.complex, this.code, this.combineTables, this.reduceTables, this.columns);
+			} catch (final IOException e) {
+				LOG.warn(f.getName() + ": unable to write compile cache", e);
+			}
+		}
+
+		public String getJobName() {
+			return this.jobName;
+		}
+
+		public boolean isChecked() {
+			return this.checked;
+		}
+
+		public boolean isComplex() {
+			return this.complex;
+		}
+
+		public Program getProgram() {
+			return this.program;
+		}
+
+		public String getCode() {
+			return this.code;
+		}
+
+		public List<String> getCombineTables() {
+			return this.combineTables;
+		}
+
+		public List<String> getReduceTables() {
+			return this.reduceTables;
+		}
+
+		public List<String> getColumns() {
+			return this.columns;
 		}
 	}
 	
@@ -357,8 +511,25 @@ public class BoaCompiler {
 				libJars.add(new File(s));
 
 		generateJar(jarName, outputRoot, libJars);
+	}
 
-		delete(outputRoot);
+	private static CompileCache getCache(final CommandLine cl) throws IOException {
+		if (!cl.hasOption('c'))
+			return null;
+
+		long maxSize = 1024;
+		if (cl.hasOption("cs"))
+			maxSize = Long.parseLong(cl.getOptionValue("cs"));
+
+		final List<File> libs = new ArrayList<File>();
+		if (cl.hasOption('l'))
+			for (final String lib : cl.getOptionValues('l'))
+				libs.add(new File(lib));
+
+		// only options that change the generated code belong in the key
+		final String options = "nv=" + cl.hasOption("nv") + " v=" + cl.getOptionValue('v') + " nd=" + cl.hasOption("nd");
+
+		return new CompileCache(new File(cl.getOptionValue('c')), maxSize * 1024 * 1024, libs, options);
 	}
 
 	static ArrayList<File> inputFiles = null; 
@@ -370,7 +541,11 @@ public class BoaCompiler {
 		options.addOption("o", "out", true, "the name of the resulting jar");
 		options.addOption("nv", "no-visitor-fusion", false, "disable visitor fusion");
 		options.addOption("v", "visitors-fused", true, "number of visitors to fuse");
+		options.addOption("nd", "no-dead-code", false, "disable dead code elimination");
 		options.addOption("n", "name", true, "the name of the generated main class");
+		options.addOption("t", "threads", true, "number of threads used to compile the input files");
+		options.addOption("c", "cache", true, "directory to cache compiled programs in");
+		options.addOption("cs", "cache-size", true, "maximum size of the cache, in megabytes (default 1024)");
 
 		final CommandLine cl;
 		try {
@@ -410,6 +585,7 @@ public class BoaCompiler {
 		final Options options = new Options();
 		options.addOption("l", "libs", true, "extra jars (functions/aggregators) to be compiled in");
 		options.addOption("i", "in", true, "file(s) to be parsed (comma-separated list)");
+		options.addOption("t", "threads", true, "number of threads used to parse the input files");
 
 		final CommandLine cl;
 		try {
@@ -0,0 +1,401 @@
+/*
+ * Copyright 2015, Anthony Urso, Hridesh Rajan, Robert Dyer,
+ *                 and Iowa State University of Science and Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package boa.compiler;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import org.apache.log4j.Logger;
+
+/**
+ * A content-addressed cache of compiler output.
+ *
+ * Whole programs are keyed by the compiler version, the checksums of any
+ * libraries, the compiler options that change the output and the text of
+ * every input file.  A hit restores the jar without running the compiler.
+ *
+ * The generated code for each job is also cached on its own, keyed by the
+ * text of its input file, so a multi-file compile only regenerates the jobs
+ * whose files changed.  Jobs that get fused with other visitor jobs are not
+ * cached, as fusion needs their syntax trees.
+ *
+ * When the cache grows past its size limit, the least recently used entries
+ * are evicted.
+ *
+ * @author agent
+ */
+public class CompileCache {
+	private static Logger LOG = Logger.getLogger(CompileCache.class);
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	// the code generation templates, which are part of the compiler
+	private static final String[] TEMPLATES = { "templates/BoaJavaHadoop.stg", "templates/BoaJava.stg" };
+
+	private final File dir;
+	private final long maxSize;
+	private final String baseKey;
+
+	/**
+	 * Creates a compile cache.
+	 *
+	 * @param dir the directory holding the cache
+	 * @param maxSize the size (in bytes) to evict the cache down to
+	 * @param libs the user libraries being compiled in
+	 * @param options any compiler options that change the generated code
+	 */
+	public CompileCache(final File dir, final long maxSize, final List<File> libs, final String options) throws IOException {
+		this.dir = dir;
+		this.maxSize = maxSize;
+
+		if (!dir.isDirectory() && !dir.mkdirs())
+			throw new IOException("unable to mkdir " + dir);
+
+		final StringBuilder sb = new StringBuilder(compilerVersion());
+		for (final File lib : libs)
+			sb.append('\n').append(SymbolTableIndex.checksum(lib));
+		sb.append('\n').append(options);
+		this.baseKey = sb.toString();
+	}
+
+	/**
+	 * Computes the key for an entire program.
+	 *
+	 * @param className the name of the generated class
+	 * @param inputFiles all input files, in order
+	 * @return the cache key
+	 */
+	public String programKey(final String className, final List<File> inputFiles) throws IOException {
+		final MessageDigest digest = newDigest();
+		update(digest, this.baseKey);
+		update(digest, className);
+		for (final File f : inputFiles)
+			update(digest, f);
+		return toHex(digest.digest());
+	}
+
+	/**
+	 * Computes the key for a single job.
+	 *
+	 * @param f the job's input file
+	 * @param jobName the name of the job
+	 * @param standalone whether the job always gets its own method
+	 * @return the cache key
+	 */
+	public String unitKey(final File f, final String jobName, final boolean standalone) throws IOException {
+		final MessageDigest digest = newDigest();
+		update(digest, this.baseKey);
+		update(digest, jobName + ":" + standalone);
+		update(digest, f);
+		return toHex(digest.digest());
+	}
+
+	/**
+	 * Copies a cached jar to the given output file.
+	 *
+	 * @return true if the jar was in the cache
+	 */
+	public boolean restoreJar(final String key, final File jar) throws IOException {
+		final File cached = new File(this.dir, key + ".jar");
+		if (!cached.isFile())
+			return false;
+
+		copy(cached, jar);
+		touch(key);
+		return true;
+	}
+
+	/**
+	 * Stores a compiled program's jar.
+	 */
+	public void storeJar(final String key, final File jar) throws IOException {
+		put(jar, new File(this.dir, key + ".jar"));
+		evict();
+	}
+
+	/**
+	 * Loads a job's cached generated code.
+	 *
+	 * @return the cached job, or null if it is not in the cache
+	 */
+	public CachedUnit loadUnit(final String key) throws IOException {
+		final File cached = new File(this.dir, key + ".unit");
+		if (!cached.isFile())
+			return null;
+
+		final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(cached)));
+		try {
+			final CachedUnit unit = new CachedUnit();
+			unit.complex = in.readBoolean();
+			unit.code = readString(in);
+			unit.combineTables = readStrings(in);
+			unit.reduceTables = readStrings(in);
+			unit.columns = in.readBoolean() ? readStrings(in) : null;
+			touch(key);
+			return unit;
+		} catch (final IOException e) {
+			// a corrupt entry is just a miss
+			LOG.warn("ignoring unreadable cache entry " + cached, e);
+			return null;
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Stores a job's generated code.
+	 */
+	public void storeUnit(final String key, final boolean complex, final String code, final List<String> combineTables, final List<String> reduceTables, final List<String> columns) throws IOException {
+		final File tmp = File.createTempFile("unit", ".tmp", this.dir);
+		final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+		try {
+			out.writeBoolean(complex);
+			writeString(out, code);
+			writeStrings(out, combineTables);
+			writeStrings(out, reduceTables);
+			out.writeBoolean(columns != null);
+			if (columns != null)
+				writeStrings(out, columns);
+		} finally {
+			out.close();
+		}
+		rename(tmp, new File(this.dir, key + ".unit"));
+		evict();
+	}
+
+	/**
+	 * The generated code of a single cached job.
+	 */
+	public static class CachedUnit {
+		public boolean complex;
+		public String code;
+		public List<String> combineTables;
+		public List<String> reduceTables;
+		// the project fields read, or null if the job needs whole projects
+		public List<String> columns;
+	}
+
+	/**
+	 * Deletes the least recently used entries until the cache fits in its
+	 * size limit.
+	 */
+	protected synchronized void evict() {
+		final File[] files = this.dir.listFiles();
+		if (files == null)
+			return;
+
+		long size = 0;
+		for (final File f : files)
+			size += f.length();
+		if (size <= this.maxSize)
+			return;
+
+		Arrays.sort(files, new Comparator<File>() {
+			@Override
+			public int compare(final File a, final File b) {
+				final long x = a.lastModified();
+				final long y = b.lastModified();
+				return x < y ? -1 : (x == y ? 0 : 1);
+			}
+		});
+
+		for (final File f : files) {
+			if (size <= this.maxSize)
+				break;
+			final long len = f.length();
+			if (f.delete())
+				size -= len;
+		}
+	}
+
+	private void touch(final String key) {
+		final long now = System.currentTimeMillis();
+		for (final String ext : new String[] { ".jar", ".unit" }) {
+			final File f = new File(this.dir, key + ext);
+			if (f.isFile())
+				f.setLastModified(now);
+		}
+	}
+
+	private void put(final File src, final File dst) throws IOException {
+		// copy to a temp file and rename, so concurrent compiles never see a partial entry
+		final File tmp = File.createTempFile("entry", ".tmp", this.dir);
+		copy(src, tmp);
+		rename(tmp, dst);
+	}
+
+	private static void rename(final File tmp, final File dst) {
+		if (!tmp.renameTo(dst)) {
+			dst.delete();
+			if (!tmp.renameTo(dst))
+				tmp.delete();
+		}
+	}
+
+	private static void copy(final File src, final File dst) throws IOException {
+		final InputStream in = new BufferedInputStream(new FileInputStream(src));
+		try {
+			final OutputStream out = new BufferedOutputStream(new FileOutputStream(dst));
+			try {
+				final byte[] b = new byte[64 * 1024];
+				int len;
+				while ((len = in.read(b)) > 0)
+					out.write(b, 0, len);
+			} finally {
+				out.close();
+			}
+		} finally {
+			in.close();
+		}
+	}
+
+	private static String compilerVersion() throws IOException {
+		final File base;
+		try {
+			base = new File(CompileCache.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+		} catch (final URISyntaxException e) {
+			throw new IOException("unable to locate the compiler", e);
+		}
+
+		final MessageDigest digest = newDigest();
+
+		// the compiler jar itself identifies the compiler version, but in a
+		// class directory any class may have been rebuilt on its own
+		if (base.isFile())
+			update(digest, SymbolTableIndex.checksum(base));
+		else
+			updateTree(digest, base, "");
+
+		// the templates may be loaded from outside the compiler
+		for (final String template : TEMPLATES)
+			updateResource(digest, template);
+
+		return toHex(digest.digest());
+	}
+
+	private static void updateTree(final MessageDigest digest, final File dir, final String path) {
+		final File[] files = dir.listFiles();
+		if (files == null)
+			return;
+		Arrays.sort(files);
+
+		for (final File f : files)
+			if (f.isDirectory())
+				updateTree(digest, f, path + f.getName() + "/");
+			else
+				update(digest, path + f.getName() + ":" + f.length() + ":" + f.lastModified());
+	}
+
+	private static void updateResource(final MessageDigest digest, final String name) throws IOException {
+		// found the same way the templates are loaded: from the working directory, or else the class path
+		final File f = new File(name);
+		final InputStream in = f.isFile() ? new FileInputStream(f) : CompileCache.class.getClassLoader().getResourceAsStream(name);
+
+		update(digest, name);
+		if (in == null)
+			return;
+		try {
+			final byte[] b = new byte[64 * 1024];
+			int len;
+			while ((len = in.read(b)) > 0)
+				digest.update(b, 0, len);
+		} finally {
+			in.close();
+		}
+	}
+
+	private static MessageDigest newDigest() throws IOException {
+		try {
+			return MessageDigest.getInstance("SHA-1");
+		} catch (final NoSuchAlgorithmException e) {
+			throw new IOException(e);
+		}
+	}
+
+	private static void update(final MessageDigest digest, final String s) {
+		final byte[] b = s.getBytes(UTF8);
+		digest.update((byte) (b.length >>> 24));
+		digest.update((byte) (b.length >>> 16));
+		digest.update((byte) (b.length >>> 8));
+		digest.update((byte) b.length);
+		digest.update(b);
+	}
+
+	private static void update(final MessageDigest digest, final File f) throws IOException {
+		update(digest, f.getName());
+
+		final InputStream in = new FileInputStream(f);
+		try {
+			final byte[] b = new byte[64 * 1024];
+			int len;
+			while ((len = in.read(b)) > 0)
+				digest.update(b, 0, len);
+		} finally {
+			in.close();
+		}
+		digest.update((byte) 0);
+	}
+
+	private static String toHex(final byte[] bytes) {
+		final StringBuilder sb = new StringBuilder();
+		for (final byte b : bytes)
+			sb.append(String.format("%02x", b & 0xff));
+		return sb.toString();
+	}
+
+	private static String readString(final DataInputStream in) throws IOException {
+		final byte[] b = new byte[in.readInt()];
+		in.readFully(b);
+		return new String(b, "UTF-8");
+	}
+
+	private static void writeString(final DataOutputStream out, final String s) throws IOException {
+		final byte[] b = s.getBytes("UTF-8");
+		out.writeInt(b.length);
+		out.write(b);
+	}
+
+	private static List<String> readStrings(final DataInputStream in) throws IOException {
+		final int n = in.readInt();
+		final List<String> l = new ArrayList<String>(n);
+		for (int i = 0; i < n; i++)
+			l.add(readString(in));
+		return l;
+	}
+
+	private static void writeStrings(final DataOutputStream out, final List<String> l) throws IOException {
+		out.writeInt(l.size());
+		for (final String s : l)
+			writeString(out, s);
+	}
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2014, Anthony Urso, Hridesh Rajan, Robert Dyer, 
+ * Copyright 2014, Anthony Urso, Hridesh Rajan, Robert Dyer,
  *                 and Iowa State University of Science and Technology
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
@@ -18,6 +18,7 @@ package boa.compiler;
 
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import boa.types.BoaFunction;
 import boa.types.BoaName;
@@ -26,96 +27,353 @@ import boa.types.BoaVarargs;
 
 
 /**
+ * Resolves overloaded functions by name and argument types.
+ *
+ * Functions are indexed first by name and arity, with a separate index per
+ * name for functions taking varargs.  Below that, each formal parameter is
+ * a level in a trie.  Every level keeps a hash of its parameter types for
+ * exact matches.  It also keeps buckets of the parameter types that accept
+ * each argument type seen there, so each type is checked against them only
+ * once.  Results, including misses, are memoized by name and argument types.
+ *
  * @author anthonyu
  * @author rdyer
  */
 public class FunctionTrie {
-	@SuppressWarnings("rawtypes")
-	private final HashMap trie;
+	private static final Object MISSING = new Object();
+
+	private final HashMap<String, HashMap<Integer, Node>> fixed = new HashMap<String, HashMap<Integer, Node>>();
+	private final HashMap<String, Node> variadic = new HashMap<String, Node>();
 
-	@SuppressWarnings("rawtypes")
-	public FunctionTrie() {
-		this.trie = new HashMap();
+	// may be shared by concurrent compilation units, so must be thread-safe
+	private final ConcurrentHashMap<Signature, Object> cache = new ConcurrentHashMap<Signature, Object>();
+
+	public boolean hasFunction(final String name) {
+		return this.fixed.containsKey(name) || this.variadic.containsKey(name);
 	}
 
-	private BoaFunction getFunction(final Object[] ids) {
-		if (this.trie.containsKey(ids[0])) {
-			if (ids[0].equals(""))
-				return getFunction();
-			else
-				return ((FunctionTrie) this.trie.get(ids[0])).getFunction(Arrays.copyOfRange(ids, 1, ids.length));
-		} else {
-			for (final Object o : this.trie.keySet()) {
-				if (o instanceof BoaVarargs && ((BoaVarargs) o).accepts((BoaType) ids[0]))
-					return ((FunctionTrie) this.trie.get(o)).getFunction();
+	public BoaFunction getFunction(final String name, final BoaType[] formalParameters) {
+		final Signature signature = new Signature(name, formalParameters);
+
+		final Object cached = this.cache.get(signature);
+		if (cached != null)
+			return cached == MISSING ? null : (BoaFunction) cached;
 
-				if (o instanceof BoaType && !(ids[0] instanceof String) && ((BoaType) o).accepts((BoaType) ids[0])) {
-					final BoaFunction function = ((FunctionTrie) this.trie.get(o)).getFunction(Arrays.copyOfRange(ids, 1, ids.length));
+		final BoaFunction function = this.resolve(name, formalParameters);
 
-					if (function != null)
-						return function;
-				}
+		// copy the types, as callers are free to reuse their array
+		this.cache.put(new Signature(name, formalParameters.clone()), function == null ? MISSING : function);
+
+		return function;
+	}
+
+	private BoaFunction resolve(final String name, final BoaType[] formalParameters) {
+		final HashMap<Integer, Node> arities = this.fixed.get(name);
+		if (arities != null) {
+			final Node root = arities.get(formalParameters.length);
+			if (root != null) {
+				final BoaFunction function = root.find(formalParameters, 0);
+				if (function != null)
+					return function;
 			}
 		}
 
+		final Node root = this.variadic.get(name);
+		if (root != null)
+			return root.find(formalParameters, 0);
+
 		return null;
 	}
 
-	private BoaFunction getFunction() {
-		return (BoaFunction) this.trie.get("");
-	}
+	public void addFunction(final String name, final BoaFunction boaFunction) {
+		final BoaType[] formalParameters = boaFunction.getFormalParameters();
+		final BoaType[] types = new BoaType[formalParameters.length];
 
-	public boolean hasFunction(final String name) {
-		return this.trie.containsKey(name);
+		boolean hasVarargs = false;
+		for (int i = 0; i < formalParameters.length; i++) {
+			if (formalParameters[i] instanceof BoaName)
+				types[i] = ((BoaName)formalParameters[i]).getType();
+			else
+				types[i] = formalParameters[i];
+
+			if (types[i] instanceof BoaVarargs)
+				hasVarargs = true;
+		}
+
+		final Node root;
+		if (hasVarargs) {
+			if (!this.variadic.containsKey(name))
+				this.variadic.put(name, new Node());
+			root = this.variadic.get(name);
+		} else {
+			if (!this.fixed.containsKey(name))
+				this.fixed.put(name, new HashMap<Integer, Node>());
+			final HashMap<Integer, Node> arities = this.fixed.get(name);
+			if (!arities.containsKey(types.length))
+				arities.put(types.length, new Node());
+			root = arities.get(types.length);
+		}
+
+		root.add(types, 0, boaFunction);
+
+		// anything previously resolved (or not found) may now resolve differently
+		this.cache.clear();
 	}
 
-	public BoaFunction getFunction(final String name, final BoaType[] formalParameters) {
-		final Object[] ids = new Object[formalParameters.length + 2];
+	/**
+	 * Returns whether every overload of a function is free of side effects.
+	 *
+	 * @param name the name of the function
+	 * @return true iff the function exists and all its overloads are pure
+	 */
+	public boolean isPure(final String name) {
+		if (!this.hasFunction(name))
+			return false;
 
-		ids[0] = name;
+		final HashMap<Integer, Node> arities = this.fixed.get(name);
+		if (arities != null)
+			for (final Node root : arities.values())
+				if (!root.isPure())
+					return false;
 
-		for (int i = 0; i < formalParameters.length; i++)
-			ids[i + 1] = formalParameters[i];
+		final Node root = this.variadic.get(name);
+		return root == null || root.isPure();
+	}
 
-		ids[ids.length - 1] = "";
+	/**
+	 * Marks every overload of a function as free of side effects.
+	 *
+	 * @param name the name of the function
+	 */
+	public void setPure(final String name) {
+		final HashMap<Integer, Node> arities = this.fixed.get(name);
+		if (arities != null)
+			for (final Node root : arities.values())
+				root.setPure();
 
-		return this.getFunction(ids);
+		final Node root = this.variadic.get(name);
+		if (root != null)
+			root.setPure();
 	}
 
-	@SuppressWarnings("unchecked")
-	private void addFunction(final Object[] ids, final BoaFunction boaFunction) {
-		if (this.trie.containsKey(ids[0])) {
-			if (ids[0].equals("")) {
-				throw new RuntimeException("function " + boaFunction + " already defined");
-			} else {
-				((FunctionTrie) this.trie.get(ids[0])).addFunction(Arrays.copyOfRange(ids, 1, ids.length), boaFunction);
+	/**
+	 * A single level of the trie, holding the functions' formal parameter
+	 * types at one position.
+	 */
+	private static final class Node {
+		private final HashMap<TypeKey, Node> exact = new HashMap<TypeKey, Node>();
+
+		// the same children as exact, in insertion order, for searching by acceptance
+		private BoaType[] types = new BoaType[0];
+		private Node[] children = new Node[0];
+
+		// the children and varargs accepting each argument type, found when first needed
+		private final ConcurrentHashMap<TypeKey, Bucket> buckets = new ConcurrentHashMap<TypeKey, Bucket>();
+
+		// functions whose varargs parameter is at this position
+		private BoaVarargs[] varargs = new BoaVarargs[0];
+		private BoaFunction[] varargsFunctions = new BoaFunction[0];
+
+		// the function whose formal parameters end here
+		private BoaFunction function;
+
+		BoaFunction find(final BoaType[] args, final int pos) {
+			if (pos == args.length)
+				return this.function;
+
+			final TypeKey arg = new TypeKey(args[pos]);
+
+			final Node next = this.exact.get(arg);
+			if (next != null) {
+				final BoaFunction f = next.find(args, pos + 1);
+
+				if (f != null)
+					return f;
 			}
-		} else {
-			if (ids[0].equals("")) {
-				this.trie.put("", boaFunction);
-			} else {
-				final FunctionTrie functionTrie = new FunctionTrie();
-				functionTrie.addFunction(Arrays.copyOfRange(ids, 1, ids.length), boaFunction);
-				this.trie.put(ids[0], functionTrie);
+
+			final Bucket bucket = this.bucket(arg);
+			if (bucket.varargsFunction != null)
+				return bucket.varargsFunction;
+
+			for (final Node child : bucket.children) {
+				final BoaFunction f = child.find(args, pos + 1);
+
+				if (f != null)
+					return f;
+			}
+
+			return null;
+		}
+
+		private Bucket bucket(final TypeKey arg) {
+			final Bucket bucket = this.buckets.get(arg);
+			if (bucket != null)
+				return bucket;
+
+			BoaFunction varargsFunction = null;
+			for (int i = 0; i < this.varargs.length && varargsFunction == null; i++)
+				if (this.varargs[i].accepts(arg.type))
+					varargsFunction = this.varargsFunctions[i];
+
+			final Node[] accepting = new Node[this.types.length];
+			int n = 0;
+			for (int i = 0; i < this.types.length; i++)
+				if (this.types[i].accepts(arg.type))
+					accepting[n++] = this.children[i];
+
+			// another thread may have found the same bucket, which is just as good
+			final Bucket found = new Bucket(varargsFunction, Arrays.copyOf(accepting, n));
+			final Bucket other = this.buckets.putIfAbsent(arg, found);
+			return other == null ? found : other;
+		}
+
+		boolean isPure() {
+			if (this.function != null && !this.function.isPure())
+				return false;
+			for (final BoaFunction f : this.varargsFunctions)
+				if (!f.isPure())
+					return false;
+			for (final Node child : this.children)
+				if (!child.isPure())
+					return false;
+			return true;
+		}
+
+		void setPure() {
+			if (this.function != null)
+				this.function.setPure(true);
+			for (final BoaFunction f : this.varargsFunctions)
+				f.setPure(true);
+			for (final Node child : this.children)
+				child.setPure();
+		}
+
+		void add(final BoaType[] params, final int pos, final BoaFunction boaFunction) {
+			// the new function may accept types the buckets do not list it for
+			this.buckets.clear();
+
+			if (pos == params.length) {
+				if (this.function != null)
+					throw new RuntimeException("function " + boaFunction + " already defined");
+				this.function = boaFunction;
+				return;
+			}
+
+			final BoaType type = params[pos];
+
+			// varargs must come last, anything after them is never checked
+			if (type instanceof BoaVarargs) {
+				for (final BoaVarargs v : this.varargs)
+					if (v.equals(type))
+						throw new RuntimeException("function " + boaFunction + " already defined");
+
+				final int n = this.varargs.length;
+				this.varargs = Arrays.copyOf(this.varargs, n + 1);
+				this.varargsFunctions = Arrays.copyOf(this.varargsFunctions, n + 1);
+				this.varargs[n] = (BoaVarargs) type;
+				this.varargsFunctions[n] = boaFunction;
+				return;
 			}
+
+			final TypeKey key = new TypeKey(type);
+			Node next = this.exact.get(key);
+			if (next == null) {
+				next = new Node();
+				this.exact.put(key, next);
+
+				final int n = this.types.length;
+				this.types = Arrays.copyOf(this.types, n + 1);
+				this.children = Arrays.copyOf(this.children, n + 1);
+				this.types[n] = type;
+				this.children[n] = next;
+			}
+
+			next.add(params, pos + 1, boaFunction);
 		}
 	}
 
-	public void addFunction(final String name, final BoaFunction boaFunction) {
-		final BoaType[] formalParameters = boaFunction.getFormalParameters();
+	/**
+	 * The children and varargs function of a node that accept an argument
+	 * type, in the order they are tried.
+	 */
+	private static final class Bucket {
+		private final BoaFunction varargsFunction;
+		private final Node[] children;
+
+		Bucket(final BoaFunction varargsFunction, final Node[] children) {
+			this.varargsFunction = varargsFunction;
+			this.children = children;
+		}
+	}
 
-		final Object[] ids = new Object[formalParameters.length + 2];
+	// many types hash to 0, so mix in their class as well
+	private static int hash(final BoaType t) {
+		return t == null ? 0 : t.getClass().hashCode() ^ t.hashCode();
+	}
 
-		ids[0] = name;
+	/**
+	 * A type as a hash key, hashed with {@link #hash(BoaType)}.
+	 */
+	private static final class TypeKey {
+		private final BoaType type;
+		private final int hash;
 
-		for (int i = 0; i < formalParameters.length; i++)
-			if (formalParameters[i] instanceof BoaName)
-				ids[i + 1] = ((BoaName)formalParameters[i]).getType();
-			else
-				ids[i + 1] = formalParameters[i];
+		TypeKey(final BoaType type) {
+			this.type = type;
+			this.hash = FunctionTrie.hash(type);
+		}
+
+		/** {@inheritDoc} */
+		@Override
+		public int hashCode() {
+			return this.hash;
+		}
+
+		/** {@inheritDoc} */
+		@Override
+		public boolean equals(final Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof TypeKey))
+				return false;
+			final TypeKey other = (TypeKey) obj;
+			return this.hash == other.hash && (this.type == null ? other.type == null : this.type.equals(other.type));
+		}
+	}
+
+	/**
+	 * The key for memoized lookups: a function name and argument types.
+	 */
+	private static final class Signature {
+		private final String name;
+		private final BoaType[] types;
+		private final int hash;
 
-		ids[ids.length - 1] = "";
+		Signature(final String name, final BoaType[] types) {
+			this.name = name;
+			this.types = types;
 
-		this.addFunction(ids, boaFunction);
+			int h = name.hashCode();
+			for (final BoaType t : types)
+				h = 31 * h + hash(t);
+			this.hash = h;
+		}
+
+		/** {@inheritDoc} */
+		@Override
+		public int hashCode() {
+			return this.hash;
+		}
+
+		/** {@inheritDoc} */
+		@Override
+		public boolean equals(final Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof Signature))
+				return false;
+			final Signature other = (Signature) obj;
+			return this.hash == other.hash && this.name.equals(other.name) && Arrays.equals(this.types, other.types);
+		}
 	}
 }
@@ -17,15 +17,10 @@
 package boa.compiler;
 
 import java.io.IOException;
-import java.lang.reflect.Method;
 import java.net.URL;
 import java.util.*;
 import java.util.Map.Entry;
 
-import org.scannotation.AnnotationDB;
-
-import boa.aggregators.AggregatorSpec;
-import boa.functions.FunctionSpec;
 import boa.types.*;
 import boa.types.proto.*;
 import boa.types.proto.enums.*;
@@ -39,12 +34,14 @@ import boa.compiler.ast.Operand;
  * @author ankuraga
  */
 public class SymbolTable {
-	private static HashMap<String, Class<?>> aggregators;
+	private static HashMap<String, String> aggregators;
 	private static final Map<Class<?>, BoaType> protomap;
 	private static Map<String, BoaType> idmap;
 	private static final Map<String, BoaType> globals;
 	private static FunctionTrie globalFunctions;
 
+	private final Map<String, BoaType> types;
+	private final Map<String, BoaType> globalVars;
 	private FunctionTrie functions;
 	private Map<String, BoaType> locals;
 
@@ -55,7 +52,7 @@ public class SymbolTable {
 	private boolean isBeforeVisitor = false;
 
 	static {
-		aggregators = new HashMap<String, Class<?>>();
+		aggregators = new HashMap<String, String>();
 
 		// this maps the Java types in protocol buffers into Boa types
 		protomap = new HashMap<Class<?>, BoaType>();
@@ -126,6 +123,14 @@ public class SymbolTable {
 		idmap.put("CFG", new CFGProtoTuple());
 		idmap.put("CFGNode", new CFGNodeProtoTuple());
 		idmap.put("CFGEdge", new CFGEdgeProtoTuple());
+		idmap.put("CFGEdgeLabel", new CFGEdgeLabelProtoMap());
+		idmap.put("CFGNodeType", new CFGNodeTypeProtoMap());
+
+		// the reachable types are lazily cached on these shared instances, so
+		// compute them now before any compilation units can run concurrently
+		for (final BoaType t : idmap.values())
+			if (t instanceof BoaProtoTuple)
+				((BoaProtoTuple) t).reachableTypes();
 
 		globalFunctions = new FunctionTrie();
 
@@ -318,26 +323,40 @@ public class SymbolTable {
 
 		globalFunctions.addFunction("max", new BoaFunction(new BoaString(), new BoaScalar[] { new BoaString(), new BoaString() }, "(${0}.compareTo(${1}) > 0 ? ${0} : ${1})"));
 		globalFunctions.addFunction("min", new BoaFunction(new BoaString(), new BoaScalar[] { new BoaString(), new BoaString() }, "(${0}.compareTo(${1}) < 0 ? ${0} : ${1})"));
+
+		// none of these have side effects, so unused calls to them can be removed
+		for (final String s : Arrays.asList("def", "len", "haskey", "keys", "values", "lookup", "regex", "ast_len", "peek", "contains", "string", "bool", "int", "float", "time", "hash", "abs", "highbit", "max", "min", "ieeeremainder", "todegrees", "toradians"))
+			globalFunctions.setPure(s);
+		for (final String s : Arrays.asList("log", "log10", "exp", "sqrt", "sin", "cos", "tan", "asin", "acos", "atan", "cosh", "sinh", "tanh", "ceil", "floor", "round", "cbrt", "expm1", "log1p", "rint", "signum", "ulp", "pow", "atan2", "hypot"))
+			globalFunctions.setPure(s);
 	}
 
 	public SymbolTable() {
+		// each compilation unit gets its own copy of the types and globals,
+		// so user-declared types never leak between programs
+		this.types = new HashMap<String, BoaType>(idmap);
+		this.globalVars = new HashMap<String, BoaType>(globals);
+
 		// variables with a local scope
 		this.locals = new HashMap<String, BoaType>();
 		functions = new FunctionTrie();
 	}
 
+	private SymbolTable(final SymbolTable parent) {
+		this.types = parent.types;
+		this.globalVars = parent.globalVars;
+
+		this.locals = new HashMap<String, BoaType>(parent.locals);
+		this.functions = parent.functions;
+		this.isBeforeVisitor = parent.isBeforeVisitor;
+	}
+
 	public static void initialize(final List<URL> libs) throws IOException {
 		importLibs(libs);
 	}
 
 	public SymbolTable cloneNonLocals() throws IOException {
-		SymbolTable st = new SymbolTable();
-
-		st.functions = this.functions;
-		st.locals = new HashMap<String, BoaType>(this.locals);
-		st.isBeforeVisitor = this.isBeforeVisitor;
-
-		return st;
+		return new SymbolTable(this);
 	}
 
 	public void set(final String id, final BoaType type) {
@@ -345,20 +364,20 @@ public class SymbolTable {
 	}
 
 	public void set(final String id, final BoaType type, final boolean global) {
-		if (idmap.containsKey(id))
-			throw new RuntimeException(id + " already declared as type " + idmap.get(id));
+		if (this.types.containsKey(id))
+			throw new RuntimeException(id + " already declared as type " + this.types.get(id));
 
 		if (type instanceof BoaFunction)
 			this.setFunction(id, (BoaFunction) type);
 
 		if (global)
-			globals.put(id, type);
+			this.globalVars.put(id, type);
 		else
 			this.locals.put(id, type);
 	}
 
 	public boolean hasGlobal(final String id) {
-		return globals.containsKey(id);
+		return this.globalVars.containsKey(id);
 	}
 
 	public boolean hasLocal(final String id) {
@@ -366,11 +385,11 @@ public class SymbolTable {
 	}
 
 	public BoaType get(final String id) {
-		if (idmap.containsKey(id))
-			return idmap.get(id);
+		if (this.types.containsKey(id))
+			return this.types.get(id);
 
-		if (globals.containsKey(id))
-			return globals.get(id);
+		if (this.globalVars.containsKey(id))
+			return this.globalVars.get(id);
 
 		if (this.locals.containsKey(id))
 			return this.locals.get(id);
@@ -379,60 +398,52 @@ public class SymbolTable {
 	}
 
 	public boolean hasType(final String id) {
-		return idmap.containsKey(id);
+		return this.types.containsKey(id);
+	}
+
+	public BoaType getType(final String id) {
+		return getType(this.types, id);
 	}
 
-	public static BoaType getType(final String id) {
-		if (idmap.containsKey(id))
-			return idmap.get(id);
+	public static BoaType getBuiltinType(final String id) {
+		return getType(idmap, id);
+	}
+
+	private static BoaType getType(final Map<String, BoaType> types, final String id) {
+		if (types.containsKey(id))
+			return types.get(id);
 
 		if (id.startsWith("array of "))
-			return new BoaArray(getType(id.substring("array of ".length()).trim()));
+			return new BoaArray(getType(types, id.substring("array of ".length()).trim()));
 
 		if (id.startsWith("map"))
-			return new BoaMap(getType(id.substring(id.indexOf(" of ") + " of ".length()).trim()),
-					getType(id.substring(id.indexOf("[") + 1, id.indexOf("]")).trim()));
+			return new BoaMap(getType(types, id.substring(id.indexOf(" of ") + " of ".length()).trim()),
+					getType(types, id.substring(id.indexOf("[") + 1, id.indexOf("]")).trim()));
 
 		throw new RuntimeException("no such type " + id);
 	}
 
 	public void setType(final String id, final BoaType boaType) {
-		idmap.put(id, boaType);
+		this.types.put(id, boaType);
 	}
 
-	private static void importAggregator(final Class<?> clazz) {
-		if (!clazz.isAnnotationPresent(AggregatorSpec.class))
-			return;
-
-		final AggregatorSpec annotation = clazz.getAnnotation(AggregatorSpec.class);
-
-		if (annotation == null)
-			return;
-
-		final String type = annotation.type();
-		if (type.equals("any"))
-			aggregators.put(annotation.name(), clazz);
+	public Class<?> getAggregator(final String name, final BoaScalar type) {
+		final String c;
+		if (aggregators.containsKey(name + ":" + type))
+			c = aggregators.get(name + ":" + type);
+		else if (aggregators.containsKey(name))
+			c = aggregators.get(name);
 		else
-			aggregators.put(annotation.name() + ":" + type, clazz);
-	}
+			throw new RuntimeException("no such aggregator " + name + " of " + type);
 
-	private static void importAggregator(final String c) {
+		// aggregator classes are only loaded once a program actually uses them
 		try {
-			importAggregator(Class.forName(c));
+			return Class.forName(c);
 		} catch (final ClassNotFoundException e) {
 			throw new RuntimeException("no such class " + c, e);
 		}
 	}
 
-	public Class<?> getAggregator(final String name, final BoaScalar type) {
-		if (aggregators.containsKey(name + ":" + type))
-			return aggregators.get(name + ":" + type);
-		else if (aggregators.containsKey(name))
-			return aggregators.get(name);
-		else
-			throw new RuntimeException("no such aggregator " + name + " of " + type);
-	}
-
 	public List<Class<?>> getAggregators(final String name, final BoaType type) {
 		final List<Class<?>> aggregators = new ArrayList<Class<?>>();
 
@@ -447,111 +458,91 @@ public class SymbolTable {
 		return aggregators;
 	}
 
-	private static void importFunction(final Method m) {
-		final FunctionSpec annotation = m.getAnnotation(FunctionSpec.class);
+	private static void importFunction(final String[] entry) {
+		final BoaType[] formalParameterTypes = new BoaType[entry.length - 5];
 
-		if (annotation == null)
-			return;
-
-		final String[] formalParameters = annotation.formalParameters();
-		final BoaType[] formalParameterTypes = new BoaType[formalParameters.length];
-
-		for (int i = 0; i < formalParameters.length; i++) {
-			final String id = formalParameters[i];
+		for (int i = 0; i < formalParameterTypes.length; i++) {
+			final String id = entry[i + 5];
 
 			// check for varargs
 			if (id.endsWith("..."))
-				formalParameterTypes[i] = new BoaVarargs(getType(id.substring(0, id.indexOf('.'))));
+				formalParameterTypes[i] = new BoaVarargs(getBuiltinType(id.substring(0, id.indexOf('.'))));
 			else
-				formalParameterTypes[i] = getType(id);
+				formalParameterTypes[i] = getBuiltinType(id);
 		}
 
-		globalFunctions.addFunction(annotation.name(), new BoaFunction(m.getDeclaringClass().getCanonicalName() + '.' + m.getName(), getType(annotation.returnType()), formalParameterTypes));
-	}
-
-	private static void importFunctions(final Class<?> c) {
-		for (final Method m : c.getMethods())
-			if (m.isAnnotationPresent(FunctionSpec.class))
-				importFunction(m);
-	}
-
-	private static void importFunctions(final String c) {
-		try {
-			importFunctions(Class.forName(c));
-		} catch (final ClassNotFoundException e) {
-			throw new RuntimeException("no such class " + c, e);
-		}
-	}
+		final BoaFunction function = new BoaFunction(entry[2], getBuiltinType(entry[3]), formalParameterTypes);
+		function.setPure(SymbolTableIndex.PURE.equals(entry[4]));
+		globalFunctions.addFunction(entry[1], function);
+	}
+
+	private static void importSymbols(final List<String[]> entries) {
+		for (final String[] entry : entries)
+			if (entry[0].equals(SymbolTableIndex.FUNCTION))
+				importFunction(entry);
+			else if (entry[0].equals(SymbolTableIndex.AGGREGATOR))
+				aggregators.put(entry[1], entry[2]);
+	}
+
+	// built-in functions
+	static final String[] builtinFuncs = {
+		"boa.functions.BoaAstIntrinsics",
+		"boa.functions.BoaGraphIntrinsics",
+		"boa.functions.BoaIntrinsics",
+		"boa.functions.BoaMetricIntrinsics",
+		"boa.functions.BoaModifierIntrinsics",
+		"boa.functions.BoaCasts",
+		"boa.functions.BoaMathIntrinsics",
+		"boa.functions.BoaSortIntrinsics",
+		"boa.functions.BoaSpecialIntrinsics",
+		"boa.functions.BoaStringIntrinsics",
+		"boa.functions.BoaTimeIntrinsics"
+	};
+
+	// built-in aggregators
+	static final String[] builtinAggs = {
+		"boa.aggregators.BottomAggregator",
+		"boa.aggregators.CollectionAggregator",
+		"boa.aggregators.ConfidenceIntervalAggregator",
+		"boa.aggregators.DistinctAggregator",
+		"boa.aggregators.FloatHistogramAggregator",
+		"boa.aggregators.FloatMeanAggregator",
+		"boa.aggregators.FloatQuantileAggregator",
+		"boa.aggregators.FloatSumAggregator",
+		"boa.aggregators.GraphAggregator",
+		"boa.aggregators.GraphBinaryAggregator",
+		"boa.aggregators.GraphCSVAggregator",
+		"boa.aggregators.GraphvizAggregator",
+		"boa.aggregators.IntHistogramAggregator",
+		"boa.aggregators.IntMeanAggregator",
+		"boa.aggregators.IntQuantileAggregator",
+		"boa.aggregators.IntSumAggregator",
+		"boa.aggregators.KurtosisAggregator",
+		"boa.aggregators.LinearRegressionAggregator",
+		"boa.aggregators.LogAggregator",
+		"boa.aggregators.MaximumAggregator",
+		"boa.aggregators.MedianAggregator",
+		"boa.aggregators.MinimumAggregator",
+		"boa.aggregators.SetAggregator",
+		"boa.aggregators.SkewnessAggregator",
+		"boa.aggregators.StatisticsAggregator",
+		"boa.aggregators.StDevAggregator",
+		"boa.aggregators.TopAggregator",
+		"boa.aggregators.UniqueAggregator",
+		"boa.aggregators.VarianceAggregator",
+	};
 
 	private static void importLibs(final List<URL> urls) throws IOException {
-		// load built-in functions
-		final Class<?>[] builtinFuncs = {
-			boa.functions.BoaAstIntrinsics.class,
-			boa.functions.BoaGraphIntrinsics.class,
-			boa.functions.BoaIntrinsics.class,
-			boa.functions.BoaMetricIntrinsics.class,
-			boa.functions.BoaModifierIntrinsics.class,
-			boa.functions.BoaCasts.class,
-			boa.functions.BoaMathIntrinsics.class,
-			boa.functions.BoaSortIntrinsics.class,
-			boa.functions.BoaSpecialIntrinsics.class,
-			boa.functions.BoaStringIntrinsics.class,
-			boa.functions.BoaTimeIntrinsics.class
-		};
-		for (final Class<?> c : builtinFuncs)
-			importFunctions(c);
-
-		// load built-in aggregators
-		final Class<?>[] builtinAggs = {
-			boa.aggregators.BottomAggregator.class,
-			boa.aggregators.CollectionAggregator.class,
-			boa.aggregators.ConfidenceIntervalAggregator.class,
-			boa.aggregators.DistinctAggregator.class,
-			boa.aggregators.FloatHistogramAggregator.class,
-			boa.aggregators.FloatMeanAggregator.class,
-			boa.aggregators.FloatQuantileAggregator.class,
-			boa.aggregators.FloatSumAggregator.class,
-			boa.aggregators.GraphAggregator.class,
-			boa.aggregators.GraphvizAggregator.class,
-			boa.aggregators.IntHistogramAggregator.class,
-			boa.aggregators.IntMeanAggregator.class,
-			boa.aggregators.IntQuantileAggregator.class,
-			boa.aggregators.IntSumAggregator.class,
-			boa.aggregators.KurtosisAggregator.class,
-			boa.aggregators.LinearRegressionAggregator.class,
-			boa.aggregators.LogAggregator.class,
-			boa.aggregators.MaximumAggregator.class,
-			boa.aggregators.MedianAggregator.class,
-			boa.aggregators.MinimumAggregator.class,
-			boa.aggregators.SetAggregator.class,
-			boa.aggregators.SkewnessAggregator.class,
-			boa.aggregators.StatisticsAggregator.class,
-			boa.aggregators.StDevAggregator.class,
-			boa.aggregators.TopAggregator.class,
-			boa.aggregators.UniqueAggregator.class,
-			boa.aggregators.VarianceAggregator.class,
-		};
-		for (final Class<?> c : builtinAggs)
-			importAggregator(c);
+		// load built-in functions and aggregators, preferring the index
+		// generated at build time over reflecting on every builtin class
+		List<String[]> builtins = SymbolTableIndex.readBuiltins();
+		if (builtins == null)
+			builtins = SymbolTableIndex.indexBuiltins();
+		importSymbols(builtins);
 
 		// also check any libs passed into the compiler
-		if (urls.size() > 0) {
-			final AnnotationDB db = new AnnotationDB();
-			db.setScanMethodAnnotations(true);
-			db.setScanClassAnnotations(true);
-//			db.setScanPackages(new String[] {"boa.aggregators", "boa.functions"});
-
-			for (final URL url : urls)
-				db.scanArchives(url);
-	
-			final Map<String, Set<String>> annotationIndex = db.getAnnotationIndex();
-	
-			for (final String s : annotationIndex.get(AggregatorSpec.class.getCanonicalName()))
-				importAggregator(s);
-	
-			for (final String s : annotationIndex.get(FunctionSpec.class.getCanonicalName()))
-				importFunctions(s);
-		}
+		for (final URL url : urls)
+			importSymbols(SymbolTableIndex.indexLibrary(url));
 	}
 
 	public BoaFunction getFunction(final String id) {
@@ -579,6 +570,13 @@ public class SymbolTable {
 		return functions.hasFunction(id);
 	}
 
+	public boolean hasPureFunction(final String id) {
+		// a user variable or function can shadow the builtin
+		if (this.functions.hasFunction(id) || this.hasGlobal(id) || this.hasLocal(id))
+			return false;
+		return globalFunctions.isPure(id);
+	}
+
 	public void setFunction(final String id, final BoaFunction boaFunction) {
 		this.functions.addFunction(id, boaFunction);
 	}
@@ -0,0 +1,288 @@
+/*
+ * Copyright 2015, Anthony Urso, Hridesh Rajan, Robert Dyer,
+ *                 and Iowa State University of Science and Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package boa.compiler;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.scannotation.AnnotationDB;
+
+import boa.aggregators.AggregatorSpec;
+import boa.functions.FunctionSpec;
+
+/**
+ * A compact, line-based index of the functions and aggregators found in a
+ * set of classes.  The builtin index is generated at build time, so the
+ * compiler does not need to reflect over (and load) every builtin class on
+ * startup.  Indexes for user libraries are cached on disk, keyed by the
+ * checksum of the library jar.
+ *
+ * Each line holds tab-separated fields.  Functions are written as:
+ * <pre>F name method returnType purity formalParameter...</pre>
+ * where purity is either <code>pure</code> or <code>-</code>,
+ * and aggregators as:
+ * <pre>A name[:type] class</pre>
+ *
+ * @author agent
+ */
+public class SymbolTableIndex {
+	/** the classpath resource holding the builtin index */
+	public static final String BUILTIN_INDEX = "/boa/compiler/builtins.idx";
+
+	/** the index format version, bump when the line format changes */
+	protected static final String VERSION = "# boa symbol index v2";
+
+	public static final String FUNCTION = "F";
+	public static final String AGGREGATOR = "A";
+
+	public static final String PURE = "pure";
+	public static final String IMPURE = "-";
+
+	/**
+	 * Writes the index of all builtin functions and aggregators.
+	 *
+	 * @param args the file to write the index into
+	 */
+	public static void main(final String[] args) throws IOException {
+		if (args.length != 1) {
+			System.err.println("usage: SymbolTableIndex <output-file>");
+			System.exit(1);
+		}
+
+		final File f = new File(args[0]);
+		if (f.getParentFile() != null)
+			f.getParentFile().mkdirs();
+		write(indexBuiltins(), f);
+	}
+
+	/**
+	 * Reflects over all builtin classes to find their functions and aggregators.
+	 *
+	 * @return the index entries for the builtins
+	 */
+	public static List<String[]> indexBuiltins() {
+		final List<String[]> entries = new ArrayList<String[]>();
+		for (final String c : SymbolTable.builtinFuncs)
+			indexFunctions(loadClass(c), entries);
+		for (final String c : SymbolTable.builtinAggs)
+			indexAggregator(loadClass(c), entries);
+		return entries;
+	}
+
+	/**
+	 * Reads the builtin index, if the compiler was packaged with one.
+	 *
+	 * @return the index entries, or null if there is no builtin index
+	 */
+	public static List<String[]> readBuiltins() throws IOException {
+		final InputStream in = SymbolTableIndex.class.getResourceAsStream(BUILTIN_INDEX);
+		if (in == null)
+			return null;
+
+		try {
+			return read(in);
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Finds all functions and aggregators in a user library.  The result
+	 * is cached in the cache directory, keyed by the checksum of the
+	 * library, so unchanged libraries are only scanned once.
+	 *
+	 * @param url the library to index
+	 * @return the index entries for the library
+	 */
+	public static List<String[]> indexLibrary(final URL url) throws IOException {
+		final File cacheDir = getCacheDir();
+		final File cached;
+		try {
+			cached = new File(cacheDir, checksum(new File(url.toURI())) + ".idx");
+		} catch (final URISyntaxException e) {
+			throw new IOException("invalid library path " + url, e);
+		}
+
+		if (cached.isFile()) {
+			final InputStream in = new FileInputStream(cached);
+			try {
+				final List<String[]> entries = read(in);
+				if (entries != null)
+					return entries;
+			} finally {
+				in.close();
+			}
+		}
+
+		final List<String[]> entries = scanLibrary(url);
+
+		// write to a temp file and rename, so concurrent compiles never see a partial index
+		if (cacheDir.isDirectory() || cacheDir.mkdirs()) {
+			final File tmp = File.createTempFile("lib", ".tmp", cacheDir);
+			write(entries, tmp);
+			if (!tmp.renameTo(cached))
+				tmp.delete();
+		}
+
+		return entries;
+	}
+
+	protected static List<String[]> scanLibrary(final URL url) throws IOException {
+		final AnnotationDB db = new AnnotationDB();
+		db.setScanMethodAnnotations(true);
+		db.setScanClassAnnotations(true);
+		db.scanArchives(url);
+
+		final Map<String, Set<String>> annotationIndex = db.getAnnotationIndex();
+		final List<String[]> entries = new ArrayList<String[]>();
+
+		if (annotationIndex.containsKey(AggregatorSpec.class.getCanonicalName()))
+			for (final String s : annotationIndex.get(AggregatorSpec.class.getCanonicalName()))
+				indexAggregator(loadClass(s), entries);
+
+		if (annotationIndex.containsKey(FunctionSpec.class.getCanonicalName()))
+			for (final String s : annotationIndex.get(FunctionSpec.class.getCanonicalName()))
+				indexFunctions(loadClass(s), entries);
+
+		return entries;
+	}
+
+	protected static void indexFunctions(final Class<?> c, final List<String[]> entries) {
+		for (final Method m : c.getMethods()) {
+			final FunctionSpec annotation = m.getAnnotation(FunctionSpec.class);
+			if (annotation == null)
+				continue;
+
+			final String[] formalParameters = annotation.formalParameters();
+			final String[] entry = new String[formalParameters.length + 5];
+
+			entry[0] = FUNCTION;
+			entry[1] = annotation.name();
+			entry[2] = m.getDeclaringClass().getCanonicalName() + '.' + m.getName();
+			entry[3] = annotation.returnType();
+			entry[4] = annotation.pure() ? PURE : IMPURE;
+			System.arraycopy(formalParameters, 0, entry, 5, formalParameters.length);
+
+			entries.add(entry);
+		}
+	}
+
+	protected static void indexAggregator(final Class<?> c, final List<String[]> entries) {
+		final AggregatorSpec annotation = c.getAnnotation(AggregatorSpec.class);
+		if (annotation == null)
+			return;
+
+		final String type = annotation.type();
+		if (type.equals("any"))
+			entries.add(new String[] { AGGREGATOR, annotation.name(), c.getName() });
+		else
+			entries.add(new String[] { AGGREGATOR, annotation.name() + ":" + type, c.getName() });
+	}
+
+	private static Class<?> loadClass(final String c) {
+		try {
+			return Class.forName(c);
+		} catch (final ClassNotFoundException e) {
+			throw new RuntimeException("no such class " + c, e);
+		}
+	}
+
+	protected static File getCacheDir() {
+		final String dir = System.getProperty("boa.symbols.cache");
+		if (dir != null)
+			return new File(dir);
+		return new File(new File(System.getProperty("java.io.tmpdir")), "boa-symbols");
+	}
+
+	protected static String checksum(final File f) throws IOException {
+		final MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-1");
+		} catch (final NoSuchAlgorithmException e) {
+			throw new IOException(e);
+		}
+
+		final InputStream in = new FileInputStream(f);
+		try {
+			final byte[] b = new byte[64 * 1024];
+			int len;
+			while ((len = in.read(b)) > 0)
+				digest.update(b, 0, len);
+		} finally {
+			in.close();
+		}
+
+		final StringBuilder sb = new StringBuilder();
+		for (final byte b : digest.digest())
+			sb.append(String.format("%02x", b & 0xff));
+		return sb.toString();
+	}
+
+	/**
+	 * Reads an index.
+	 *
+	 * @return the entries, or null if the index has an unknown version
+	 */
+	protected static List<String[]> read(final InputStream in) throws IOException {
+		final BufferedReader r = new BufferedReader(new InputStreamReader(in, "UTF-8"));
+
+		if (!VERSION.equals(r.readLine()))
+			return null;
+
+		final List<String[]> entries = new ArrayList<String[]>();
+		String line;
+		while ((line = r.readLine()) != null)
+			if (line.length() > 0)
+				entries.add(line.split("\t", -1));
+		return entries;
+	}
+
+	protected static void write(final List<String[]> entries, final File f) throws IOException {
+		final Writer w = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(f), "UTF-8"));
+		try {
+			w.write(VERSION);
+			w.write('\n');
+			for (final String[] entry : entries) {
+				for (int i = 0; i < entry.length; i++) {
+					if (i > 0)
+						w.write('\t');
+					w.write(entry[i]);
+				}
+				w.write('\n');
+			}
+		} finally {
+			w.close();
+		}
+	}
+}
@@ -37,6 +37,11 @@ public class Term extends Node {
 		return lhs;
 	}
 
+	public void setLhs(final Factor lhs) {
+		lhs.setParent(this);
+		this.lhs = lhs;
+	}
+
 	public List<String> getOps() {
 		return ops;
 	}
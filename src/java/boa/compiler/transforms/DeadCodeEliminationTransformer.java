@@ -0,0 +1,422 @@
+/*
+ * Copyright 2015, Anthony Urso, Hridesh Rajan, Robert Dyer,
+ *                 and Iowa State University of Science and Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package boa.compiler.transforms;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import boa.compiler.ast.Call;
+import boa.compiler.ast.Comparison;
+import boa.compiler.ast.Conjunction;
+import boa.compiler.ast.Factor;
+import boa.compiler.ast.Identifier;
+import boa.compiler.ast.Node;
+import boa.compiler.ast.Program;
+import boa.compiler.ast.Term;
+import boa.compiler.ast.expressions.Expression;
+import boa.compiler.ast.expressions.FunctionExpression;
+import boa.compiler.ast.expressions.SimpleExpr;
+import boa.compiler.ast.expressions.VisitorExpression;
+import boa.compiler.ast.literals.IntegerLiteral;
+import boa.compiler.ast.statements.AssignmentStatement;
+import boa.compiler.ast.statements.Block;
+import boa.compiler.ast.statements.ExprStatement;
+import boa.compiler.ast.statements.IfStatement;
+import boa.compiler.ast.statements.Statement;
+import boa.compiler.ast.statements.VarDeclStatement;
+import boa.compiler.ast.types.OutputType;
+import boa.compiler.visitors.AbstractVisitorNoArg;
+import boa.types.BoaInt;
+
+/**
+ * Removes code whose results are never used, and folds constants.
+ *
+ * The following are removed, repeating until nothing else changes:
+ * <ul>
+ * <li>variables that are never read, along with any assignments to them,
+ *     as long as the values assigned have no side effects (a variable
+ *     stays declared while any assignment to it is kept)</li>
+ * <li>output variables that are never emitted to</li>
+ * <li>expression statements with no side effects, such as a call to
+ *     <code>getast()</code> whose result is discarded</li>
+ * <li>if statements whose condition is <code>true</code> or
+ *     <code>false</code>, keeping only the branch that runs</li>
+ * </ul>
+ *
+ * Integer arithmetic on literals is folded into a single literal.
+ *
+ * Whether a call has side effects is taken from the function's
+ * {@link boa.functions.FunctionSpec#pure()} metadata, so calls to user
+ * functions are always kept.  Variables are matched by name, so a
+ * variable is kept if any variable with the same name is read.
+ *
+ * @author agent
+ */
+public class DeadCodeEliminationTransformer extends AbstractVisitorNoArg {
+	/**
+	 * Finds the names of all variables that are read, and of all variables
+	 * that are assigned to.  Declaring a variable, or assigning a new value
+	 * to it, is not a read.
+	 *
+	 * @author agent
+	 */
+	protected class UseFindingVisitor extends AbstractVisitorNoArg {
+		private final Set<String> uses = new HashSet<String>();
+		private final Set<String> stores = new HashSet<String>();
+
+		public boolean isUsed(final String id) {
+			return uses.contains(id);
+		}
+
+		public boolean isAssigned(final String id) {
+			return stores.contains(id);
+		}
+
+		/** {@inheritDoc} */
+		@Override
+		protected void initialize() {
+			uses.clear();
+			stores.clear();
+		}
+
+		/** {@inheritDoc} */
+		@Override
+		public void visit(final Identifier n) {
+			uses.add(n.getToken());
+		}
+
+		/** {@inheritDoc} */
+		@Override
+		public void visit(final VarDeclStatement n) {
+			if (n.hasType())
+				n.getType().accept(this);
+			if (n.hasInitializer())
+				n.getInitializer().accept(this);
+		}
+
+		/** {@inheritDoc} */
+		@Override
+		public void visit(final AssignmentStatement n) {
+			final String id = getStoredVariable(n);
+			if (id == null)
+				n.getLhs().accept(this);
+			else
+				stores.add(id);
+			n.getRhs().accept(this);
+		}
+	}
+
+	/**
+	 * Finds if evaluating an expression can have side effects.
+	 *
+	 * @author agent
+	 */
+	protected class PurityFindingVisitor extends AbstractVisitorNoArg {
+		private boolean pure;
+
+		public boolean isPure(final Node n) {
+			start(n);
+			return pure;
+		}
+
+		/** {@inheritDoc} */
+		@Override
+		protected void initialize() {
+			pure = true;
+		}
+
+		/** {@inheritDoc} */
+		@Override
+		public void visit(final Factor n) {
+			for (int i = 0; i < n.getOpsSize(); i++)
+				if (n.getOp(i) instanceof Call)
+					if (i != 0 || n.env == null || !(n.getOperand() instanceof Identifier) || !n.env.hasPureFunction(((Identifier) n.getOperand()).getToken()))
+						pure = false;
+
+			super.visit(n);
+		}
+
+		/** {@inheritDoc} */
+		@Override
+		public void visit(final FunctionExpression n) {
+			// creating a function runs none of its body
+		}
+
+		/** {@inheritDoc} */
+		@Override
+		public void visit(final VisitorExpression n) {
+			// creating a visitor runs none of its body
+		}
+	}
+
+	/**
+	 * Folds integer arithmetic on literals.
+	 *
+	 * @author agent
+	 */
+	protected class ConstantFoldingVisitor extends AbstractVisitorNoArg {
+		/** {@inheritDoc} */
+		@Override
+		public void visit(final Term n) {
+			super.visit(n);
+
+			if (n.getRhsSize() == 0 || !(n.type instanceof BoaInt))
+				return;
+
+			Long value = getConstant(n.getLhs());
+			for (int i = 0; value != null && i < n.getRhsSize(); i++) {
+				final Long rhs = getConstant(n.getRhs(i));
+				final String op = n.getOp(i);
+
+				if (rhs == null)
+					value = null;
+				else if (op.equals("*"))
+					value = value * rhs;
+				else if ((op.equals("/") || op.equals("%")) && rhs != 0)
+					value = op.equals("/") ? value / rhs : value % rhs;
+				else
+					value = null;
+			}
+
+			// only non-negative values, as a literal can not start with a minus
+			if (value == null || value < 0)
+				return;
+
+			n.setLhs(newConstant(value, n));
+			n.getOps().clear();
+			n.getRhs().clear();
+		}
+
+		/** {@inheritDoc} */
+		@Override
+		public void visit(final SimpleExpr n) {
+			super.visit(n);
+
+			if (n.getRhsSize() == 0 || !(n.type instanceof BoaInt))
+				return;
+
+			Long value = getConstant(n.getLhs());
+			for (int i = 0; value != null && i < n.getRhsSize(); i++) {
+				final Long rhs = getConstant(n.getRhs(i));
+				final String op = n.getOp(i);
+
+				if (rhs == null)
+					value = null;
+				else if (op.equals("+"))
+					value = value + rhs;
+				else if (op.equals("-"))
+					value = value - rhs;
+				else
+					value = null;
+			}
+
+			if (value == null || value < 0)
+				return;
+
+			final Term t = new Term(newConstant(value, n));
+			t.type = n.type;
+			t.env = n.env;
+
+			n.setLhs(t);
+			n.getOps().clear();
+			n.getRhs().clear();
+		}
+
+		private Long getConstant(final Term t) {
+			if (t.getRhsSize() > 0)
+				return null;
+			return getConstant(t.getLhs());
+		}
+
+		private Long getConstant(final Factor f) {
+			if (f.getOpsSize() > 0 || !(f.getOperand() instanceof IntegerLiteral))
+				return null;
+
+			// only plain decimals, leaving octal and hex literals alone
+			final String s = ((IntegerLiteral) f.getOperand()).getLiteral();
+			if (!s.matches("0|[1-9][0-9]{0,17}"))
+				return null;
+			return Long.valueOf(s);
+		}
+
+		private Factor newConstant(final long value, final Node n) {
+			final IntegerLiteral lit = new IntegerLiteral(Long.toString(value));
+			lit.type = n.type;
+			lit.env = n.env;
+
+			final Factor f = new Factor(lit);
+			f.type = n.type;
+			f.env = n.env;
+			return f;
+		}
+	}
+
+	/**
+	 * Removes dead statements from every block.
+	 *
+	 * @author agent
+	 */
+	protected class DeadStatementRemovingVisitor extends AbstractVisitorNoArg {
+		private boolean changed;
+
+		public boolean isChanged() {
+			return changed;
+		}
+
+		/** {@inheritDoc} */
+		@Override
+		protected void initialize() {
+			changed = false;
+		}
+
+		/** {@inheritDoc} */
+		@Override
+		public void visit(final Program n) {
+			removeDeadStatements(n);
+			super.visit(n);
+		}
+
+		/** {@inheritDoc} */
+		@Override
+		public void visit(final Block n) {
+			removeDeadStatements(n);
+			super.visit(n);
+		}
+
+		private void removeDeadStatements(final Block n) {
+			final List<Statement> statements = n.getStatements();
+
+			for (int i = 0; i < statements.size(); i++) {
+				final Statement s = statements.get(i);
+				final Statement replacement = simplify(s);
+
+				if (replacement == s)
+					continue;
+
+				changed = true;
+				if (replacement == null) {
+					statements.remove(i--);
+				} else {
+					replacement.setParent(n);
+					statements.set(i, replacement);
+				}
+			}
+		}
+
+		/**
+		 * Returns the statement to use in place of s, null if s can be
+		 * removed, or s itself if it is needed.
+		 */
+		private Statement simplify(final Statement s) {
+			if (s instanceof VarDeclStatement) {
+				final VarDeclStatement n = (VarDeclStatement) s;
+
+				// an assignment that is kept still needs the variable declared
+				if (useFinder.isUsed(n.getId().getToken()) || useFinder.isAssigned(n.getId().getToken()))
+					return n;
+				if (n.hasType() && n.getType() instanceof OutputType)
+					return null;
+				if (!n.hasInitializer() || purityFinder.isPure(n.getInitializer()))
+					return null;
+			} else if (s instanceof AssignmentStatement) {
+				final AssignmentStatement n = (AssignmentStatement) s;
+				final String id = getStoredVariable(n);
+
+				if (id != null && !useFinder.isUsed(id) && purityFinder.isPure(n.getRhs()))
+					return null;
+			} else if (s instanceof ExprStatement) {
+				if (purityFinder.isPure(((ExprStatement) s).getExpr()))
+					return null;
+			} else if (s instanceof IfStatement) {
+				final IfStatement n = (IfStatement) s;
+				final Boolean condition = getConstantCondition(n.getCondition());
+
+				if (condition == Boolean.TRUE)
+					return n.getBody();
+				if (condition == Boolean.FALSE)
+					return n.hasElse() ? n.getElse() : null;
+				if (n.getBody().getStatementsSize() == 0 && (!n.hasElse() || n.getElse().getStatementsSize() == 0) && purityFinder.isPure(n.getCondition()))
+					return null;
+			}
+
+			return s;
+		}
+	}
+
+	protected final UseFindingVisitor useFinder = new UseFindingVisitor();
+	protected final PurityFindingVisitor purityFinder = new PurityFindingVisitor();
+	protected final ConstantFoldingVisitor constantFolder = new ConstantFoldingVisitor();
+	protected final DeadStatementRemovingVisitor deadStatementRemover = new DeadStatementRemovingVisitor();
+
+	/** {@inheritDoc} */
+	@Override
+	public void visit(final Program n) {
+		constantFolder.start(n);
+
+		// removing a statement can leave other variables unused
+		do {
+			useFinder.start(n);
+			deadStatementRemover.start(n);
+		} while (deadStatementRemover.isChanged());
+	}
+
+	/**
+	 * Returns the name of the variable an assignment stores to, or null if
+	 * the assignment is to an element or field of the variable.
+	 */
+	protected static String getStoredVariable(final AssignmentStatement n) {
+		final Factor lhs = n.getLhs();
+		if (lhs.getOpsSize() > 0 || !(lhs.getOperand() instanceof Identifier))
+			return null;
+		return ((Identifier) lhs.getOperand()).getToken();
+	}
+
+	/**
+	 * Returns the value of a condition that is just <code>true</code> or
+	 * <code>false</code>, otherwise null.
+	 */
+	protected static Boolean getConstantCondition(final Expression e) {
+		if (e.getRhsSize() > 0)
+			return null;
+
+		final Conjunction c = e.getLhs();
+		if (c.getRhsSize() > 0)
+			return null;
+
+		final Comparison cmp = c.getLhs();
+		if (cmp.hasRhs() || cmp.getLhs().getRhsSize() > 0)
+			return null;
+
+		final Term t = cmp.getLhs().getLhs();
+		if (t.getRhsSize() > 0)
+			return null;
+
+		final Factor f = t.getLhs();
+		if (f.getOpsSize() > 0 || !(f.getOperand() instanceof Identifier) || f.env == null)
+			return null;
+
+		final String id = ((Identifier) f.getOperand()).getToken();
+		if (f.env.hasLocal(id))
+			return null;
+		if (id.equals("true"))
+			return Boolean.TRUE;
+		if (id.equals("false"))
+			return Boolean.FALSE;
+		return null;
+	}
+}
@@ -45,7 +45,7 @@ public class VisitorOptimizingTransformer extends AbstractVisitorNoArg {
 		astTypes.addAll(new ASTRootProtoTuple().reachableTypes());
 	}
 
-	protected final static VariableRenameTransformer renamer = new VariableRenameTransformer();
+	protected final VariableRenameTransformer renamer = new VariableRenameTransformer();
 
 	protected Set<Class<? extends BoaType>> types;
 	protected final Stack<Set<Class<? extends BoaType>>> typeStack = new Stack<Set<Class<? extends BoaType>>>();
@@ -33,7 +33,13 @@ import boa.compiler.ast.Node;
 public abstract class AbstractCodeGeneratingVisitor extends AbstractVisitorNoArg {
 	public static STGroup stg = new STGroupFile("templates/BoaJavaHadoop.stg");
 	static {
-		stg.importTemplates(new STGroupFile("templates/BoaJava.stg"));
+		final STGroup javaStg = new STGroupFile("templates/BoaJava.stg");
+
+		// groups load lazily and loading is not thread-safe, so load both
+		// up front to allow code generators to run concurrently
+		javaStg.load();
+		stg.importTemplates(javaStg);
+		stg.load();
 	}
 
 	protected final LinkedList<String> code = new LinkedList<String>();
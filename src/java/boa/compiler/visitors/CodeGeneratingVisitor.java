@@ -27,7 +27,6 @@ import java.util.regex.Pattern;
 import org.stringtemplate.v4.ST;
 
 import boa.aggregators.AggregatorSpec;
-import boa.compiler.SymbolTable;
 import boa.compiler.TypeCheckException;
 import boa.compiler.ast.*;
 import boa.compiler.ast.expressions.*;
@@ -387,15 +386,16 @@ public class CodeGeneratingVisitor extends AbstractCodeGeneratingVisitor {
 	protected final StaticInitializationCodeGeneratingVisitor staticInitialization;
 	protected final FunctionDeclaratorCodeGeneratingVisitor functionDeclarator;
 
-	protected final HashMap<String, AggregatorDescription> aggregators = new HashMap<String, AggregatorDescription>();
+	protected final HashMap<String, AggregatorDescription> aggregators = new LinkedHashMap<String, AggregatorDescription>();
 
 	protected final String name;
 
 	protected String skipIndex = "";
 	protected boolean abortGeneration = false;
+	protected boolean cfgEdges = false;
 
-	final public static List<String> combineAggregatorStrings = new ArrayList<String>();
-	final public static List<String> reduceAggregatorStrings = new ArrayList<String>();
+	protected final List<String> combineAggregatorStrings = new ArrayList<String>();
+	protected final List<String> reduceAggregatorStrings = new ArrayList<String>();
 
 	public CodeGeneratingVisitor(final String name) throws IOException {
 		this.name = name;
@@ -405,6 +405,14 @@ public class CodeGeneratingVisitor extends AbstractCodeGeneratingVisitor {
 		functionDeclarator = new FunctionDeclaratorCodeGeneratingVisitor();
 	}
 
+	public List<String> getCombineAggregatorStrings() {
+		return this.combineAggregatorStrings;
+	}
+
+	public List<String> getReduceAggregatorStrings() {
+		return this.reduceAggregatorStrings;
+	}
+
 	/** {@inheritDoc} */
 	@Override
 	public void visit(final Program n) {
@@ -674,7 +682,13 @@ public class CodeGeneratingVisitor extends AbstractCodeGeneratingVisitor {
 				final Node o = n.getOp(i);
 
 				o.accept(this);
-				accept += code.removeLast();
+				if (cfgEdges) {
+					cfgEdges = false;
+					code.removeLast();
+					accept = "boa.functions.BoaGraphIntrinsics.getEdgeMatrix(" + accept + ")";
+				} else {
+					accept += code.removeLast();
+				}
 			}
 
 			n.env.getOperandType();
@@ -693,9 +707,9 @@ public class CodeGeneratingVisitor extends AbstractCodeGeneratingVisitor {
 
 		if (n.env.hasType(id)) {
 			if (n.env.getNeedsBoxing())
-				code.add(SymbolTable.getType(id).toBoxedJavaType());
+				code.add(n.env.getType(id).toBoxedJavaType());
 			else
-				code.add(SymbolTable.getType(id).toJavaType());
+				code.add(n.env.getType(id).toJavaType());
 			return;
 		}
 
@@ -768,6 +782,12 @@ public class CodeGeneratingVisitor extends AbstractCodeGeneratingVisitor {
 			if (opType instanceof BoaProtoTuple) {
 				final BoaType memberType = ((BoaProtoTuple) opType).getMember(member);
 				n.env.setOperandType(memberType);
+				// a CFG's edges are stored sparse, but programs still read them as a matrix
+				if (opType instanceof boa.types.proto.CFGProtoTuple && member.equals("edges")) {
+					cfgEdges = true;
+					code.add("");
+					return;
+				}
 				if (memberType instanceof BoaProtoList)
 					code.add(".get" + camelCase(member) + "List()");
 				else
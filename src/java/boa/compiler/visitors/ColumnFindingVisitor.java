@@ -0,0 +1,218 @@
+/*
+ * Copyright 2015, Hridesh Rajan, Robert Dyer,
+ *                 and Iowa State University of Science and Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package boa.compiler.visitors;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import boa.compiler.SymbolTable;
+import boa.compiler.ast.Call;
+import boa.compiler.ast.Comparison;
+import boa.compiler.ast.Factor;
+import boa.compiler.ast.Identifier;
+import boa.compiler.ast.Node;
+import boa.compiler.ast.Selector;
+import boa.compiler.ast.expressions.Expression;
+import boa.compiler.ast.statements.EmitStatement;
+import boa.compiler.ast.statements.VisitStatement;
+import boa.io.ProjectColumns;
+import boa.types.BoaArray;
+import boa.types.BoaName;
+import boa.types.BoaProtoList;
+import boa.types.BoaType;
+import boa.types.proto.ChangedFileProtoTuple;
+import boa.types.proto.CodeRepositoryProtoTuple;
+import boa.types.proto.PersonProtoTuple;
+import boa.types.proto.ProjectProtoTuple;
+import boa.types.proto.RevisionProtoTuple;
+
+/**
+ * Finds which project fields a program reads, to see if it can run on the
+ * columnar copy of the project metadata (see {@link ProjectColumns}).
+ *
+ * A program can if every field it selects from a project, repository,
+ * revision or file is in the copy, it visits nothing below a file, and it
+ * never hands one of those values to a builtin that might read other
+ * fields.  This must run on a type checked program.
+ *
+ * @author agent
+ */
+public class ColumnFindingVisitor extends AbstractVisitorNoArg {
+	protected final static Map<Class<? extends BoaType>, String> tupleNames = new HashMap<Class<? extends BoaType>, String>();
+
+	static {
+		tupleNames.put(ProjectProtoTuple.class, "Project");
+		tupleNames.put(CodeRepositoryProtoTuple.class, "CodeRepository");
+		tupleNames.put(RevisionProtoTuple.class, "Revision");
+		tupleNames.put(ChangedFileProtoTuple.class, "ChangedFile");
+		tupleNames.put(PersonProtoTuple.class, "Person");
+	}
+
+	private final Set<String> columns = new TreeSet<String>();
+	private boolean metadataOnly = true;
+
+	/**
+	 * @return true if the program only needs the columnar copy
+	 */
+	public boolean isMetadataOnly() {
+		return metadataOnly;
+	}
+
+	/**
+	 * @return the fields the program reads, as <code>Type.field</code>
+	 */
+	public Set<String> getColumns() {
+		return columns;
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	protected void initialize() {
+		columns.clear();
+		metadataOnly = true;
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public void visit(final Factor n) {
+		BoaType type = n.getOperand().type;
+
+		for (int i = 0; i < n.getOpsSize(); i++) {
+			final Node op = n.getOp(i);
+
+			if (op instanceof Selector)
+				select(type, ((Selector) op).getId().getToken());
+			else if (op instanceof Call)
+				call(n.env, i == 0 && n.getOperand() instanceof Identifier ? (Identifier) n.getOperand() : null, (Call) op);
+
+			type = op.type;
+		}
+
+		super.visit(n);
+	}
+
+	private void select(final BoaType type, final String field) {
+		final String name = getTupleName(type);
+		// persons are only in the copy as a revision's author or committer
+		if (name == null || name.equals("Person"))
+			return;
+
+		final String column = name + "." + field;
+		if (ProjectColumns.COLUMNS.contains(column))
+			columns.add(column);
+		else
+			metadataOnly = false;
+	}
+
+	private void call(final SymbolTable env, final Identifier function, final Call n) {
+		// a user function's body is checked where it is declared
+		if (function != null && env != null && (env.hasLocal(function.getToken()) || env.hasGlobal(function.getToken())))
+			return;
+
+		final String name = function == null ? null : function.getToken();
+		for (final Expression arg : n.getArgs()) {
+			if (!isTupleOrList(arg.type))
+				continue;
+
+			// what a visit reaches is checked by its visitor's clauses
+			if ("def".equals(name) || "len".equals(name) || "visit".equals(name))
+				continue;
+
+			if ("isfixingrevision".equals(name)) {
+				columns.add("Revision.log");
+			} else if ("hasfiletype".equals(name)) {
+				columns.add("Project.code_repositories");
+				columns.add("CodeRepository.revisions");
+				columns.add("Revision.files");
+				columns.add("ChangedFile.name");
+			} else {
+				metadataOnly = false;
+			}
+		}
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public void visit(final VisitStatement n) {
+		super.visit(n);
+
+		if (n.hasWildcard())
+			metadataOnly = false;
+		else if (n.hasComponent())
+			visited(n.getComponent().getType().type);
+		else
+			for (final Identifier id : n.getIdList())
+				visited(id.type);
+	}
+
+	private void visited(final BoaType type) {
+		final String name = getTupleName(type);
+
+		if ("Project".equals(name))
+			return;
+
+		if ("CodeRepository".equals(name) || "Revision".equals(name) || "ChangedFile".equals(name))
+			columns.add("Project.code_repositories");
+		if ("Revision".equals(name) || "ChangedFile".equals(name))
+			columns.add("CodeRepository.revisions");
+		if ("ChangedFile".equals(name))
+			columns.add("Revision.files");
+
+		// persons are also visited as developers and maintainers, and everything else is below a file
+		if (name == null || name.equals("Person"))
+			metadataOnly = false;
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public void visit(final EmitStatement n) {
+		super.visit(n);
+
+		if (isTupleOrList(n.getValue().type))
+			metadataOnly = false;
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public void visit(final Comparison n) {
+		super.visit(n);
+
+		// comparing whole values compares every field
+		if (n.hasRhs() && getTupleName(n.getLhs().type) != null)
+			metadataOnly = false;
+	}
+
+	private static String getTupleName(final BoaType type) {
+		if (type == null)
+			return null;
+		if (type instanceof BoaName)
+			return getTupleName(((BoaName) type).getType());
+		return tupleNames.get(type.getClass());
+	}
+
+	private static boolean isTupleOrList(final BoaType type) {
+		if (type instanceof BoaName)
+			return isTupleOrList(((BoaName) type).getType());
+		if (type instanceof BoaProtoList)
+			return getTupleName(((BoaProtoList) type).getType()) != null;
+		if (type instanceof BoaArray)
+			return getTupleName(((BoaArray) type).getType()) != null;
+		return getTupleName(type) != null;
+	}
+}
@@ -408,7 +408,7 @@ public class TypeCheckingVisitor extends AbstractVisitorNoReturn<SymbolTable> {
 		n.env = env;
 
 		if (env.hasType(n.getToken()))
-			n.type = SymbolTable.getType(n.getToken());
+			n.type = env.getType(n.getToken());
 		else
 			try {
 				n.type = env.get(n.getToken());
@@ -889,7 +889,7 @@ public class TypeCheckingVisitor extends AbstractVisitorNoReturn<SymbolTable> {
 		}
 		else if (!n.hasWildcard())
 			for (final Identifier id : n.getIdList()) {
-				if (SymbolTable.getType(id.getToken()) == null)
+				if (st.getType(id.getToken()) == null)
 					throw new TypeCheckException(id, "Invalid type '" + id.getToken() + "'");
 				id.accept(this, st);
 			}
@@ -1158,7 +1158,7 @@ public class TypeCheckingVisitor extends AbstractVisitorNoReturn<SymbolTable> {
 			if (annotation.weightType().equals("none"))
 				throw new TypeCheckException(n.getWeight(), "output aggregator '" + n.getId().getToken() + "' does not expect a weight");
 
-			final BoaType aweight = SymbolTable.getType(annotation.weightType());
+			final BoaType aweight = SymbolTable.getBuiltinType(annotation.weightType());
 			n.getWeight().accept(this, env);
 			tweight = (BoaScalar) n.getWeight().type;
 
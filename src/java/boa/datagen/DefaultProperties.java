@@ -23,7 +23,12 @@ package boa.datagen;
 public class DefaultProperties {
 	public static final boolean DEBUG = false;
 	public static final String NUM_THREADS = "8";
+	public static final String NUM_QUEUED_PROJECTS = "64";
+	public static final String NUM_REPO_THREADS = Integer.toString(Runtime.getRuntime().availableProcessors());
 	public static final String MAX_COMMITS = "10000";
+	public static final String GIT_DIFF_MODE = "full";
+	public static final String GIT_TREE_CACHE_SIZE = Long.toString(64 * 1024 * 1024);
+	public static final boolean JAVA_RESOLVE_BINDINGS = false;
 
 	// HBase tables
 	public static final String HBASE_PROJECTS_TABLE = "projects";
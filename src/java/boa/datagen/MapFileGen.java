@@ -17,22 +17,40 @@
 
 package boa.datagen;
 
+import java.io.IOException;
+
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.BloomMapFile;
 import org.apache.hadoop.io.BytesWritable;
 import org.apache.hadoop.io.MapFile;
+import org.apache.hadoop.io.SequenceFile;
+import org.apache.hadoop.io.SequenceFile.CompressionType;
 import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.compress.CompressionCodec;
 
 import boa.datagen.util.Properties;
 
 /**
+ * Turns sorted sequence files (such as the AST, comments and issues stores)
+ * into map files, in a single streaming pass over each file.
+ *
+ * Only every map.index.interval-th key is indexed, and with
+ * map.bloom.filter set, a bloom filter of all keys is written next to the
+ * index so lookups of missing keys rarely need to read the data file.  The
+ * filter is sized for map.bloom.size keys, or if that is not set, for the
+ * number of keys in the input, which costs a pass over just the keys.
+ *
  * @author hoan
  * @author hridesh
  */
 public class MapFileGen {
 	private final static String SEQ_FILE_PATH = Properties.getProperty("seq.file.path", "");
+	private final static int INDEX_INTERVAL = Integer.parseInt(Properties.getProperty("map.index.interval", "128"));
+	private final static boolean BLOOM_FILTER = Properties.getBoolean("map.bloom.filter", false);
+	private final static long BLOOM_SIZE = Long.parseLong(Properties.getProperty("map.bloom.size", "0"));
 
 	public static void main(String[] args) throws Exception {
 		if (SEQ_FILE_PATH.isEmpty()) {
@@ -43,34 +61,118 @@ public class MapFileGen {
 		Configuration conf = new Configuration();
 		conf.set("fs.default.name", base);
 		FileSystem fs = FileSystem.get(conf);
-		Path path = new Path(SEQ_FILE_PATH);
-		String name = path.getName();
-		if (fs.isFile(path)) {
-			if (path.getName().equals(MapFile.DATA_FILE_NAME)) {
-				MapFile.fix(fs, path.getParent(), Text.class, BytesWritable.class, false, conf);
+
+		// several stores can be given, separated by commas
+		for (final String s : SEQ_FILE_PATH.split(",")) {
+			Path path = new Path(s.trim());
+			String name = path.getName();
+			if (fs.isFile(path)) {
+				if (path.getName().equals(MapFile.DATA_FILE_NAME))
+					generate(fs, conf, path, path.getParent());
+				else
+					generate(fs, conf, path, new Path(path.getParent(), name));
 			}
 			else {
-				Path dataFile = new Path(path.getParent(), MapFile.DATA_FILE_NAME);
-				fs.rename(path, dataFile);
-				Path dir = new Path(path.getParent(), name);
-				fs.mkdirs(dir);
-				fs.rename(dataFile, new Path(dir, dataFile.getName()));
-				MapFile.fix(fs, dir, Text.class, BytesWritable.class, false, conf);
-			}
-		}
-		else {
-			FileStatus[] files = fs.listStatus(path);
-			for (FileStatus file : files) {
-				path = file.getPath();
-				if (fs.isFile(path)) {
-					Path dataFile = new Path(path.getParent(), MapFile.DATA_FILE_NAME);
-					fs.rename(path, dataFile);
-					MapFile.fix(fs, dataFile.getParent(), Text.class, BytesWritable.class, false, conf);
-					break;
+				FileStatus[] files = fs.listStatus(path);
+				for (FileStatus file : files) {
+					if (fs.isFile(file.getPath())) {
+						generate(fs, conf, file.getPath(), path);
+						break;
+					}
 				}
 			}
 		}
 		fs.close();
 	}
 
+	/**
+	 * Writes a sorted sequence file as a map file, then deletes the
+	 * sequence file.
+	 */
+	private static void generate(FileSystem fs, Configuration conf, Path seqFile, Path mapDir) throws IOException {
+		// move the input out of the way of the files about to be written
+		Path in = seqFile;
+		if (seqFile.equals(mapDir) || seqFile.getParent().equals(mapDir)) {
+			in = new Path(seqFile.getParent(), "." + seqFile.getName() + ".sorted");
+			if (!fs.rename(seqFile, in))
+				throw new IOException("unable to rename " + seqFile + " to " + in);
+		}
+
+		System.out.println("Generating map file " + mapDir + " from " + seqFile);
+
+		final SequenceFile.Reader r = new SequenceFile.Reader(fs, in, conf);
+		try {
+			CompressionType type = CompressionType.NONE;
+			if (r.isBlockCompressed())
+				type = CompressionType.BLOCK;
+			else if (r.isCompressed())
+				type = CompressionType.RECORD;
+
+			final MapFile.Writer w = createWriter(conf, fs, mapDir, type, r.getCompressionCodec(), needsKeyCount() ? countKeys(fs, conf, in) : 0);
+			try {
+				final Text key = new Text();
+				final BytesWritable value = new BytesWritable();
+				while (r.next(key, value))
+					w.append(key, value);
+			} finally {
+				w.close();
+			}
+		} finally {
+			r.close();
+		}
+
+		fs.delete(in, false);
+	}
+
+	/**
+	 * @return true if {@link #createWriter} needs to be told how many keys the map file will have
+	 */
+	public static boolean needsKeyCount() {
+		return BLOOM_FILTER && BLOOM_SIZE <= 0;
+	}
+
+	/**
+	 * Counts the keys in a sequence file, reading past the values.
+	 */
+	public static long countKeys(FileSystem fs, Configuration conf, Path seqFile) throws IOException {
+		final SequenceFile.Reader r = new SequenceFile.Reader(fs, seqFile, conf);
+		try {
+			final Text key = new Text();
+			long count = 0;
+			while (r.next(key))
+				count++;
+			return count;
+		} finally {
+			r.close();
+		}
+	}
+
+	/**
+	 * Creates a map file writer, with or without a bloom filter, that indexes
+	 * every map.index.interval-th key.
+	 *
+	 * @param codec the codec to compress with, or null for the default codec
+	 * @param keys how many keys will be written, which sizes the bloom filter unless map.bloom.size is set
+	 */
+	public static MapFile.Writer createWriter(Configuration conf, FileSystem fs, Path mapDir, CompressionType type, CompressionCodec codec, long keys) throws IOException {
+		final MapFile.Writer w;
+		if (BLOOM_FILTER) {
+			// Hadoop's default is 1M keys, past which the filter adds a row per 1M keys and
+			// its false positives approach 100%, so size it for all of the keys up front
+			conf = new Configuration(conf);
+			conf.setInt("io.mapfile.bloom.size", (int) Math.min(Integer.MAX_VALUE, Math.max(1, BLOOM_SIZE > 0 ? BLOOM_SIZE : keys)));
+
+			if (codec == null)
+				w = new BloomMapFile.Writer(conf, fs, mapDir.toString(), Text.class, BytesWritable.class, type);
+			else
+				w = new BloomMapFile.Writer(conf, fs, mapDir.toString(), Text.class, BytesWritable.class, type, codec, null);
+		} else {
+			if (codec == null)
+				w = new MapFile.Writer(conf, fs, mapDir.toString(), Text.class, BytesWritable.class, type);
+			else
+				w = new MapFile.Writer(conf, fs, mapDir.toString(), Text.class, BytesWritable.class, type, codec, null);
+		}
+		w.setIndexInterval(INDEX_INTERVAL);
+		return w;
+	}
 }
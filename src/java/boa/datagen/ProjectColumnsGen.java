@@ -0,0 +1,100 @@
+/*
+ * Copyright 2015, Hridesh Rajan, Robert Dyer, Hoan Nguyen
+ *                 and Iowa State University of Science and Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boa.datagen;
+
+import java.io.IOException;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.BytesWritable;
+import org.apache.hadoop.io.SequenceFile;
+import org.apache.hadoop.io.Text;
+
+import com.google.protobuf.CodedInputStream;
+
+import boa.datagen.util.Properties;
+import boa.io.ProjectColumns;
+import boa.types.Toplevel.Project;
+
+/**
+ * Writes the columnar copy of a projects.seq file next to it, split into
+ * parts of columns.part.size projects so queries can read them in parallel.
+ *
+ * @author agent
+ */
+public class ProjectColumnsGen {
+	private final static String PROJECTS_PATH = Properties.getProperty("seq.projects.path", "");
+	private final static int PART_SIZE = Integer.parseInt(Properties.getProperty("columns.part.size", "10000"));
+
+	public static void main(String[] args) throws Exception {
+		if (PROJECTS_PATH.isEmpty()) {
+			System.out.println("Missing path to projects.seq. Please specify it in the properties file.");
+			return;
+		}
+		String base = "hdfs://boa-njt/";
+		Configuration conf = new Configuration();
+		conf.set("fs.default.name", base);
+		FileSystem fs = FileSystem.get(conf);
+
+		Path path = new Path(PROJECTS_PATH);
+		generate(fs, conf, path, new Path(path.getParent(), ProjectColumns.DIR));
+
+		fs.close();
+	}
+
+	/**
+	 * Writes the columnar copy of the projects in a sequence file.
+	 */
+	public static void generate(FileSystem fs, Configuration conf, Path projects, Path dir) throws IOException {
+		System.out.println("Generating columns " + dir + " from " + projects);
+		fs.delete(dir, true);
+
+		// taken before reading, so changes made while copying leave the copy stale
+		final FileStatus source = fs.getFileStatus(projects);
+		final SequenceFile.Reader r = new SequenceFile.Reader(fs, projects, conf);
+		ProjectColumns.Writer w = null;
+		try {
+			final Text key = new Text();
+			final BytesWritable value = new BytesWritable();
+			int count = 0;
+			while (r.next(key, value)) {
+				if (count % PART_SIZE == 0) {
+					if (w != null)
+						w.close();
+					w = new ProjectColumns.Writer(fs, new Path(dir, String.format("part-%05d", count / PART_SIZE)));
+				}
+				final CodedInputStream stream = CodedInputStream.newInstance(value.getBytes(), 0, value.getLength());
+				// defaults to 64, really big projects require more
+				stream.setRecursionLimit(Integer.MAX_VALUE);
+				w.append(Project.parseFrom(stream));
+				count++;
+			}
+			if (w != null) {
+				w.close();
+				w = null;
+			}
+			ProjectColumns.writeSource(fs, dir, source);
+		} finally {
+			if (w != null)
+				w.close();
+			r.close();
+		}
+	}
+}
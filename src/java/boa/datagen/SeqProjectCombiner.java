@@ -18,6 +18,7 @@
 package boa.datagen;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 
@@ -31,6 +32,8 @@ import org.apache.hadoop.io.Text;
 
 import com.google.protobuf.CodedInputStream;
 
+import boa.datagen.util.Properties;
+import boa.types.Code.CodeRepository;
 import boa.types.Toplevel.Project;
 
 /**
@@ -47,11 +50,26 @@ public class SeqProjectCombiner {
 		
 		HashMap<String, String> sources = new HashMap<String, String>();
 		HashSet<String> marks = new HashSet<String>();
+		// projects holding only the revisions added since the previous dataset
+		HashMap<String, byte[]> deltas = new HashMap<String, byte[]>();
 		FileStatus[] files = fileSystem.listStatus(new Path(base + "tmprepcache/2015-07"));
 		for (int i = 0; i < files.length; i++) {
 			FileStatus file = files[i];
 			String name = file.getPath().getName();
-			if (name.startsWith("projects-") && name.endsWith(".seq")) {
+			if (name.startsWith("delta-") && name.endsWith(".seq")) {
+				System.out.println("Reading file " + i + " in " + files.length + ": " + name);
+				SequenceFile.Reader r = new SequenceFile.Reader(fileSystem, file.getPath(), conf);
+				final Text key = new Text();
+				final BytesWritable value = new BytesWritable();
+				try {
+					while (r.next(key, value))
+						deltas.put(key.toString(), Arrays.copyOf(value.getBytes(), value.getLength()));
+				} catch (Exception e) {
+					System.err.println(name);
+					e.printStackTrace();
+				}
+				r.close();
+			} else if (name.startsWith("projects-") && name.endsWith(".seq")) {
 				System.out.println("Reading file " + i + " in " + files.length + ": " + name);
 				SequenceFile.Reader r = new SequenceFile.Reader(fileSystem, file.getPath(), conf);
 				final Text key = new Text();
@@ -73,6 +91,38 @@ public class SeqProjectCombiner {
 			}
 		}
 		SequenceFile.Writer w = SequenceFile.createWriter(fileSystem, conf, new Path(base + "repcache/2015-07/projects.seq"), Text.class, BytesWritable.class);
+
+		// update the previous dataset, if there is one
+		String previousProjectsPath = Properties.getProperty("gh.previous.projects.path", "");
+		HashSet<String> kept = new HashSet<String>();
+		if (!previousProjectsPath.isEmpty()) {
+			System.out.println("Updating " + previousProjectsPath);
+			SequenceFile.Reader r = new SequenceFile.Reader(fileSystem, new Path(base + previousProjectsPath), conf);
+			final Text key = new Text();
+			final BytesWritable value = new BytesWritable();
+			try {
+				while (r.next(key, value)) {
+					String s = key.toString();
+					Project p = Project.parseFrom(CodedInputStream.newInstance(value.getBytes(), 0, value.getLength()));
+					boolean hasRevisions = p.getCodeRepositoriesCount() > 0 && p.getCodeRepositories(0).getRevisionsCount() > 0;
+					// a full re-import replaces the project, unless it failed to get any revisions
+					if (sources.containsKey(s) && (marks.contains(s) || !hasRevisions))
+						continue;
+					byte[] delta = deltas.remove(s);
+					if (delta != null && hasRevisions)
+						w.append(key, new BytesWritable(appendRevisions(p, Project.parseFrom(delta)).toByteArray()));
+					else
+						w.append(key, value);
+					kept.add(s);
+				}
+			} finally {
+				r.close();
+			}
+		}
+		// any delta left had no project to append to
+		for (String s : deltas.keySet())
+			w.append(new Text(s), new BytesWritable(deltas.get(s)));
+
 		for (int i = 0; i < files.length; i++) {
 			FileStatus file = files[i];
 			String name = file.getPath().getName();
@@ -84,7 +134,7 @@ public class SeqProjectCombiner {
 				try {
 					while (r.next(key, value)) {
 						String s = key.toString();
-						if (sources.get(s).equals(name))
+						if (sources.get(s).equals(name) && !kept.contains(s))
 							w.append(key, value);
 					}
 				} catch (Exception e) {
@@ -99,4 +149,17 @@ public class SeqProjectCombiner {
 		fileSystem.close();
 	}
 
+	/**
+	 * Appends the revisions of an incremental import to the project's
+	 * revisions from the previous dataset, taking everything else from the
+	 * newer import.
+	 */
+	private static Project appendRevisions(Project previous, Project delta) {
+		CodeRepository.Builder repo = CodeRepository.newBuilder(delta.getCodeRepositories(0));
+		repo.clearRevisions();
+		repo.addAllRevisions(previous.getCodeRepositories(0).getRevisionsList());
+		repo.addAllRevisions(delta.getCodeRepositories(0).getRevisionsList());
+		return Project.newBuilder(delta).setCodeRepositories(0, repo).build();
+	}
+
 }
@@ -22,10 +22,16 @@ import java.io.File;
 import java.io.IOException;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Scanner;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.hadoop.conf.Configuration;
@@ -36,6 +42,7 @@ import org.apache.hadoop.io.BytesWritable;
 import org.apache.hadoop.io.SequenceFile;
 import org.apache.hadoop.io.Text;
 
+import com.google.protobuf.CodedInputStream;
 import com.google.protobuf.InvalidProtocolBufferException;
 
 import boa.datagen.scm.AbstractConnector;
@@ -62,17 +69,35 @@ public class SeqRepoImporter {
 	
 	private static final HashMap<String, String[]> repoInfo = new HashMap<String, String[]>();
 	
-	private final static ArrayList<byte[]> cacheOfProjects = new ArrayList<byte[]>();
 	private final static HashSet<String> processedProjectIds = new HashSet<String>();
+
+	// an earlier dataset to update, if only new revisions should be imported
+	private final static String previousProjectsPath = Properties.getProperty("gh.previous.projects.path", "");
+	private final static HashMap<String, PreviousImport> previousImports = new HashMap<String, PreviousImport>();
 	
 	private static Configuration conf = null;
 	private static FileSystem fileSystem = null;
 	private static String base = null;
 	
 	private final static int poolSize = Integer.parseInt(Properties.getProperty("num.threads", boa.datagen.DefaultProperties.NUM_THREADS));
-	private final static AtomicInteger numOfProcessedProjects = new AtomicInteger(0), listId = new AtomicInteger(0);
 	private final static int maxListId = 16;
 
+	// projects read in but not yet imported, bounded so reading waits for the workers
+	private final static Semaphore queuedProjects = new Semaphore(Integer.parseInt(Properties.getProperty("num.queued.projects", boa.datagen.DefaultProperties.NUM_QUEUED_PROJECTS)));
+
+	// each worker thread writes its own sequence files
+	private final static AtomicInteger numOfWriters = new AtomicInteger(0);
+	private final static ConcurrentLinkedQueue<Writers> allWriters = new ConcurrentLinkedQueue<Writers>();
+	private final static ThreadLocal<Writers> writers = new ThreadLocal<Writers>() {
+		@Override
+		protected Writers initialValue() {
+			final Writers w = new Writers(numOfWriters.getAndIncrement());
+			w.openWriters();
+			allWriters.add(w);
+			return w;
+		}
+	};
+
 	public static void main(String[] args) throws IOException, InterruptedException {
 		conf = new Configuration();
 		conf.set("fs.default.name", "hdfs://boa-njt/");
@@ -80,10 +105,19 @@ public class SeqRepoImporter {
 		base = conf.get("fs.default.name", "");
 		
 		getProcessedProjects();
+		if (!previousProjectsPath.isEmpty())
+			getPreviousImports();
 		getRepoInfo();
-		
-		for (int i = 0; i < poolSize; i++) 
-			new Thread(new ImportTask(i)).start();
+
+		// every worker takes the next queued project, so one huge repository only ties up its own worker
+		final ForkJoinPool pool = new ForkJoinPool(poolSize);
+		for (int listId = 0; listId <= maxListId; listId++)
+			queueProjects(pool, listId);
+		pool.shutdown();
+		pool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+
+		for (final Writers w : allWriters)
+			w.closeWriters();
 	}
 
 	private static void getProcessedProjects() throws IOException {
@@ -111,33 +145,77 @@ public class SeqRepoImporter {
 		System.out.println("Got processed projects: " + processedProjectIds.size());
 	}
 
-	private static void buildCacheOfProjects(int listId) {
-		cacheOfProjects.clear();
+	/**
+	 * Where an earlier import of a project's repository stopped.
+	 */
+	private static class PreviousImport {
+		private final String lastCommitId;
+		private final int revisionCount;
+
+		private PreviousImport(final String lastCommitId, final int revisionCount) {
+			this.lastCommitId = lastCommitId;
+			this.revisionCount = revisionCount;
+		}
+	}
+
+	private static void getPreviousImports() throws IOException {
+		final SequenceFile.Reader r = new SequenceFile.Reader(fileSystem, new Path(base + previousProjectsPath), conf);
+		final Text key = new Text();
+		final BytesWritable value = new BytesWritable();
+		try {
+			while (r.next(key, value)) {
+				final Project p = Project.parseFrom(CodedInputStream.newInstance(value.getBytes(), 0, value.getLength()));
+				if (p.getCodeRepositoriesCount() == 0)
+					continue;
+
+				// revisions are in topological order, so the last one was the head
+				final CodeRepository repo = p.getCodeRepositories(0);
+				final int count = repo.getRevisionsCount();
+				if (count > 0)
+					previousImports.put(p.getId(), new PreviousImport(repo.getRevisions(count - 1).getId(), count));
+			}
+		} finally {
+			r.close();
+		}
+		System.out.println("Got previous imports: " + previousImports.size());
+	}
+
+	/**
+	 * Queues the projects of a list that still need importing.  Each one
+	 * waits for a permit before it is parsed, so only a bounded number of
+	 * parsed projects are ever waiting for a worker.
+	 */
+	private static void queueProjects(final ForkJoinPool pool, final int listId) throws InterruptedException {
+		int count = 0;
 		for (File file : jsonCacheDir.listFiles()) {
 			if (file.getName().endsWith("-" + listId + "-buf-map")) {
 				@SuppressWarnings("unchecked")
 				HashMap<String, byte[]> repos = (HashMap<String, byte[]>) FileIO.readObjectFromFile(file.getAbsolutePath());
-				for (String key : repos.keySet()) {
-					byte[] bs = repos.get(key);
-					if (poolSize > 1)
-						cacheOfProjects.add(bs);
-					else {
-						try {
-							Project p = Project.parseFrom(bs);
-							if (processedProjectIds.contains(p.getId())) continue;
-							String name = p.getName();
-							String[] info = repoInfo.get(name);
-							if (info != null && exists(name, info[1]) != null)
-								cacheOfProjects.add(bs);
-						} catch (InvalidProtocolBufferException e) {
-							e.printStackTrace();
-						}
+				for (final Iterator<byte[]> it = repos.values().iterator(); it.hasNext(); ) {
+					final byte[] bs = it.next();
+					it.remove();
+
+					queuedProjects.acquire();
+					boolean queued = false;
+					try {
+						Project p = Project.parseFrom(bs);
+						if (processedProjectIds.contains(p.getId())) continue;
+						String name = p.getName();
+						String[] info = repoInfo.get(name);
+						File gitDir = info == null ? null : exists(name, info[1]);
+						pool.execute(new ImportTask(listId, p, gitDir));
+						queued = true;
+						count++;
+					} catch (InvalidProtocolBufferException e) {
+						e.printStackTrace();
+					} finally {
+						if (!queued)
+							queuedProjects.release();
 					}
 				}
-				repos.clear();
 			}
 		}
-		System.out.println("Got cached projects: " + cacheOfProjects.size());
+		System.out.println("Queued cached projects: " + count);
 	}
 
 	private static void getRepoInfo() {
@@ -173,13 +251,16 @@ public class SeqRepoImporter {
 		System.out.println();
 	}
 
-	public static class ImportTask implements Runnable {
+	/**
+	 * The sequence files one worker thread writes to.
+	 */
+	private static class Writers {
 		private static final int MAX_COUNTER = 10000;
-		private int id;
+		private final int id;
 		private int counter = 0;
-		SequenceFile.Writer projectWriter, astWriter;
-		
-		public ImportTask(int id) throws IOException {
+		SequenceFile.Writer projectWriter, astWriter, deltaWriter;
+
+		private Writers(final int id) {
 			this.id = id;
 		}
 
@@ -199,6 +280,8 @@ public class SeqRepoImporter {
 				try {
 					projectWriter = SequenceFile.createWriter(fileSystem, conf, new Path(base + "tmprepcache/2015-08/projects-" + suffix), Text.class, BytesWritable.class);
 					astWriter = SequenceFile.createWriter(fileSystem, conf, new Path(base + "tmprepcache/2015-08/ast-" + suffix), Text.class, BytesWritable.class);
+					if (!previousProjectsPath.isEmpty())
+						deltaWriter = SequenceFile.createWriter(fileSystem, conf, new Path(base + "tmprepcache/2015-08/delta-" + suffix), Text.class, BytesWritable.class);
 					break;
 				} catch (Throwable t) {
 					t.printStackTrace();
@@ -214,6 +297,8 @@ public class SeqRepoImporter {
 				try {
 					projectWriter.close();
 					astWriter.close();
+					if (deltaWriter != null)
+						deltaWriter.close();
 					try {
 						Thread.sleep(1000);
 					} catch (InterruptedException e) {}
@@ -227,89 +312,82 @@ public class SeqRepoImporter {
 			}
 		}
 
-		@Override
-		public void run() {
-			openWriters();
-			while (true) {
-				try {
-					if (numOfProcessedProjects.get() == -1) break;
-					int pid = numOfProcessedProjects.getAndIncrement();
-					if (pid == cacheOfProjects.size()) {
-						if (listId.get() > maxListId) {
-							numOfProcessedProjects.set(-1);
-							break;
-						}
-						buildCacheOfProjects(listId.getAndIncrement());
-						numOfProcessedProjects.set(0);
-						continue;
-					}
-					else if (pid > cacheOfProjects.size()) {
-						try {
-							Thread.sleep(1000);
-						} catch (InterruptedException e) {
-						}
-						continue;
-					}
-					byte[] bs = cacheOfProjects.get(pid);
-					Project cachedProject = null;
-					try {
-						cachedProject = Project.parseFrom(bs);
-						if (processedProjectIds.contains(cachedProject.getId())) continue;
-					} catch (InvalidProtocolBufferException e) {
-						e.printStackTrace();
-						continue;
-					}
-					cacheOfProjects.set(pid, null);
-					bs = null;
+		/**
+		 * Stores a project's metadata, with only the new revisions if it
+		 * continued an earlier import.
+		 */
+		public void append(final Project project, final boolean continued) {
+			try {
+				final SequenceFile.Writer writer = continued ? deltaWriter : projectWriter;
+				writer.append(new Text(project.getId()), new BytesWritable(project.toByteArray()));
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+			counter++;
+			if (counter >= MAX_COUNTER) {
+				closeWriters();
+				openWriters();
+				counter = 0;
+			}
+		}
+	}
+
+	@SuppressWarnings("serial")
+	public static class ImportTask extends RecursiveAction {
+		private final int listId;
+		private final Project cachedProject;
+		private final File gitDir;
+
+		// whether the repository stored continued an earlier import
+		private boolean continued = false;
 
-					final String name = cachedProject.getName();
+		public ImportTask(final int listId, final Project cachedProject, final File gitDir) {
+			this.listId = listId;
+			this.cachedProject = cachedProject;
+			this.gitDir = gitDir;
+		}
 
-					if (debug)
-						System.out.println("Processing list " + (listId.get()-1) + ": " + pid + " / " + cacheOfProjects.size()  + " " + cachedProject.getId() + " " + name);
+		@Override
+		protected void compute() {
+			try {
+				if (debug)
+					System.out.println("Processing list " + listId + ": " + cachedProject.getId() + " " + cachedProject.getName());
 
-					String[] info = repoInfo.get(name);
-					Project project = cachedProject;
-					if (info != null && exists(name, info[1]) != null)
-						project = storeRepository(cachedProject, 0);
+				Project project = cachedProject;
+				if (gitDir != null)
+					project = storeRepository(cachedProject, 0);
 
-					if (debug)
-						System.out.println("Putting in sequence file: " + project.getId());
+				if (debug)
+					System.out.println("Putting in sequence file: " + project.getId());
 
-					// store the project metadata
-					try {
-						projectWriter.append(new Text(project.getId()), new BytesWritable(project.toByteArray()));
-					} catch (IOException e) {
-						e.printStackTrace();
-					}
-					counter++;
-					if (counter >= MAX_COUNTER) {
-						closeWriters();
-						openWriters();
-						counter = 0;
-					}
-				} catch (Throwable e) {
-					e.printStackTrace();
-				}
+				writers.get().append(project, continued);
+			} catch (Throwable e) {
+				e.printStackTrace();
+			} finally {
+				queuedProjects.release();
 			}
-			
-			closeWriters();
 		}
-		
+
 		private Project storeRepository(final Project project, final int i) {
 			final CodeRepository repo = project.getCodeRepositories(i);
 			final Project.Builder projBuilder = Project.newBuilder(project);
 
 			final String name = project.getName();
-			final File gitDir = exists(name, repoInfo.get(name)[1]);
 
 			if (debug)
 				System.out.println("Has repository: " + name);
 
 			final AbstractConnector conn = new GitConnector(gitDir.getAbsolutePath());
 			try {
+				final PreviousImport previous = previousImports.get(project.getId());
+				if (previous != null)
+					conn.setPreviousImport(previous.lastCommitId, previous.revisionCount);
+
 				final CodeRepository.Builder repoBuilder = CodeRepository.newBuilder(repo);
 				final String repoKey = "g:" + project.getId() + keyDelim + repo.getKind().getNumber();
-				for (final Revision rev : conn.getCommits(true, astWriter, repoKey, keyDelim)) {
+				final List<Revision> revs = conn.getCommits(true, writers.get().astWriter, repoKey, keyDelim);
+				continued = conn.getPreviousRevisionCount() > 0;
+				for (final Revision rev : revs) {
 					/*if (debug)
 						System.out.println("Storing '" + name + "' revision: " + rev.getId());*/
 
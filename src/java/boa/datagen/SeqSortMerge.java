@@ -18,91 +18,170 @@
 package boa.datagen;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.io.BytesWritable;
+import org.apache.hadoop.io.DataInputBuffer;
+import org.apache.hadoop.io.DataOutputBuffer;
+import org.apache.hadoop.io.MapFile;
 import org.apache.hadoop.io.SequenceFile;
+import org.apache.hadoop.io.SequenceFile.CompressionType;
 import org.apache.hadoop.io.SequenceFile.Reader;
 import org.apache.hadoop.io.Text;
 
+import boa.datagen.util.Properties;
+
 /**
+ * Merges sorted sequence files into one, with a k-way merge over raw keys.
+ *
+ * If there are more files than the fan-in, the smallest files are merged
+ * first, just enough of them that every later pass (the final one too)
+ * merges exactly the fan-in.  No pass merges more files than the fan-in.
+ * The final pass can write a map file directly, set up as by
+ * {@link MapFileGen}.
+ *
  * @author hoan
  * @author hridesh
  */
 public class SeqSortMerge {
 	private static String base = "hdfs://boa-njt/";
 	private static Configuration conf = new Configuration();
-	private static final int NUM_FILES = 15;
-	
+
+	private static final String IN_PATH = Properties.getProperty("seq.merge.path", "/tmprepcache/2015-07-sorted/");
+	private static final int FAN_IN = Integer.parseInt(Properties.getProperty("seq.merge.fan.in", "15"));
+	private static final CompressionType COMPRESSION = CompressionType.valueOf(Properties.getProperty("seq.merge.compression", "BLOCK"));
+	private static final boolean MAP_FILE = Properties.getBoolean("seq.merge.map.file", false);
+
+	private static final Text.Comparator comparator = new Text.Comparator();
+
 	public static void main(String[] args) throws IOException {
+		if (FAN_IN < 2) {
+			System.out.println("The merge fan-in must be at least 2.");
+			return;
+		}
+		if (COMPRESSION == CompressionType.RECORD) {
+			System.out.println("Record compression can not be used when merging raw records, use BLOCK or NONE.");
+			return;
+		}
+
 		conf.set("fs.default.name", base);
 		FileSystem fs = FileSystem.get(conf);
 		
-		String inPath = "/tmprepcache/2015-07-sorted/";
 		while (true) {
-			FileStatus[] files = fs.listStatus(new Path(inPath));
+			FileStatus[] files = fs.listStatus(new Path(IN_PATH));
 			if (files.length < 2) break;
-			Path path = new Path(inPath + System.currentTimeMillis());
-			fs.mkdirs(path);
-			SequenceFile.Writer w = SequenceFile.createWriter(fs, conf, new Path(inPath + path.getName() + "/part-00000"), Text.class, BytesWritable.class);
-			FileStatus[] candidates = getCandidates(files);
+
+			final boolean last = files.length <= FAN_IN;
+			// each pass turns k files into 1, so after the first pass the count is 1 more than a multiple of FAN_IN - 1
+			final int size = last ? files.length : (files.length - 2) % (FAN_IN - 1) + 2;
+			FileStatus[] candidates = getCandidates(files, size);
 			System.out.println("Merging " + candidates.length + " from " + files.length);
-			SequenceFile.Reader[] readers = new SequenceFile.Reader[candidates.length];
+
+			merge(fs, candidates, new Path(IN_PATH + System.currentTimeMillis()), last && MAP_FILE);
 			for (int i = 0; i < candidates.length; i++)
-				readers[i] = new SequenceFile.Reader(fs, new Path(inPath + candidates[i].getPath().getName() + "/part-00000"), conf);
-			Text[] keys = new Text[candidates.length];
-			BytesWritable[] values = new BytesWritable[candidates.length];
-			read(readers, keys, values);
-			while (true) {
-				int index = min(keys);
-				if (keys[index].toString().isEmpty())
-					break;
-				w.append(keys[index], values[index]);
-				read(readers[index], keys[index], values[index]);
-			}
-			for (int i = 0; i < readers.length; i++)
-				readers[i].close();
-			w.close();
-			for (int i = 0; i < readers.length; i++)
-				fs.delete(new Path(inPath + candidates[i].getPath().getName()), true);
+				fs.delete(candidates[i].getPath(), true);
+
+			if (last) break;
 		}
 	}
 
-	private static int min(Text[] keys) {
-		int index = 0;
-		Text min = keys[0];
-		for (int i = 1; i < keys.length; i++) {
-			Text key = keys[i];
-			if (!key.toString().isEmpty() && key.compareTo(min) < 0) {
-				index = i;
-				min = key;
+	private static void merge(FileSystem fs, FileStatus[] inputs, Path out, boolean mapFile) throws IOException {
+		final List<Source> sources = new ArrayList<Source>();
+		final PriorityQueue<Source> queue = new PriorityQueue<Source>(inputs.length);
+		try {
+			for (int i = 0; i < inputs.length; i++) {
+				final Source source = new Source(new SequenceFile.Reader(fs, new Path(inputs[i].getPath(), "part-00000"), conf));
+				sources.add(source);
+				if (source.next())
+					queue.add(source);
 			}
+
+			if (mapFile) {
+				long keys = 0;
+				if (MapFileGen.needsKeyCount())
+					for (int i = 0; i < inputs.length; i++)
+						keys += MapFileGen.countKeys(fs, conf, new Path(inputs[i].getPath(), "part-00000"));
+				final MapFile.Writer w = MapFileGen.createWriter(conf, fs, out, COMPRESSION, null, keys);
+				try {
+					// map files need the keys, so only the map file's own writes are not raw
+					final Text key = new Text();
+					final BytesWritable value = new BytesWritable();
+					final DataInputBuffer in = new DataInputBuffer();
+					final DataOutputBuffer valueBuffer = new DataOutputBuffer();
+					while (!queue.isEmpty()) {
+						final Source source = queue.poll();
+						in.reset(source.key.getData(), source.key.getLength());
+						key.readFields(in);
+						valueBuffer.reset();
+						source.value.writeUncompressedBytes(valueBuffer);
+						in.reset(valueBuffer.getData(), valueBuffer.getLength());
+						value.readFields(in);
+						w.append(key, value);
+						if (source.next())
+							queue.add(source);
+					}
+				} finally {
+					w.close();
+				}
+			} else {
+				final SequenceFile.Writer w = SequenceFile.createWriter(fs, conf, new Path(out, "part-00000"), Text.class, BytesWritable.class, COMPRESSION);
+				try {
+					while (!queue.isEmpty()) {
+						final Source source = queue.poll();
+						w.appendRaw(source.key.getData(), 0, source.key.getLength(), source.value);
+						if (source.next())
+							queue.add(source);
+					}
+				} finally {
+					w.close();
+				}
+			}
+		} finally {
+			for (final Source source : sources)
+				source.reader.close();
 		}
-		return index;
 	}
 
-	private static void read(Reader[] readers, Text[] keys, BytesWritable[] values) {
-		for (int i = 0; i < readers.length; i++)
-			read(readers[i], keys[i], values[i]);
-	}
+	/**
+	 * A sorted input file, and its current record in serialized form.
+	 */
+	private static final class Source implements Comparable<Source> {
+		private final Reader reader;
+		private final DataOutputBuffer key = new DataOutputBuffer();
+		private final SequenceFile.ValueBytes value;
 
-	private static void read(Reader reader, Text key, BytesWritable val) {
-		try {
-			if (reader.next(key, val))
-				return;
-		} catch (Throwable t) {
-			t.printStackTrace();
+		Source(Reader reader) {
+			this.reader = reader;
+			this.value = reader.createValueBytes();
+		}
+
+		boolean next() {
+			key.reset();
+			try {
+				return reader.nextRaw(key, value) != -1;
+			} catch (Throwable t) {
+				// a truncated file just ends early
+				t.printStackTrace();
+			}
+			return false;
+		}
+
+		@Override
+		public int compareTo(Source other) {
+			return comparator.compare(key.getData(), 0, key.getLength(), other.key.getData(), 0, other.key.getLength());
 		}
-		key.set("");
 	}
 
-	private static FileStatus[] getCandidates(FileStatus[] files) throws IOException {
-		if (files.length <= NUM_FILES) return files;
+	private static FileStatus[] getCandidates(FileStatus[] files, int count) throws IOException {
+		if (files.length <= count) return files;
 		Arrays.sort(files, new Comparator<FileStatus>() {
 			@Override
 			public int compare(FileStatus f1, FileStatus f2) {
@@ -117,8 +196,8 @@ public class SeqSortMerge {
 				return 0;
 			}
 		});
-		FileStatus[] candidates = new FileStatus[NUM_FILES];
-		for (int i = 0; i < NUM_FILES; i++)
+		FileStatus[] candidates = new FileStatus[count];
+		for (int i = 0; i < count; i++)
 			candidates[i] = files[i];
 		return candidates;
 	}
@@ -28,6 +28,9 @@ import org.eclipse.jdt.core.dom.*;
 import org.eclipse.wst.jsdt.core.JavaScriptCore;
 import org.eclipse.wst.jsdt.core.dom.JavaScriptUnit;
 
+import com.google.protobuf.Descriptors.FieldDescriptor;
+import com.google.protobuf.Message;
+
 import boa.types.Ast.ASTRoot;
 import boa.types.Code.Revision;
 import boa.types.Diff.ChangedFile;
@@ -35,11 +38,12 @@ import boa.types.Diff.ChangedFile.Builder;
 import boa.types.Diff.ChangedFile.FileKind;
 import boa.types.Shared.ChangeKind;
 import boa.types.Shared.Person;
-import boa.datagen.util.FileIO;
 import boa.datagen.util.JavaScriptErrorCheckVisitor;
 import boa.datagen.util.JavaScriptVisitor;
 import boa.datagen.util.JavaVisitor;
+import boa.datagen.util.LineCounter;
 import boa.datagen.util.JavaErrorCheckVisitor;
+import boa.datagen.util.JavaLanguageLevelVisitor;
 import boa.datagen.util.Properties;
 
 /**
@@ -87,13 +91,138 @@ public abstract class AbstractCommit {
 		return parentIndices;
 	}
 
-	protected static final ByteArrayOutputStream buffer = new ByteArrayOutputStream(4096);
+	/**
+	 * Finds the files changed by this commit, if that was not already done
+	 * when the revisions were set.  Commits may run this in parallel.
+	 */
+	protected void getChangeFiles() {
+	}
 
 	protected abstract String getFileContents(final String path);
 
+	/**
+	 * Returns an id for the contents of a file, such that two files with
+	 * the same id have the same contents (e.g., a git blob id).
+	 *
+	 * @param path the file's path
+	 * @return the content id, or null if not known
+	 */
+	protected String getFileId(final String path) {
+		return null;
+	}
+
+	/**
+	 * An AST row written for one revision, which later revisions with the
+	 * same file contents at the same path can share.
+	 */
+	protected static class AstRow {
+		protected final String key;
+		protected final FileKind kind;
+
+		protected AstRow(final String key, final FileKind kind) {
+			this.key = key;
+			this.kind = kind;
+		}
+	}
+
+	// AST rows parsed for this commit, waiting to be written
+	private final List<Text> astKeys = new ArrayList<Text>();
+	private final List<ASTRoot> astValues = new ArrayList<ASTRoot>();
+
+	// type names in those rows, numbered in the order this commit found them
+	private final HashMap<String, Integer> nameIndices = new HashMap<String, Integer>();
+
+	// rows other revisions can share once this commit's rows are written, by content id and path
+	private final Map<String, AstRow> sharedRows = new LinkedHashMap<String, AstRow>();
+
+	private void addAst(final String key, final ASTRoot ast) {
+		astKeys.add(new Text(key));
+		astValues.add(ast);
+	}
+
+	/**
+	 * Writes, then forgets, the AST rows parsed by
+	 * {@link #asProtobuf(boolean, String, String)}.  Only then can other
+	 * revisions share them, so no revision ever waits on another.
+	 *
+	 * Type names get the repository's numbers here, as commits are written
+	 * in order, so the numbers do not depend on which commit parsed first.
+	 */
+	public void writeAsts(final Writer astWriter) {
+		final String[] found = new String[nameIndices.size()];
+		for (final Map.Entry<String, Integer> e : nameIndices.entrySet())
+			found[e.getValue()] = e.getKey();
+		nameIndices.clear();
+
+		// names new to the repository are numbered in the order this commit found them
+		final int[] names = new int[found.length];
+		boolean renumber = false;
+		for (int i = 0; i < found.length; i++) {
+			Integer index = connector.nameIndices.get(found[i]);
+			if (index == null) {
+				index = connector.nameIndices.size();
+				connector.nameIndices.put(found[i], index);
+			}
+			names[i] = index;
+			renumber |= index != i;
+		}
+
+		try {
+			for (int i = 0; i < astKeys.size(); i++) {
+				final ASTRoot ast = renumber ? (ASTRoot) renumber(astValues.get(i), names) : astValues.get(i);
+				astWriter.append(astKeys.get(i), new BytesWritable(ast.toByteArray()));
+			}
+		} catch (final IOException e) {
+			e.printStackTrace();
+		}
+		astKeys.clear();
+		astValues.clear();
+
+		for (final Map.Entry<String, AstRow> e : sharedRows.entrySet())
+			connector.astRows.putIfAbsent(e.getKey(), e.getValue());
+		sharedRows.clear();
+	}
+
+	/**
+	 * Copies a message, giving each type name in it the number in names.
+	 */
+	private static Message renumber(final Message m, final int[] names) {
+		if (m instanceof boa.types.Ast.Type) {
+			final boa.types.Ast.Type t = (boa.types.Ast.Type) m;
+			return t.toBuilder().setName(names[t.getName()]).build();
+		}
+
+		Message.Builder b = null;
+		for (final Map.Entry<FieldDescriptor, Object> e : m.getAllFields().entrySet()) {
+			final FieldDescriptor f = e.getKey();
+			if (f.getJavaType() != FieldDescriptor.JavaType.MESSAGE)
+				continue;
+			if (b == null)
+				b = m.toBuilder();
+			if (f.isRepeated()) {
+				final List<?> values = (List<?>) e.getValue();
+				for (int i = 0; i < values.size(); i++)
+					b.setRepeatedField(f, i, renumber((Message) values.get(i), names));
+			} else {
+				b.setField(f, renumber((Message) e.getValue(), names));
+			}
+		}
+		return b == null ? m : b.build();
+	}
+
 	protected abstract Person parsePerson(final String s);
 
 	public Revision asProtobuf(final boolean parse, final Writer astWriter, final String revKey, final String keyDelim) {
+		final Revision revision = asProtobuf(parse, revKey, keyDelim);
+		writeAsts(astWriter);
+		return revision;
+	}
+
+	/**
+	 * Converts this commit, keeping the AST rows of its files to write later
+	 * with {@link #writeAsts(Writer)}.  Commits may run this in parallel.
+	 */
+	public Revision asProtobuf(final boolean parse, final String revKey, final String keyDelim) {
 		final Revision.Builder revision = Revision.newBuilder();
 		revision.setId(id);
 
@@ -113,19 +242,19 @@ public abstract class AbstractCommit {
 			revision.setLog("");
 
 		for (final String path : changedPaths.keySet()) {
-			final ChangedFile.Builder fb = processChangeFile(path, parse, astWriter, revKey, keyDelim);
+			final ChangedFile.Builder fb = processChangeFile(path, parse, revKey, keyDelim);
 			fb.setChange(ChangeKind.MODIFIED);
 			//fb.setKey("");
 			revision.addFiles(fb.build());
 		}
 		for (final String path : addedPaths.keySet()) {
-			final ChangedFile.Builder fb = processChangeFile(path, parse, astWriter, revKey, keyDelim);
+			final ChangedFile.Builder fb = processChangeFile(path, parse, revKey, keyDelim);
 			fb.setChange(ChangeKind.ADDED);
 			//fb.setKey("");
 			revision.addFiles(fb.build());
 		}
 		for (final String path : removedPaths.keySet()) {
-			final ChangedFile.Builder fb = processChangeFile(path, false, null, revKey, keyDelim);
+			final ChangedFile.Builder fb = processChangeFile(path, false, revKey, keyDelim);
 			fb.setChange(ChangeKind.DELETED);
 			//fb.setKey("");
 			revision.addFiles(fb.build());
@@ -134,7 +263,7 @@ public abstract class AbstractCommit {
 		return revision.build();
 	}
 
-	private Builder processChangeFile(String path, boolean parse, Writer astWriter, String revKey, String keyDelim) {
+	private Builder processChangeFile(String path, boolean parse, String revKey, String keyDelim) {
 		final ChangedFile.Builder fb = ChangedFile.newBuilder();
 		fb.setName(path);
 		fb.setKind(FileKind.OTHER);
@@ -147,43 +276,57 @@ public abstract class AbstractCommit {
 		else if (lowerPath.endsWith(".jar") || lowerPath.endsWith(".class"))
 			fb.setKind(FileKind.BINARY);
 		else if (lowerPath.endsWith(".java") && parse) {
-			final String content = getFileContents(path);
+			// the AST row is looked up by ChangedFile key and path, so a file whose
+			// contents were already written at the same path can point at that row.
+			// Rows of revisions still in progress are not shared, the file is parsed again.
+			final String fileId = getFileId(path);
+			final String rowId = fileId == null ? null : fileId + keyDelim + path;
+			if (rowId != null) {
+				final AstRow row = connector.astRows.get(rowId);
+				if (row != null) {
+					fb.setKind(row.kind);
+					fb.setKey(row.key);
+					return fb;
+				}
+			}
 
-			fb.setKind(FileKind.SOURCE_JAVA_JLS2);
-			if (!parseJavaFile(path, fb, content, JavaCore.VERSION_1_4, AST.JLS2, false, astWriter, revKey + keyDelim + path)) {
-				if (debug)
-					System.err.println("Found JLS2 parse error in: revision " + id + ": file " + path);
+			processJavaFile(path, fb, revKey + keyDelim + path);
+			if (rowId != null)
+				sharedRows.put(rowId, new AstRow(revKey, fb.getKind()));
+		}
+		fb.setKey(revKey);
 
-				fb.setKind(FileKind.SOURCE_JAVA_JLS3);
-				if (!parseJavaFile(path, fb, content, JavaCore.VERSION_1_5, AST.JLS3, false, astWriter, revKey + keyDelim + path)) {
-					if (debug)
-						System.err.println("Found JLS3 parse error in: revision " + id + ": file " + path);
+		return fb;
+	}
 
-					fb.setKind(FileKind.SOURCE_JAVA_JLS4);
-					if (!parseJavaFile(path, fb, content, JavaCore.VERSION_1_7, AST.JLS4, false, astWriter, revKey + keyDelim + path)) {
-						if (debug)
-							System.err.println("Found JLS4 parse error in: revision " + id + ": file " + path);
-
-						//fb.setContent(content);
-						fb.setKind(FileKind.SOURCE_JAVA_ERROR);
-						try {
-							astWriter.append(new Text(revKey + keyDelim + fb.getName()), new BytesWritable(ASTRoot.newBuilder().build().toByteArray()));
-						} catch (IOException e) {
-							e.printStackTrace();
-						}
-					} else
-						if (debug)
-							System.err.println("Accepted JLS4: revision " + id + ": file " + path);
-				} else
-					if (debug)
-						System.err.println("Accepted JLS3: revision " + id + ": file " + path);
-			} else
+	/**
+	 * Parses a Java file once, at the newest supported language level, then
+	 * sets its kind to the oldest level that has every feature it uses.
+	 *
+	 * @param key the key to store the AST under, or null to store the AST in fb
+	 */
+	private void processJavaFile(final String path, final ChangedFile.Builder fb, final String key) {
+		final String content = getFileContents(path);
+
+		if (!parseJavaFile(path, fb, content, JavaCore.VERSION_1_7, key)) {
+			if (debug)
+				System.err.println("Found JLS4 parse error in: revision " + id + ": file " + path);
+
+			// older code can use identifiers that later became keywords, such as enum
+			if (!parseJavaFile(path, fb, content, JavaCore.VERSION_1_4, key)) {
 				if (debug)
-					System.err.println("Accepted JLS2: revision " + id + ": file " + path);
+					System.err.println("Found JLS2 parse error in: revision " + id + ": file " + path);
+
+				//fb.setContent(content);
+				fb.setKind(FileKind.SOURCE_JAVA_ERROR);
+				if (key != null)
+					addAst(key, ASTRoot.newBuilder().build());
+				return;
+			}
 		}
-		fb.setKey(revKey);
 
-		return fb;
+		if (debug)
+			System.err.println("Accepted " + fb.getKind() + ": revision " + id + ": file " + path);
 	}
 
 	private boolean parseJavaScriptFile(final String path,
@@ -318,45 +461,31 @@ public abstract class AbstractCommit {
 			fb.setKind(FileKind.XML);
 		else if (lowerPath.endsWith(".jar") || lowerPath.endsWith(".class"))
 			fb.setKind(FileKind.BINARY);
-		else if (lowerPath.endsWith(".java") && attemptParse) {
-			final String content = getFileContents(path);
-
-			fb.setKind(FileKind.SOURCE_JAVA_JLS2);
-			if (!parseJavaFile(path, fb, content, JavaCore.VERSION_1_4, AST.JLS2, false, null, null)) {
-				if (debug)
-					System.err.println("Found JLS2 parse error in: revision " + id + ": file " + path);
-
-				fb.setKind(FileKind.SOURCE_JAVA_JLS3);
-				if (!parseJavaFile(path, fb, content, JavaCore.VERSION_1_5, AST.JLS3, false, null, null)) {
-					if (debug)
-						System.err.println("Found JLS3 parse error in: revision " + id + ": file " + path);
-
-					fb.setKind(FileKind.SOURCE_JAVA_JLS4);
-					if (!parseJavaFile(path, fb, content, JavaCore.VERSION_1_7, AST.JLS4, false, null, null)) {
-						if (debug)
-							System.err.println("Found JLS4 parse error in: revision " + id + ": file " + path);
-
-						//fb.setContent(content);
-						fb.setKind(FileKind.SOURCE_JAVA_ERROR);
-					} else
-						if (debug)
-							System.err.println("Accepted JLS4: revision " + id + ": file " + path);
-				} else
-					if (debug)
-						System.err.println("Accepted JLS3: revision " + id + ": file " + path);
-			} else
-				if (debug)
-					System.err.println("Accepted JLS2: revision " + id + ": file " + path);
-		}
+		else if (lowerPath.endsWith(".java") && attemptParse)
+			processJavaFile(path, fb, null);
 
 		return fb;
 	}
 
-	private boolean parseJavaFile(final String path, final ChangedFile.Builder fb, final String content, final String compliance, final int astLevel, final boolean storeOnError, Writer astWriter, String key) {
+	// whether to resolve bindings, which needs the project's classpath to be of any use
+	private static final boolean resolveBindings = Properties.getBoolean("java.resolve.bindings", boa.datagen.DefaultProperties.JAVA_RESOLVE_BINDINGS);
+
+	/**
+	 * The JDT parser of each thread.  A parser resets itself after each use,
+	 * so it is set up again for every file.
+	 */
+	private static final ThreadLocal<ASTParser> parsers = new ThreadLocal<ASTParser>() {
+		@Override
+		protected ASTParser initialValue() {
+			return ASTParser.newParser(AST.JLS4);
+		}
+	};
+
+	private boolean parseJavaFile(final String path, final ChangedFile.Builder fb, final String content, final String compliance, String key) {
 		try {
-			final ASTParser parser = ASTParser.newParser(astLevel);
+			final ASTParser parser = parsers.get();
 			parser.setKind(ASTParser.K_COMPILATION_UNIT);
-			parser.setResolveBindings(true);
+			parser.setResolveBindings(resolveBindings);
 			parser.setSource(content.toCharArray());
 
 			final Map options = JavaCore.getOptions();
@@ -368,10 +497,20 @@ public abstract class AbstractCommit {
 			final JavaErrorCheckVisitor errorCheck = new JavaErrorCheckVisitor();
 			cu.accept(errorCheck);
 
-			if (!errorCheck.hasError || storeOnError) {
+			if (!errorCheck.hasError) {
+				final JavaLanguageLevelVisitor levelCheck = new JavaLanguageLevelVisitor();
+				cu.accept(levelCheck);
+				if (levelCheck.level >= AST.JLS4)
+					fb.setKind(FileKind.SOURCE_JAVA_JLS4);
+				else if (levelCheck.level == AST.JLS3)
+					fb.setKind(FileKind.SOURCE_JAVA_JLS3);
+				else
+					fb.setKind(FileKind.SOURCE_JAVA_JLS2);
+
 				final ASTRoot.Builder ast = ASTRoot.newBuilder();
 				//final CommentsRoot.Builder comments = CommentsRoot.newBuilder();
-				final JavaVisitor visitor = new JavaVisitor(content, connector.nameIndices);
+				// rows written later are renumbered by writeAsts, ASTs kept in the revision are not
+				final JavaVisitor visitor = new JavaVisitor(content, key != null ? nameIndices : connector.nameIndices);
 				try {
 					ast.addNamespaces(visitor.getNamespaces(cu));
 					for (final String s : visitor.getImports())
@@ -387,13 +526,8 @@ public abstract class AbstractCommit {
 					return false;
 				}
 				
-				if (astWriter != null) {
-					try {
-						astWriter.append(new Text(key), new BytesWritable(ast.build().toByteArray()));
-					} catch (IOException e) {
-						e.printStackTrace();
-					}
-				}
+				if (key != null)
+					addAst(key, ast.build());
 				else
 					fb.setAst(ast);
 				//fb.setComments(comments);
@@ -407,42 +541,21 @@ public abstract class AbstractCommit {
 	}
 
 	protected String processLOC(final String path) {
-		String loc = "";
-
-		final String lowerPath = path.toLowerCase();
-		if (!(lowerPath.endsWith(".txt") || lowerPath.endsWith(".xml") || lowerPath.endsWith(".java")))
-			return loc;
-
-		final String content = getFileContents(path);
-
-		final File dir = new File(new File(System.getProperty("java.io.tmpdir")), UUID.randomUUID().toString());
-		final File tmpPath = new File(dir, path.substring(0, path.lastIndexOf("/")));
-		tmpPath.mkdirs();
-		final File tmpFile = new File(tmpPath, path.substring(path.lastIndexOf("/") + 1));
-		FileIO.writeFileContents(tmpFile, content);
-
-		try {
-			final Process proc = Runtime.getRuntime().exec(new String[] {"/home/boa/ohcount/bin/ohcount", "-i", tmpFile.getPath()});
-
-			final BufferedReader outStream = new BufferedReader(new InputStreamReader(proc.getInputStream()));
-			String line = null;
-			while ((line = outStream.readLine()) != null)
-				loc += line;
-			outStream.close();
-
-			proc.waitFor();
-		} catch (final IOException e) {
-			e.printStackTrace();
-		} catch (final InterruptedException e) {
-			e.printStackTrace();
-		}
-
-		try {
-			FileIO.delete(dir);
-		} catch (final IOException e) {
-			e.printStackTrace();
+		final LineCounter.Language language = LineCounter.getLanguage(path);
+		if (language == null)
+			return "";
+
+		// files with the same contents have the same counts
+		final String fileId = getFileId(path);
+		final String cacheKey = fileId == null ? null : fileId + ":" + language;
+
+		LineCounter counter = cacheKey == null ? null : connector.lineCounts.get(cacheKey);
+		if (counter == null) {
+			counter = LineCounter.count(language, getFileContents(path));
+			if (cacheKey != null)
+				connector.lineCounts.put(cacheKey, counter);
 		}
 
-		return loc;
+		return counter.format(path);
 	}
 }
@@ -17,36 +17,86 @@
 
 package boa.datagen.scm;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.apache.hadoop.io.SequenceFile.Writer;
 
+import boa.datagen.util.LineCounter;
+import boa.datagen.util.Properties;
 import boa.types.Code.Revision;
 
 /**
  * @author rdyer
  */
 public abstract class AbstractConnector implements AutoCloseable {
+	// the number of threads diffing and parsing the revisions of a single repository
+	protected static final int poolSize = Integer.parseInt(Properties.getProperty("num.repo.threads", boa.datagen.DefaultProperties.NUM_REPO_THREADS));
+
 	protected List<AbstractCommit> revisions = null;
 	protected HashMap<String, Integer> nameIndices = new HashMap<String, Integer>();
 
+	// AST rows already written for this repository, keyed by file content id and path
+	protected final ConcurrentHashMap<String, AbstractCommit.AstRow> astRows = new ConcurrentHashMap<String, AbstractCommit.AstRow>();
+
+	// line counts already taken for this repository, keyed by file content id and language
+	protected final ConcurrentHashMap<String, LineCounter> lineCounts = new ConcurrentHashMap<String, LineCounter>();
+
 	public abstract String getLastCommitId();
 	public abstract void setLastSeenCommitId(final String id);
 
+	// the number of revisions imported earlier, which new revisions are numbered after
+	protected int previousRevisionCount = 0;
+
+	/**
+	 * Continues an earlier import of this repository, so only the revisions
+	 * made since are returned, numbered after the earlier ones.  If the
+	 * earlier import's last commit is gone (e.g., the history was rewritten),
+	 * every revision is returned as if nothing was imported before.
+	 *
+	 * @param lastCommitId the last commit the earlier import saw
+	 * @param revisionCount the number of revisions the earlier import had
+	 */
+	public void setPreviousImport(final String lastCommitId, final int revisionCount) {
+		setLastSeenCommitId(lastCommitId);
+		previousRevisionCount = revisionCount;
+	}
+
+	/**
+	 * Returns the number of revisions imported earlier, which is 0 unless
+	 * the revisions returned continue an earlier import.
+	 */
+	public int getPreviousRevisionCount() {
+		return previousRevisionCount;
+	}
+
 	public List<Revision> getCommits(final boolean parse) {
 		if (revisions == null) {
 			revisions = new ArrayList<AbstractCommit>();
 			setRevisions();
 		}
 		final List<Revision> revs = new ArrayList<Revision>();
-		for (final AbstractCommit rev : revisions)
+		for (final AbstractCommit rev : revisions) {
+			rev.getChangeFiles();
 			revs.add(rev.asProtobuf(parse));
+		}
 
 		return revs;
 	}
 
+	/**
+	 * Finds all revisions of the repository, in order, along with their
+	 * parents.  Finding the files each revision changed can be left to
+	 * {@link AbstractCommit#getChangeFiles()}, which is run in parallel.
+	 */
 	protected abstract void setRevisions();
 
 	public abstract void getTags(final List<String> names, final List<String> commits);
@@ -55,15 +105,63 @@ public abstract class AbstractConnector implements AutoCloseable {
 
 	protected Map<String, Integer> revisionMap;
 
+	/**
+	 * Converts every revision and writes their ASTs.
+	 *
+	 * The revisions are processed as a pipeline: after walking the history,
+	 * one pool of threads diffs each revision against its parents and another
+	 * parses the changed files.  The calling thread then writes the ASTs of
+	 * each revision, in order, so the output is the same as a serial run.
+	 * At most a few revisions per thread are in flight at any time, which
+	 * bounds the ASTs held in memory.
+	 */
 	public List<Revision> getCommits(final boolean parse, final Writer astWriter, final String repoKey, final String keyDelim) {
 		if (revisions == null) {
 			revisions = new ArrayList<AbstractCommit>();
 			setRevisions();
 		}
 		final List<Revision> revs = new ArrayList<Revision>();
-		int i = 0;
-		for (final AbstractCommit rev : revisions)
-			revs.add(rev.asProtobuf(parse, astWriter, repoKey + keyDelim + (++i), keyDelim));
+
+		final ExecutorService diffPool = Executors.newFixedThreadPool(poolSize);
+		final ExecutorService parsePool = Executors.newFixedThreadPool(poolSize);
+		try {
+			final ArrayDeque<Future<Revision>> pending = new ArrayDeque<Future<Revision>>();
+			final int window = 4 * poolSize;
+
+			int next = 0;
+			while (next < revisions.size() || !pending.isEmpty()) {
+				while (next < revisions.size() && pending.size() < window) {
+					final AbstractCommit rev = revisions.get(next);
+					final String revKey = repoKey + keyDelim + (previousRevisionCount + ++next);
+
+					final Future<?> diff = diffPool.submit(new Runnable() {
+						@Override
+						public void run() {
+							rev.getChangeFiles();
+						}
+					});
+					pending.add(parsePool.submit(new Callable<Revision>() {
+						@Override
+						public Revision call() throws Exception {
+							diff.get();
+							return rev.asProtobuf(parse, revKey, keyDelim);
+						}
+					}));
+				}
+
+				final AbstractCommit rev = revisions.get(next - pending.size());
+				revs.add(pending.remove().get());
+				rev.writeAsts(astWriter);
+			}
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} catch (final ExecutionException e) {
+			throw new RuntimeException(e.getCause());
+		} finally {
+			parsePool.shutdownNow();
+			diffPool.shutdownNow();
+		}
 
 		return revs;
 	}
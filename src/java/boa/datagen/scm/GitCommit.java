@@ -24,18 +24,13 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.eclipse.jgit.diff.DiffEntry;
-import org.eclipse.jgit.diff.DiffFormatter;
-import org.eclipse.jgit.diff.RawTextComparator;
 import org.eclipse.jgit.diff.DiffEntry.ChangeType;
 import org.eclipse.jgit.lib.Constants;
 import org.eclipse.jgit.lib.ObjectId;
 import org.eclipse.jgit.lib.Repository;
 import org.eclipse.jgit.revwalk.RevCommit;
-import org.eclipse.jgit.revwalk.RevWalk;
 import org.eclipse.jgit.treewalk.AbstractTreeIterator;
-import org.eclipse.jgit.treewalk.CanonicalTreeParser;
 import org.eclipse.jgit.treewalk.EmptyTreeIterator;
-import org.eclipse.jgit.util.io.NullOutputStream;
 
 import boa.types.Shared.Person;
 
@@ -48,13 +43,16 @@ import boa.types.Shared.Person;
 public class GitCommit extends AbstractCommit {
 	// the repository the commit lives in - should already be connected!
 	private Repository repository;
-	private RevWalk revwalk;
+	private GitConnector gitConnector;
 	private HashMap<String, ObjectId> filePathGitObjectIds = new HashMap<String, ObjectId>();
 
+	// the commit to diff, dropped once its changed files are known
+	private RevCommit rc;
+
 	public GitCommit(final Repository repository, GitConnector cnn) {
 		super(cnn);
 		this.repository = repository;
-		this.revwalk = new RevWalk(repository);
+		this.gitConnector = cnn;
 	}
 
 	@Override
@@ -79,13 +77,12 @@ public class GitCommit extends AbstractCommit {
 			if (fileid == null) return "";
 
 			try {
-				buffer.reset();
-				buffer.write(repository.open(fileid, Constants.OBJ_BLOB).getCachedBytes());
+				return new String(gitConnector.getDiffer().reader.open(fileid, Constants.OBJ_BLOB).getCachedBytes());
 			} catch (final IOException e) {
 				if (debug)
 					System.err.println("Git Error getting contents for '" + path + "' at revision " + id + ": " + e.getMessage());
 			}
-			return buffer.toString();
+			return "";
 		} catch (final Exception e) {
 			if (debug)
 				System.err.println("Git Error getting contents for '" + path + "' at revision " + id + ": " + e.getMessage());
@@ -94,6 +91,15 @@ public class GitCommit extends AbstractCommit {
 		return "";
 	}
 
+	@Override
+	/** {@inheritDoc} */
+	protected String getFileId(final String path) {
+		final ObjectId fileid = filePathGitObjectIds.get(path);
+		if (fileid == null)
+			return null;
+		return fileid.getName();
+	}
+
 	@SuppressWarnings("unused")
 	private final static Matcher m = Pattern.compile("([^<]+)\\s+<([^>]+)>").matcher("");
 
@@ -133,25 +139,49 @@ public class GitCommit extends AbstractCommit {
 		return changedFileMap.get(path);
 	}
 
-	public void getChangeFiles(Map<String, Integer> revisionMap, RevCommit rc) {
+	/**
+	 * Sets the commit to diff, and the indices of its parents, which must
+	 * already be in revisionMap.
+	 */
+	public void setCommit(final Map<String, Integer> revisionMap, final RevCommit rc) {
+		this.rc = rc;
+		if (rc.getParentCount() > 0) {
+			final int[] parentList = new int[rc.getParentCount()];
+			for (int i = 0; i < rc.getParentCount(); i++) {
+				// a parent from an earlier import has no index here
+				final Integer index = revisionMap.get(rc.getParent(i).getName());
+				parentList[i] = index == null ? -1 : index;
+			}
+			setParentIndices(parentList);
+		}
+	}
+
+	@Override
+	/** {@inheritDoc} */
+	protected void getChangeFiles() {
+		if (rc != null) {
+			getChangeFiles(rc);
+			rc = null;
+		}
+	}
+
+	public void getChangeFiles(RevCommit rc) {
 		HashMap<String, String> rChangedPaths = new HashMap<String, String>();
 		HashMap<String, String> rRemovedPaths = new HashMap<String, String>();
 		HashMap<String, String> rAddedPaths = new HashMap<String, String>();
+		final GitConnector.Differ differ = gitConnector.getDiffer();
 		if (rc.getParentCount() == 0)
-			getChangeFiles(null, rc, rChangedPaths, rRemovedPaths, rAddedPaths);
+			getChangeFiles(differ, null, rc, rChangedPaths, rRemovedPaths, rAddedPaths);
 		else {
-			int[] parentList = new int[rc.getParentCount()];
 			for (int i = 0; i < rc.getParentCount(); i++) {
 				try {
-					getChangeFiles(revwalk.parseCommit(rc.getParent(i).getId()), rc, rChangedPaths, rRemovedPaths, rAddedPaths);
+					getChangeFiles(differ, differ.revwalk.parseCommit(rc.getParent(i).getId()), rc, rChangedPaths, rRemovedPaths, rAddedPaths);
 				} catch (IOException e) {
 					if (debug)
 						System.err.println("Git Error parsing parent commit. " + e.getMessage());
 				}
-				parentList[i] = revisionMap.get(rc.getParent(i).getName());
 			}
-			setParentIndices(parentList);
-			if (parentList.length > 1) {
+			if (rc.getParentCount() > 1) {
 				rChangedPaths.putAll(rAddedPaths);
 				rChangedPaths.putAll(rRemovedPaths);
 				for (String key : rChangedPaths.keySet())
@@ -165,20 +195,15 @@ public class GitCommit extends AbstractCommit {
 		setAddedPaths(rAddedPaths);
 	}
 
-	private void getChangeFiles(final RevCommit parent, final RevCommit rc, final HashMap<String, String> rChangedPaths, final HashMap<String, String> rRemovedPaths, final HashMap<String, String> rAddedPaths) {
-		final DiffFormatter df = new DiffFormatter(NullOutputStream.INSTANCE);
-		df.setRepository(repository);
-		df.setDiffComparator(RawTextComparator.DEFAULT);
-		df.setDetectRenames(true);
-
+	private void getChangeFiles(final GitConnector.Differ differ, final RevCommit parent, final RevCommit rc, final HashMap<String, String> rChangedPaths, final HashMap<String, String> rRemovedPaths, final HashMap<String, String> rAddedPaths) {
 		try {
 			final AbstractTreeIterator parentIter;
 			if (parent == null)
 				parentIter = new EmptyTreeIterator();
 			else
-				parentIter = new CanonicalTreeParser(null, repository.newObjectReader(), parent.getTree());
+				parentIter = gitConnector.trees.iterator(differ.reader, parent.getTree());
 
-			for (final DiffEntry diff : df.scan(parentIter, new CanonicalTreeParser(null, repository.newObjectReader(), rc.getTree()))) {
+			for (final DiffEntry diff : differ.df.scan(parentIter, gitConnector.trees.iterator(differ.reader, rc.getTree()))) {
 				if (diff.getChangeType() == ChangeType.MODIFY || diff.getChangeType() == ChangeType.COPY || diff.getChangeType() == ChangeType.RENAME) {
 					if (diff.getOldMode().getObjectType() == Constants.OBJ_BLOB && diff.getNewMode().getObjectType() == Constants.OBJ_BLOB) {
 						String path = diff.getNewPath();
@@ -203,6 +228,5 @@ public class GitCommit extends AbstractCommit {
 			if (debug)
 				System.err.println("Git Error getting commit diffs: " + e.getMessage());
 		}
-		df.close();
 	}
 }
@@ -22,15 +22,25 @@ import java.io.IOException;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.diff.DiffFormatter;
+import org.eclipse.jgit.diff.RawTextComparator;
 import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
 import org.eclipse.jgit.lib.Ref;
 import org.eclipse.jgit.lib.Repository;
 import org.eclipse.jgit.revwalk.RevCommit;
 import org.eclipse.jgit.revwalk.RevSort;
 import org.eclipse.jgit.revwalk.RevWalk;
 import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.eclipse.jgit.util.io.NullOutputStream;
+
+import boa.datagen.DefaultProperties;
+import boa.datagen.util.Properties;
 
 /**
  * @author rdyer
@@ -39,6 +49,10 @@ import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
 public class GitConnector extends AbstractConnector {
 	private static final boolean debug = boa.datagen.util.Properties.getBoolean("debug", boa.datagen.DefaultProperties.DEBUG);
 
+	// "full" finds renamed files by their contents, "paths" only compares paths and ids
+	private static final boolean detectRenames = !Properties.getProperty("git.diff.mode", DefaultProperties.GIT_DIFF_MODE).equals("paths");
+	private static final long treeCacheSize = Long.parseLong(Properties.getProperty("git.tree.cache.size", DefaultProperties.GIT_TREE_CACHE_SIZE));
+
 	private String path;
 
 	private Repository repository;
@@ -46,6 +60,52 @@ public class GitConnector extends AbstractConnector {
 	private RevWalk revwalk;
 
 	private String lastCommitId = null;
+	private String lastSeenCommitId = null;
+
+	final GitTreeCache trees = new GitTreeCache(treeCacheSize);
+
+	// readers are not thread safe, so each thread diffing commits gets its own
+	private final ConcurrentLinkedQueue<Differ> differs = new ConcurrentLinkedQueue<Differ>();
+	private final ThreadLocal<Differ> differ = new ThreadLocal<Differ>() {
+		@Override
+		protected Differ initialValue() {
+			final Differ d = new Differ(repository);
+			differs.add(d);
+			return d;
+		}
+	};
+
+	/**
+	 * What one thread uses to diff commits, kept for every commit it diffs.
+	 */
+	static class Differ {
+		final ObjectReader reader;
+		final RevWalk revwalk;
+		final DiffFormatter df;
+
+		Differ(final Repository repository) {
+			reader = repository.newObjectReader();
+			revwalk = new RevWalk(reader);
+			revwalk.setRetainBody(false);
+			df = new DiffFormatter(NullOutputStream.INSTANCE);
+			df.setRepository(repository);
+			df.setDiffComparator(RawTextComparator.DEFAULT);
+			df.setDetectRenames(detectRenames);
+		}
+
+		void close() {
+			df.close();
+			revwalk.close();
+			reader.close();
+		}
+	}
+
+	/**
+	 * @return the current thread's reader, walk and diff formatter
+	 */
+	Differ getDiffer() {
+		return differ.get();
+	}
 
 	public GitConnector(final String path) {
 		try {
@@ -63,6 +123,9 @@ public class GitConnector extends AbstractConnector {
 
 	@Override
 	public void close() {
+		for (final Differ d : differs)
+			d.close();
+		differs.clear();
 		repository.close();
 	}
 
@@ -85,6 +148,7 @@ public class GitConnector extends AbstractConnector {
 
 	@Override
 	public void setLastSeenCommitId(final String id) {
+		lastSeenCommitId = id;
 	}
 
 	@Override
@@ -95,6 +159,18 @@ public class GitConnector extends AbstractConnector {
 			revwalk.sort(RevSort.TOPO, true);
 			revwalk.sort(RevSort.COMMIT_TIME_DESC, true);
 			revwalk.sort(RevSort.REVERSE, true);
+
+			// the earlier import saw everything up to (and including) its last commit
+			if (lastSeenCommitId != null) {
+				try {
+					revwalk.markUninteresting(revwalk.parseCommit(ObjectId.fromString(lastSeenCommitId)));
+				} catch (final IOException e) {
+					if (debug)
+						System.err.println("Git Error finding last seen commit " + lastSeenCommitId + " in " + path + ", importing everything. " + e.getMessage());
+					lastSeenCommitId = null;
+					previousRevisionCount = 0;
+				}
+			}
 			
 			revisions.clear();
 			revisionMap = new HashMap<String, Integer>();
@@ -107,10 +183,11 @@ public class GitConnector extends AbstractConnector {
 				gc.setCommitter(rc.getCommitterIdent().getName());
 				gc.setDate(new Date(((long) rc.getCommitTime()) * 1000));
 				gc.setMessage(rc.getFullMessage());
-				
-				gc.getChangeFiles(this.revisionMap, rc);
 
-				revisionMap.put(gc.id, revisions.size());
+				// the changed files are found later, in parallel
+				gc.setCommit(this.revisionMap, rc);
+
+				revisionMap.put(gc.id, previousRevisionCount + revisions.size());
 				revisions.add(gc);
 			}
 		} catch (final IOException e) {
@@ -0,0 +1,223 @@
+/*
+ * Copyright 2015, Hridesh Rajan, Robert Dyer, Hoan Nguyen
+ *                 and Iowa State University of Science and Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boa.datagen.scm;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.jgit.errors.CorruptObjectException;
+import org.eclipse.jgit.errors.IncorrectObjectTypeException;
+import org.eclipse.jgit.lib.AnyObjectId;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.MutableObjectId;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.treewalk.AbstractTreeIterator;
+
+/**
+ * A bounded cache of raw git trees, keyed by tree id.  Neighbouring commits
+ * share most of their trees, so diffing a whole history reads and inflates
+ * each tree once instead of once per commit that has it.  The least recently
+ * used trees are dropped once the cache holds more than its size in bytes.
+ *
+ * @author agent
+ */
+class GitTreeCache {
+	private final long maxSize;
+	private long size = 0;
+
+	private final LinkedHashMap<ObjectId, byte[]> trees = new LinkedHashMap<ObjectId, byte[]>(16, 0.75f, true);
+
+	GitTreeCache(final long maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * @return the raw contents of a tree, read with <code>reader</code> if it is not cached
+	 */
+	byte[] get(final ObjectReader reader, final AnyObjectId id) throws IOException {
+		synchronized (trees) {
+			final byte[] raw = trees.get(id);
+			if (raw != null)
+				return raw;
+		}
+
+		final byte[] raw = reader.open(id, Constants.OBJ_TREE).getCachedBytes();
+		if (raw.length > maxSize)
+			return raw;
+
+		synchronized (trees) {
+			if (trees.put(id.copy(), raw) == null)
+				size += raw.length;
+			final Iterator<Map.Entry<ObjectId, byte[]>> i = trees.entrySet().iterator();
+			while (size > maxSize && i.hasNext()) {
+				size -= i.next().getValue().length;
+				i.remove();
+			}
+		}
+		return raw;
+	}
+
+	/**
+	 * @return an iterator over a tree whose subtrees also come from the cache
+	 */
+	AbstractTreeIterator iterator(final ObjectReader reader, final AnyObjectId id) throws IOException {
+		return new CachedTreeIterator(this, get(reader, id));
+	}
+
+	/**
+	 * Iterates over the entries of a cached tree.  This is a copy of
+	 * jgit's <code>CanonicalTreeParser</code>, which can not be made to
+	 * read its subtrees from somewhere else.
+	 */
+	private static class CachedTreeIterator extends AbstractTreeIterator {
+		private final GitTreeCache cache;
+		private final byte[] raw;
+
+		// where the current entry starts, and where the next one does
+		private int currPtr;
+		private int nextPtr;
+
+		CachedTreeIterator(final GitTreeCache cache, final byte[] raw) {
+			super();
+			this.cache = cache;
+			this.raw = raw;
+			reset();
+		}
+
+		private CachedTreeIterator(final CachedTreeIterator parent, final byte[] raw) {
+			super(parent);
+			this.cache = parent.cache;
+			this.raw = raw;
+			reset();
+		}
+
+		/** {@inheritDoc} */
+		@Override
+		public AbstractTreeIterator createSubtreeIterator(final ObjectReader reader) throws IOException {
+			return createSubtreeIterator(reader, new MutableObjectId());
+		}
+
+		/** {@inheritDoc} */
+		@Override
+		public AbstractTreeIterator createSubtreeIterator(final ObjectReader reader, final MutableObjectId idBuffer) throws IOException {
+			idBuffer.fromRaw(idBuffer(), idOffset());
+			if (!FileMode.TREE.equals(mode))
+				throw new IncorrectObjectTypeException(idBuffer.toObjectId(), Constants.TYPE_TREE);
+			return new CachedTreeIterator(this, cache.get(reader, idBuffer));
+		}
+
+		/** {@inheritDoc} */
+		@Override
+		public boolean hasId() {
+			return true;
+		}
+
+		/** {@inheritDoc} */
+		@Override
+		public byte[] idBuffer() {
+			return raw;
+		}
+
+		/** {@inheritDoc} */
+		@Override
+		public int idOffset() {
+			return nextPtr - Constants.OBJECT_ID_LENGTH;
+		}
+
+		/** {@inheritDoc} */
+		@Override
+		public void reset() {
+			currPtr = 0;
+			if (!eof())
+				parseEntry();
+		}
+
+		/** {@inheritDoc} */
+		@Override
+		public boolean first() {
+			return currPtr == 0;
+		}
+
+		/** {@inheritDoc} */
+		@Override
+		public boolean eof() {
+			return currPtr == raw.length;
+		}
+
+		/** {@inheritDoc} */
+		@Override
+		public void next(int delta) throws CorruptObjectException {
+			int ptr = currPtr;
+			while (--delta >= 0) {
+				if (ptr == raw.length)
+					throw new ArrayIndexOutOfBoundsException(delta);
+				ptr = skipEntry(ptr);
+			}
+			currPtr = ptr;
+			if (!eof())
+				parseEntry();
+		}
+
+		/** {@inheritDoc} */
+		@Override
+		public void back(final int delta) throws CorruptObjectException {
+			if (delta <= 0)
+				throw new ArrayIndexOutOfBoundsException(delta);
+
+			// entries can only be found from the start of the tree
+			final int[] trace = new int[delta + 1];
+			int seen = 0;
+			for (int ptr = 0; ptr != currPtr; ptr = skipEntry(ptr))
+				trace[seen++ % trace.length] = ptr;
+			if (seen < delta)
+				throw new ArrayIndexOutOfBoundsException(delta);
+
+			currPtr = trace[(seen - delta) % trace.length];
+			parseEntry();
+		}
+
+		private int skipEntry(int ptr) {
+			while (raw[ptr] != 0)
+				ptr++;
+			return ptr + 1 + Constants.OBJECT_ID_LENGTH;
+		}
+
+		// an entry is "<octal mode> <name>\0<raw id>"
+		private void parseEntry() {
+			int ptr = currPtr;
+			byte c = raw[ptr++];
+			int m = c - '0';
+			while ((c = raw[ptr++]) != ' ')
+				m = (m << 3) + (c - '0');
+			mode = m;
+
+			int len = pathOffset;
+			while ((c = raw[ptr++]) != 0) {
+				if (len == path.length)
+					growPath(len);
+				path[len++] = c;
+			}
+			pathLen = len;
+			nextPtr = ptr + Constants.OBJECT_ID_LENGTH;
+		}
+	}
+}
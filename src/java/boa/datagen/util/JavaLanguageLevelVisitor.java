@@ -0,0 +1,133 @@
+/*
+ * Copyright 2015, Hridesh Rajan, Robert Dyer, Hoan Nguyen
+ *                 and Iowa State University of Science and Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boa.datagen.util;
+
+import org.eclipse.jdt.core.dom.*;
+
+/**
+ * Finds the oldest Java language level a file can be parsed at, by looking
+ * for the features added in Java 5 (JLS3) and Java 7 (JLS4).
+ *
+ * @author agent
+ */
+public class JavaLanguageLevelVisitor extends ASTVisitor {
+	public int level = AST.JLS2;
+
+	private void atLeast(final int level) {
+		if (level > this.level)
+			this.level = level;
+	}
+
+	public boolean preVisit2(ASTNode node) {
+		// nothing can raise the level any further
+		return level < AST.JLS4;
+	}
+
+	// Java 5
+
+	public boolean visit(ParameterizedType node) {
+		// Java 7 allows leaving out the type arguments (the diamond)
+		atLeast(node.typeArguments().isEmpty() ? AST.JLS4 : AST.JLS3);
+		return true;
+	}
+
+	public boolean visit(TypeParameter node) {
+		atLeast(AST.JLS3);
+		return false;
+	}
+
+	public boolean visit(WildcardType node) {
+		atLeast(AST.JLS3);
+		return false;
+	}
+
+	public boolean visit(MethodInvocation node) {
+		if (!node.typeArguments().isEmpty())
+			atLeast(AST.JLS3);
+		return true;
+	}
+
+	public boolean visit(MarkerAnnotation node) {
+		atLeast(AST.JLS3);
+		return false;
+	}
+
+	public boolean visit(NormalAnnotation node) {
+		atLeast(AST.JLS3);
+		return false;
+	}
+
+	public boolean visit(SingleMemberAnnotation node) {
+		atLeast(AST.JLS3);
+		return false;
+	}
+
+	public boolean visit(AnnotationTypeDeclaration node) {
+		atLeast(AST.JLS3);
+		return false;
+	}
+
+	public boolean visit(EnumDeclaration node) {
+		atLeast(AST.JLS3);
+		return false;
+	}
+
+	public boolean visit(EnhancedForStatement node) {
+		atLeast(AST.JLS3);
+		return true;
+	}
+
+	public boolean visit(SingleVariableDeclaration node) {
+		if (node.isVarargs())
+			atLeast(AST.JLS3);
+		return true;
+	}
+
+	public boolean visit(ImportDeclaration node) {
+		if (node.isStatic())
+			atLeast(AST.JLS3);
+		return false;
+	}
+
+	// Java 7
+
+	public boolean visit(UnionType node) {
+		atLeast(AST.JLS4);
+		return false;
+	}
+
+	public boolean visit(TryStatement node) {
+		if (!node.resources().isEmpty())
+			atLeast(AST.JLS4);
+		return true;
+	}
+
+	public boolean visit(SwitchCase node) {
+		if (node.getExpression() instanceof StringLiteral)
+			atLeast(AST.JLS4);
+		return true;
+	}
+
+	public boolean visit(NumberLiteral node) {
+		// binary literals and underscores in literals
+		final String token = node.getToken();
+		if (token.indexOf('_') != -1 || token.startsWith("0b") || token.startsWith("0B"))
+			atLeast(AST.JLS4);
+		return false;
+	}
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright 2015, Hridesh Rajan, Robert Dyer, Hoan Nguyen
+ *                 and Iowa State University of Science and Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boa.datagen.util;
+
+/**
+ * Counts the lines of code, comments and blanks in a file, in a single pass
+ * over its contents.  A line with any code on it is a code line, a line with
+ * only comments is a comment line, and anything else is blank.
+ *
+ * @author agent
+ */
+public class LineCounter {
+	public enum Language {
+		JAVA("java"), JAVASCRIPT("javascript"), XML("xml"), TEXT("text");
+
+		private final String name;
+
+		private Language(final String name) {
+			this.name = name;
+		}
+
+		@Override
+		public String toString() {
+			return name;
+		}
+	}
+
+	/**
+	 * Finds the language of a file from its name.
+	 *
+	 * @return the language, or null if lines are not counted for the file
+	 */
+	public static Language getLanguage(final String path) {
+		final String lowerPath = path.toLowerCase();
+		if (lowerPath.endsWith(".java"))
+			return Language.JAVA;
+		if (lowerPath.endsWith(".js"))
+			return Language.JAVASCRIPT;
+		if (lowerPath.endsWith(".xml"))
+			return Language.XML;
+		if (lowerPath.endsWith(".txt"))
+			return Language.TEXT;
+		return null;
+	}
+
+	public final Language language;
+	public int code = 0;
+	public int comment = 0;
+	public int blank = 0;
+
+	// what the current line has on it
+	private boolean lineHasCode = false;
+	private boolean lineHasComment = false;
+
+	public LineCounter(final Language language) {
+		this.language = language;
+	}
+
+	/**
+	 * Counts the lines of a file.
+	 */
+	public static LineCounter count(final Language language, final CharSequence content) {
+		final LineCounter counter = new LineCounter(language);
+		switch (language) {
+			case JAVA:
+			case JAVASCRIPT:
+				counter.scanC(content);
+				break;
+			case XML:
+				counter.scanXml(content);
+				break;
+			default:
+				counter.scanText(content);
+				break;
+		}
+		return counter;
+	}
+
+	private void endLine() {
+		if (lineHasCode)
+			code++;
+		else if (lineHasComment)
+			comment++;
+		else
+			blank++;
+		lineHasCode = lineHasComment = false;
+	}
+
+	private void endFile(final CharSequence s) {
+		// a last line without a newline still counts
+		if (s.length() > 0 && s.charAt(s.length() - 1) != '\n')
+			endLine();
+	}
+
+	private void scanText(final CharSequence s) {
+		for (int i = 0; i < s.length(); i++) {
+			final char c = s.charAt(i);
+			if (c == '\n')
+				endLine();
+			else if (!Character.isWhitespace(c))
+				lineHasCode = true;
+		}
+		endFile(s);
+	}
+
+	// scanner states for C-like languages
+	private static final int CODE = 0, LINE_COMMENT = 1, BLOCK_COMMENT = 2, STRING = 3;
+
+	private void scanC(final CharSequence s) {
+		int state = CODE;
+		char quote = 0;
+
+		for (int i = 0; i < s.length(); i++) {
+			final char c = s.charAt(i);
+			final char next = i + 1 < s.length() ? s.charAt(i + 1) : 0;
+
+			if (c == '\n') {
+				endLine();
+				// neither line comments nor strings span lines
+				if (state != BLOCK_COMMENT)
+					state = CODE;
+				continue;
+			}
+
+			switch (state) {
+				case CODE:
+					if (c == '/' && next == '/') {
+						state = LINE_COMMENT;
+						lineHasComment = true;
+						i++;
+					} else if (c == '/' && next == '*') {
+						state = BLOCK_COMMENT;
+						lineHasComment = true;
+						i++;
+					} else if (c == '"' || c == '\'') {
+						state = STRING;
+						quote = c;
+						lineHasCode = true;
+					} else if (!Character.isWhitespace(c)) {
+						lineHasCode = true;
+					}
+					break;
+				case BLOCK_COMMENT:
+					if (c == '*' && next == '/') {
+						state = CODE;
+						i++;
+					} else if (!Character.isWhitespace(c)) {
+						lineHasComment = true;
+					}
+					break;
+				case STRING:
+					if (c == '\\' && next != '\n')
+						i++;
+					else if (c == quote)
+						state = CODE;
+					break;
+				default:
+					break;
+			}
+		}
+		endFile(s);
+	}
+
+	private void scanXml(final CharSequence s) {
+		boolean inComment = false;
+
+		for (int i = 0; i < s.length(); i++) {
+			final char c = s.charAt(i);
+
+			if (c == '\n') {
+				endLine();
+			} else if (inComment) {
+				if (startsWith(s, i, "-->")) {
+					inComment = false;
+					i += 2;
+				} else if (!Character.isWhitespace(c)) {
+					lineHasComment = true;
+				}
+			} else if (startsWith(s, i, "<!--")) {
+				inComment = true;
+				lineHasComment = true;
+				i += 3;
+			} else if (!Character.isWhitespace(c)) {
+				lineHasCode = true;
+			}
+		}
+		endFile(s);
+	}
+
+	private static boolean startsWith(final CharSequence s, final int start, final String prefix) {
+		if (start + prefix.length() > s.length())
+			return false;
+		for (int i = 0; i < prefix.length(); i++)
+			if (s.charAt(start + i) != prefix.charAt(i))
+				return false;
+		return true;
+	}
+
+	/**
+	 * Formats the counts like a row of <code>ohcount -i</code>, which was
+	 * used to count lines before.
+	 */
+	public String format(final String path) {
+		final double percent = code + comment == 0 ? 0 : 100.0 * comment / (code + comment);
+		return String.format("%-16s  %9d  %9d  %8.1f%%  %9d  %9d  %s", language, code, comment, percent, blank, code + comment + blank, path);
+	}
+}
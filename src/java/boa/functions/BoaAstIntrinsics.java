@@ -23,6 +23,7 @@ import java.util.Stack;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.BloomMapFile;
 import org.apache.hadoop.io.BytesWritable;
 import org.apache.hadoop.io.MapFile;
 import org.apache.hadoop.io.Text;
@@ -60,7 +61,7 @@ public class BoaAstIntrinsics {
 		GETS_FAIL_BADLOC,
 	};
 
-	@FunctionSpec(name = "url", returnType = "string", formalParameters = { "ChangedFile" })
+	@FunctionSpec(name = "url", returnType = "string", formalParameters = { "ChangedFile" }, pure = true)
 	public static String changedfileToString(final ChangedFile f) {
 		return f.getKey() + "!!" + f.getName();
 	}
@@ -76,7 +77,7 @@ public class BoaAstIntrinsics {
 	 * @return the AST, or an empty AST on any sort of error
 	 */
 	@SuppressWarnings("unchecked")
-	@FunctionSpec(name = "getast", returnType = "ASTRoot", formalParameters = { "ChangedFile" })
+	@FunctionSpec(name = "getast", returnType = "ASTRoot", formalParameters = { "ChangedFile" }, pure = true)
 	public static ASTRoot getast(final ChangedFile f) {
 		// since we know only certain kinds have ASTs, filter before looking up
 		final ChangedFile.FileKind kind = f.getKind();
@@ -130,7 +131,7 @@ public class BoaAstIntrinsics {
 	 * @param f the ChangedFile to get a snapshot of the comments for
 	 * @return the comments list, or an empty list on any sort of error
 	 */
-	@FunctionSpec(name = "getcomments", returnType = "CommentsRoot", formalParameters = { "ChangedFile" })
+	@FunctionSpec(name = "getcomments", returnType = "CommentsRoot", formalParameters = { "ChangedFile" }, pure = true)
 	public static CommentsRoot getcomments(final ChangedFile f) {
 		// since we know only certain kinds have comments, filter before looking up
 		final ChangedFile.FileKind kind = f.getKind();
@@ -172,7 +173,7 @@ public class BoaAstIntrinsics {
 	 * @param f the IssueRepository to get issues for
 	 * @return the issues list, or an empty list on any sort of error
 	 */
-	@FunctionSpec(name = "getissues", returnType = "IssuesRoot", formalParameters = { "IssueRepository" })
+	@FunctionSpec(name = "getissues", returnType = "IssuesRoot", formalParameters = { "IssueRepository" }, pure = true)
 	public static IssuesRoot getissues(final IssueRepository f) {
 		if (issuesMap == null)
 			openIssuesMap();
@@ -204,42 +205,37 @@ public class BoaAstIntrinsics {
 	}
 
 	private static void openMap() {
-		final Configuration conf = new Configuration();
-		try {
-			final FileSystem fs = FileSystem.get(conf);
-			final Path p = new Path("hdfs://boa-njt/",
-								new Path(context.getConfiguration().get("boa.ast.dir", context.getConfiguration().get("boa.input.dir", "repcache/live")),
-								new Path("ast")));
-			map = new MapFile.Reader(fs, p.toString(), conf);
-		} catch (final Exception e) {
-			e.printStackTrace();
-		}
+		map = openMapFile("boa.ast.dir", "ast");
 	}
 
 	private static void openCommentMap() {
-		final Configuration conf = new Configuration();
-		try {
-			final FileSystem fs = FileSystem.get(conf);
-			final Path p = new Path("hdfs://boa-njt/",
-								new Path(context.getConfiguration().get("boa.comments.dir", context.getConfiguration().get("boa.input.dir", "repcache/live")),
-								new Path("comments")));
-			commentsMap = new MapFile.Reader(fs, p.toString(), conf);
-		} catch (final Exception e) {
-			e.printStackTrace();
-		}
+		commentsMap = openMapFile("boa.comments.dir", "comments");
 	}
 
 	private static void openIssuesMap() {
+		issuesMap = openMapFile("boa.issues.dir", "issues");
+	}
+
+	private static MapFile.Reader openMapFile(final String dirProperty, final String name) {
 		final Configuration conf = new Configuration();
+
+		// the job can skip keys in the index, trading slower gets for less memory
+		conf.setInt("io.map.index.skip", context.getConfiguration().getInt("io.map.index.skip", 0));
+
 		try {
 			final FileSystem fs = FileSystem.get(conf);
 			final Path p = new Path("hdfs://boa-njt/",
-								new Path(context.getConfiguration().get("boa.issues.dir", context.getConfiguration().get("boa.input.dir", "repcache/live")),
-								new Path("issues")));
-			issuesMap = new MapFile.Reader(fs, p.toString(), conf);
+								new Path(context.getConfiguration().get(dirProperty, context.getConfiguration().get("boa.input.dir", "repcache/live")),
+								new Path(name)));
+
+			// with a bloom filter, most missing keys are found without reading the data file
+			if (fs.exists(new Path(p, BloomMapFile.BLOOM_FILE_NAME)))
+				return new BloomMapFile.Reader(fs, p.toString(), conf);
+			return new MapFile.Reader(fs, p.toString(), conf);
 		} catch (final Exception e) {
 			e.printStackTrace();
 		}
+		return null;
 	}
 
 	@SuppressWarnings("rawtypes")
@@ -279,7 +275,7 @@ public class BoaAstIntrinsics {
 		issuesMap = null;
 	}
 
-	@FunctionSpec(name = "type_name", returnType = "string", formalParameters = { "string" })
+	@FunctionSpec(name = "type_name", returnType = "string", formalParameters = { "string" }, pure = true)
 	public static String type_name(final String s) {
 		// first, normalize the string
 		final String t = s.replaceAll("<\\s+", "<")
@@ -398,28 +394,28 @@ public class BoaAstIntrinsics {
 
 	public final static SnapshotVisitor snapshot = new SnapshotVisitor();
 
-	@FunctionSpec(name = "getsnapshot", returnType = "array of ChangedFile", formalParameters = { "CodeRepository", "time", "string..." })
+	@FunctionSpec(name = "getsnapshot", returnType = "array of ChangedFile", formalParameters = { "CodeRepository", "time", "string..." }, pure = true)
 	public static ChangedFile[] getSnapshot(final CodeRepository cr, final long timestamp, final String... kinds) throws Exception {
 		snapshot.initialize(timestamp, kinds).visit(cr);
 		return snapshot.map.values().toArray(new ChangedFile[0]);
 	}
 
-	@FunctionSpec(name = "getsnapshot", returnType = "array of ChangedFile", formalParameters = { "CodeRepository", "string..." })
+	@FunctionSpec(name = "getsnapshot", returnType = "array of ChangedFile", formalParameters = { "CodeRepository", "string..." }, pure = true)
 	public static ChangedFile[] getSnapshot(final CodeRepository cr, final String... kinds) throws Exception {
 		return getSnapshot(cr, Long.MAX_VALUE, kinds);
 	}
 
-	@FunctionSpec(name = "getsnapshot", returnType = "array of ChangedFile", formalParameters = { "CodeRepository", "time" })
+	@FunctionSpec(name = "getsnapshot", returnType = "array of ChangedFile", formalParameters = { "CodeRepository", "time" }, pure = true)
 	public static ChangedFile[] getSnapshot(final CodeRepository cr, final long timestamp) throws Exception {
 		return getSnapshot(cr, timestamp, new String[0]);
 	}
 
-	@FunctionSpec(name = "getsnapshot", returnType = "array of ChangedFile", formalParameters = { "CodeRepository" })
+	@FunctionSpec(name = "getsnapshot", returnType = "array of ChangedFile", formalParameters = { "CodeRepository" }, pure = true)
 	public static ChangedFile[] getSnapshot(final CodeRepository cr) throws Exception {
 		return getSnapshot(cr, Long.MAX_VALUE, new String[0]);
 	}
 
-	@FunctionSpec(name = "isliteral", returnType = "bool", formalParameters = { "Expression", "string" })
+	@FunctionSpec(name = "isliteral", returnType = "bool", formalParameters = { "Expression", "string" }, pure = true)
 	public static boolean isLiteral(final Expression e, final String lit) throws Exception {
 		return e.getKind() == Expression.ExpressionKind.LITERAL && e.hasLiteral() && e.getLiteral().equals(lit);
 	}
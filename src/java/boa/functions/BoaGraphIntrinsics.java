@@ -16,8 +16,17 @@
  */
 package boa.functions;
 
-import boa.graphs.cfg.CFG;
+import java.util.AbstractList;
+import java.util.BitSet;
+import java.util.List;
+
+import org.apache.hadoop.mapreduce.Mapper.Context;
+
+import boa.graphs.CFGCache;
+import boa.graphs.LiveVariables;
 import boa.types.Ast.Method;
+import boa.types.Control.CFGEdge;
+import boa.types.Control.CFGEdge.CFGEdgeLabel;
 
 /**
  * Boa functions for working with control flow graphs.
@@ -27,12 +36,110 @@ import boa.types.Ast.Method;
  *
  */
 public class BoaGraphIntrinsics {
+	// every job in a task shares the graphs, so each is built once
+	private static CFGCache cache = new CFGCache();
+
+	public static enum CFG_COUNTER {
+		CACHE_HITS,
+		CACHE_MISSES,
+	};
+
+	@SuppressWarnings("rawtypes")
+	public static void setup(final Context context) {
+		cache = new CFGCache(context.getConfiguration().getInt("boa.cfg.cache.size", CFGCache.DEFAULT_SIZE));
+	}
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	public static void cleanup(final Context context) {
+		context.getCounter(CFG_COUNTER.CACHE_HITS).increment(cache.getHits());
+		context.getCounter(CFG_COUNTER.CACHE_MISSES).increment(cache.getMisses());
+		cache.clear();
+	}
 
-	@FunctionSpec(name = "getcfg", returnType = "CFG", formalParameters = { "Method" })
+	@FunctionSpec(name = "getcfg", returnType = "CFG", formalParameters = { "Method" }, pure = true)
 	public static boa.types.Control.CFG getcfg(final Method method) {
-		CFG cfg = new CFG(method);
-		cfg.astToCFG();
-		return cfg.newBuilder().build();
+		return cache.get(method).getCFG();
 	}
 
+	private final static CFGEdge[] edges = new CFGEdge[CFGEdgeLabel.values().length + 1];
+
+	static {
+		for (final CFGEdgeLabel label : CFGEdgeLabel.values())
+			edges[label.getNumber()] = CFGEdge.newBuilder().setLabel(label).build();
+	}
+
+	/**
+	 * Gives the edges of a CFG as the n x n matrix they used to be stored as,
+	 * so programs selecting <code>edges</code> still work.  The matrix is not
+	 * built, each edge is looked up in the successors when it is read.
+	 */
+	public static List<CFGEdge> getEdgeMatrix(final boa.types.Control.CFG cfg) {
+		final int size = cfg.getNodesCount();
+
+		return new AbstractList<CFGEdge>() {
+			@Override
+			public CFGEdge get(final int index) {
+				if (index < 0 || index >= size())
+					throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+
+				final int from = index / size;
+				final int to = index % size;
+				CFGEdgeLabel label = CFGEdgeLabel.NIL;
+				if (from + 1 < cfg.getSuccessorOffsetsCount())
+					for (int i = cfg.getSuccessorOffsets(from); i < cfg.getSuccessorOffsets(from + 1); i++)
+						if (cfg.getSuccessors(i) == to)
+							label = cfg.getSuccessorLabels(i);
+				return edges[label.getNumber()];
+			}
+
+			@Override
+			public int size() {
+				return size * size;
+			}
+		};
+	}
+
+	/*
+	 * dataflow analyses, whose results are indexed by CFG node id
+	 */
+
+	@FunctionSpec(name = "get_dominators", returnType = "array of int", formalParameters = { "Method" }, pure = true)
+	public static long[] getDominators(final Method method) {
+		return cache.get(method).getDominators().getImmediateDominators();
+	}
+
+	@FunctionSpec(name = "get_postdominators", returnType = "array of int", formalParameters = { "Method" }, pure = true)
+	public static long[] getPostDominators(final Method method) {
+		return cache.get(method).getPostDominators().getImmediateDominators();
+	}
+
+	@FunctionSpec(name = "get_loops", returnType = "array of int", formalParameters = { "Method" }, pure = true)
+	public static long[] getLoops(final Method method) {
+		return cache.get(method).getLoops().getHeaders().clone();
+	}
+
+	// programs ask for these a node at a time, and the cache keeps each solved analysis
+
+	@FunctionSpec(name = "get_reaching_definitions", returnType = "array of int", formalParameters = { "Method", "int" }, pure = true)
+	public static long[] getReachingDefinitions(final Method method, final long node) {
+		final BitSet in = cache.get(method).getReachingDefinitions().getIn((int) node);
+		final long[] defs = new long[in.cardinality()];
+		int i = 0;
+		for (int d = in.nextSetBit(0); d >= 0; d = in.nextSetBit(d + 1))
+			defs[i++] = d;
+		return defs;
+	}
+
+	@FunctionSpec(name = "get_live_variables", returnType = "array of string", formalParameters = { "Method", "int" }, pure = true)
+	public static String[] getLiveVariables(final Method method, final long node) {
+		final LiveVariables lv = cache.get(method).getLiveVariables();
+
+		// going backward, a node's input is what is live after it
+		final BitSet after = lv.getIn((int) node);
+		final String[] live = new String[after.cardinality()];
+		int i = 0;
+		for (int v = after.nextSetBit(0); v >= 0; v = after.nextSetBit(v + 1))
+			live[i++] = lv.getVariable(v);
+		return live;
+	}
 }
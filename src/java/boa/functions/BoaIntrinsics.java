@@ -67,7 +67,7 @@ public class BoaIntrinsics {
 	 * @param rev the revision to mine
 	 * @return true if the revision's log indicates a fixing revision
 	 */
-	@FunctionSpec(name = "isfixingrevision", returnType = "bool", formalParameters = { "Revision" })
+	@FunctionSpec(name = "isfixingrevision", returnType = "bool", formalParameters = { "Revision" }, pure = true)
 	public static boolean isfixingrevision(final Revision rev) {
 		return isfixingrevision(rev.getLog());
 	}
@@ -78,7 +78,7 @@ public class BoaIntrinsics {
 	 * @param log the revision's log message to mine
 	 * @return true if the log indicates a fixing revision
 	 */
-	@FunctionSpec(name = "isfixingrevision", returnType = "bool", formalParameters = { "string" })
+	@FunctionSpec(name = "isfixingrevision", returnType = "bool", formalParameters = { "string" }, pure = true)
 	public static boolean isfixingrevision(final String log) {
 		final String lower = log.toLowerCase();
 		for (final Matcher m : fixingMatchers)
@@ -164,7 +164,7 @@ public class BoaIntrinsics {
 	 * @param ext the file extension to look for
 	 * @return true if the Project contains at least 1 file with the specified extension
 	 */
-	@FunctionSpec(name = "hasfiletype", returnType = "bool", formalParameters = { "Project", "string" })
+	@FunctionSpec(name = "hasfiletype", returnType = "bool", formalParameters = { "Project", "string" }, pure = true)
 	public static boolean hasfile(final Project p, final String ext) {
 		for (int i = 0; i < p.getCodeRepositoriesCount(); i++)
 			if (hasfile(p.getCodeRepositories(i), ext))
@@ -179,7 +179,7 @@ public class BoaIntrinsics {
 	 * @param ext the file extension to look for
 	 * @return true if the CodeRepository contains at least 1 file with the specified extension
 	 */
-	@FunctionSpec(name = "hasfiletype", returnType = "bool", formalParameters = { "CodeRepository", "string" })
+	@FunctionSpec(name = "hasfiletype", returnType = "bool", formalParameters = { "CodeRepository", "string" }, pure = true)
 	public static boolean hasfile(final CodeRepository cr, final String ext) {
 		for (int i = 0; i < cr.getRevisionsCount(); i++)
 			if (hasfile(cr.getRevisions(i), ext))
@@ -194,7 +194,7 @@ public class BoaIntrinsics {
 	 * @param ext the file extension to look for
 	 * @return true if the Revision contains at least 1 file with the specified extension
 	 */
-	@FunctionSpec(name = "hasfiletype", returnType = "bool", formalParameters = { "Revision", "string" })
+	@FunctionSpec(name = "hasfiletype", returnType = "bool", formalParameters = { "Revision", "string" }, pure = true)
 	public static boolean hasfile(final Revision rev, final String ext) {
 		for (int i = 0; i < rev.getFilesCount(); i++)
 			if (rev.getFiles(i).getName().toLowerCase().endsWith("." + ext.toLowerCase()))
@@ -209,7 +209,7 @@ public class BoaIntrinsics {
 	 * @param kind the FileKind to match
 	 * @return true if the string matches the given kind
 	 */
-	@FunctionSpec(name = "iskind", returnType = "bool", formalParameters = { "string", "FileKind" })
+	@FunctionSpec(name = "iskind", returnType = "bool", formalParameters = { "string", "FileKind" }, pure = true)
 	public static boolean iskind(final String s, final ChangedFile.FileKind kind) {
 		return kind.name().startsWith(s);
 	}
@@ -67,7 +67,7 @@ public class BoaMathIntrinsics {
 	 * 
 	 * @return The nearest integer to <em>a</em> not larger in absolute value
 	 */
-	@FunctionSpec(name = "trunc", returnType = "float", formalParameters = { "float" })
+	@FunctionSpec(name = "trunc", returnType = "float", formalParameters = { "float" }, pure = true)
 	public static double trunc(final double a) {
 		if (a == 0.0 || Double.isNaN(a) || Double.isInfinite(a))
 			return a;
@@ -89,7 +89,7 @@ public class BoaMathIntrinsics {
 	 * 
 	 * @return The hyperbolic arc sine of <em>d</em>
 	 */
-	@FunctionSpec(name = "asinh", returnType = "float", formalParameters = { "float" })
+	@FunctionSpec(name = "asinh", returnType = "float", formalParameters = { "float" }, pure = true)
 	public static double asinh(final double d) {
 		return Math.log(d + Math.sqrt(1.0 + d * d));
 	}
@@ -102,7 +102,7 @@ public class BoaMathIntrinsics {
 	 * 
 	 * @return The hyperbolic arc cosine of <em>d</em>
 	 */
-	@FunctionSpec(name = "acosh", returnType = "float", formalParameters = { "float" })
+	@FunctionSpec(name = "acosh", returnType = "float", formalParameters = { "float" }, pure = true)
 	public static double acosh(final double d) {
 		return Math.log(d + (d + 1.0) * Math.sqrt((d - 1.0) / (d + 1.0)));
 	}
@@ -115,7 +115,7 @@ public class BoaMathIntrinsics {
 	 * 
 	 * @return The hyperbolic arc tangent of <em>d</em>
 	 */
-	@FunctionSpec(name = "atanh", returnType = "float", formalParameters = { "float" })
+	@FunctionSpec(name = "atanh", returnType = "float", formalParameters = { "float" }, pure = true)
 	public static double atanh(final double d) {
 		return Math.log((1.0 + d) * Math.sqrt(1.0 / (1.0 - d * d)));
 	}
@@ -128,7 +128,7 @@ public class BoaMathIntrinsics {
 	 * 
 	 * @return True if <em>v</em> is NaN, false otherwise
 	 */
-	@FunctionSpec(name = "isnan", returnType = "bool", formalParameters = { "float" })
+	@FunctionSpec(name = "isnan", returnType = "bool", formalParameters = { "float" }, pure = true)
 	public static boolean isNaN(final double v) {
 		return Double.isNaN(v);
 	}
@@ -141,7 +141,7 @@ public class BoaMathIntrinsics {
 	 * 
 	 * @return True if <em>v</em> is infinite, false otherwise
 	 */
-	@FunctionSpec(name = "isinf", returnType = "bool", formalParameters = { "float" })
+	@FunctionSpec(name = "isinf", returnType = "bool", formalParameters = { "float" }, pure = true)
 	public static boolean isInfinite(final double v) {
 		return Double.isInfinite(v);
 	}
@@ -154,7 +154,7 @@ public class BoaMathIntrinsics {
 	 * 
 	 * @return True if <em>v</em> is neither infinite nor NaN, false otherwise
 	 */
-	@FunctionSpec(name = "isfinite", returnType = "bool", formalParameters = { "float" })
+	@FunctionSpec(name = "isfinite", returnType = "bool", formalParameters = { "float" }, pure = true)
 	public static boolean isFinite(final double v) {
 		return !BoaMathIntrinsics.isNaN(v) && !BoaMathIntrinsics.isInfinite(v);
 	}
@@ -168,7 +168,7 @@ public class BoaMathIntrinsics {
 	 * @return True if <em>v</em> is neither zero, subnormal, infinite, nor NaN;
 	 *         false otherwise
 	 */
-	@FunctionSpec(name = "isnormal", returnType = "bool", formalParameters = { "float" })
+	@FunctionSpec(name = "isnormal", returnType = "bool", formalParameters = { "float" }, pure = true)
 	public static boolean isNormal(final double v) {
 		return v != 0.0 && v > 0x0.fffffffffffffp-1022 && !BoaMathIntrinsics.isNaN(v) && !BoaMathIntrinsics.isInfinite(v);
 	}
@@ -16,92 +16,207 @@
  */
 package boa.functions;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+import boa.runtime.BoaAbstractVisitor;
 import boa.types.Ast.*;
 
 /**
  * Boa domain-specific functions for computing software engineering metrics.
  * 
  * @author rdyer
+ * @author agent
  */
 public class BoaMetricIntrinsics {
-	////////////////////////////////
-	// Number of Attributes (NOA) //
-	////////////////////////////////
+	// the metrics computed by one traversal, in the order they are stored
+	private static final String[] names = { "noa", "noo", "npm", "lcoo", "rfc" };
+	private static final int NOA = 0, NOO = 1, NPM = 2, LCOO = 3, RFC = 4;
+
+	///////////////////////////////
+	// All metrics, in one visit //
+	///////////////////////////////
+
+	/**
+	 * Finds every metric of a declaration.  NOA, NOO and NPM count nested
+	 * classes too, while LCOO and RFC look only at the declaration's own
+	 * methods.  Methods are told apart by name, as calls have nothing else to
+	 * match them by, and a field is used by plain name or through this.
+	 */
+	private static class BoaMetricsVisitor extends BoaAbstractVisitor {
+		private final long[] metrics = new long[names.length];
+
+		// how deep in nested declarations the visit is, 1 in the declaration itself
+		private int depth;
+
+		private final Map<String,Integer> fields = new HashMap<String,Integer>();
+		private final Set<String> methods = new HashSet<String>();
+		private final Set<String> calls = new HashSet<String>();
+
+		// the fields each method uses, and those the method being visited uses
+		private final List<BitSet> uses = new ArrayList<BitSet>();
+		private BitSet used;
+
+		@Override
+		public BoaMetricsVisitor initialize() {
+			super.initialize();
+			Arrays.fill(metrics, 0);
+			depth = 0;
+			fields.clear();
+			methods.clear();
+			calls.clear();
+			uses.clear();
+			used = null;
+			return this;
+		}
 
-	private static class BoaNOAVisitor extends BoaCountingVisitor {
 		@Override
 		public boolean preVisit(final Declaration node) {
-			if (node.getKind() == TypeKind.CLASS)
-				count += node.getFieldsCount();
+			if (node.getKind() == TypeKind.CLASS) {
+				metrics[NOA] += node.getFieldsCount();
+				metrics[NOO] += node.getMethodsCount();
+			}
+			if (++depth == 1)
+				for (final Variable v : node.getFieldsList())
+					if (!fields.containsKey(v.getName()))
+						fields.put(v.getName(), fields.size());
 			return true;
 		}
+
+		@Override
+		public void postVisit(final Declaration node) {
+			if (--depth > 0)
+				return;
+
+			// pairs of methods sharing no field, less the pairs sharing one
+			long disjoint = 0;
+			for (int i = 0; i < uses.size(); i++)
+				for (int j = i + 1; j < uses.size(); j++)
+					disjoint += uses.get(i).intersects(uses.get(j)) ? -1 : 1;
+			metrics[LCOO] = Math.max(disjoint, 0);
+
+			calls.addAll(methods);
+			metrics[RFC] = calls.size();
+		}
+
+		@Override
+		public boolean preVisit(final Method node) {
+			if (BoaModifierIntrinsics.hasModifierPublic(node))
+				metrics[NPM]++;
+			if (depth == 1) {
+				methods.add(node.getName());
+				used = new BitSet();
+			}
+			return true;
+		}
+
+		@Override
+		public void postVisit(final Method node) {
+			if (depth == 1) {
+				uses.add(used);
+				used = null;
+			}
+		}
+
+		@Override
+		public boolean preVisit(final Expression node) {
+			if (depth != 1)
+				return true;
+			if (node.getKind() == Expression.ExpressionKind.METHODCALL) {
+				calls.add(node.getMethod());
+			} else if (used != null && node.getKind() == Expression.ExpressionKind.VARACCESS && fields.containsKey(node.getVariable())) {
+				if (node.getExpressionsCount() == 0 || isThis(node.getExpressions(0)))
+					used.set(fields.get(node.getVariable()));
+			}
+			return true;
+		}
+
+		private static boolean isThis(final Expression e) {
+			return e.getKind() == Expression.ExpressionKind.LITERAL && "this".equals(e.getLiteral());
+		}
+	}
+	private static BoaMetricsVisitor metricsVisitor = new BoaMetricsVisitor();
+
+	// programs usually ask for every metric of a declaration in a row, so
+	// the last declaration's metrics are kept for the calls after the first
+	private static Declaration lastDecl = null;
+
+	private static long[] getMetrics(final Declaration node) throws Exception {
+		if (node != lastDecl) {
+			// forget the old declaration first, in case the visit throws
+			lastDecl = null;
+			metricsVisitor.initialize().visit(node);
+			lastDecl = node;
+		}
+		return metricsVisitor.metrics;
 	}
-	private static BoaNOAVisitor noaVisitor = new BoaNOAVisitor();
+
+	/**
+	 * Computes every metric for a node in one traversal of it.  The map's keys
+	 * are the metrics' names: noa, noo, npm, lcoo and rfc.  DIT, CBC and CA
+	 * need the classes around this one, so are not in it.
+	 * 
+	 * @param node the node to compute the metrics for
+	 * @return a map from each metric's name to its value for node
+	 */
+	@FunctionSpec(name = "get_metrics", returnType = "map[string] of int", formalParameters = { "Declaration" }, pure = true)
+	public static HashMap<String,Long> getMetricsMap(final Declaration node) throws Exception {
+		final long[] metrics = getMetrics(node);
+		final HashMap<String,Long> map = new HashMap<String,Long>();
+		for (int i = 0; i < names.length; i++)
+			map.put(names[i], metrics[i]);
+		return map;
+	}
+
+	////////////////////////////////
+	// Number of Attributes (NOA) //
+	////////////////////////////////
 
 	/**
 	 * Computes the Number of Attributes (NOA) metric for a node.
 	 * 
 	 * @param node the node to compute NOA for
-	 * @return the NOA value for decl
+	 * @return the NOA value for node
 	 */
-	@FunctionSpec(name = "get_metric_noa", returnType = "int", formalParameters = { "Declaration" })
+	@FunctionSpec(name = "get_metric_noa", returnType = "int", formalParameters = { "Declaration" }, pure = true)
 	public static long getMetricNOA(final Declaration node) throws Exception {
-		noaVisitor.initialize().visit(node);
-		return noaVisitor.count;
+		return getMetrics(node)[NOA];
 	}
 
 	////////////////////////////////
 	// Number of Operations (NOO) //
 	////////////////////////////////
 
-	private static class BoaNOOVisitor extends BoaCountingVisitor {
-		@Override
-		public boolean preVisit(final Declaration node) {
-			if (node.getKind() == TypeKind.CLASS)
-				count += node.getMethodsCount();
-    		return true;
-		}
-	}
-	private static BoaNOOVisitor nooVisitor = new BoaNOOVisitor();
-
 	/**
 	 * Computes the Number of Operations (NOO) metric for a node.
 	 * 
 	 * @param node the node to compute NOO for
-	 * @return the NOO value for decl
+	 * @return the NOO value for node
 	 */
-	@FunctionSpec(name = "get_metric_noo", returnType = "int", formalParameters = { "Declaration" })
+	@FunctionSpec(name = "get_metric_noo", returnType = "int", formalParameters = { "Declaration" }, pure = true)
 	public static long getMetricNOO(final Declaration node) throws Exception {
-		nooVisitor.initialize().visit(node);
-		return nooVisitor.count;
+		return getMetrics(node)[NOO];
 	}
 
 	////////////////////////////////////
 	// Number of Public Methods (NPM) //
 	////////////////////////////////////
 
-	private static class BoaNPMVisitor extends BoaCountingVisitor {
-		@Override
-		public boolean preVisit(final Method node) {
-    		if (BoaModifierIntrinsics.hasModifierPublic(node))
-    			count++;
-    		return true;
-		}
-	}
-	private static BoaNPMVisitor npmVisitor = new BoaNPMVisitor();
-
 	/**
 	 * Computes the Number of Public Methods (NPM) metric for a node.
 	 * 
 	 * @param node the node to compute NPM for
-	 * @return the NPM value for decl
+	 * @return the NPM value for node
 	 */
-	@FunctionSpec(name = "get_metric_npm", returnType = "int", formalParameters = { "Declaration" })
+	@FunctionSpec(name = "get_metric_npm", returnType = "int", formalParameters = { "Declaration" }, pure = true)
 	public static long getMetricNPM(final Declaration node) throws Exception {
-		npmVisitor.initialize().visit(node);
-		return npmVisitor.count;
+		return getMetrics(node)[NPM];
 	}
 
 	////////////////////////////////
@@ -133,7 +248,7 @@ public class BoaMetricIntrinsics {
 	 * @param node the node to compute NOC for
 	 * @return a map containing partial computation of the NOC metric
 	 */
-	@FunctionSpec(name = "get_metric_noc", returnType = "map[string] of int", formalParameters = { "ASTRoot" })
+	@FunctionSpec(name = "get_metric_noc", returnType = "map[string] of int", formalParameters = { "ASTRoot" }, pure = true)
 	public static HashMap<String,Long> getMetricNOC(final ASTRoot node) throws Exception {
 		nocVisitor.initialize(new HashMap<String,Long>()).visit(node);
 		return nocVisitor.map;
@@ -143,104 +258,77 @@ public class BoaMetricIntrinsics {
 	// Lack of Cohesion in Operations (LCOO) //
 	///////////////////////////////////////////
 
-	private static class BoaLCOOVisitor extends BoaCountingVisitor {
-		// TODO
-	}
-	private static BoaLCOOVisitor lcooVisitor = new BoaLCOOVisitor();
-
 	/**
-	 * Computes the Lack of Cohesion in Operations (LCOO) metric for a node.
+	 * Computes the Lack of Cohesion in Operations (LCOO) metric for a node,
+	 * which is the number of pairs of its methods that use no field in
+	 * common less the number of pairs that do, or 0 if that is negative.
 	 * 
 	 * @param node the node to compute LCOO for
 	 * @return the LCOO value for node
 	 */
-	@FunctionSpec(name = "get_metric_lcoo", returnType = "int", formalParameters = { "Declaration" })
+	@FunctionSpec(name = "get_metric_lcoo", returnType = "int", formalParameters = { "Declaration" }, pure = true)
 	public static long getMetricLCOO(final Declaration node) throws Exception {
-		lcooVisitor.initialize().visit(node);
-		return lcooVisitor.count;
+		return getMetrics(node)[LCOO];
 	}
 
 	/////////////////////////////////////
 	// Depth of Inheritance Tree (DIT) //
 	/////////////////////////////////////
 
-	private static class BoaDITVisitor extends BoaCountingVisitor {
-		// TODO
-	}
-	private static BoaDITVisitor ditVisitor = new BoaDITVisitor();
-
 	/**
 	 * Computes the Depth of Inheritance Tree (DIT) metric for a node.
 	 * 
 	 * @param node the node to compute DIT for
-	 * @return the DIT value for node
+	 * @return 0, as DIT needs the classes it inherits from, which are not in node
 	 */
-	@FunctionSpec(name = "get_metric_dit", returnType = "int", formalParameters = { "Declaration" })
+	@FunctionSpec(name = "get_metric_dit", returnType = "int", formalParameters = { "Declaration" }, pure = true)
 	public static long getMetricDIT(final Declaration node) throws Exception {
-		ditVisitor.initialize().visit(node);
-		return ditVisitor.count;
+		return 0;
 	}
 
 	////////////////////////////////
 	// Response For a Class (RFC) //
 	////////////////////////////////
 
-	private static class BoaRFCVisitor extends BoaCountingVisitor {
-		// TODO
-	}
-	private static BoaRFCVisitor rfcVisitor = new BoaRFCVisitor();
-
 	/**
-	 * Computes the Response For a Class (RFC) metric for a node.
+	 * Computes the Response For a Class (RFC) metric for a node, which is the
+	 * number of its methods and the methods they call.
 	 * 
 	 * @param node the node to compute RFC for
 	 * @return the RFC value for node
 	 */
-	@FunctionSpec(name = "get_metric_rfc", returnType = "int", formalParameters = { "Declaration" })
+	@FunctionSpec(name = "get_metric_rfc", returnType = "int", formalParameters = { "Declaration" }, pure = true)
 	public static long getMetricRFC(final Declaration node) throws Exception {
-		rfcVisitor.initialize().visit(node);
-		return rfcVisitor.count;
+		return getMetrics(node)[RFC];
 	}
 
 	////////////////////////////////////
 	// Coupling Between Classes (CBC) //
 	////////////////////////////////////
 
-	private static class BoaCBCVisitor extends BoaCountingVisitor {
-		// TODO
-	}
-	private static BoaCBCVisitor cbcVisitor = new BoaCBCVisitor();
-
 	/**
 	 * Computes the Coupling Between Classes (CBC) metric for a node.
 	 * 
 	 * @param node the node to compute CBC for
-	 * @return the CBC value for node
+	 * @return 0, as the names of the types node refers to are not in it
 	 */
-	@FunctionSpec(name = "get_metric_cbc", returnType = "int", formalParameters = { "Declaration" })
+	@FunctionSpec(name = "get_metric_cbc", returnType = "int", formalParameters = { "Declaration" }, pure = true)
 	public static long getMetricCBC(final Declaration node) throws Exception {
-		cbcVisitor.initialize().visit(node);
-		return cbcVisitor.count;
+		return 0;
 	}
 
 	////////////////////////////
 	// Afferent Coupling (CA) //
 	////////////////////////////
 
-	private static class BoaCAVisitor extends BoaCountingVisitor {
-		// TODO
-	}
-	private static BoaCAVisitor caVisitor = new BoaCAVisitor();
-
 	/**
 	 * Computes the Afferent Coupling (CA) metric for a node.
 	 * 
 	 * @param node the node to compute CA for
-	 * @return the CA value for node
+	 * @return 0, as CA needs the classes referring to it, which are not in node
 	 */
-	@FunctionSpec(name = "get_metric_ca", returnType = "int", formalParameters = { "Declaration" })
+	@FunctionSpec(name = "get_metric_ca", returnType = "int", formalParameters = { "Declaration" }, pure = true)
 	public static long getMetricCA(final Declaration node) throws Exception {
-		caVisitor.initialize().visit(node);
-		return caVisitor.count;
+		return 0;
 	}
 }
@@ -37,7 +37,7 @@ public class BoaModifierIntrinsics {
 	 * @param name the annotation to look for
 	 * @return the annotation Modifier or null
 	 */
-	@FunctionSpec(name = "get_annotation", returnType = "Modifier", formalParameters = { "Method", "string" })
+	@FunctionSpec(name = "get_annotation", returnType = "Modifier", formalParameters = { "Method", "string" }, pure = true)
 	public static Modifier getAnnotation(final Method m, final String name) {
 		for (int i = 0; i < m.getModifiersCount(); i++) {
 			Modifier mod = m.getModifiers(i);
@@ -55,7 +55,7 @@ public class BoaModifierIntrinsics {
 	 * @param kind the ModifierKind to test for
 	 * @return true if m contains a modifier kind
 	 */
-	@FunctionSpec(name = "has_modifier", returnType = "bool", formalParameters = { "Method", "ModifierKind" })
+	@FunctionSpec(name = "has_modifier", returnType = "bool", formalParameters = { "Method", "ModifierKind" }, pure = true)
 	public static boolean hasModifier(final Method m, final ModifierKind kind) {
 		for (int i = 0; i < m.getModifiersCount(); i++)
 			if (m.getModifiers(i).getKind() == kind)
@@ -71,7 +71,7 @@ public class BoaModifierIntrinsics {
 	 * @param v the Visibility modifier to test for
 	 * @return true if m contains a visibility modifier v
 	 */
-	@FunctionSpec(name = "has_visibility", returnType = "bool", formalParameters = { "Method", "Visibility" })
+	@FunctionSpec(name = "has_visibility", returnType = "bool", formalParameters = { "Method", "Visibility" }, pure = true)
 	public static boolean hasVisibility(final Method m, final Visibility v) {
 		for (int i = 0; i < m.getModifiersCount(); i++)
 			if (m.getModifiers(i).getKind() == ModifierKind.VISIBILITY && m.getModifiers(i).getVisibility() == v)
@@ -86,7 +86,7 @@ public class BoaModifierIntrinsics {
 	 * @param m the Method to check
 	 * @return true if m has a FINAL modifier
 	 */
-	@FunctionSpec(name = "has_modifier_final", returnType = "bool", formalParameters = { "Method" })
+	@FunctionSpec(name = "has_modifier_final", returnType = "bool", formalParameters = { "Method" }, pure = true)
 	public static boolean hasModifierFinal(final Method m) {
 		return hasModifier(m, ModifierKind.FINAL);
 	}
@@ -97,7 +97,7 @@ public class BoaModifierIntrinsics {
 	 * @param m the Method to check
 	 * @return true if m has a STATIC modifier
 	 */
-	@FunctionSpec(name = "has_modifier_static", returnType = "bool", formalParameters = { "Method" })
+	@FunctionSpec(name = "has_modifier_static", returnType = "bool", formalParameters = { "Method" }, pure = true)
 	public static boolean hasModifierStatic(final Method m) {
 		return hasModifier(m, ModifierKind.STATIC);
 	}
@@ -108,7 +108,7 @@ public class BoaModifierIntrinsics {
 	 * @param m the Method to check
 	 * @return true if m has a SYNCHRONIZED modifier
 	 */
-	@FunctionSpec(name = "has_modifier_synchronized", returnType = "bool", formalParameters = { "Method" })
+	@FunctionSpec(name = "has_modifier_synchronized", returnType = "bool", formalParameters = { "Method" }, pure = true)
 	public static boolean hasModifierSynchronized(final Method m) {
 		return hasModifier(m, ModifierKind.SYNCHRONIZED);
 	}
@@ -119,7 +119,7 @@ public class BoaModifierIntrinsics {
 	 * @param m the Method to check
 	 * @return true if m has an annotation
 	 */
-	@FunctionSpec(name = "has_annotation", returnType = "bool", formalParameters = { "Method" })
+	@FunctionSpec(name = "has_annotation", returnType = "bool", formalParameters = { "Method" }, pure = true)
 	public static boolean hasAnnotation(final Method m) {
 		return hasModifier(m, ModifierKind.ANNOTATION);
 	}
@@ -131,7 +131,7 @@ public class BoaModifierIntrinsics {
 	 * @param name the annotation name to look for
 	 * @return true if m has an annotation with the given name
 	 */
-	@FunctionSpec(name = "has_annotation", returnType = "bool", formalParameters = { "Method", "string" })
+	@FunctionSpec(name = "has_annotation", returnType = "bool", formalParameters = { "Method", "string" }, pure = true)
 	public static boolean hasAnnotation(final Method m, final String name) {
 		return getAnnotation(m, name) != null;
 	}
@@ -142,7 +142,7 @@ public class BoaModifierIntrinsics {
 	 * @param m the Method to check
 	 * @return true if m has a PUBLIC visibility modifier
 	 */
-	@FunctionSpec(name = "has_modifier_public", returnType = "bool", formalParameters = { "Method" })
+	@FunctionSpec(name = "has_modifier_public", returnType = "bool", formalParameters = { "Method" }, pure = true)
 	public static boolean hasModifierPublic(final Method m) {
 		return hasVisibility(m, Visibility.PUBLIC);
 	}
@@ -153,7 +153,7 @@ public class BoaModifierIntrinsics {
 	 * @param m the Method to check
 	 * @return true if m has a PRIVATE visibility modifier
 	 */
-	@FunctionSpec(name = "has_modifier_private", returnType = "bool", formalParameters = { "Method" })
+	@FunctionSpec(name = "has_modifier_private", returnType = "bool", formalParameters = { "Method" }, pure = true)
 	public static boolean hasModifierPrivate(final Method m) {
 		return hasVisibility(m, Visibility.PRIVATE);
 	}
@@ -164,7 +164,7 @@ public class BoaModifierIntrinsics {
 	 * @param m the Method to check
 	 * @return true if m has a PROTECTED visibility modifier
 	 */
-	@FunctionSpec(name = "has_modifier_protected", returnType = "bool", formalParameters = { "Method" })
+	@FunctionSpec(name = "has_modifier_protected", returnType = "bool", formalParameters = { "Method" }, pure = true)
 	public static boolean hasModifierProtected(final Method m) {
 		return hasVisibility(m, Visibility.PROTECTED);
 	}
@@ -175,7 +175,7 @@ public class BoaModifierIntrinsics {
 	 * @param m the Method to check
 	 * @return true if m has a NAMESPACE visibility modifier
 	 */
-	@FunctionSpec(name = "has_modifier_namespace", returnType = "bool", formalParameters = { "Method" })
+	@FunctionSpec(name = "has_modifier_namespace", returnType = "bool", formalParameters = { "Method" }, pure = true)
 	public static boolean hasModifierNamespace(final Method m) {
 		return hasVisibility(m, Visibility.NAMESPACE);
 	}
@@ -187,7 +187,7 @@ public class BoaModifierIntrinsics {
 	 * @param name the annotation to look for
 	 * @return the annotation Modifier or null
 	 */
-	@FunctionSpec(name = "get_annotation", returnType = "Modifier", formalParameters = { "Variable", "string" })
+	@FunctionSpec(name = "get_annotation", returnType = "Modifier", formalParameters = { "Variable", "string" }, pure = true)
 	public static Modifier getAnnotation(final Variable v, final String name) {
 		for (int i = 0; i < v.getModifiersCount(); i++) {
 			Modifier mod = v.getModifiers(i);
@@ -205,7 +205,7 @@ public class BoaModifierIntrinsics {
 	 * @param kind the ModifierKind to test for
 	 * @return true if v contains a modifier kind
 	 */
-	@FunctionSpec(name = "has_modifier", returnType = "bool", formalParameters = { "Variable", "ModifierKind" })
+	@FunctionSpec(name = "has_modifier", returnType = "bool", formalParameters = { "Variable", "ModifierKind" }, pure = true)
 	public static boolean hasModifier(final Variable v, final ModifierKind kind) {
 		for (int i = 0; i < v.getModifiersCount(); i++)
 			if (v.getModifiers(i).getKind() == kind)
@@ -221,7 +221,7 @@ public class BoaModifierIntrinsics {
 	 * @param v the Visibility modifier to test for
 	 * @return true if v contains a visibility modifier v
 	 */
-	@FunctionSpec(name = "has_visibility", returnType = "bool", formalParameters = { "Variable", "Visibility" })
+	@FunctionSpec(name = "has_visibility", returnType = "bool", formalParameters = { "Variable", "Visibility" }, pure = true)
 	public static boolean hasVisibility(final Variable var, final Visibility v) {
 		for (int i = 0; i < var.getModifiersCount(); i++)
 			if (var.getModifiers(i).getKind() == ModifierKind.VISIBILITY && var.getModifiers(i).getVisibility() == v)
@@ -236,7 +236,7 @@ public class BoaModifierIntrinsics {
 	 * @param v the Variable to check
 	 * @return true if v has a FINAL modifier
 	 */
-	@FunctionSpec(name = "has_modifier_final", returnType = "bool", formalParameters = { "Variable" })
+	@FunctionSpec(name = "has_modifier_final", returnType = "bool", formalParameters = { "Variable" }, pure = true)
 	public static boolean hasModifierFinal(final Variable v) {
 		return hasModifier(v, ModifierKind.FINAL);
 	}
@@ -247,7 +247,7 @@ public class BoaModifierIntrinsics {
 	 * @param v the Variable to check
 	 * @return true if v has a STATIC modifier
 	 */
-	@FunctionSpec(name = "has_modifier_static", returnType = "bool", formalParameters = { "Variable" })
+	@FunctionSpec(name = "has_modifier_static", returnType = "bool", formalParameters = { "Variable" }, pure = true)
 	public static boolean hasModifierStatic(final Variable v) {
 		return hasModifier(v, ModifierKind.STATIC);
 	}
@@ -258,7 +258,7 @@ public class BoaModifierIntrinsics {
 	 * @param v the Variable to check
 	 * @return true if v has a SYNCHRONIZED modifier
 	 */
-	@FunctionSpec(name = "has_modifier_synchronized", returnType = "bool", formalParameters = { "Variable" })
+	@FunctionSpec(name = "has_modifier_synchronized", returnType = "bool", formalParameters = { "Variable" }, pure = true)
 	public static boolean hasModifierSynchronized(final Variable v) {
 		return hasModifier(v, ModifierKind.SYNCHRONIZED);
 	}
@@ -269,7 +269,7 @@ public class BoaModifierIntrinsics {
 	 * @param v the Variable to check
 	 * @return true if v has an annotation
 	 */
-	@FunctionSpec(name = "has_annotation", returnType = "bool", formalParameters = { "Variable" })
+	@FunctionSpec(name = "has_annotation", returnType = "bool", formalParameters = { "Variable" }, pure = true)
 	public static boolean hasAnnotation(final Variable v) {
 		return hasModifier(v, ModifierKind.ANNOTATION);
 	}
@@ -281,7 +281,7 @@ public class BoaModifierIntrinsics {
 	 * @param name the annotation name to look for
 	 * @return true if v has an annotation with the given name
 	 */
-	@FunctionSpec(name = "has_annotation", returnType = "bool", formalParameters = { "Variable", "string" })
+	@FunctionSpec(name = "has_annotation", returnType = "bool", formalParameters = { "Variable", "string" }, pure = true)
 	public static boolean hasAnnotation(final Variable v, final String name) {
 		return getAnnotation(v, name) != null;
 	}
@@ -292,7 +292,7 @@ public class BoaModifierIntrinsics {
 	 * @param v the Variable to check
 	 * @return true if v has a PUBLIC visibility modifier
 	 */
-	@FunctionSpec(name = "has_modifier_public", returnType = "bool", formalParameters = { "Variable" })
+	@FunctionSpec(name = "has_modifier_public", returnType = "bool", formalParameters = { "Variable" }, pure = true)
 	public static boolean hasModifierPublic(final Variable v) {
 		return hasVisibility(v, Visibility.PUBLIC);
 	}
@@ -303,7 +303,7 @@ public class BoaModifierIntrinsics {
 	 * @param v the Variable to check
 	 * @return true if v has a PRIVATE visibility modifier
 	 */
-	@FunctionSpec(name = "has_modifier_private", returnType = "bool", formalParameters = { "Variable" })
+	@FunctionSpec(name = "has_modifier_private", returnType = "bool", formalParameters = { "Variable" }, pure = true)
 	public static boolean hasModifierPrivate(final Variable v) {
 		return hasVisibility(v, Visibility.PRIVATE);
 	}
@@ -314,7 +314,7 @@ public class BoaModifierIntrinsics {
 	 * @param v the Variable to check
 	 * @return true if v has a PROTECTED visibility modifier
 	 */
-	@FunctionSpec(name = "has_modifier_protected", returnType = "bool", formalParameters = { "Variable" })
+	@FunctionSpec(name = "has_modifier_protected", returnType = "bool", formalParameters = { "Variable" }, pure = true)
 	public static boolean hasModifierProtected(final Variable v) {
 		return hasVisibility(v, Visibility.PROTECTED);
 	}
@@ -325,7 +325,7 @@ public class BoaModifierIntrinsics {
 	 * @param v the Variable to check
 	 * @return true if v has a NAMESPACE visibility modifier
 	 */
-	@FunctionSpec(name = "has_modifier_namespace", returnType = "bool", formalParameters = { "Variable" })
+	@FunctionSpec(name = "has_modifier_namespace", returnType = "bool", formalParameters = { "Variable" }, pure = true)
 	public static boolean hasModifierNamespace(final Variable v) {
 		return hasVisibility(v, Visibility.NAMESPACE);
 	}
@@ -337,7 +337,7 @@ public class BoaModifierIntrinsics {
 	 * @param name the annotation to look for
 	 * @return the annotation Modifier or null
 	 */
-	@FunctionSpec(name = "get_annotation", returnType = "Modifier", formalParameters = { "Declaration", "string" })
+	@FunctionSpec(name = "get_annotation", returnType = "Modifier", formalParameters = { "Declaration", "string" }, pure = true)
 	public static Modifier getAnnotation(final Declaration d, final String name) {
 		for (int i = 0; i < d.getModifiersCount(); i++) {
 			Modifier mod = d.getModifiers(i);
@@ -355,7 +355,7 @@ public class BoaModifierIntrinsics {
 	 * @param kind the ModifierKind to test for
 	 * @return true if d contains a modifier kind
 	 */
-	@FunctionSpec(name = "has_modifier", returnType = "bool", formalParameters = { "Declaration", "ModifierKind" })
+	@FunctionSpec(name = "has_modifier", returnType = "bool", formalParameters = { "Declaration", "ModifierKind" }, pure = true)
 	public static boolean hasModifier(final Declaration d, final ModifierKind kind) {
 		for (int i = 0; i < d.getModifiersCount(); i++)
 			if (d.getModifiers(i).getKind() == kind)
@@ -371,7 +371,7 @@ public class BoaModifierIntrinsics {
 	 * @param v the Visibility modifier to test for
 	 * @return true if d contains a visibility modifier v
 	 */
-	@FunctionSpec(name = "has_visibility", returnType = "bool", formalParameters = { "Declaration", "Visibility" })
+	@FunctionSpec(name = "has_visibility", returnType = "bool", formalParameters = { "Declaration", "Visibility" }, pure = true)
 	public static boolean hasVisibility(final Declaration d, final Visibility v) {
 		for (int i = 0; i < d.getModifiersCount(); i++)
 			if (d.getModifiers(i).getKind() == ModifierKind.VISIBILITY && d.getModifiers(i).getVisibility() == v)
@@ -386,7 +386,7 @@ public class BoaModifierIntrinsics {
 	 * @param d the Declaration to check
 	 * @return true if d has a FINAL modifier
 	 */
-	@FunctionSpec(name = "has_modifier_final", returnType = "bool", formalParameters = { "Declaration" })
+	@FunctionSpec(name = "has_modifier_final", returnType = "bool", formalParameters = { "Declaration" }, pure = true)
 	public static boolean hasModifierFinal(final Declaration d) {
 		return hasModifier(d, ModifierKind.FINAL);
 	}
@@ -397,7 +397,7 @@ public class BoaModifierIntrinsics {
 	 * @param d the Declaration to check
 	 * @return true if d has a STATIC modifier
 	 */
-	@FunctionSpec(name = "has_modifier_static", returnType = "bool", formalParameters = { "Declaration" })
+	@FunctionSpec(name = "has_modifier_static", returnType = "bool", formalParameters = { "Declaration" }, pure = true)
 	public static boolean hasModifierStatic(final Declaration d) {
 		return hasModifier(d, ModifierKind.STATIC);
 	}
@@ -408,7 +408,7 @@ public class BoaModifierIntrinsics {
 	 * @param d the Declaration to check
 	 * @return true if d has a SYNCHRONIZED modifier
 	 */
-	@FunctionSpec(name = "has_modifier_synchronized", returnType = "bool", formalParameters = { "Declaration" })
+	@FunctionSpec(name = "has_modifier_synchronized", returnType = "bool", formalParameters = { "Declaration" }, pure = true)
 	public static boolean hasModifierSynchronized(final Declaration d) {
 		return hasModifier(d, ModifierKind.SYNCHRONIZED);
 	}
@@ -419,7 +419,7 @@ public class BoaModifierIntrinsics {
 	 * @param d the Declaration to check
 	 * @return true if d has an annotation
 	 */
-	@FunctionSpec(name = "has_annotation", returnType = "bool", formalParameters = { "Declaration" })
+	@FunctionSpec(name = "has_annotation", returnType = "bool", formalParameters = { "Declaration" }, pure = true)
 	public static boolean hasAnnotation(final Declaration d) {
 		return hasModifier(d, ModifierKind.ANNOTATION);
 	}
@@ -431,7 +431,7 @@ public class BoaModifierIntrinsics {
 	 * @param name the annotation name to look for
 	 * @return true if d has an annotation with the given name
 	 */
-	@FunctionSpec(name = "has_annotation", returnType = "bool", formalParameters = { "Declaration", "string" })
+	@FunctionSpec(name = "has_annotation", returnType = "bool", formalParameters = { "Declaration", "string" }, pure = true)
 	public static boolean hasAnnotation(final Declaration d, final String name) {
 		return getAnnotation(d, name) != null;
 	}
@@ -442,7 +442,7 @@ public class BoaModifierIntrinsics {
 	 * @param d the Declaration to check
 	 * @return true if d has a PUBLIC visibility modifier
 	 */
-	@FunctionSpec(name = "has_modifier_public", returnType = "bool", formalParameters = { "Declaration" })
+	@FunctionSpec(name = "has_modifier_public", returnType = "bool", formalParameters = { "Declaration" }, pure = true)
 	public static boolean hasModifierPublic(final Declaration d) {
 		return hasVisibility(d, Visibility.PUBLIC);
 	}
@@ -453,7 +453,7 @@ public class BoaModifierIntrinsics {
 	 * @param d the Declaration to check
 	 * @return true if d has a PRIVATE visibility modifier
 	 */
-	@FunctionSpec(name = "has_modifier_private", returnType = "bool", formalParameters = { "Declaration" })
+	@FunctionSpec(name = "has_modifier_private", returnType = "bool", formalParameters = { "Declaration" }, pure = true)
 	public static boolean hasModifierPrivate(final Declaration d) {
 		return hasVisibility(d, Visibility.PRIVATE);
 	}
@@ -464,7 +464,7 @@ public class BoaModifierIntrinsics {
 	 * @param d the Declaration to check
 	 * @return true if d has a PROTECTED visibility modifier
 	 */
-	@FunctionSpec(name = "has_modifier_protected", returnType = "bool", formalParameters = { "Declaration" })
+	@FunctionSpec(name = "has_modifier_protected", returnType = "bool", formalParameters = { "Declaration" }, pure = true)
 	public static boolean hasModifierProtected(final Declaration d) {
 		return hasVisibility(d, Visibility.PROTECTED);
 	}
@@ -475,7 +475,7 @@ public class BoaModifierIntrinsics {
 	 * @param d the Declaration to check
 	 * @return true if d has a NAMESPACE visibility modifier
 	 */
-	@FunctionSpec(name = "has_modifier_namespace", returnType = "bool", formalParameters = { "Declaration" })
+	@FunctionSpec(name = "has_modifier_namespace", returnType = "bool", formalParameters = { "Declaration" }, pure = true)
 	public static boolean hasModifierNamespace(final Declaration d) {
 		return hasVisibility(d, Visibility.NAMESPACE);
 	}
@@ -487,7 +487,7 @@ public class BoaModifierIntrinsics {
 	 * @param name the annotation to look for
 	 * @return the annotation Modifier or null
 	 */
-	@FunctionSpec(name = "get_annotation", returnType = "Modifier", formalParameters = { "Namespace", "string" })
+	@FunctionSpec(name = "get_annotation", returnType = "Modifier", formalParameters = { "Namespace", "string" }, pure = true)
 	public static Modifier getAnnotation(final Namespace n, final String name) {
 		for (int i = 0; i < n.getModifiersCount(); i++) {
 			Modifier mod = n.getModifiers(i);
@@ -505,7 +505,7 @@ public class BoaModifierIntrinsics {
 	 * @param kind the ModifierKind to test for
 	 * @return true if d contains a modifier kind
 	 */
-	@FunctionSpec(name = "has_modifier", returnType = "bool", formalParameters = { "Namespace", "ModifierKind" })
+	@FunctionSpec(name = "has_modifier", returnType = "bool", formalParameters = { "Namespace", "ModifierKind" }, pure = true)
 	public static boolean hasModifier(final Namespace n, final ModifierKind kind) {
 		for (int i = 0; i < n.getModifiersCount(); i++)
 			if (n.getModifiers(i).getKind() == kind)
@@ -521,7 +521,7 @@ public class BoaModifierIntrinsics {
 	 * @param v the Visibility modifier to test for
 	 * @return true if d contains a visibility modifier v
 	 */
-	@FunctionSpec(name = "has_visibility", returnType = "bool", formalParameters = { "Namespace", "Visibility" })
+	@FunctionSpec(name = "has_visibility", returnType = "bool", formalParameters = { "Namespace", "Visibility" }, pure = true)
 	public static boolean hasVisibility(final Namespace n, final Visibility v) {
 		for (int i = 0; i < n.getModifiersCount(); i++)
 			if (n.getModifiers(i).getKind() == ModifierKind.VISIBILITY && n.getModifiers(i).getVisibility() == v)
@@ -536,7 +536,7 @@ public class BoaModifierIntrinsics {
 	 * @param d the Namespace to check
 	 * @return true if d has a FINAL modifier
 	 */
-	@FunctionSpec(name = "has_modifier_final", returnType = "bool", formalParameters = { "Namespace" })
+	@FunctionSpec(name = "has_modifier_final", returnType = "bool", formalParameters = { "Namespace" }, pure = true)
 	public static boolean hasModifierFinal(final Namespace n) {
 		return hasModifier(n, ModifierKind.FINAL);
 	}
@@ -547,7 +547,7 @@ public class BoaModifierIntrinsics {
 	 * @param d the Namespace to check
 	 * @return true if d has a STATIC modifier
 	 */
-	@FunctionSpec(name = "has_modifier_static", returnType = "bool", formalParameters = { "Namespace" })
+	@FunctionSpec(name = "has_modifier_static", returnType = "bool", formalParameters = { "Namespace" }, pure = true)
 	public static boolean hasModifierStatic(final Namespace n) {
 		return hasModifier(n, ModifierKind.STATIC);
 	}
@@ -558,7 +558,7 @@ public class BoaModifierIntrinsics {
 	 * @param d the Namespace to check
 	 * @return true if d has a SYNCHRONIZED modifier
 	 */
-	@FunctionSpec(name = "has_modifier_synchronized", returnType = "bool", formalParameters = { "Namespace" })
+	@FunctionSpec(name = "has_modifier_synchronized", returnType = "bool", formalParameters = { "Namespace" }, pure = true)
 	public static boolean hasModifierSynchronized(final Namespace n) {
 		return hasModifier(n, ModifierKind.SYNCHRONIZED);
 	}
@@ -569,7 +569,7 @@ public class BoaModifierIntrinsics {
 	 * @param d the Namespace to check
 	 * @return true if d has an annotation
 	 */
-	@FunctionSpec(name = "has_annotation", returnType = "bool", formalParameters = { "Namespace" })
+	@FunctionSpec(name = "has_annotation", returnType = "bool", formalParameters = { "Namespace" }, pure = true)
 	public static boolean hasAnnotation(final Namespace n) {
 		return hasModifier(n, ModifierKind.ANNOTATION);
 	}
@@ -581,7 +581,7 @@ public class BoaModifierIntrinsics {
 	 * @param name the annotation name to look for
 	 * @return true if d has an annotation with the given name
 	 */
-	@FunctionSpec(name = "has_annotation", returnType = "bool", formalParameters = { "Namespace", "string" })
+	@FunctionSpec(name = "has_annotation", returnType = "bool", formalParameters = { "Namespace", "string" }, pure = true)
 	public static boolean hasAnnotation(final Namespace n, final String name) {
 		return getAnnotation(n, name) != null;
 	}
@@ -592,7 +592,7 @@ public class BoaModifierIntrinsics {
 	 * @param d the Namespace to check
 	 * @return true if d has a PUBLIC visibility modifier
 	 */
-	@FunctionSpec(name = "has_modifier_public", returnType = "bool", formalParameters = { "Namespace" })
+	@FunctionSpec(name = "has_modifier_public", returnType = "bool", formalParameters = { "Namespace" }, pure = true)
 	public static boolean hasModifierPublic(final Namespace n) {
 		return hasVisibility(n, Visibility.PUBLIC);
 	}
@@ -603,7 +603,7 @@ public class BoaModifierIntrinsics {
 	 * @param d the Namespace to check
 	 * @return true if d has a PRIVATE visibility modifier
 	 */
-	@FunctionSpec(name = "has_modifier_private", returnType = "bool", formalParameters = { "Namespace" })
+	@FunctionSpec(name = "has_modifier_private", returnType = "bool", formalParameters = { "Namespace" }, pure = true)
 	public static boolean hasModifierPrivate(final Namespace n) {
 		return hasVisibility(n, Visibility.PRIVATE);
 	}
@@ -614,7 +614,7 @@ public class BoaModifierIntrinsics {
 	 * @param d the Namespace to check
 	 * @return true if d has a PROTECTED visibility modifier
 	 */
-	@FunctionSpec(name = "has_modifier_protected", returnType = "bool", formalParameters = { "Namespace" })
+	@FunctionSpec(name = "has_modifier_protected", returnType = "bool", formalParameters = { "Namespace" }, pure = true)
 	public static boolean hasModifierProtected(final Namespace n) {
 		return hasVisibility(n, Visibility.PROTECTED);
 	}
@@ -625,7 +625,7 @@ public class BoaModifierIntrinsics {
 	 * @param d the Namespace to check
 	 * @return true if d has a NAMESPACE visibility modifier
 	 */
-	@FunctionSpec(name = "has_modifier_namespace", returnType = "bool", formalParameters = { "Namespace" })
+	@FunctionSpec(name = "has_modifier_namespace", returnType = "bool", formalParameters = { "Namespace" }, pure = true)
 	public static boolean hasModifierNamespace(final Namespace n) {
 		return hasVisibility(n, Visibility.NAMESPACE);
 	}
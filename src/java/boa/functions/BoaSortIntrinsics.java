@@ -35,7 +35,7 @@ public class BoaSortIntrinsics {
 	 * 
 	 * @return A sorted copy of <em>a</em>
 	 */
-	@FunctionSpec(name = "sort", returnType = "array of int", formalParameters = { "array of int" })
+	@FunctionSpec(name = "sort", returnType = "array of int", formalParameters = { "array of int" }, pure = true)
 	public static long[] sortLongArray(final long[] a) {
 		final long[] b = Arrays.copyOf(a, a.length);
 
@@ -55,7 +55,7 @@ public class BoaSortIntrinsics {
 	 * 
 	 * @return A sorted copy of <em>a</em>
 	 */
-	@FunctionSpec(name = "sort", returnType = "array of int", formalParameters = { "array of int", "string" })
+	@FunctionSpec(name = "sort", returnType = "array of int", formalParameters = { "array of int", "string" }, pure = true)
 	public static long[] sortLongArray(final long[] a, final String ignored) {
 		return BoaSortIntrinsics.sortLongArray(a);
 	}
@@ -71,7 +71,7 @@ public class BoaSortIntrinsics {
 	 * 
 	 * @return A sorted copy of <em>a</em>
 	 */
-	@FunctionSpec(name = "sort", returnType = "array of float", formalParameters = { "array of float" })
+	@FunctionSpec(name = "sort", returnType = "array of float", formalParameters = { "array of float" }, pure = true)
 	public static double[] sortDoubleArray(final double[] a) {
 		final double[] b = Arrays.copyOf(a, a.length);
 
@@ -91,7 +91,7 @@ public class BoaSortIntrinsics {
 	 * 
 	 * @return A sorted copy of <em>a</em>
 	 */
-	@FunctionSpec(name = "sort", returnType = "array of float", formalParameters = { "array of float", "string" })
+	@FunctionSpec(name = "sort", returnType = "array of float", formalParameters = { "array of float", "string" }, pure = true)
 	public static double[] sortDoubleArray(final double[] a, final String ignored) {
 		return BoaSortIntrinsics.sortDoubleArray(a);
 	}
@@ -107,7 +107,7 @@ public class BoaSortIntrinsics {
 	 * 
 	 * @return A sorted copy of <em>a</em>
 	 */
-	@FunctionSpec(name = "sort", returnType = "array of string", formalParameters = { "array of string" })
+	@FunctionSpec(name = "sort", returnType = "array of string", formalParameters = { "array of string" }, pure = true)
 	public static String[] sortStringArray(final String[] a) {
 		final String[] b = Arrays.copyOf(a, a.length);
 
@@ -127,7 +127,7 @@ public class BoaSortIntrinsics {
 	 * 
 	 * @return A sorted copy of <em>a</em>
 	 */
-	@FunctionSpec(name = "sort", returnType = "array of string", formalParameters = { "array of string", "string" })
+	@FunctionSpec(name = "sort", returnType = "array of string", formalParameters = { "array of string", "string" }, pure = true)
 	public static String[] sortStringArray(final String[] a, final String ignored) {
 		return BoaSortIntrinsics.sortStringArray(a);
 	}
@@ -143,7 +143,7 @@ public class BoaSortIntrinsics {
 	 * 
 	 * @return A sorted copy of <em>a</em>
 	 */
-	@FunctionSpec(name = "sort", returnType = "array of time", formalParameters = { "array of time" })
+	@FunctionSpec(name = "sort", returnType = "array of time", formalParameters = { "array of time" }, pure = true)
 	public static long[] sortTimeArray(final long[] a) {
 		return BoaSortIntrinsics.sortLongArray(a);
 	}
@@ -159,7 +159,7 @@ public class BoaSortIntrinsics {
 	 * 
 	 * @return A sorted copy of <em>a</em>
 	 */
-	@FunctionSpec(name = "sort", returnType = "array of time", formalParameters = { "array of time", "string" })
+	@FunctionSpec(name = "sort", returnType = "array of time", formalParameters = { "array of time", "string" }, pure = true)
 	public static long[] sortTimeArray(final long[] a, final String ignored) {
 		return BoaSortIntrinsics.sortTimeArray(a);
 	}
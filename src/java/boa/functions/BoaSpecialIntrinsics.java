@@ -105,35 +105,35 @@ public class BoaSpecialIntrinsics {
 	 * 
 	 * @return The array
 	 */
-	@FunctionSpec(name = "new", returnType = "array of int", formalParameters = { "array of int", "int", "int" })
+	@FunctionSpec(name = "new", returnType = "array of int", formalParameters = { "array of int", "int", "int" }, pure = true)
 	public static long[] newInt(long[] a, long size, long val) {
 		long[] arr = new long[(int)size];
 		for (int i = 0; i < size; i++)
 			arr[i] = val;
 		return arr;
 	}
-	@FunctionSpec(name = "new", returnType = "array of float", formalParameters = { "array of float", "int", "float" })
+	@FunctionSpec(name = "new", returnType = "array of float", formalParameters = { "array of float", "int", "float" }, pure = true)
 	public static double[] newDouble(double[] a, long size, double val) {
 		double[] arr = new double[(int)size];
 		for (int i = 0; i < size; i++)
 			arr[i] = val;
 		return arr;
 	}
-	@FunctionSpec(name = "new", returnType = "array of bool", formalParameters = { "array of bool", "int", "bool" })
+	@FunctionSpec(name = "new", returnType = "array of bool", formalParameters = { "array of bool", "int", "bool" }, pure = true)
 	public static boolean[] newBoolean(boolean[] a, long size, boolean val) {
 		boolean[] arr = new boolean[(int)size];
 		for (int i = 0; i < size; i++)
 			arr[i] = val;
 		return arr;
 	}
-	@FunctionSpec(name = "new", returnType = "array of time", formalParameters = { "array of time", "int", "time" })
+	@FunctionSpec(name = "new", returnType = "array of time", formalParameters = { "array of time", "int", "time" }, pure = true)
 	public static long[] newTime(long[] a, long size, long val) {
 		long[] arr = new long[(int)size];
 		for (int i = 0; i < size; i++)
 			arr[i] = val;
 		return arr;
 	}
-	@FunctionSpec(name = "new", returnType = "array of string", formalParameters = { "array of string", "int", "string" })
+	@FunctionSpec(name = "new", returnType = "array of string", formalParameters = { "array of string", "int", "string" }, pure = true)
 	public static String[] newBoolean(String[] a, long size, String val) {
 		String[] arr = new String[(int)size];
 		for (int i = 0; i < size; i++)
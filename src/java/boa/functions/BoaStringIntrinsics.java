@@ -37,7 +37,7 @@ public class BoaStringIntrinsics {
 	 * @return A copy of <i>s</i> with all leading and trailing whitespace removed.
 	 * 
 	 */
-	@FunctionSpec(name = "trim", returnType = "string", formalParameters = { "string" })
+	@FunctionSpec(name = "trim", returnType = "string", formalParameters = { "string" }, pure = true)
 	public static String trim(final String s) {
 		return s.trim();
 	}
@@ -52,7 +52,7 @@ public class BoaStringIntrinsics {
 	 *         as defined by Unicode.
 	 * 
 	 */
-	@FunctionSpec(name = "lowercase", returnType = "string", formalParameters = { "string" })
+	@FunctionSpec(name = "lowercase", returnType = "string", formalParameters = { "string" }, pure = true)
 	public static String lowerCase(final String s) {
 		return s.toLowerCase();
 	}
@@ -67,7 +67,7 @@ public class BoaStringIntrinsics {
 	 *         as defined by Unicode.
 	 * 
 	 */
-	@FunctionSpec(name = "uppercase", returnType = "string", formalParameters = { "string" })
+	@FunctionSpec(name = "uppercase", returnType = "string", formalParameters = { "string" }, pure = true)
 	public static String upperCase(final String s) {
 		return s.toUpperCase();
 	}
@@ -87,7 +87,7 @@ public class BoaStringIntrinsics {
 	 *         <em>p</em> within <em>s</em> and return the integer index of its
 	 *         first character, or -1 if it does not occur
 	 */
-	@FunctionSpec(name = "strfind", returnType = "int", formalParameters = { "string", "string" })
+	@FunctionSpec(name = "strfind", returnType = "int", formalParameters = { "string", "string" }, pure = true)
 	public static long indexOf(final String p, final String s) {
 		return s.indexOf(p);
 	}
@@ -107,7 +107,7 @@ public class BoaStringIntrinsics {
 	 *         <em>p</em> within <em>s</em> and return the integer index of its
 	 *         first character, or -1 if it does not occur
 	 */
-	@FunctionSpec(name = "strrfind", returnType = "int", formalParameters = { "string", "string" })
+	@FunctionSpec(name = "strrfind", returnType = "int", formalParameters = { "string", "string" }, pure = true)
 	public static long lastIndexOf(final String p, final String s) {
 		return s.lastIndexOf(p);
 	}
@@ -120,7 +120,7 @@ public class BoaStringIntrinsics {
 	 * 
 	 * @return the substring of <em>str</em>
 	 */
-	@FunctionSpec(name = "substring", returnType = "string", formalParameters = { "string", "int"})
+	@FunctionSpec(name = "substring", returnType = "string", formalParameters = { "string", "int"}, pure = true)
 	public static String substring(final String str, final long start) {
 		return str.substring((int)start);
 	}
@@ -134,7 +134,7 @@ public class BoaStringIntrinsics {
 	 * 
 	 * @return the substring of <em>str</em>
 	 */
-	@FunctionSpec(name = "substring", returnType = "string", formalParameters = { "string", "int", "int"})
+	@FunctionSpec(name = "substring", returnType = "string", formalParameters = { "string", "int", "int"}, pure = true)
 	public static String substring(final String str, final long start, final long end) {
 		return str.substring((int)start, (int)end);
 	}
@@ -147,7 +147,7 @@ public class BoaStringIntrinsics {
 	 * 
 	 * @return the substrings of <em>str</em>, split once by <em>regex</em>
 	 */
-	@FunctionSpec(name = "split", returnType = "array of string", formalParameters = { "string", "string"})
+	@FunctionSpec(name = "split", returnType = "array of string", formalParameters = { "string", "string"}, pure = true)
 	public static String[] split(final String str, final String regex) {
 		return str.split(regex, 1);
 	}
@@ -161,7 +161,7 @@ public class BoaStringIntrinsics {
 	 * 
 	 * @return the substrings of <em>str</em>, split at most <em>n</em> times by <em>regex</em>
 	 */
-	@FunctionSpec(name = "splitn", returnType = "array of string", formalParameters = { "string", "string", "int"})
+	@FunctionSpec(name = "splitn", returnType = "array of string", formalParameters = { "string", "string", "int"}, pure = true)
 	public static String[] splitn(final String str, final String regex, final long n) {
 		return str.split(regex, (int)n);
 	}
@@ -174,7 +174,7 @@ public class BoaStringIntrinsics {
 	 * 
 	 * @return the substrings of <em>str</em>, split entirely by <em>regex</em>
 	 */
-	@FunctionSpec(name = "splitall", returnType = "array of string", formalParameters = { "string", "string"})
+	@FunctionSpec(name = "splitall", returnType = "array of string", formalParameters = { "string", "string"}, pure = true)
 	public static String[] splitall(final String str, final String regex) {
 		return str.split(regex);
 	}
@@ -200,7 +200,7 @@ public class BoaStringIntrinsics {
 	 * @return A copy of {@link String} <em>str</em>, with non-overlapping
 	 *         instances of <em>lit</em> replaced by <em>rep</em>
 	 */
-	@FunctionSpec(name = "strreplace", returnType = "string", formalParameters = { "string", "string", "string", "bool" })
+	@FunctionSpec(name = "strreplace", returnType = "string", formalParameters = { "string", "string", "string", "bool" }, pure = true)
 	public static String stringReplace(final String str, final String lit, final String rep, final boolean replaceAll) {
 		if (replaceAll)
 			return str.replace(lit, rep);
@@ -231,7 +231,7 @@ public class BoaStringIntrinsics {
 	 * @return A boolean representing whether the regular expression <em>r</em>
 	 *         was found within <em>s</em>
 	 */
-	@FunctionSpec(name = "match", returnType = "bool", formalParameters = { "string", "string" })
+	@FunctionSpec(name = "match", returnType = "bool", formalParameters = { "string", "string" }, pure = true)
 	public static boolean match(final String r, final String s) {
 		final Matcher m = getMatcher(r).reset(s);
 		return m.find();
@@ -253,7 +253,7 @@ public class BoaStringIntrinsics {
 	 * @return An array of long consisting of character positions within
 	 *         <em>s</em> defined by the match
 	 */
-	@FunctionSpec(name = "matchposns", returnType = "array of int", formalParameters = { "string", "string" })
+	@FunctionSpec(name = "matchposns", returnType = "array of int", formalParameters = { "string", "string" }, pure = true)
 	public static long[] matchPositions(final String r, final String s) {
 		final Matcher m = getMatcher(r).reset(s);
 
@@ -290,7 +290,7 @@ public class BoaStringIntrinsics {
 	 * @return an array of {@link String} consisting of matched substrings of
 	 *         <em>s</em>
 	 */
-	@FunctionSpec(name = "matchstrs", returnType = "array of string", formalParameters = { "string", "string" })
+	@FunctionSpec(name = "matchstrs", returnType = "array of string", formalParameters = { "string", "string" }, pure = true)
 	public static String[] matchStrings(final String r, final String s) {
 		final Matcher m = getMatcher(r).reset(s);
 
@@ -338,7 +338,7 @@ public class BoaStringIntrinsics {
 	 * @return A string containing the arguments formatted according to the
 	 *         format string <em>fmt</em>
 	 */
-	@FunctionSpec(name = "format", returnType = "string", formalParameters = { "string", "any..." })
+	@FunctionSpec(name = "format", returnType = "string", formalParameters = { "string", "any..." }, pure = true)
 	public static String format(final String format, final Object... args) {
 		// TODO: support the Sawzall differences listed in the javadoc above
 		return String.format(format, args);
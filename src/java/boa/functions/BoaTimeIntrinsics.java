@@ -88,7 +88,7 @@ public class BoaTimeIntrinsics {
 	 * @return A long representing the time with the specified number of days
 	 *         added to it
 	 */
-	@FunctionSpec(name = "addday", returnType = "time", formalParameters = { "time", "int", "string" })
+	@FunctionSpec(name = "addday", returnType = "time", formalParameters = { "time", "int", "string" }, pure = true)
 	public static long addDay(final long t, final long n, final String tz) {
 		return BoaTimeIntrinsics.addPart(Calendar.DAY_OF_MONTH, t, n, TimeZone.getTimeZone(tz));
 	}
@@ -107,7 +107,7 @@ public class BoaTimeIntrinsics {
 	 * @return A long representing the time with the specified number of days
 	 *         added to it
 	 */
-	@FunctionSpec(name = "addday", returnType = "time", formalParameters = { "time", "int" })
+	@FunctionSpec(name = "addday", returnType = "time", formalParameters = { "time", "int" }, pure = true)
 	public static long addDay(final long t, final long n) {
 		return BoaTimeIntrinsics.addPart(Calendar.DAY_OF_MONTH, t, n, TimeZone.getTimeZone("PST8PDT"));
 	}
@@ -123,7 +123,7 @@ public class BoaTimeIntrinsics {
 	 * @return A long representing the time with the specified number of days
 	 *         added to it
 	 */
-	@FunctionSpec(name = "addday", returnType = "time", formalParameters = { "time" })
+	@FunctionSpec(name = "addday", returnType = "time", formalParameters = { "time" }, pure = true)
 	public static long addDay(final long t) {
 		return BoaTimeIntrinsics.addPart(Calendar.DAY_OF_MONTH, t, 1, TimeZone.getTimeZone("PST8PDT"));
 	}
@@ -144,7 +144,7 @@ public class BoaTimeIntrinsics {
 	 * @return A long representing the time with the specified number of months
 	 *         added to it
 	 */
-	@FunctionSpec(name = "addmonth", returnType = "time", formalParameters = { "time", "int", "string" })
+	@FunctionSpec(name = "addmonth", returnType = "time", formalParameters = { "time", "int", "string" }, pure = true)
 	public static long addMonth(final long t, final long n, final String tz) {
 		return BoaTimeIntrinsics.addPart(Calendar.MONTH, t, n, TimeZone.getTimeZone(tz));
 	}
@@ -161,7 +161,7 @@ public class BoaTimeIntrinsics {
 	 * @return A long representing the time with the specified number of months
 	 *         added to it
 	 */
-	@FunctionSpec(name = "addmonth", returnType = "time", formalParameters = { "time", "int" })
+	@FunctionSpec(name = "addmonth", returnType = "time", formalParameters = { "time", "int" }, pure = true)
 	public static long addMonth(final long t, final long n) {
 		return BoaTimeIntrinsics.addPart(Calendar.MONTH, t, n, TimeZone.getTimeZone("PST8PDT"));
 	}
@@ -175,7 +175,7 @@ public class BoaTimeIntrinsics {
 	 * @return A long representing the time with the specified number of months
 	 *         added to it
 	 */
-	@FunctionSpec(name = "addmonth", returnType = "time", formalParameters = { "time" })
+	@FunctionSpec(name = "addmonth", returnType = "time", formalParameters = { "time" }, pure = true)
 	public static long addMonth(final long t) {
 		return BoaTimeIntrinsics.addPart(Calendar.MONTH, t, 1, TimeZone.getTimeZone("PST8PDT"));
 	}
@@ -196,7 +196,7 @@ public class BoaTimeIntrinsics {
 	 * @return A long representing the time with the specified number of weeks
 	 *         added to it
 	 */
-	@FunctionSpec(name = "addweek", returnType = "time", formalParameters = { "time", "int", "string" })
+	@FunctionSpec(name = "addweek", returnType = "time", formalParameters = { "time", "int", "string" }, pure = true)
 	public static long addWeek(final long t, final long n, final String tz) {
 		return BoaTimeIntrinsics.addPart(Calendar.DAY_OF_MONTH, t, n * 7, TimeZone.getTimeZone(tz));
 	}
@@ -213,7 +213,7 @@ public class BoaTimeIntrinsics {
 	 * @return A long representing the time with the specified number of weeks
 	 *         added to it
 	 */
-	@FunctionSpec(name = "addweek", returnType = "time", formalParameters = { "time", "int" })
+	@FunctionSpec(name = "addweek", returnType = "time", formalParameters = { "time", "int" }, pure = true)
 	public static long addWeek(final long t, final long n) {
 		return BoaTimeIntrinsics.addPart(Calendar.DAY_OF_MONTH, t, n * 7, TimeZone.getTimeZone("PST8PDT"));
 	}
@@ -227,7 +227,7 @@ public class BoaTimeIntrinsics {
 	 * @return A long representing the time with the specified number of weeks
 	 *         added to it
 	 */
-	@FunctionSpec(name = "addweek", returnType = "time", formalParameters = { "time" })
+	@FunctionSpec(name = "addweek", returnType = "time", formalParameters = { "time" }, pure = true)
 	public static long addWeek(final long t) {
 		return BoaTimeIntrinsics.addPart(Calendar.DAY_OF_MONTH, t, 7, TimeZone.getTimeZone("PST8PDT"));
 	}
@@ -248,7 +248,7 @@ public class BoaTimeIntrinsics {
 	 * @return A long representing the time with the specified number of years
 	 *         added to it
 	 */
-	@FunctionSpec(name = "addyear", returnType = "time", formalParameters = { "time", "int", "string" })
+	@FunctionSpec(name = "addyear", returnType = "time", formalParameters = { "time", "int", "string" }, pure = true)
 	public static long addYear(final long t, final long n, final String tz) {
 		return BoaTimeIntrinsics.addPart(Calendar.YEAR, t, n, TimeZone.getTimeZone(tz));
 	}
@@ -265,7 +265,7 @@ public class BoaTimeIntrinsics {
 	 * @return A long representing the time with the specified number of years
 	 *         added to it
 	 */
-	@FunctionSpec(name = "addyear", returnType = "time", formalParameters = { "time", "int" })
+	@FunctionSpec(name = "addyear", returnType = "time", formalParameters = { "time", "int" }, pure = true)
 	public static long addYear(final long t, final long n) {
 		return BoaTimeIntrinsics.addPart(Calendar.YEAR, t, n, TimeZone.getTimeZone("PST8PDT"));
 	}
@@ -279,7 +279,7 @@ public class BoaTimeIntrinsics {
 	 * @return A long representing the time with the specified number of years
 	 *         added to it
 	 */
-	@FunctionSpec(name = "addyear", returnType = "time", formalParameters = { "time" })
+	@FunctionSpec(name = "addyear", returnType = "time", formalParameters = { "time" }, pure = true)
 	public static long addYear(final long t) {
 		return BoaTimeIntrinsics.addPart(Calendar.YEAR, t, 1, TimeZone.getTimeZone("PST8PDT"));
 	}
@@ -307,7 +307,7 @@ public class BoaTimeIntrinsics {
 	 * @return A long representing the numeric day of the month; for January 17,
 	 *         return 17, etc
 	 */
-	@FunctionSpec(name = "dayofmonth", returnType = "int", formalParameters = { "time", "string" })
+	@FunctionSpec(name = "dayofmonth", returnType = "int", formalParameters = { "time", "string" }, pure = true)
 	public static long dayOfMonth(final long t, final String tz) {
 		return BoaTimeIntrinsics.partOf(Calendar.DAY_OF_MONTH, t, TimeZone.getTimeZone(tz));
 	}
@@ -322,7 +322,7 @@ public class BoaTimeIntrinsics {
 	 * @return A long representing the numeric day of the month; for January 17,
 	 *         return 17, etc
 	 */
-	@FunctionSpec(name = "dayofmonth", returnType = "int", formalParameters = { "time" })
+	@FunctionSpec(name = "dayofmonth", returnType = "int", formalParameters = { "time" }, pure = true)
 	public static long dayOfMonth(final long t) {
 		return BoaTimeIntrinsics.partOf(Calendar.DAY_OF_MONTH, t, TimeZone.getTimeZone("PST8PDT"));
 	}
@@ -342,7 +342,7 @@ public class BoaTimeIntrinsics {
 	 * @return A long representing the numeric day of the week, from Monday=1 to
 	 *         Sunday=7
 	 */
-	@FunctionSpec(name = "dayofweek", returnType = "int", formalParameters = { "time", "string" })
+	@FunctionSpec(name = "dayofweek", returnType = "int", formalParameters = { "time", "string" }, pure = true)
 	public static long dayOfWeek(final long t, final String tz) {
 		return BoaTimeIntrinsics.partOf(Calendar.DAY_OF_WEEK, t, TimeZone.getTimeZone(tz));
 	}
@@ -357,7 +357,7 @@ public class BoaTimeIntrinsics {
 	 * @return A long representing the numeric day of the week, from Monday=1 to
 	 *         Sunday=7
 	 */
-	@FunctionSpec(name = "dayofweek", returnType = "int", formalParameters = { "time" })
+	@FunctionSpec(name = "dayofweek", returnType = "int", formalParameters = { "time" }, pure = true)
 	public static long dayOfWeek(final long t) {
 		return BoaTimeIntrinsics.partOf(Calendar.DAY_OF_WEEK, t, TimeZone.getTimeZone("PST8PDT"));
 	}
@@ -377,7 +377,7 @@ public class BoaTimeIntrinsics {
 	 * @return A long representing the numeric day of the year. January 1 is day
 	 *         1
 	 */
-	@FunctionSpec(name = "dayofyear", returnType = "int", formalParameters = { "time", "string" })
+	@FunctionSpec(name = "dayofyear", returnType = "int", formalParameters = { "time", "string" }, pure = true)
 	public static long dayOfYear(final long t, final String tz) {
 		return BoaTimeIntrinsics.partOf(Calendar.DAY_OF_YEAR, t, TimeZone.getTimeZone(tz));
 	}
@@ -392,7 +392,7 @@ public class BoaTimeIntrinsics {
 	 * @return A long representing the numeric day of the year. January 1 is day
 	 *         1
 	 */
-	@FunctionSpec(name = "dayofyear", returnType = "int", formalParameters = { "time" })
+	@FunctionSpec(name = "dayofyear", returnType = "int", formalParameters = { "time" }, pure = true)
 	public static long dayOfYear(final long t) {
 		return BoaTimeIntrinsics.partOf(Calendar.DAY_OF_YEAR, t, TimeZone.getTimeZone("PST8PDT"));
 	}
@@ -412,7 +412,7 @@ public class BoaTimeIntrinsics {
 	 * @return A long representing the numeric hour of the day, from 0 to 23.
 	 *         Midnight is 0, 1AM is 1, etc
 	 */
-	@FunctionSpec(name = "hourof", returnType = "int", formalParameters = { "time", "string" })
+	@FunctionSpec(name = "hourof", returnType = "int", formalParameters = { "time", "string" }, pure = true)
 	public static long hourOf(final long t, final String tz) {
 		return BoaTimeIntrinsics.partOf(Calendar.HOUR_OF_DAY, t, TimeZone.getTimeZone(tz));
 	}
@@ -427,7 +427,7 @@ public class BoaTimeIntrinsics {
 	 * @return A long representing the numeric hour of the day, from 0 to 23.
 	 *         Midnight is 0, 1AM is 1, etc
 	 */
-	@FunctionSpec(name = "hourof", returnType = "int", formalParameters = { "time" })
+	@FunctionSpec(name = "hourof", returnType = "int", formalParameters = { "time" }, pure = true)
 	public static long hourOf(final long t) {
 		return BoaTimeIntrinsics.partOf(Calendar.HOUR_OF_DAY, t, TimeZone.getTimeZone("PST8PDT"));
 	}
@@ -445,7 +445,7 @@ public class BoaTimeIntrinsics {
 	 * 
 	 * @return A long representing the numeric minute of the hour, from 0 to 59
 	 */
-	@FunctionSpec(name = "minuteof", returnType = "int", formalParameters = { "time", "string" })
+	@FunctionSpec(name = "minuteof", returnType = "int", formalParameters = { "time", "string" }, pure = true)
 	public static long minuteOf(final long t, final String tz) {
 		return BoaTimeIntrinsics.partOf(Calendar.MINUTE, t, TimeZone.getTimeZone(tz));
 	}
@@ -459,7 +459,7 @@ public class BoaTimeIntrinsics {
 	 * 
 	 * @return A long representing the numeric minute of the hour, from 0 to 59
 	 */
-	@FunctionSpec(name = "minuteof", returnType = "int", formalParameters = { "time" })
+	@FunctionSpec(name = "minuteof", returnType = "int", formalParameters = { "time" }, pure = true)
 	public static long minuteOf(final long t) {
 		return BoaTimeIntrinsics.partOf(Calendar.MINUTE, t, TimeZone.getTimeZone("PST8PDT"));
 	}
@@ -477,7 +477,7 @@ public class BoaTimeIntrinsics {
 	 * 
 	 * @return A long representing the numeric month of the year. January is 1
 	 */
-	@FunctionSpec(name = "monthof", returnType = "int", formalParameters = { "time", "string" })
+	@FunctionSpec(name = "monthof", returnType = "int", formalParameters = { "time", "string" }, pure = true)
 	public static long monthOf(final long t, final String tz) {
 		return BoaTimeIntrinsics.partOf(Calendar.MONTH, t, TimeZone.getTimeZone(tz));
 	}
@@ -491,7 +491,7 @@ public class BoaTimeIntrinsics {
 	 * 
 	 * @return A long representing the numeric month of the year. January is 1
 	 */
-	@FunctionSpec(name = "monthof", returnType = "int", formalParameters = { "time" })
+	@FunctionSpec(name = "monthof", returnType = "int", formalParameters = { "time" }, pure = true)
 	public static long monthOf(final long t) {
 		return BoaTimeIntrinsics.partOf(Calendar.MONTH, t, TimeZone.getTimeZone("PST8PDT"));
 	}
@@ -509,7 +509,7 @@ public class BoaTimeIntrinsics {
 	 * 
 	 * @return A long representing the numeric year value, such as 2003
 	 */
-	@FunctionSpec(name = "secondof", returnType = "int", formalParameters = { "time", "string" })
+	@FunctionSpec(name = "secondof", returnType = "int", formalParameters = { "time", "string" }, pure = true)
 	public static long secondOf(final long t, final String tz) {
 		return BoaTimeIntrinsics.partOf(Calendar.SECOND, t, TimeZone.getTimeZone(tz));
 	}
@@ -523,7 +523,7 @@ public class BoaTimeIntrinsics {
 	 * 
 	 * @return A long representing the numeric year value, such as 2003
 	 */
-	@FunctionSpec(name = "secondof", returnType = "int", formalParameters = { "time" })
+	@FunctionSpec(name = "secondof", returnType = "int", formalParameters = { "time" }, pure = true)
 	public static long secondOf(final long t) {
 		return BoaTimeIntrinsics.partOf(Calendar.SECOND, t, TimeZone.getTimeZone("PST8PDT"));
 	}
@@ -542,7 +542,7 @@ public class BoaTimeIntrinsics {
 	 * @return A long representing the numeric second of the minute, from 0 to
 	 *         59
 	 */
-	@FunctionSpec(name = "yearof", returnType = "int", formalParameters = { "time", "string" })
+	@FunctionSpec(name = "yearof", returnType = "int", formalParameters = { "time", "string" }, pure = true)
 	public static long yearOf(final long t, final String tz) {
 		return BoaTimeIntrinsics.partOf(Calendar.YEAR, t, TimeZone.getTimeZone(tz));
 	}
@@ -557,7 +557,7 @@ public class BoaTimeIntrinsics {
 	 * @return A long representing the numeric second of the minute, from 0 to
 	 *         59
 	 */
-	@FunctionSpec(name = "yearof", returnType = "int", formalParameters = { "time" })
+	@FunctionSpec(name = "yearof", returnType = "int", formalParameters = { "time" }, pure = true)
 	public static long yearOf(final long t) {
 		return BoaTimeIntrinsics.partOf(Calendar.YEAR, t, TimeZone.getTimeZone("PST8PDT"));
 	}
@@ -591,7 +591,7 @@ public class BoaTimeIntrinsics {
 	 * @return A long representing the time truncated to the zeroth microsecond
 	 *         of the day
 	 */
-	@FunctionSpec(name = "trunctoday", returnType = "time", formalParameters = { "time", "string" })
+	@FunctionSpec(name = "trunctoday", returnType = "time", formalParameters = { "time", "string" }, pure = true)
 	public static long truncToDay(final long t, final String tz) {
 		return BoaTimeIntrinsics.truncToDay(t, TimeZone.getTimeZone(tz));
 	}
@@ -609,7 +609,7 @@ public class BoaTimeIntrinsics {
 	 * @return A long representing the time truncated to the zeroth microsecond
 	 *         of the day
 	 */
-	@FunctionSpec(name = "trunctoday", returnType = "time", formalParameters = { "time" })
+	@FunctionSpec(name = "trunctoday", returnType = "time", formalParameters = { "time" }, pure = true)
 	public static long truncToDay(final long t) {
 		return BoaTimeIntrinsics.truncToDay(t, TimeZone.getTimeZone("PST8PDT"));
 	}
@@ -637,7 +637,7 @@ public class BoaTimeIntrinsics {
 	 * 
 	 * @return A long representing the time truncated to the start of the hour
 	 */
-	@FunctionSpec(name = "trunctohour", returnType = "time", formalParameters = { "time", "string" })
+	@FunctionSpec(name = "trunctohour", returnType = "time", formalParameters = { "time", "string" }, pure = true)
 	public static long truncToHour(final long t, final String tz) {
 		return BoaTimeIntrinsics.truncToHour(t, TimeZone.getTimeZone(tz));
 	}
@@ -650,7 +650,7 @@ public class BoaTimeIntrinsics {
 	 * 
 	 * @return A long representing the time truncated to the start of the hour
 	 */
-	@FunctionSpec(name = "trunctohour", returnType = "time", formalParameters = { "time" })
+	@FunctionSpec(name = "trunctohour", returnType = "time", formalParameters = { "time" }, pure = true)
 	public static long truncToHour(final long t) {
 		return BoaTimeIntrinsics.truncToHour(t, TimeZone.getTimeZone("PST8PDT"));
 	}
@@ -677,7 +677,7 @@ public class BoaTimeIntrinsics {
 	 * 
 	 * @return A long representing the time truncated to the start of the minute
 	 */
-	@FunctionSpec(name = "trunctominute", returnType = "time", formalParameters = { "time", "string" })
+	@FunctionSpec(name = "trunctominute", returnType = "time", formalParameters = { "time", "string" }, pure = true)
 	public static long truncToMinute(final long t, final String tz) {
 		return BoaTimeIntrinsics.truncToMinute(t, TimeZone.getTimeZone(tz));
 	}
@@ -690,7 +690,7 @@ public class BoaTimeIntrinsics {
 	 * 
 	 * @return A long representing the time truncated to the start of the minute
 	 */
-	@FunctionSpec(name = "trunctominute", returnType = "time", formalParameters = { "time" })
+	@FunctionSpec(name = "trunctominute", returnType = "time", formalParameters = { "time" }, pure = true)
 	public static long truncToMinute(final long t) {
 		return BoaTimeIntrinsics.truncToMinute(t, TimeZone.getTimeZone("PST8PDT"));
 	}
@@ -720,7 +720,7 @@ public class BoaTimeIntrinsics {
 	 * 
 	 * @return A long representing the time truncated to the start of the month
 	 */
-	@FunctionSpec(name = "trunctomonth", returnType = "time", formalParameters = { "time", "string" })
+	@FunctionSpec(name = "trunctomonth", returnType = "time", formalParameters = { "time", "string" }, pure = true)
 	public static long truncToMonth(final long t, final String tz) {
 		return BoaTimeIntrinsics.truncToMonth(t, TimeZone.getTimeZone(tz));
 	}
@@ -733,7 +733,7 @@ public class BoaTimeIntrinsics {
 	 * 
 	 * @return A long representing the time truncated to the start of the month
 	 */
-	@FunctionSpec(name = "trunctomonth", returnType = "time", formalParameters = { "time" })
+	@FunctionSpec(name = "trunctomonth", returnType = "time", formalParameters = { "time" }, pure = true)
 	public static long truncToMonth(final long t) {
 		return BoaTimeIntrinsics.truncToMonth(t, TimeZone.getTimeZone("PST8PDT"));
 	}
@@ -759,7 +759,7 @@ public class BoaTimeIntrinsics {
 	 * 
 	 * @return A long representing the time truncated to the start of the second
 	 */
-	@FunctionSpec(name = "trunctosecond", returnType = "time", formalParameters = { "time", "string" })
+	@FunctionSpec(name = "trunctosecond", returnType = "time", formalParameters = { "time", "string" }, pure = true)
 	public static long truncToSecond(final long t, final String tz) {
 		return BoaTimeIntrinsics.truncToSecond(t, TimeZone.getTimeZone(tz));
 	}
@@ -772,7 +772,7 @@ public class BoaTimeIntrinsics {
 	 * 
 	 * @return A long representing the time truncated to the start of the second
 	 */
-	@FunctionSpec(name = "trunctosecond", returnType = "time", formalParameters = { "time" })
+	@FunctionSpec(name = "trunctosecond", returnType = "time", formalParameters = { "time" }, pure = true)
 	public static long truncToSecond(final long t) {
 		return BoaTimeIntrinsics.truncToSecond(t, TimeZone.getTimeZone("PST8PDT"));
 	}
@@ -802,7 +802,7 @@ public class BoaTimeIntrinsics {
 	 * 
 	 * @return A long representing the time truncated to the start of the year
 	 */
-	@FunctionSpec(name = "trunctoyear", returnType = "time", formalParameters = { "time", "string" })
+	@FunctionSpec(name = "trunctoyear", returnType = "time", formalParameters = { "time", "string" }, pure = true)
 	public static long truncToYear(final long t, final String tz) {
 		return BoaTimeIntrinsics.truncToYear(t, TimeZone.getTimeZone(tz));
 	}
@@ -815,7 +815,7 @@ public class BoaTimeIntrinsics {
 	 * 
 	 * @return A long representing the time truncated to the start of the year
 	 */
-	@FunctionSpec(name = "trunctoyear", returnType = "time", formalParameters = { "time" })
+	@FunctionSpec(name = "trunctoyear", returnType = "time", formalParameters = { "time" }, pure = true)
 	public static long truncToYear(final long t) {
 		return BoaTimeIntrinsics.truncToYear(t, TimeZone.getTimeZone("PST8PDT"));
 	}
@@ -826,7 +826,7 @@ public class BoaTimeIntrinsics {
 	 * 
 	 * @return A long representing the current time at the moment of execution.
 	 */
-	@FunctionSpec(name = "now", returnType = "time")
+	@FunctionSpec(name = "now", returnType = "time", pure = true)
 	public static long now() {
 		return System.currentTimeMillis() * 1000;
 	}
@@ -885,7 +885,7 @@ public class BoaTimeIntrinsics {
 	 * @return A string containing the time argument formatted according to the
 	 *         format string fmt.
 	 */
-	@FunctionSpec(name = "formattime", returnType = "string", formalParameters = { "string", "time", "string" })
+	@FunctionSpec(name = "formattime", returnType = "string", formalParameters = { "string", "time", "string" }, pure = true)
 	public static String formatTime(final String formatstring, final long t, final String tz) {
 		return BoaTimeIntrinsics.formatTime(formatstring, t, TimeZone.getTimeZone(tz));
 	}
@@ -904,7 +904,7 @@ public class BoaTimeIntrinsics {
 	 * @return A string containing the time argument formatted according to the
 	 *         format string fmt.
 	 */
-	@FunctionSpec(name = "formattime", returnType = "string", formalParameters = { "string", "time" })
+	@FunctionSpec(name = "formattime", returnType = "string", formalParameters = { "string", "time" }, pure = true)
 	public static String formatTime(final String formatstring, final long t) {
 		return BoaTimeIntrinsics.formatTime(formatstring, t, TimeZone.getTimeZone("PST8PDT"));
 	}
@@ -53,4 +53,11 @@ public @interface FunctionSpec {
 	 * 
 	 */
 	String[] typeDependencies() default {};
+
+	/**
+	 * Whether the function has no side effects.  Calls to pure functions
+	 * whose results are never used may be removed by the compiler.
+	 * 
+	 */
+	boolean pure() default false;
 }
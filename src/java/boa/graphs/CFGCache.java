@@ -0,0 +1,163 @@
+/*
+ * Copyright 2015, Hridesh Rajan, Robert Dyer,
+ *                 and Iowa State University of Science and Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package boa.graphs;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import boa.graphs.cfg.CFGBuilder;
+import boa.types.Ast.Method;
+import boa.types.Control.CFG;
+
+/**
+ * A bounded cache of the CFGs of methods, and of the analyses done on them,
+ * so programs run together (or visitor clauses of one program) build and
+ * analyze each method's graph once.  Methods are compared by value, as each
+ * program reads its own copy of an AST, and the least recently used graphs
+ * are dropped once the cache is full.
+ *
+ * @author agent
+ */
+public class CFGCache {
+	public static final int DEFAULT_SIZE = 1024;
+
+	private final int maxSize;
+	private final LinkedHashMap<Method, Entry> entries;
+	private final CFGBuilder builder = new CFGBuilder();
+
+	private long hits = 0;
+	private long misses = 0;
+
+	public CFGCache() {
+		this(DEFAULT_SIZE);
+	}
+
+	public CFGCache(final int maxSize) {
+		this.maxSize = maxSize;
+		this.entries = new LinkedHashMap<Method, Entry>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<Method, Entry> eldest) {
+				return size() > CFGCache.this.maxSize;
+			}
+		};
+	}
+
+	/**
+	 * A method's graph, and the analyses of it done so far.
+	 */
+	public static class Entry {
+		private final CFG cfg;
+		private FlowGraph graph;
+		private Dominators dominators;
+		private Dominators postDominators;
+		private Loops loops;
+		private ReachingDefinitions reachingDefinitions;
+		private LiveVariables liveVariables;
+
+		Entry(final CFG cfg) {
+			this.cfg = cfg;
+		}
+
+		public CFG getCFG() {
+			return cfg;
+		}
+
+		public synchronized FlowGraph getGraph() {
+			if (graph == null)
+				graph = new FlowGraph(cfg);
+			return graph;
+		}
+
+		public synchronized Dominators getDominators() {
+			if (dominators == null) {
+				dominators = new Dominators(getGraph(), false);
+				dominators.solve();
+			}
+			return dominators;
+		}
+
+		public synchronized Dominators getPostDominators() {
+			if (postDominators == null) {
+				postDominators = new Dominators(getGraph(), true);
+				postDominators.solve();
+			}
+			return postDominators;
+		}
+
+		public synchronized Loops getLoops() {
+			if (loops == null)
+				loops = new Loops(getGraph(), getDominators());
+			return loops;
+		}
+
+		public synchronized ReachingDefinitions getReachingDefinitions() {
+			if (reachingDefinitions == null) {
+				reachingDefinitions = new ReachingDefinitions(getGraph());
+				reachingDefinitions.solve();
+			}
+			return reachingDefinitions;
+		}
+
+		public synchronized LiveVariables getLiveVariables() {
+			if (liveVariables == null) {
+				liveVariables = new LiveVariables(getGraph());
+				liveVariables.solve();
+			}
+			return liveVariables;
+		}
+	}
+
+	/**
+	 * @return the cached graph of a method, built if it is not cached
+	 */
+	public synchronized Entry get(final Method method) {
+		Entry e = entries.get(method);
+		if (e != null) {
+			hits++;
+			return e;
+		}
+
+		misses++;
+		e = new Entry(builder.build(method));
+		entries.put(method, e);
+		return e;
+	}
+
+	/**
+	 * @return how many lookups found their graph in the cache
+	 */
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	/**
+	 * @return how many lookups had to build their graph
+	 */
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * Drops every graph and resets the counters.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+		hits = misses = 0;
+	}
+}
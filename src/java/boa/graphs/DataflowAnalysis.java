@@ -0,0 +1,147 @@
+/*
+ * Copyright 2015, Hridesh Rajan, Robert Dyer,
+ *                 and Iowa State University of Science and Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package boa.graphs;
+
+import java.util.BitSet;
+
+/**
+ * A dataflow analysis over a {@link FlowGraph}, whose values are sets
+ * kept as bit sets.  The values are found with a worklist that always takes
+ * the earliest node in reverse postorder (for the analysis' direction), so
+ * acyclic parts of a graph are done in one pass.
+ *
+ * A node's input is the meet (union or intersection) of the outputs of the
+ * nodes before it, or the boundary value for the first node.  Nodes the
+ * analysis can not reach keep the initial value.
+ *
+ * @author agent
+ */
+public abstract class DataflowAnalysis {
+	protected final FlowGraph graph;
+	protected final boolean forward;
+
+	private final BitSet[] in;
+	private final BitSet[] out;
+
+	/**
+	 * @param graph the graph to analyze
+	 * @param forward whether values flow along the edges or against them
+	 */
+	protected DataflowAnalysis(final FlowGraph graph, final boolean forward) {
+		this.graph = graph;
+		this.forward = forward;
+		this.in = new BitSet[graph.size()];
+		this.out = new BitSet[graph.size()];
+	}
+
+	/**
+	 * @return true if values meet by intersection, false if by union
+	 */
+	protected abstract boolean isMust();
+
+	/**
+	 * @return the value going into the first node (the entry, or the exit going backward)
+	 */
+	protected abstract BitSet boundary();
+
+	/**
+	 * @return the value every node starts with
+	 */
+	protected abstract BitSet initial(int node);
+
+	/**
+	 * Changes a node's input value into its output value.
+	 */
+	protected abstract void transfer(int node, BitSet value);
+
+	/**
+	 * Finds the input and output values of every node.
+	 */
+	public void solve() {
+		final int size = graph.size();
+		if (size == 0)
+			return;
+
+		for (int i = 0; i < size; i++) {
+			in[i] = initial(i);
+			out[i] = initial(i);
+		}
+
+		final int[] order = graph.reversePostorder(forward);
+		final int[] position = new int[size];
+		for (int i = 0; i < order.length; i++)
+			position[order[i]] = i;
+
+		final int first = forward ? graph.getEntry() : graph.getExit();
+		final boolean must = isMust();
+
+		// positions in reverse postorder of the nodes left to do
+		final BitSet worklist = new BitSet(order.length);
+		worklist.set(0, order.length);
+
+		final BitSet value = new BitSet();
+		for (int p = worklist.nextSetBit(0); p >= 0; p = worklist.nextSetBit(0)) {
+			worklist.clear(p);
+			final int node = order[p];
+
+			// meet the values flowing into the node
+			value.clear();
+			if (node == first) {
+				value.or(boundary());
+			} else {
+				final int count = forward ? graph.getPredecessorCount(node) : graph.getSuccessorCount(node);
+				boolean met = false;
+				for (int i = 0; i < count; i++) {
+					final int prev = forward ? graph.getPredecessor(node, i) : graph.getSuccessor(node, i);
+					if (!met)
+						value.or(out[prev]);
+					else if (must)
+						value.and(out[prev]);
+					else
+						value.or(out[prev]);
+					met = true;
+				}
+			}
+			in[node].clear();
+			in[node].or(value);
+
+			transfer(node, value);
+			if (value.equals(out[node]))
+				continue;
+			out[node].clear();
+			out[node].or(value);
+
+			final int count = forward ? graph.getSuccessorCount(node) : graph.getPredecessorCount(node);
+			for (int i = 0; i < count; i++)
+				worklist.set(position[forward ? graph.getSuccessor(node, i) : graph.getPredecessor(node, i)]);
+		}
+	}
+
+	/**
+	 * @return the value going into a node, which going backward is the value after it
+	 */
+	public BitSet getIn(final int node) {
+		return in[node];
+	}
+
+	/**
+	 * @return the value coming out of a node, which going backward is the value before it
+	 */
+	public BitSet getOut(final int node) {
+		return out[node];
+	}
+}
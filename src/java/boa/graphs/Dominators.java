@@ -0,0 +1,101 @@
+/*
+ * Copyright 2015, Hridesh Rajan, Robert Dyer,
+ *                 and Iowa State University of Science and Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package boa.graphs;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Finds the dominators of every node, or going backward its post-dominators.
+ * A node dominates another if every path from the entry to the other node
+ * goes through it, and post-dominates it if every path from it to the exit does.
+ *
+ * @author agent
+ */
+public class Dominators extends DataflowAnalysis {
+	/**
+	 * @param graph the graph to analyze
+	 * @param post whether to find post-dominators
+	 */
+	public Dominators(final FlowGraph graph, final boolean post) {
+		super(graph, !post);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	protected boolean isMust() {
+		return true;
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	protected BitSet boundary() {
+		return new BitSet();
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	protected BitSet initial(final int node) {
+		final BitSet all = new BitSet(graph.size());
+		all.set(0, graph.size());
+		return all;
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	protected void transfer(final int node, final BitSet value) {
+		value.set(node);
+	}
+
+	/**
+	 * @return true if <code>d</code> dominates <code>node</code>
+	 */
+	public boolean dominates(final int d, final int node) {
+		return getOut(node).get(d);
+	}
+
+	/**
+	 * Gives the immediate dominator of each node, which is its closest
+	 * dominator other than itself.  The first node and nodes that can not be
+	 * reached have none.
+	 *
+	 * @return the immediate dominators, or -1 for none
+	 */
+	public long[] getImmediateDominators() {
+		final long[] idoms = new long[graph.size()];
+		Arrays.fill(idoms, -1);
+
+		for (final int node : graph.reversePostorder(forward)) {
+			// a node's dominators form a chain, so the closest has the most dominators itself
+			final BitSet doms = getOut(node);
+			int best = -1;
+			int most = -1;
+			for (int d = doms.nextSetBit(0); d >= 0; d = doms.nextSetBit(d + 1)) {
+				if (d == node)
+					continue;
+				final int count = getOut(d).cardinality();
+				if (count > most) {
+					best = d;
+					most = count;
+				}
+			}
+			idoms[node] = best;
+		}
+
+		return idoms;
+	}
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2015, Hridesh Rajan, Robert Dyer,
+ *                 and Iowa State University of Science and Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package boa.graphs;
+
+import boa.types.Control.CFG;
+import boa.types.Control.CFGNode;
+
+/**
+ * The shape of a control flow graph: its nodes, numbered 0 to n - 1 by
+ * their ids, and their successors and predecessors.  The first node is the
+ * method's entry and the last is its exit.
+ *
+ * @author agent
+ */
+public class FlowGraph {
+	private final CFG cfg;
+	private final int size;
+	private final CFGNode[] nodes;
+
+	// successors and predecessors of node i are at [offsets[i], offsets[i + 1])
+	private final int[] succOffsets;
+	private final int[] succs;
+	private final int[] predOffsets;
+	private final int[] preds;
+
+	public FlowGraph(final CFG cfg) {
+		this.cfg = cfg;
+		this.size = cfg.getNodesCount();
+
+		nodes = new CFGNode[size];
+		for (final CFGNode node : cfg.getNodesList())
+			nodes[node.getId()] = node;
+
+		succOffsets = new int[size + 1];
+		final int numEdges = cfg.getSuccessorsCount();
+		succs = new int[numEdges];
+		for (int i = 0; i <= size; i++)
+			succOffsets[i] = i < cfg.getSuccessorOffsetsCount() ? cfg.getSuccessorOffsets(i) : numEdges;
+		for (int i = 0; i < numEdges; i++)
+			succs[i] = cfg.getSuccessors(i);
+
+		predOffsets = new int[size + 1];
+		preds = new int[numEdges];
+		for (int i = 0; i < numEdges; i++)
+			predOffsets[succs[i] + 1]++;
+		for (int i = 0; i < size; i++)
+			predOffsets[i + 1] += predOffsets[i];
+		final int[] next = new int[size];
+		for (int i = 0; i < size; i++)
+			for (int j = succOffsets[i]; j < succOffsets[i + 1]; j++)
+				preds[predOffsets[succs[j]] + next[succs[j]]++] = i;
+	}
+
+	/**
+	 * @return the graph this is the shape of
+	 */
+	public CFG getCFG() {
+		return cfg;
+	}
+
+	/**
+	 * @return the node with id <code>id</code>
+	 */
+	public CFGNode getNode(final int id) {
+		return nodes[id];
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public int getEntry() {
+		return 0;
+	}
+
+	public int getExit() {
+		return size - 1;
+	}
+
+	public int getSuccessorCount(final int node) {
+		return succOffsets[node + 1] - succOffsets[node];
+	}
+
+	public int getSuccessor(final int node, final int i) {
+		return succs[succOffsets[node] + i];
+	}
+
+	public int getPredecessorCount(final int node) {
+		return predOffsets[node + 1] - predOffsets[node];
+	}
+
+	public int getPredecessor(final int node, final int i) {
+		return preds[predOffsets[node] + i];
+	}
+
+	/**
+	 * Gives the nodes reachable from the entry (or, going backward, that
+	 * reach the exit) in reverse postorder.  Each node comes before its
+	 * successors, except along back edges.
+	 *
+	 * @param forward whether to go along the edges or against them
+	 * @return the nodes, in reverse postorder
+	 */
+	public int[] reversePostorder(final boolean forward) {
+		if (size == 0)
+			return new int[0];
+
+		final int[] order = new int[size];
+		int count = size;
+
+		// an explicit stack, as graphs of long methods are deep
+		final int[] stack = new int[size];
+		final int[] edge = new int[size];
+		final boolean[] seen = new boolean[size];
+		int top = 0;
+		stack[0] = forward ? getEntry() : getExit();
+		seen[stack[0]] = true;
+		while (top >= 0) {
+			final int node = stack[top];
+			final int degree = forward ? getSuccessorCount(node) : getPredecessorCount(node);
+			if (edge[node] < degree) {
+				final int next = forward ? getSuccessor(node, edge[node]) : getPredecessor(node, edge[node]);
+				edge[node]++;
+				if (!seen[next]) {
+					seen[next] = true;
+					stack[++top] = next;
+				}
+			} else {
+				order[--count] = node;
+				top--;
+			}
+		}
+
+		final int[] reachable = new int[size - count];
+		System.arraycopy(order, count, reachable, 0, reachable.length);
+		return reachable;
+	}
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2015, Hridesh Rajan, Robert Dyer,
+ *                 and Iowa State University of Science and Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package boa.graphs;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Finds the variables live at each node.  A variable is live after a node
+ * if some path from the node reads it before writing it (see
+ * {@link Variables}).  Values are sets of variable numbers, see
+ * {@link #getVariable(int)}.
+ *
+ * @author agent
+ */
+public class LiveVariables extends DataflowAnalysis {
+	private final List<String> variables = new ArrayList<String>();
+	private final BitSet[] defs;
+	private final BitSet[] uses;
+
+	public LiveVariables(final FlowGraph graph) {
+		super(graph, false);
+
+		final Map<String, Integer> numbers = new HashMap<String, Integer>();
+		defs = new BitSet[graph.size()];
+		uses = new BitSet[graph.size()];
+		final Set<String> d = new HashSet<String>();
+		final Set<String> u = new HashSet<String>();
+		for (int i = 0; i < graph.size(); i++) {
+			d.clear();
+			u.clear();
+			Variables.find(graph.getNode(i), d, u);
+			defs[i] = toBits(d, numbers);
+			uses[i] = toBits(u, numbers);
+		}
+	}
+
+	private BitSet toBits(final Set<String> vars, final Map<String, Integer> numbers) {
+		final BitSet bits = new BitSet();
+		for (final String var : vars) {
+			if (!numbers.containsKey(var)) {
+				numbers.put(var, variables.size());
+				variables.add(var);
+			}
+			bits.set(numbers.get(var));
+		}
+		return bits;
+	}
+
+	/**
+	 * @return the variable with number <code>i</code>
+	 */
+	public String getVariable(final int i) {
+		return variables.get(i);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	protected boolean isMust() {
+		return false;
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	protected BitSet boundary() {
+		return new BitSet();
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	protected BitSet initial(final int node) {
+		return new BitSet();
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	protected void transfer(final int node, final BitSet value) {
+		value.andNot(defs[node]);
+		value.or(uses[node]);
+	}
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2015, Hridesh Rajan, Robert Dyer,
+ *                 and Iowa State University of Science and Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package boa.graphs;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Finds the natural loops of a graph.  An edge is a back edge if its
+ * destination, the loop's header, dominates its source.  The loop is the
+ * header and every node that reaches a back edge's source without going
+ * through the header.  Back edges to the same header make one loop.
+ *
+ * @author agent
+ */
+public class Loops {
+	private final long[] headers;
+
+	public Loops(final FlowGraph graph, final Dominators dominators) {
+		this.headers = new long[graph.size()];
+		Arrays.fill(headers, -1);
+
+		// the size of the loop each node was put in, so inner loops win
+		final int[] sizes = new int[graph.size()];
+
+		// nodes that can not be reached are dominated by everything, so are left out
+		final BitSet reachable = new BitSet(graph.size());
+		for (final int node : graph.reversePostorder(true))
+			reachable.set(node);
+
+		final int[] stack = new int[graph.size()];
+		for (int h = 0; h < graph.size(); h++) {
+			final BitSet body = new BitSet();
+			body.set(h);
+			int top = 0;
+			for (int i = 0; i < graph.getPredecessorCount(h); i++) {
+				final int src = graph.getPredecessor(h, i);
+				if (reachable.get(src) && dominators.dominates(h, src) && !body.get(src)) {
+					body.set(src);
+					stack[top++] = src;
+				}
+			}
+			if (top == 0)
+				continue;
+
+			while (top > 0) {
+				final int node = stack[--top];
+				for (int i = 0; i < graph.getPredecessorCount(node); i++) {
+					final int pred = graph.getPredecessor(node, i);
+					if (reachable.get(pred) && !body.get(pred)) {
+						body.set(pred);
+						stack[top++] = pred;
+					}
+				}
+			}
+
+			final int size = body.cardinality();
+			for (int node = body.nextSetBit(0); node >= 0; node = body.nextSetBit(node + 1))
+				if (headers[node] == -1 || size < sizes[node]) {
+					headers[node] = h;
+					sizes[node] = size;
+				}
+		}
+	}
+
+	/**
+	 * @return the header of the innermost loop each node is in, or -1 if it is in none
+	 */
+	public long[] getHeaders() {
+		return headers;
+	}
+
+	/**
+	 * @return true if <code>node</code> is the header of a loop
+	 */
+	public boolean isHeader(final int node) {
+		return headers[node] == node;
+	}
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2015, Hridesh Rajan, Robert Dyer,
+ *                 and Iowa State University of Science and Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package boa.graphs;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Finds the definitions that reach each node.  A definition is a node
+ * that writes a variable (see {@link Variables}), and it reaches a node if
+ * there is a path from it to the node along which the variable is not
+ * written again.  Values are sets of node ids.
+ *
+ * @author agent
+ */
+public class ReachingDefinitions extends DataflowAnalysis {
+	private final BitSet[] kills;
+
+	public ReachingDefinitions(final FlowGraph graph) {
+		super(graph, true);
+
+		final List<Set<String>> defs = new ArrayList<Set<String>>(graph.size());
+		final Map<String, BitSet> defsOf = new HashMap<String, BitSet>();
+		final Set<String> uses = new HashSet<String>();
+		for (int i = 0; i < graph.size(); i++) {
+			final Set<String> vars = new HashSet<String>();
+			Variables.find(graph.getNode(i), vars, uses);
+			defs.add(vars);
+			for (final String var : vars) {
+				if (!defsOf.containsKey(var))
+					defsOf.put(var, new BitSet());
+				defsOf.get(var).set(i);
+			}
+		}
+
+		kills = new BitSet[graph.size()];
+		for (int i = 0; i < graph.size(); i++) {
+			kills[i] = new BitSet();
+			for (final String var : defs.get(i))
+				kills[i].or(defsOf.get(var));
+		}
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	protected boolean isMust() {
+		return false;
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	protected BitSet boundary() {
+		return new BitSet();
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	protected BitSet initial(final int node) {
+		return new BitSet();
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	protected void transfer(final int node, final BitSet value) {
+		if (kills[node].isEmpty())
+			return;
+		value.andNot(kills[node]);
+		value.set(node);
+	}
+}
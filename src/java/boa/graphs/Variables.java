@@ -0,0 +1,105 @@
+/*
+ * Copyright 2015, Hridesh Rajan, Robert Dyer,
+ *                 and Iowa State University of Science and Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package boa.graphs;
+
+import java.util.Set;
+
+import boa.types.Ast.Expression;
+import boa.types.Ast.Variable;
+import boa.types.Control.CFGNode;
+
+/**
+ * Finds the local variables a CFG node writes and reads.  A node writes and
+ * reads what its expression does; nodes for statements do neither, as
+ * their expressions have nodes of their own.  Nor do control nodes, whose
+ * expression is the one the node before them evaluated (or, for a
+ * conditional, is made of expressions with nodes of their own).  Only
+ * plain names count, so fields and array elements are not variables.
+ *
+ * @author agent
+ */
+final class Variables {
+	private Variables() {
+	}
+
+	static void find(final CFGNode node, final Set<String> defs, final Set<String> uses) {
+		if (node.getType() != CFGNode.CFGNodeType.CONTROL && node.hasExpression())
+			find(node.getExpression(), defs, uses);
+	}
+
+	private static void find(final Expression e, final Set<String> defs, final Set<String> uses) {
+		switch (e.getKind()) {
+		case VARACCESS:
+			if (e.getExpressionsCount() == 0)
+				uses.add(e.getVariable());
+			else
+				findAll(e, defs, uses);
+			return;
+		case VARDECL:
+			for (final Variable v : e.getVariableDeclsList()) {
+				if (v.hasInitializer())
+					find(v.getInitializer(), defs, uses);
+				defs.add(v.getName());
+			}
+			return;
+		case ASSIGN:
+			for (int i = 1; i < e.getExpressionsCount(); i++)
+				find(e.getExpressions(i), defs, uses);
+			if (e.getExpressionsCount() > 0) {
+				if (isName(e.getExpressions(0)))
+					defs.add(e.getExpressions(0).getVariable());
+				else
+					find(e.getExpressions(0), defs, uses);
+			}
+			return;
+		case ASSIGN_ADD:
+		case ASSIGN_BITAND:
+		case ASSIGN_BITOR:
+		case ASSIGN_BITXOR:
+		case ASSIGN_DIV:
+		case ASSIGN_LSHIFT:
+		case ASSIGN_MOD:
+		case ASSIGN_MULT:
+		case ASSIGN_RSHIFT:
+		case ASSIGN_SUB:
+		case ASSIGN_UNSIGNEDRSHIFT:
+		case OP_INC:
+		case OP_DEC:
+			findAll(e, defs, uses);
+			if (e.getExpressionsCount() > 0 && isName(e.getExpressions(0)))
+				defs.add(e.getExpressions(0).getVariable());
+			return;
+		default:
+			findAll(e, defs, uses);
+			return;
+		}
+	}
+
+	private static void findAll(final Expression e, final Set<String> defs, final Set<String> uses) {
+		for (final Expression sub : e.getExpressionsList())
+			find(sub, defs, uses);
+		for (final Expression arg : e.getMethodArgsList())
+			find(arg, defs, uses);
+		for (final Variable v : e.getVariableDeclsList())
+			if (v.hasInitializer())
+				find(v.getInitializer(), defs, uses);
+	}
+
+	private static boolean isName(final Expression e) {
+		return e.getKind() == Expression.ExpressionKind.VARACCESS && e.getExpressionsCount() == 0;
+	}
+}
@@ -0,0 +1,480 @@
+/*
+ * Copyright 2015, Hridesh Rajan, Robert Dyer,
+ *                 and Iowa State University of Science and Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package boa.graphs.cfg;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import boa.types.Ast.Expression;
+import boa.types.Ast.Expression.ExpressionKind;
+import boa.types.Ast.Method;
+import boa.types.Ast.Statement;
+import boa.types.Ast.Statement.StatementKind;
+import boa.types.Control.CFGEdge.CFGEdgeLabel;
+import boa.types.Control.CFGNode.CFGNodeType;
+
+/**
+ * Builds the control flow graph of a method in one pass over its statements.
+ *
+ * Its nodes and edges go into int arrays instead of node and edge objects,
+ * and the arrays (and the pieces of graph built for each statement) are
+ * kept for the next method.
+ * A builder is not thread safe.
+ *
+ * @author agent
+ */
+public class CFGBuilder {
+	// the label of an edge added without one, which depends on its source
+	private static final int UNLABELED = 0;
+
+	// nodes, by id
+	private int numNodes;
+	private CFGNodeType[] types = new CFGNodeType[64];
+	private Object[] asts = new Object[64];
+	private boolean[] hasFalseBranch = new boolean[64];
+	private int[] firstOut = new int[64];
+
+	// edges, each in a linked list of its source's out edges
+	private int numEdges;
+	private int[] dests = new int[64];
+	private int[] labels = new int[64];
+	private int[] nextOut = new int[64];
+
+	private final List<Fragment> fragments = new ArrayList<Fragment>();
+	private int[] sorted = new int[16];
+
+	/**
+	 * A piece of the graph, for one statement or expression: how many
+	 * nodes it has, where control enters and leaves it, and the returns
+	 * and throws in it, which all go to the end of the method.
+	 */
+	private static final class Fragment {
+		int size;
+		final NodeSet ins = new NodeSet();
+		final NodeSet outs = new NodeSet();
+		final NodeSet returns = new NodeSet();
+
+		boolean isEmpty() {
+			return size == 0;
+		}
+	}
+
+	/**
+	 * A small set of node ids, kept in the order they were added.
+	 */
+	private static final class NodeSet {
+		int[] ids = new int[4];
+		int size;
+
+		void add(final int id) {
+			for (int i = 0; i < size; i++)
+				if (ids[i] == id)
+					return;
+			if (size == ids.length)
+				ids = Arrays.copyOf(ids, size * 2);
+			ids[size++] = id;
+		}
+
+		void addAll(final NodeSet s) {
+			for (int i = 0; i < s.size; i++)
+				add(s.ids[i]);
+		}
+
+		void remove(final int id) {
+			for (int i = 0; i < size; i++)
+				if (ids[i] == id) {
+					System.arraycopy(ids, i + 1, ids, i, --size - i);
+					return;
+				}
+		}
+
+		void set(final NodeSet s) {
+			size = 0;
+			addAll(s);
+		}
+	}
+
+	/**
+	 * Builds the control flow graph of a method.
+	 */
+	public boa.types.Control.CFG build(final Method method) {
+		numNodes = numEdges = 0;
+
+		try {
+			if (method.getStatementsCount() > 0) {
+				final Fragment graph = fragment();
+				seq(graph, node(CFGNodeType.ENTRY, null));
+				seq(graph, traverse(method.getStatements(0)));
+				graph.outs.addAll(graph.returns);
+				seq(graph, node(CFGNodeType.ENTRY, null));
+				release(graph);
+			}
+
+			return toProto();
+		} finally {
+			// do not keep the method's AST alive
+			Arrays.fill(asts, 0, numNodes, null);
+		}
+	}
+
+	private boa.types.Control.CFG toProto() {
+		final boa.types.Control.CFG.Builder b = boa.types.Control.CFG.newBuilder();
+
+		for (int i = 0; i < numNodes; i++) {
+			final boa.types.Control.CFGNode.Builder nb = boa.types.Control.CFGNode.newBuilder();
+			nb.setId(i);
+			nb.setType(types[i]);
+			if (asts[i] instanceof Statement)
+				nb.setStatement((Statement) asts[i]);
+			else if (asts[i] instanceof Expression)
+				nb.setExpression((Expression) asts[i]);
+			b.addNodes(nb);
+		}
+
+		// successors are given in order of node id
+		int offset = 0;
+		for (int i = 0; i < numNodes; i++) {
+			b.addSuccessorOffsets(offset);
+
+			int n = 0;
+			for (int e = firstOut[i]; e != -1; e = nextOut[e]) {
+				if (n == sorted.length)
+					sorted = Arrays.copyOf(sorted, n * 2);
+				int j = n++;
+				while (j > 0 && dests[sorted[j - 1]] > dests[e]) {
+					sorted[j] = sorted[j - 1];
+					j--;
+				}
+				sorted[j] = e;
+			}
+
+			for (int j = 0; j < n; j++) {
+				b.addSuccessors(dests[sorted[j]]);
+				b.addSuccessorLabels(CFGEdgeLabel.valueOf(labels[sorted[j]]));
+			}
+			offset += n;
+		}
+		b.addSuccessorOffsets(offset);
+
+		return b.build();
+	}
+
+	private int node(final CFGNodeType type, final Object ast) {
+		if (numNodes == types.length) {
+			types = Arrays.copyOf(types, numNodes * 2);
+			asts = Arrays.copyOf(asts, numNodes * 2);
+			hasFalseBranch = Arrays.copyOf(hasFalseBranch, numNodes * 2);
+			firstOut = Arrays.copyOf(firstOut, numNodes * 2);
+		}
+		types[numNodes] = type;
+		asts[numNodes] = ast;
+		hasFalseBranch[numNodes] = false;
+		firstOut[numNodes] = -1;
+		return numNodes++;
+	}
+
+	private void edge(final int src, final int dest, int label) {
+		for (int e = firstOut[src]; e != -1; e = nextOut[e])
+			if (dests[e] == dest)
+				return;
+
+		if (label == UNLABELED)
+			label = types[src] == CFGNodeType.CONTROL && hasFalseBranch[src] ? CFGEdgeLabel.TRUE_VALUE : CFGEdgeLabel.DEFAULT_VALUE;
+		else if (label == CFGEdgeLabel.FALSE_VALUE)
+			hasFalseBranch[src] = true;
+
+		if (numEdges == dests.length) {
+			dests = Arrays.copyOf(dests, numEdges * 2);
+			labels = Arrays.copyOf(labels, numEdges * 2);
+			nextOut = Arrays.copyOf(nextOut, numEdges * 2);
+		}
+		dests[numEdges] = dest;
+		labels[numEdges] = label;
+		nextOut[numEdges] = firstOut[src];
+		firstOut[src] = numEdges++;
+	}
+
+	private Fragment fragment() {
+		if (fragments.isEmpty())
+			return new Fragment();
+		return fragments.remove(fragments.size() - 1);
+	}
+
+	private void release(final Fragment f) {
+		f.size = f.ins.size = f.outs.size = f.returns.size = 0;
+		fragments.add(f);
+	}
+
+	/*
+	 * the ways of joining pieces of the graph
+	 */
+
+	// appends target to graph, releasing target
+	private void seq(final Fragment graph, final Fragment target) {
+		if (!target.isEmpty()) {
+			if (graph.isEmpty()) {
+				graph.ins.addAll(target.ins);
+				graph.outs.addAll(target.outs);
+			} else {
+				for (int i = 0; i < graph.outs.size; i++)
+					for (int j = 0; j < target.ins.size; j++)
+						edge(graph.outs.ids[i], target.ins.ids[j], UNLABELED);
+				graph.outs.set(target.outs);
+			}
+			graph.size += target.size;
+			graph.returns.addAll(target.returns);
+		}
+		release(target);
+	}
+
+	// appends a node to graph
+	private void seq(final Fragment graph, final int node) {
+		for (int i = 0; i < graph.outs.size; i++)
+			edge(graph.outs.ids[i], node, UNLABELED);
+		if (graph.ins.size == 0)
+			graph.ins.add(node);
+		graph.outs.size = 0;
+		graph.outs.add(node);
+		graph.size++;
+	}
+
+	// adds target to graph as a branch out of a node, without releasing target
+	private void branch(final Fragment graph, final Fragment target, final int node, final int label) {
+		if (target.isEmpty())
+			return;
+
+		for (int i = 0; i < target.ins.size; i++)
+			edge(node, target.ins.ids[i], label);
+		graph.size += target.size;
+		graph.outs.addAll(target.outs);
+		graph.returns.addAll(target.returns);
+	}
+
+	// appends a node that leaves graph, going somewhere else
+	private void jump(final Fragment graph, final int node) {
+		seq(graph, node);
+		graph.outs.remove(node);
+	}
+
+	/*
+	 * the traversal, which numbers the nodes in the order it creates them
+	 */
+
+	private Fragment traverse(final Expression root) {
+		final Fragment graph = fragment();
+		switch (root.getKind().getNumber()) {
+		case ExpressionKind.CONDITIONAL_VALUE:
+			release(graph);
+			return traverseConditional(root);
+		case ExpressionKind.METHODCALL_VALUE:
+		case ExpressionKind.NEW_VALUE:
+			seq(graph, node(CFGNodeType.METHOD, root));
+			break;
+		case ExpressionKind.NEQ_VALUE:
+		case ExpressionKind.EQ_VALUE:
+		case ExpressionKind.GT_VALUE:
+		case ExpressionKind.GTEQ_VALUE:
+		case ExpressionKind.LITERAL_VALUE:
+		case ExpressionKind.LOGICAL_AND_VALUE:
+		case ExpressionKind.LOGICAL_NOT_VALUE:
+		case ExpressionKind.LOGICAL_OR_VALUE:
+		case ExpressionKind.LT_VALUE:
+		case ExpressionKind.LTEQ_VALUE:
+		case ExpressionKind.ANNOTATION_VALUE:
+		case ExpressionKind.ARRAYINDEX_VALUE:
+		case ExpressionKind.ARRAYINIT_VALUE:
+		case ExpressionKind.ASSIGN_ADD_VALUE:
+		case ExpressionKind.ASSIGN_BITAND_VALUE:
+		case ExpressionKind.ASSIGN_BITOR_VALUE:
+		case ExpressionKind.ASSIGN_BITXOR_VALUE:
+		case ExpressionKind.ASSIGN_DIV_VALUE:
+		case ExpressionKind.ASSIGN_LSHIFT_VALUE:
+		case ExpressionKind.ASSIGN_MOD_VALUE:
+		case ExpressionKind.ASSIGN_MULT_VALUE:
+		case ExpressionKind.ASSIGN_RSHIFT_VALUE:
+		case ExpressionKind.ASSIGN_SUB_VALUE:
+		case ExpressionKind.ASSIGN_UNSIGNEDRSHIFT_VALUE:
+		case ExpressionKind.ASSIGN_VALUE:
+		case ExpressionKind.BIT_AND_VALUE:
+		case ExpressionKind.BIT_LSHIFT_VALUE:
+		case ExpressionKind.BIT_NOT_VALUE:
+		case ExpressionKind.BIT_OR_VALUE:
+		case ExpressionKind.BIT_RSHIFT_VALUE:
+		case ExpressionKind.BIT_UNSIGNEDRSHIFT_VALUE:
+		case ExpressionKind.BIT_XOR_VALUE:
+		case ExpressionKind.CAST_VALUE:
+		case ExpressionKind.NEWARRAY_VALUE:
+		case ExpressionKind.NULLCOALESCE_VALUE:
+		case ExpressionKind.OP_ADD_VALUE:
+		case ExpressionKind.OP_DEC_VALUE:
+		case ExpressionKind.OP_DIV_VALUE:
+		case ExpressionKind.OP_INC_VALUE:
+		case ExpressionKind.OP_MOD_VALUE:
+		case ExpressionKind.OP_MULT_VALUE:
+		case ExpressionKind.OP_SUB_VALUE:
+		case ExpressionKind.OTHER_VALUE:
+		case ExpressionKind.TYPECOMPARE_VALUE:
+		case ExpressionKind.VARACCESS_VALUE:
+		case ExpressionKind.VARDECL_VALUE:
+			seq(graph, node(CFGNodeType.OTHER, root));
+			break;
+		}
+		return graph;
+	}
+
+	private Fragment traverse(final Statement root) {
+		final Fragment graph = fragment();
+		switch (root.getKind().getNumber()) {
+		case StatementKind.BLOCK_VALUE:
+			for (int i = 0; i < root.getStatementsCount(); i++)
+				seq(graph, traverse(root.getStatements(i)));
+			break;
+		case StatementKind.EXPRESSION_VALUE:
+			seq(graph, traverse(root.getExpression()));
+			break;
+		case StatementKind.SYNCHRONIZED_VALUE:
+			final int lock = node(CFGNodeType.OTHER, root.getExpression());
+			seq(graph, traverse(root.getExpression()));
+			seq(graph, lock);
+			for (int i = 0; i < root.getStatementsCount(); i++)
+				seq(graph, traverse(root.getStatements(i)));
+			break;
+		case StatementKind.RETURN_VALUE:
+		case StatementKind.THROW_VALUE:
+			seq(graph, traverse(root.getExpression()));
+			final int end = node(CFGNodeType.OTHER, root);
+			jump(graph, end);
+			graph.returns.add(end);
+			break;
+		case StatementKind.FOR_VALUE:
+			for (int i = 0; i < root.getInitializationsCount(); i++)
+				seq(graph, traverse(root.getInitializations(i)));
+			// enhanced for
+			if (root.getInitializationsCount() == 0)
+				seq(graph, traverse(root.getVariableDeclaration().getInitializer()));
+			loop(graph, root);
+			break;
+		case StatementKind.DO_VALUE:
+		case StatementKind.WHILE_VALUE:
+			loop(graph, root);
+			break;
+		case StatementKind.IF_VALUE:
+			seq(graph, traverse(root.getExpression()));
+			final int cond = node(CFGNodeType.CONTROL, root.getExpression());
+			seq(graph, cond);
+
+			if (root.getStatementsCount() > 0)
+				branch(graph, traverse(root.getStatements(0)), cond, CFGEdgeLabel.TRUE_VALUE);
+			if (root.getStatementsCount() > 1) {
+				branch(graph, traverse(root.getStatements(1)), cond, CFGEdgeLabel.FALSE_VALUE);
+				graph.outs.remove(cond);
+			}
+			break;
+		case StatementKind.BREAK_VALUE:
+		case StatementKind.CONTINUE_VALUE:
+			// where these go to is not found, so their paths end here
+			jump(graph, node(CFGNodeType.OTHER, root));
+			break;
+		case StatementKind.LABEL_VALUE:
+			seq(graph, traverse(root.getStatements(0)));
+			break;
+		case StatementKind.SWITCH_VALUE:
+			traverseSwitch(graph, root);
+			break;
+		case StatementKind.TRY_VALUE:
+			final int handler = node(CFGNodeType.CONTROL, root);
+			seq(graph, handler);
+			branch(graph, traverse(root.getStatements(0)), handler, CFGEdgeLabel.TRUE_VALUE);
+			// all catch statements are false branches
+			for (int i = 1; i < root.getStatementsCount(); i++)
+				branch(graph, traverse(root.getStatements(i)), handler, CFGEdgeLabel.FALSE_VALUE);
+			break;
+		case StatementKind.CATCH_VALUE:
+			seq(graph, node(CFGNodeType.OTHER, root));
+			if (root.getStatementsCount() > 0)
+				seq(graph, traverse(root.getStatements(0)));
+			break;
+		case StatementKind.ASSERT_VALUE:
+		case StatementKind.TYPEDECL_VALUE:
+		case StatementKind.OTHER_VALUE:
+			seq(graph, node(CFGNodeType.OTHER, root));
+			break;
+		default:
+			break;
+		}
+		return graph;
+	}
+
+	// the branches join after a conditional, so the graph is a fresh fragment
+	private Fragment traverseConditional(final Expression root) {
+		final Fragment graph = fragment();
+		if (root.getExpressionsCount() == 3)
+			seq(graph, traverse(root.getExpressions(0)));
+
+		final int cond = node(CFGNodeType.CONTROL, root);
+		seq(graph, cond);
+
+		if (root.getExpressionsCount() > 0)
+			branch(graph, traverse(root.getExpressions(0)), cond, CFGEdgeLabel.TRUE_VALUE);
+		if (root.getExpressionsCount() > 1) {
+			branch(graph, traverse(root.getExpressions(1)), cond, CFGEdgeLabel.FALSE_VALUE);
+			graph.outs.remove(cond);
+		}
+		return graph;
+	}
+
+	private void loop(final Fragment graph, final Statement root) {
+		seq(graph, traverse(root.getExpression()));
+
+		final int control = node(CFGNodeType.CONTROL, root.getExpression());
+		seq(graph, control);
+
+		final Fragment body = traverse(root.getStatements(0));
+		branch(graph, body, control, CFGEdgeLabel.TRUE_VALUE);
+		for (int i = 0; i < body.outs.size; i++)
+			edge(body.outs.ids[i], control, CFGEdgeLabel.BACKEDGE_VALUE);
+		release(body);
+	}
+
+	private void traverseSwitch(final Fragment graph, final Statement root) {
+		seq(graph, traverse(root.getExpression()));
+
+		final int control = node(CFGNodeType.CONTROL, root.getExpression());
+		seq(graph, control);
+
+		// case labels are not edge labels, so their edges are NIL
+		Fragment cases = null;
+		for (int i = 0; i < root.getStatementsCount(); i++) {
+			final Statement s = root.getStatements(i);
+			if (s.getKind() == StatementKind.CASE) {
+				if (cases != null) {
+					branch(graph, cases, control, CFGEdgeLabel.NIL_VALUE);
+					release(cases);
+				}
+				cases = fragment();
+				seq(cases, traverse(s.getExpression()));
+			} else if (cases != null) {
+				seq(cases, traverse(s));
+			}
+		}
+		if (cases != null) {
+			branch(graph, cases, control, CFGEdgeLabel.NIL_VALUE);
+			release(cases);
+		}
+	}
+}
@@ -16,12 +16,27 @@
  */
 package boa.io;
 
+import java.nio.charset.Charset;
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.FSDataInputStream;
 import org.apache.hadoop.fs.FSDataOutputStream;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.MapFile;
+import org.apache.hadoop.io.SequenceFile;
+import org.apache.hadoop.io.Text;
 import org.apache.hadoop.mapred.JobClient;
 import org.apache.hadoop.mapred.JobConf;
 import org.apache.hadoop.mapred.JobID;
@@ -32,10 +47,13 @@ import org.apache.hadoop.mapreduce.JobContext;
 import org.apache.hadoop.mapreduce.JobStatus;
 import org.apache.hadoop.mapreduce.TaskAttemptContext;
 
+import boa.aggregators.GraphBinaryAggregator;
+
 /**
  * A {@link FileOutputCommitter} that stores the job results into a database.
  * 
  * @author rdyer
+ * @author agent
  */
 public class BoaOutputCommitter extends FileOutputCommitter {
 	private final Path outputPath;
@@ -54,8 +72,29 @@ public class BoaOutputCommitter extends FileOutputCommitter {
 		super.commitJob(context);
 
 		int boaJobId = context.getConfiguration().getInt("boa.hadoop.jobid", 0);
-		storeOutput(context, boaJobId);
-		updateStatus(null, boaJobId);
+		if (boaJobId == 0)
+			return;
+
+		// the output and the job's status are stored together, on one connection
+		String error = null;
+		Connection con = null;
+		try {
+			con = DriverManager.getConnection(url, user, password);
+			con.setAutoCommit(false);
+			storeOutput(context, con, boaJobId);
+			updateStatus(con, null, boaJobId);
+			con.commit();
+		} catch (final Exception e) {
+			e.printStackTrace();
+			error = "Unable to store the output: " + e + "\n";
+			try { if (con != null) con.rollback(); } catch (final Exception e2) { e2.printStackTrace(); }
+		} finally {
+			try { if (con != null) con.close(); } catch (final Exception e) { e.printStackTrace(); }
+		}
+
+		// the job finished, so its status must be written even if its output was not, as a failure
+		if (error != null)
+			updateStatus(error, boaJobId);
 	}
 
 	@Override
@@ -93,20 +132,7 @@ public class BoaOutputCommitter extends FileOutputCommitter {
 		Connection con = null;
 		try {
 			con = DriverManager.getConnection(url, user, password);
-			PreparedStatement ps = null;
-			PreparedStatement ps2 = null;
-			try {
-				ps = con.prepareStatement("UPDATE boa_jobs SET hadoop_end=CURRENT_TIMESTAMP(), hadoop_status=? WHERE id=" + jobId);
-				ps.setInt(1, error != null ? -1 : 2);
-				ps.executeUpdate();
-
-				ps2 = con.prepareStatement("UPDATE boa_jobs SET hadoop_output=CONCAT(hadoop_output, ?) WHERE id=" + jobId);
-				ps2.setString(1, error == null ? "" : error);
-				ps2.executeUpdate();
-			} finally {
-				try { if (ps != null) ps.close(); } catch (final Exception e) { e.printStackTrace(); }
-				try { if (ps2 != null) ps2.close(); } catch (final Exception e) { e.printStackTrace(); }
-			}
+			updateStatus(con, error, jobId);
 		} catch (final Exception e) {
 			e.printStackTrace();
 		} finally {
@@ -114,83 +140,302 @@ public class BoaOutputCommitter extends FileOutputCommitter {
 		}
 	}
 
-	private void storeOutput(final JobContext context, final int jobId) {
-		if (jobId == 0)
-			return;
+	private void updateStatus(final Connection con, final String error, final int jobId) throws SQLException {
+		PreparedStatement ps = null;
+		try {
+			ps = con.prepareStatement("UPDATE boa_jobs SET hadoop_end=CURRENT_TIMESTAMP(), hadoop_status=?, hadoop_output=CONCAT(hadoop_output, ?) WHERE id=" + jobId);
+			ps.setInt(1, error != null ? -1 : 2);
+			ps.setString(2, error == null ? "" : error);
+			ps.executeUpdate();
+		} finally {
+			try { if (ps != null) ps.close(); } catch (final Exception e) { e.printStackTrace(); }
+		}
+	}
 
-		Connection con = null;
+	// how much of the output the web page shows, in bytes
+	private final static int WEB_RESULT_SIZE = 64 * 1024 - 1;
+
+	private final static Charset UTF8 = Charset.forName("UTF-8");
+
+	// how much of a part each copying thread reads at once
+	private final static int CHUNK_SIZE = 8 * 1024 * 1024;
+
+	private void storeOutput(final JobContext context, final Connection con, final int jobId) throws Exception {
 		FileSystem fileSystem = null;
-		FSDataInputStream in = null;
-		FSDataOutputStream out = null;
+		long length = 0;
+		String webResult = "";
 
 		try {
 			fileSystem = outputPath.getFileSystem(context.getConfiguration());
 
-			con = DriverManager.getConnection(url, user, password);
+			final List<FileStatus> parts = new ArrayList<FileStatus>();
+			int partNum = 0;
+			while (true) {
+				final Path path = new Path(outputPath, "part-r-" + String.format("%05d", partNum++));
+				if (!fileSystem.exists(path))
+					break;
+				parts.add(fileSystem.getFileStatus(path));
+			}
 
-			PreparedStatement ps = null;
+			final Path dir = new Path("/boa", new Path("" + jobId));
+			fileSystem.mkdirs(dir);
+			final Path output = new Path(dir, "output.txt");
+
+			if (context.getConfiguration().getBoolean("boa.output.sorted", false)) {
+				sort(fileSystem, dir, parts, context.getConfiguration());
+
+				final FileStatus status = fileSystem.getFileStatus(output);
+				webResult = readWebResult(fileSystem, Collections.singletonList(status));
+				length = status.getLen();
+			} else {
+				webResult = readWebResult(fileSystem, parts);
+
+				long size = 0;
+				for (final FileStatus part : parts)
+					size += part.getLen();
+
+				if (!context.getConfiguration().getBoolean("boa.output.concat", true) || !concat(fileSystem, output, parts))
+					copy(fileSystem, output, parts, context.getConfiguration().getInt("boa.output.copy.threads", 4));
+
+				length = size;
+			}
+
+			storeBinaryOutput(fileSystem, dir, GraphBinaryAggregator.OUTPUT);
+			storeBinaryOutput(fileSystem, dir, GraphBinaryAggregator.NAMES);
+		} finally {
+			try { if (fileSystem != null) fileSystem.close(); } catch (final Exception e) { e.printStackTrace(); }
+		}
+
+		PreparedStatement ps = null;
+		try {
+			ps = con.prepareStatement("INSERT INTO boa_output (id, length, web_result) VALUES (" + jobId + ", ?, ?) ON DUPLICATE KEY UPDATE length=VALUES(length), web_result=VALUES(web_result)");
+			ps.setLong(1, length);
+			ps.setString(2, webResult);
+			ps.executeUpdate();
+		} finally {
+			try { if (ps != null) ps.close(); } catch (final Exception e) { e.printStackTrace(); }
+		}
+	}
+
+	/**
+	 * Moves the parts of a binary graph output, which are sequence files
+	 * and can not be joined to the text, into a directory of their own.
+	 */
+	private void storeBinaryOutput(final FileSystem fileSystem, final Path dir, final String name) throws java.io.IOException {
+		final FileStatus[] parts = fileSystem.globStatus(new Path(outputPath, name + "-r-*"));
+		if (parts == null || parts.length == 0)
+			return;
+
+		final Path binaryDir = new Path(dir, name);
+		fileSystem.mkdirs(binaryDir);
+		for (final FileStatus part : parts)
+			if (!fileSystem.rename(part.getPath(), new Path(binaryDir, part.getPath().getName())))
+				throw new java.io.IOException("unable to move " + part.getPath());
+	}
+
+	/**
+	 * Reads the start of the output, from the first part that is not empty,
+	 * without splitting the last character.
+	 */
+	private static String readWebResult(final FileSystem fileSystem, final List<FileStatus> parts) throws java.io.IOException {
+		for (final FileStatus part : parts) {
+			if (part.getLen() == 0)
+				continue;
+
+			final byte[] b = new byte[(int) Math.min(part.getLen(), WEB_RESULT_SIZE)];
+			final FSDataInputStream in = fileSystem.open(part.getPath());
 			try {
-				ps = con.prepareStatement("INSERT INTO boa_output (id, length) VALUES (" + jobId + ", 0)");
-				ps.executeUpdate();
-			} catch (final Exception e) {
+				in.readFully(0, b);
 			} finally {
-				try { if (ps != null) ps.close(); } catch (final Exception e) { e.printStackTrace(); }
+				in.close();
 			}
+			return new String(b, 0, completeLength(b, b.length), UTF8);
+		}
+		return "";
+	}
 
-			fileSystem.mkdirs(new Path("/boa", new Path("" + jobId)));
-			out = fileSystem.create(new Path("/boa", new Path("" + jobId, new Path("output.txt"))));
+	/**
+	 * @return how many of the first <code>length</code> bytes of some UTF-8
+	 *         are whole characters
+	 */
+	private static int completeLength(final byte[] b, final int length) {
+		// find where the last character starts
+		int start = length - 1;
+		while (start >= 0 && length - start < 4 && (b[start] & 0xc0) == 0x80)
+			start--;
+		if (start < 0)
+			return length;
 
-			int partNum = 0;
+		final int lead = b[start] & 0xff;
+		final int size = lead < 0x80 ? 1 : lead >= 0xf0 ? 4 : lead >= 0xe0 ? 3 : lead >= 0xc0 ? 2 : 1;
+		return start + size > length ? start : length;
+	}
 
-			final byte[] b = new byte[64 * 1024 * 1024];
-			long length = 0;
-			boolean hasWebResult = false;
+	/**
+	 * Moves the parts into the output file without copying them, if the file
+	 * system can concatenate files (HDFS can, from Hadoop 2).
+	 *
+	 * @return true if the parts are now the output, false if they are untouched
+	 */
+	private static boolean concat(final FileSystem fileSystem, final Path output, final List<FileStatus> parts) {
+		if (parts.isEmpty())
+			return false;
 
-			while (true) {
-				final Path path = new Path(outputPath, "part-r-" + String.format("%05d", partNum++));
-				if (!fileSystem.exists(path))
-					break;
+		final java.lang.reflect.Method concat;
+		try {
+			concat = fileSystem.getClass().getMethod("concat", Path.class, Path[].class);
+		} catch (final NoSuchMethodException e) {
+			return false;
+		}
 
-				if (in != null)
-					try { in.close(); } catch (final Exception e) { e.printStackTrace(); }
-				in = fileSystem.open(path);
+		final Path first = parts.get(0).getPath();
+		try {
+			if (fileSystem.exists(output))
+				fileSystem.delete(output, false);
+			if (!fileSystem.rename(first, output))
+				return false;
+		} catch (final Exception e) {
+			return false;
+		}
 
-				int numBytes = 0;
+		if (parts.size() == 1)
+			return true;
 
-				while ((numBytes = in.read(b)) > 0) {
-					if (!hasWebResult) {
-						hasWebResult = true;
+		final Path[] rest = new Path[parts.size() - 1];
+		for (int i = 1; i < parts.size(); i++)
+			rest[i - 1] = parts.get(i).getPath();
 
-						try {
-							ps = con.prepareStatement("UPDATE boa_output SET web_result=? WHERE id=" + jobId);
-							int webSize = 64 * 1024 - 1;
-							ps.setString(1, new String(b, 0, numBytes < webSize ? numBytes : webSize));
-							ps.executeUpdate();
-						} finally {
-							try { if (ps != null) ps.close(); } catch (final Exception e) { e.printStackTrace(); }
-						}
-					}
-					out.write(b, 0, numBytes);
-					length += numBytes;
+		try {
+			concat.invoke(fileSystem, output, rest);
+			return true;
+		} catch (final Exception e) {
+			// HDFS refuses some files, such as empty ones or ones with partial blocks
+			try {
+				fileSystem.rename(output, first);
+			} catch (final Exception e2) {
+				e2.printStackTrace();
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * Copies the parts into the output file.  Ranges of the parts are read by
+	 * several threads at once, and written in order as they arrive.
+	 */
+	private void copy(final FileSystem fileSystem, final Path output, final List<FileStatus> parts, final int threads) throws Exception {
+		final ExecutorService pool = Executors.newFixedThreadPool(Math.max(threads, 1));
+		FSDataOutputStream out = null;
+
+		try {
+			out = fileSystem.create(output);
+
+			// ranges being read, in the order they are written
+			final LinkedList<Future<byte[]>> reads = new LinkedList<Future<byte[]>>();
+			for (final FileStatus part : parts)
+				for (long pos = 0; pos < part.getLen(); pos += CHUNK_SIZE) {
+					if (reads.size() > threads)
+						write(out, reads.removeFirst().get());
+					reads.add(pool.submit(new RangeReader(fileSystem, part.getPath(), pos, (int) Math.min(CHUNK_SIZE, part.getLen() - pos))));
+				}
+			while (!reads.isEmpty())
+				write(out, reads.removeFirst().get());
+		} finally {
+			pool.shutdownNow();
+			try { if (out != null) out.close(); } catch (final Exception e) { e.printStackTrace(); }
+		}
+	}
+
+	private final static byte[] SEPARATOR = " = ".getBytes();
+
+	/**
+	 * Merges the records of the parts, written by {@link BoaOutputFormat} in
+	 * sorted mode, into <code>output.seq</code> in order of their keys.  Then
+	 * writes them as lines of text to <code>output.txt</code>, along with
+	 * <code>output.index</code>: a {@link MapFile} from each table and index
+	 * to the offset of its first line in the text.
+	 */
+	private void sort(final FileSystem fileSystem, final Path dir, final List<FileStatus> parts, final Configuration conf) throws java.io.IOException {
+		final Path sorted = new Path(dir, "output.seq");
+		if (fileSystem.exists(sorted))
+			fileSystem.delete(sorted, false);
+
+		if (parts.isEmpty()) {
+			SequenceFile.createWriter(fileSystem, conf, sorted, OutputKey.class, Text.class).close();
+		} else {
+			final Path[] inputs = new Path[parts.size()];
+			for (int i = 0; i < inputs.length; i++)
+				inputs[i] = parts.get(i).getPath();
+
+			final SequenceFile.Sorter sorter = new SequenceFile.Sorter(fileSystem, new OutputKey(), OutputKey.class, Text.class, conf);
+			sorter.setProgressable(this.context);
+			sorter.sort(inputs, sorted, false);
+		}
+
+		final SequenceFile.Reader reader = new SequenceFile.Reader(fileSystem, sorted, conf);
+		FSDataOutputStream out = null;
+		MapFile.Writer index = null;
 
-					this.context.progress();
+		try {
+			out = fileSystem.create(new Path(dir, "output.txt"));
+			index = new MapFile.Writer(conf, fileSystem, new Path(dir, "output.index").toString(), Text.class, LongWritable.class);
+
+			final OutputKey key = new OutputKey();
+			final Text value = new Text();
+			final Text last = new Text();
+			final LongWritable offset = new LongWritable();
+
+			while (reader.next(key, value)) {
+				final Text k = key.getKey();
+				if (k.getLength() > 0) {
+					if (!k.equals(last)) {
+						last.set(k);
+						offset.set(out.getPos());
+						index.append(last, offset);
+					}
+					out.write(k.getBytes(), 0, k.getLength());
+					out.write(SEPARATOR);
 				}
+				out.write(value.getBytes(), 0, value.getLength());
+				out.write('\n');
+
+				this.context.progress();
 			}
+		} finally {
+			try { reader.close(); } catch (final Exception e) { e.printStackTrace(); }
+			try { if (index != null) index.close(); } catch (final Exception e) { e.printStackTrace(); }
+			try { if (out != null) out.close(); } catch (final Exception e) { e.printStackTrace(); }
+		}
+	}
+
+	private void write(final FSDataOutputStream out, final byte[] b) throws java.io.IOException {
+		out.write(b);
+		this.context.progress();
+	}
 
+	private static class RangeReader implements Callable<byte[]> {
+		private final FileSystem fileSystem;
+		private final Path path;
+		private final long pos;
+		private final int length;
+
+		public RangeReader(final FileSystem fileSystem, final Path path, final long pos, final int length) {
+			this.fileSystem = fileSystem;
+			this.path = path;
+			this.pos = pos;
+			this.length = length;
+		}
+
+		@Override
+		public byte[] call() throws Exception {
+			final byte[] b = new byte[length];
+			final FSDataInputStream in = fileSystem.open(path);
 			try {
-				ps = con.prepareStatement("UPDATE boa_output SET length=? WHERE id=" + jobId);
-				ps.setLong(1, length);
-				ps.executeUpdate();
+				in.readFully(pos, b);
 			} finally {
-				try { if (ps != null) ps.close(); } catch (final Exception e) { e.printStackTrace(); }
+				in.close();
 			}
-		} catch (final Exception e) {
-			e.printStackTrace();
-		} finally {
-			try { if (con != null) con.close(); } catch (final Exception e) { e.printStackTrace(); }
-			try { if (in != null) in.close(); } catch (final Exception e) { e.printStackTrace(); }
-			try { if (out != null) out.close(); } catch (final Exception e) { e.printStackTrace(); }
-			try { if (fileSystem != null) fileSystem.close(); } catch (final Exception e) { e.printStackTrace(); }
+			return b;
 		}
 	}
 
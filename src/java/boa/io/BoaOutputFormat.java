@@ -16,20 +16,30 @@
  */
 package boa.io;
 
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.NullWritable;
+import org.apache.hadoop.io.SequenceFile;
+import org.apache.hadoop.io.SequenceFile.CompressionType;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.Writable;
 import org.apache.hadoop.mapreduce.OutputCommitter;
+import org.apache.hadoop.mapreduce.RecordWriter;
 import org.apache.hadoop.mapreduce.TaskAttemptContext;
 import org.apache.hadoop.mapreduce.lib.output.FileOutputCommitter;
 import org.apache.hadoop.mapreduce.lib.output.TextOutputFormat;
 
 /**
- * Uses our custom output committer.
+ * Uses our custom output committer.  If <code>boa.output.sorted</code> is
+ * set, the output is written as {@link OutputKey} and {@link Text} records
+ * for the committer to sort, instead of as lines of text.
+ * 
+ * Values are either {@link Text}, for an output's key and value, or
+ * {@link NullWritable}, for a whole line held in the key.
  * 
  * @author rdyer
- *
- * @param <K> the type of keys
- * @param <V> the type of values
  */
-public class BoaOutputFormat<K, V> extends TextOutputFormat<K, V> {
+public class BoaOutputFormat extends TextOutputFormat<Text, Writable> {
 	private FileOutputCommitter committer = null;
 
 	@Override
@@ -38,4 +48,41 @@ public class BoaOutputFormat<K, V> extends TextOutputFormat<K, V> {
 			committer = new BoaOutputCommitter(getOutputPath(context), context);
 		return committer;
 	}
+
+	@Override
+	public RecordWriter<Text, Writable> getRecordWriter(final TaskAttemptContext context) throws java.io.IOException, InterruptedException {
+		final Configuration conf = context.getConfiguration();
+		if (!conf.getBoolean("boa.output.sorted", false))
+			return super.getRecordWriter(context);
+
+		final Path file = getDefaultWorkFile(context, "");
+		final SequenceFile.Writer writer = SequenceFile.createWriter(file.getFileSystem(conf), conf, file, OutputKey.class, Text.class, CompressionType.BLOCK);
+
+		return new RecordWriter<Text, Writable>() {
+			private final OutputKey outKey = new OutputKey();
+			private final Text outValue = new Text();
+			private long position = 0;
+
+			@Override
+			public void write(final Text key, final Writable value) throws java.io.IOException {
+				if (value == null || value instanceof NullWritable) {
+					// whole lines have no value, and are kept with an empty key
+					outKey.set("", position++);
+					// copy the bytes, as decoding a line that is not UTF-8 would change it
+					outValue.set(key);
+				} else if (value instanceof Text) {
+					outKey.set(key.toString(), position++);
+					outValue.set((Text) value);
+				} else {
+					throw new java.io.IOException("unexpected output value type " + value.getClass().getName());
+				}
+				writer.append(outKey, outValue);
+			}
+
+			@Override
+			public void close(final TaskAttemptContext context) throws java.io.IOException {
+				writer.close();
+			}
+		};
+	}
 }
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2015, Hridesh Rajan, Robert Dyer,
+ *                 and Iowa State University of Science and Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package boa.io;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import org.apache.hadoop.io.RawComparator;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.WritableComparable;
+import org.apache.hadoop.io.WritableComparator;
+import org.apache.hadoop.io.WritableUtils;
+
+/**
+ * The key of a record of sorted output: the table and index the record was
+ * output to (such as <code>counts[foo]</code>), and the record's position in
+ * the output of its task.  Keys sort by the table and index, and records
+ * with equal ones (which always come from the same task) keep their order.
+ * 
+ * Records output as whole lines, such as by graph aggregators, have an
+ * empty key and so come first.
+ * 
+ * @author agent
+ */
+public class OutputKey implements WritableComparable<OutputKey>, RawComparator<OutputKey> {
+	private final Text key = new Text();
+	private long position;
+
+	/**
+	 * Construct an OutputKey.
+	 */
+	public OutputKey() {
+		// default constructor for Writable
+	}
+
+	/**
+	 * Sets the key.
+	 * 
+	 * @param key
+	 *            A {@link String} containing the table and index
+	 * 
+	 * @param position
+	 *            A long containing the record's position in its task's output
+	 */
+	public void set(final String key, final long position) {
+		this.key.set(key);
+		this.position = position;
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public void readFields(final DataInput in) throws IOException {
+		this.key.readFields(in);
+		this.position = in.readLong();
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public void write(final DataOutput out) throws IOException {
+		this.key.write(out);
+		out.writeLong(this.position);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public int compare(final byte[] b1, final int s1, final int l1, final byte[] b2, final int s2, final int l2) {
+		try {
+			// compare the keys, without their lengths
+			final int n1 = WritableUtils.decodeVIntSize(b1[s1]);
+			final int n2 = WritableUtils.decodeVIntSize(b2[s2]);
+			final int k1 = WritableComparator.readVInt(b1, s1);
+			final int k2 = WritableComparator.readVInt(b2, s2);
+			final int c = WritableComparator.compareBytes(b1, s1 + n1, k1, b2, s2 + n2, k2);
+			if (c != 0)
+				return c;
+
+			// compare the positions
+			final long p1 = WritableComparator.readLong(b1, s1 + n1 + k1);
+			final long p2 = WritableComparator.readLong(b2, s2 + n2 + k2);
+			return p1 < p2 ? -1 : (p1 == p2 ? 0 : 1);
+		} catch (final IOException e) {
+			throw new IllegalArgumentException(e);
+		}
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public int compare(final OutputKey k1, final OutputKey k2) {
+		return k1.compareTo(k2);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public int compareTo(final OutputKey that) {
+		final int c = this.key.compareTo(that.key);
+		if (c != 0)
+			return c;
+		return this.position < that.position ? -1 : (this.position == that.position ? 0 : 1);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public int hashCode() {
+		return 31 * this.key.hashCode() + (int) (this.position ^ (this.position >>> 32));
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public boolean equals(final Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null || getClass() != obj.getClass())
+			return false;
+		final OutputKey other = (OutputKey) obj;
+		return this.position == other.position && this.key.equals(other.key);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public String toString() {
+		return this.key.toString();
+	}
+
+	/**
+	 * @return the table and index, which is empty for whole lines
+	 */
+	public Text getKey() {
+		return this.key;
+	}
+
+	public long getPosition() {
+		return this.position;
+	}
+}
@@ -0,0 +1,602 @@
+/*
+ * Copyright 2015, Hridesh Rajan, Robert Dyer,
+ *                 and Iowa State University of Science and Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package boa.io;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.WritableUtils;
+
+import boa.types.Code.CodeRepository;
+import boa.types.Code.Revision;
+import boa.types.Diff.ChangedFile;
+import boa.types.Shared.ChangeKind;
+import boa.types.Shared.Person;
+import boa.types.Toplevel.Project;
+
+/**
+ * A columnar copy of the metadata in projects.seq, for programs that never
+ * look at anything else.
+ *
+ * Each part of the copy is a directory holding one file per field, named
+ * after the field (e.g., <code>Revision.commit_date</code>), plus a
+ * <code>rows</code> file with the number of projects in the part.  Values
+ * are stored in project order, with every nested value in the order it
+ * appears in its project.  Strings that repeat are dictionary encoded,
+ * numbering each new string in the order it is first seen, and timestamps
+ * are stored as the difference from the previous one.  A reader only opens
+ * the fields it is asked for, and leaves every other field at its default.
+ *
+ * The copy also holds a <code>source</code> file with the length and
+ * modification time of the projects.seq it was made from, so a copy that
+ * was not regenerated after projects.seq changed is never read.
+ *
+ * @author agent
+ */
+public class ProjectColumns {
+	/** The name of the columnar copy, next to projects.seq. */
+	public static final String DIR = "projects.cols";
+
+	private static final String ROWS = "rows";
+	private static final String SOURCE = "source";
+
+	/** Every field in the columnar copy, as <code>Type.field</code>. */
+	public static final Set<String> COLUMNS = Collections.unmodifiableSet(new HashSet<String>(Arrays.asList(
+		"Project.id", "Project.name", "Project.project_url", "Project.homepage_url", "Project.created_date",
+		"Project.description", "Project.operating_systems", "Project.programming_languages", "Project.databases",
+		"Project.licenses", "Project.interfaces", "Project.audiences", "Project.topics", "Project.status",
+		"Project.translations", "Project.donations", "Project.kind", "Project.code_repositories",
+		"CodeRepository.url", "CodeRepository.kind", "CodeRepository.revisions",
+		"Revision.id", "Revision.author", "Revision.committer", "Revision.commit_date", "Revision.log", "Revision.files",
+		"ChangedFile.change", "ChangedFile.kind", "ChangedFile.name"
+	)));
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private static final String[] PROJECT_LISTS = {
+		"operating_systems", "programming_languages", "databases", "licenses", "interfaces",
+		"audiences", "topics", "status", "translations"
+	};
+
+	private static final String[] PERSON_FIELDS = { "username", "real_name", "email" };
+
+	/**
+	 * Records which projects.seq the copy in <code>dir</code> was made from.
+	 * This is written last, so a copy that was never finished is not current.
+	 *
+	 * @param source the status of projects.seq from before the copy was made
+	 */
+	public static void writeSource(final FileSystem fs, final Path dir, final FileStatus source) throws IOException {
+		final DataOutputStream out = fs.create(new Path(dir, SOURCE));
+		try {
+			out.writeLong(source.getLen());
+			out.writeLong(source.getModificationTime());
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * @return true if the copy in <code>dir</code> was made from the
+	 *         projects.seq at <code>projects</code> as it is now
+	 */
+	public static boolean isCurrent(final FileSystem fs, final Path dir, final Path projects) throws IOException {
+		final Path source = new Path(dir, SOURCE);
+		if (!fs.exists(source) || !fs.exists(projects))
+			return false;
+
+		final FileStatus status = fs.getFileStatus(projects);
+		final DataInputStream in = fs.open(source);
+		try {
+			return in.readLong() == status.getLen() && in.readLong() == status.getModificationTime();
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Writes one part of the columnar copy.
+	 */
+	public static class Writer {
+		private final FileSystem fs;
+		private final Path dir;
+		private final List<ColumnOutput> columns = new ArrayList<ColumnOutput>();
+		private long rows = 0;
+
+		private final ColumnOutput id, name, projectUrl, homepageUrl, createdDate, description, donations, kind, repositories;
+		private final ColumnOutput[] lists = new ColumnOutput[PROJECT_LISTS.length];
+		private final ColumnOutput repoUrl, repoKind, revisions;
+		private final ColumnOutput revId, commitDate, log, files;
+		private final ColumnOutput[] author = new ColumnOutput[PERSON_FIELDS.length];
+		private final ColumnOutput[] committer = new ColumnOutput[PERSON_FIELDS.length];
+		private final ColumnOutput change, fileKind, fileName;
+
+		public Writer(final FileSystem fs, final Path dir) throws IOException {
+			this.fs = fs;
+			this.dir = dir;
+			fs.mkdirs(dir);
+
+			id = open("Project.id");
+			name = open("Project.name");
+			projectUrl = open("Project.project_url");
+			homepageUrl = open("Project.homepage_url");
+			createdDate = open("Project.created_date");
+			description = open("Project.description");
+			for (int i = 0; i < PROJECT_LISTS.length; i++)
+				lists[i] = open("Project." + PROJECT_LISTS[i]);
+			donations = open("Project.donations");
+			kind = open("Project.kind");
+			repositories = open("Project.code_repositories");
+
+			repoUrl = open("CodeRepository.url");
+			repoKind = open("CodeRepository.kind");
+			revisions = open("CodeRepository.revisions");
+
+			revId = open("Revision.id");
+			for (int i = 0; i < PERSON_FIELDS.length; i++) {
+				author[i] = open("Revision.author." + PERSON_FIELDS[i]);
+				committer[i] = open("Revision.committer." + PERSON_FIELDS[i]);
+			}
+			commitDate = open("Revision.commit_date");
+			log = open("Revision.log");
+			files = open("Revision.files");
+
+			change = open("ChangedFile.change");
+			fileKind = open("ChangedFile.kind");
+			fileName = open("ChangedFile.name");
+		}
+
+		private ColumnOutput open(final String column) throws IOException {
+			final ColumnOutput c = new ColumnOutput(new DataOutputStream(new BufferedOutputStream(fs.create(new Path(dir, column)))));
+			columns.add(c);
+			return c;
+		}
+
+		public void append(final Project p) throws IOException {
+			rows++;
+
+			id.writeString(p.getId());
+			name.writeString(p.getName());
+			projectUrl.writeString(p.getProjectUrl());
+			homepageUrl.writeString(p.hasHomepageUrl() ? p.getHomepageUrl() : null);
+			createdDate.writeTime(p.hasCreatedDate() ? p.getCreatedDate() : -1);
+			description.writeString(p.hasDescription() ? p.getDescription() : null);
+			writeWords(lists[0], p.getOperatingSystemsList());
+			writeWords(lists[1], p.getProgrammingLanguagesList());
+			writeWords(lists[2], p.getDatabasesList());
+			writeWords(lists[3], p.getLicensesList());
+			writeWords(lists[4], p.getInterfacesList());
+			writeWords(lists[5], p.getAudiencesList());
+			writeWords(lists[6], p.getTopicsList());
+			writeWords(lists[7], p.getStatusList());
+			writeWords(lists[8], p.getTranslationsList());
+			donations.writeInt(p.hasDonations() ? (p.getDonations() ? 2 : 1) : 0);
+			kind.writeInt(p.getKind().getNumber());
+
+			// names and dates repeat within a project, but rarely across them
+			for (int i = 0; i < PERSON_FIELDS.length; i++) {
+				author[i].reset();
+				committer[i].reset();
+			}
+			commitDate.reset();
+			fileName.reset();
+
+			repositories.writeInt(p.getCodeRepositoriesCount());
+			for (final CodeRepository repo : p.getCodeRepositoriesList()) {
+				repoUrl.writeString(repo.getUrl());
+				repoKind.writeInt(repo.getKind().getNumber());
+
+				revisions.writeInt(repo.getRevisionsCount());
+				for (final Revision rev : repo.getRevisionsList()) {
+					revId.writeString(rev.getId());
+					writePerson(author, rev.getAuthor());
+					writePerson(committer, rev.getCommitter());
+					commitDate.writeTime(rev.getCommitDate());
+					log.writeString(rev.getLog());
+
+					files.writeInt(rev.getFilesCount());
+					for (final ChangedFile f : rev.getFilesList()) {
+						change.writeInt(f.getChange().getNumber());
+						fileKind.writeInt(f.getKind().getNumber());
+						fileName.writeWord(f.getName());
+					}
+				}
+			}
+		}
+
+		private static void writeWords(final ColumnOutput c, final Collection<String> words) throws IOException {
+			c.writeInt(words.size());
+			for (final String word : words)
+				c.writeWord(word);
+		}
+
+		private static void writePerson(final ColumnOutput[] c, final Person p) throws IOException {
+			c[0].writeWord(p.getUsername());
+			c[1].writeWord(p.getRealName());
+			c[2].writeWord(p.getEmail());
+		}
+
+		public void close() throws IOException {
+			for (final ColumnOutput c : columns)
+				c.close();
+
+			final DataOutputStream out = fs.create(new Path(dir, ROWS));
+			try {
+				out.writeLong(rows);
+			} finally {
+				out.close();
+			}
+		}
+	}
+
+	/**
+	 * Reads one part of the columnar copy back into projects holding only
+	 * the fields asked for.
+	 */
+	public static class Reader {
+		private final FileSystem fs;
+		private final Path dir;
+		private final List<ColumnInput> columns = new ArrayList<ColumnInput>();
+		private final long rows;
+		private long row = 0;
+
+		private final ColumnInput id, name, projectUrl, homepageUrl, createdDate, description, donations, kind, repositories;
+		private final ColumnInput[] lists = new ColumnInput[PROJECT_LISTS.length];
+		private final ColumnInput repoUrl, repoKind, revisions;
+		private final ColumnInput revId, commitDate, log, files;
+		private final ColumnInput[] author, committer;
+		private final ColumnInput change, fileKind, fileName;
+
+		/**
+		 * @param fields the fields to read, as <code>Type.field</code>, or
+		 *            <code>*</code> for every field
+		 */
+		public Reader(final FileSystem fs, final Path dir, final Collection<String> fields) throws IOException {
+			this.fs = fs;
+			this.dir = dir;
+
+			final Set<String> f = new HashSet<String>();
+			for (final String field : fields)
+				f.add(field.trim());
+			if (f.contains("*"))
+				f.addAll(COLUMNS);
+
+			// a nested field can only be reached through the lists holding it
+			for (final String field : new ArrayList<String>(f)) {
+				if (field.startsWith("ChangedFile."))
+					f.add("Revision.files");
+				if (field.startsWith("ChangedFile.") || field.startsWith("Revision."))
+					f.add("CodeRepository.revisions");
+				if (field.startsWith("ChangedFile.") || field.startsWith("Revision.") || field.startsWith("CodeRepository."))
+					f.add("Project.code_repositories");
+			}
+
+			final DataInputStream in = fs.open(new Path(dir, ROWS));
+			try {
+				rows = in.readLong();
+			} finally {
+				in.close();
+			}
+
+			// the id is the key, so it is always read
+			id = open("Project.id");
+			name = open(f, "Project.name");
+			projectUrl = open(f, "Project.project_url");
+			homepageUrl = open(f, "Project.homepage_url");
+			createdDate = open(f, "Project.created_date");
+			description = open(f, "Project.description");
+			for (int i = 0; i < PROJECT_LISTS.length; i++)
+				lists[i] = open(f, "Project." + PROJECT_LISTS[i]);
+			donations = open(f, "Project.donations");
+			kind = open(f, "Project.kind");
+			repositories = open(f, "Project.code_repositories");
+
+			repoUrl = open(f, "CodeRepository.url");
+			repoKind = open(f, "CodeRepository.kind");
+			revisions = open(f, "CodeRepository.revisions");
+
+			revId = open(f, "Revision.id");
+			author = openPerson(f, "Revision.author");
+			committer = openPerson(f, "Revision.committer");
+			commitDate = open(f, "Revision.commit_date");
+			log = open(f, "Revision.log");
+			files = open(f, "Revision.files");
+
+			change = open(f, "ChangedFile.change");
+			fileKind = open(f, "ChangedFile.kind");
+			fileName = open(f, "ChangedFile.name");
+		}
+
+		private ColumnInput open(final String column) throws IOException {
+			final ColumnInput c = new ColumnInput(new DataInputStream(new BufferedInputStream(fs.open(new Path(dir, column)))));
+			columns.add(c);
+			return c;
+		}
+
+		private ColumnInput open(final Set<String> fields, final String column) throws IOException {
+			return fields.contains(column) ? open(column) : null;
+		}
+
+		private ColumnInput[] openPerson(final Set<String> fields, final String column) throws IOException {
+			if (!fields.contains(column))
+				return null;
+			final ColumnInput[] c = new ColumnInput[PERSON_FIELDS.length];
+			for (int i = 0; i < PERSON_FIELDS.length; i++)
+				c[i] = open(column + "." + PERSON_FIELDS[i]);
+			return c;
+		}
+
+		/**
+		 * @return the number of projects read so far
+		 */
+		public long getRow() {
+			return row;
+		}
+
+		/**
+		 * @return the number of projects in this part
+		 */
+		public long getRows() {
+			return rows;
+		}
+
+		/**
+		 * Reads the next project.  Required fields that were not asked for
+		 * hold empty strings, zeros or the first enum value.
+		 *
+		 * @return the next project, or null if there are no more
+		 */
+		public Project next() throws IOException {
+			if (row >= rows)
+				return null;
+			row++;
+
+			final Project.Builder p = Project.newBuilder();
+			p.setId(id.readString());
+			p.setName(name == null ? "" : name.readString());
+			p.setProjectUrl(projectUrl == null ? "" : projectUrl.readString());
+			if (homepageUrl != null) {
+				final String s = homepageUrl.readString();
+				if (s != null)
+					p.setHomepageUrl(s);
+			}
+			if (createdDate != null) {
+				final long t = createdDate.readTime();
+				if (t != -1)
+					p.setCreatedDate(t);
+			}
+			if (description != null) {
+				final String s = description.readString();
+				if (s != null)
+					p.setDescription(s);
+			}
+			if (lists[0] != null) p.addAllOperatingSystems(readWords(lists[0]));
+			if (lists[1] != null) p.addAllProgrammingLanguages(readWords(lists[1]));
+			if (lists[2] != null) p.addAllDatabases(readWords(lists[2]));
+			if (lists[3] != null) p.addAllLicenses(readWords(lists[3]));
+			if (lists[4] != null) p.addAllInterfaces(readWords(lists[4]));
+			if (lists[5] != null) p.addAllAudiences(readWords(lists[5]));
+			if (lists[6] != null) p.addAllTopics(readWords(lists[6]));
+			if (lists[7] != null) p.addAllStatus(readWords(lists[7]));
+			if (lists[8] != null) p.addAllTranslations(readWords(lists[8]));
+			if (donations != null) {
+				final int d = donations.readInt();
+				if (d != 0)
+					p.setDonations(d == 2);
+			}
+			p.setKind(kind == null ? Project.ForgeKind.valueOf(0) : Project.ForgeKind.valueOf(kind.readInt()));
+
+			if (author != null)
+				for (final ColumnInput c : author)
+					c.reset();
+			if (committer != null)
+				for (final ColumnInput c : committer)
+					c.reset();
+			if (commitDate != null)
+				commitDate.reset();
+			if (fileName != null)
+				fileName.reset();
+
+			final int repoCount = repositories == null ? 0 : repositories.readInt();
+			for (int i = 0; i < repoCount; i++)
+				p.addCodeRepositories(readRepository());
+
+			return p.build();
+		}
+
+		private CodeRepository readRepository() throws IOException {
+			final CodeRepository.Builder repo = CodeRepository.newBuilder();
+			repo.setUrl(repoUrl == null ? "" : repoUrl.readString());
+			repo.setKind(repoKind == null ? CodeRepository.RepositoryKind.valueOf(0) : CodeRepository.RepositoryKind.valueOf(repoKind.readInt()));
+
+			final int revCount = revisions == null ? 0 : revisions.readInt();
+			for (int i = 0; i < revCount; i++)
+				repo.addRevisions(readRevision());
+
+			return repo.build();
+		}
+
+		private Revision readRevision() throws IOException {
+			final Revision.Builder rev = Revision.newBuilder();
+			rev.setId(revId == null ? "" : revId.readString());
+			rev.setAuthor(readPerson(author));
+			rev.setCommitter(readPerson(committer));
+			rev.setCommitDate(commitDate == null ? 0 : commitDate.readTime());
+			rev.setLog(log == null ? "" : log.readString());
+
+			final int fileCount = files == null ? 0 : files.readInt();
+			for (int i = 0; i < fileCount; i++) {
+				final ChangedFile.Builder f = ChangedFile.newBuilder();
+				f.setChange(change == null ? ChangeKind.valueOf(1) : ChangeKind.valueOf(change.readInt()));
+				f.setKind(fileKind == null ? ChangedFile.FileKind.valueOf(0) : ChangedFile.FileKind.valueOf(fileKind.readInt()));
+				f.setName(fileName == null ? "" : fileName.readWord());
+				f.setKey("");
+				rev.addFiles(f);
+			}
+
+			return rev.build();
+		}
+
+		private static List<String> readWords(final ColumnInput c) throws IOException {
+			final int n = c.readInt();
+			final List<String> words = new ArrayList<String>(n);
+			for (int i = 0; i < n; i++)
+				words.add(c.readWord());
+			return words;
+		}
+
+		private static Person readPerson(final ColumnInput[] c) throws IOException {
+			final Person.Builder p = Person.newBuilder();
+			p.setUsername(c == null ? "" : c[0].readWord());
+			p.setRealName(c == null ? "" : c[1].readWord());
+			p.setEmail(c == null ? "" : c[2].readWord());
+			return p.build();
+		}
+
+		public void close() throws IOException {
+			for (final ColumnInput c : columns)
+				c.close();
+		}
+	}
+
+	/**
+	 * One field's values.  Words are strings that are likely to repeat: the
+	 * first time a word is seen it is written out, and every later time only
+	 * its number is.  Resetting starts a new dictionary and a new base for
+	 * timestamps.
+	 */
+	private static class ColumnOutput {
+		private final DataOutputStream out;
+		private final HashMap<String, Integer> words = new HashMap<String, Integer>();
+		private long lastTime = 0;
+
+		ColumnOutput(final DataOutputStream out) {
+			this.out = out;
+		}
+
+		void reset() {
+			words.clear();
+			lastTime = 0;
+		}
+
+		void writeInt(final int i) throws IOException {
+			WritableUtils.writeVInt(out, i);
+		}
+
+		void writeTime(final long t) throws IOException {
+			WritableUtils.writeVLong(out, t - lastTime);
+			lastTime = t;
+		}
+
+		// 0 is null, otherwise the length plus one and the UTF-8 bytes
+		void writeString(final String s) throws IOException {
+			if (s == null) {
+				WritableUtils.writeVInt(out, 0);
+				return;
+			}
+			final byte[] bytes = s.getBytes(UTF8);
+			WritableUtils.writeVInt(out, bytes.length + 1);
+			out.write(bytes);
+		}
+
+		// 0 is null, 1 is a new word followed by its string, otherwise the word's number plus two
+		void writeWord(final String s) throws IOException {
+			if (s == null) {
+				WritableUtils.writeVInt(out, 0);
+				return;
+			}
+			final Integer number = words.get(s);
+			if (number != null) {
+				WritableUtils.writeVInt(out, number + 2);
+				return;
+			}
+			words.put(s, words.size());
+			WritableUtils.writeVInt(out, 1);
+			writeString(s);
+		}
+
+		void close() throws IOException {
+			out.close();
+		}
+	}
+
+	/**
+	 * Reads back what a {@link ColumnOutput} wrote.
+	 */
+	private static class ColumnInput {
+		private final DataInputStream in;
+		private final List<String> words = new ArrayList<String>();
+		private long lastTime = 0;
+
+		ColumnInput(final DataInputStream in) {
+			this.in = in;
+		}
+
+		void reset() {
+			words.clear();
+			lastTime = 0;
+		}
+
+		int readInt() throws IOException {
+			return WritableUtils.readVInt(in);
+		}
+
+		long readTime() throws IOException {
+			lastTime += WritableUtils.readVLong(in);
+			return lastTime;
+		}
+
+		String readString() throws IOException {
+			final int n = WritableUtils.readVInt(in);
+			if (n == 0)
+				return null;
+			final byte[] bytes = new byte[n - 1];
+			in.readFully(bytes);
+			return new String(bytes, UTF8);
+		}
+
+		String readWord() throws IOException {
+			final int n = WritableUtils.readVInt(in);
+			if (n == 0)
+				return null;
+			if (n > 1)
+				return words.get(n - 2);
+			final String s = readString();
+			words.add(s);
+			return s;
+		}
+
+		void close() throws IOException {
+			in.close();
+		}
+	}
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2015, Hridesh Rajan, Robert Dyer,
+ *                 and Iowa State University of Science and Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package boa.io;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.BytesWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.InputFormat;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.JobContext;
+import org.apache.hadoop.mapreduce.RecordReader;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.lib.input.FileInputFormat;
+import org.apache.hadoop.mapreduce.lib.input.FileSplit;
+
+import boa.types.Toplevel.Project;
+
+/**
+ * Reads projects from their columnar copy (see {@link ProjectColumns}),
+ * giving the same keys and values as projects.seq but with only the fields
+ * listed in <code>boa.columns</code> filled in.  Each part of the copy is
+ * one split.
+ *
+ * @author agent
+ */
+public class ProjectColumnsInputFormat extends InputFormat<Text, BytesWritable> {
+	/** {@inheritDoc} */
+	@Override
+	public List<InputSplit> getSplits(final JobContext context) throws IOException {
+		final List<InputSplit> splits = new ArrayList<InputSplit>();
+		for (final Path dir : FileInputFormat.getInputPaths(context)) {
+			final FileSystem fs = dir.getFileSystem(context.getConfiguration());
+			for (final FileStatus part : fs.listStatus(dir)) {
+				if (!part.isDir() || !part.getPath().getName().startsWith("part-"))
+					continue;
+				final long length = fs.getContentSummary(part.getPath()).getLength();
+				splits.add(new FileSplit(part.getPath(), 0, length, new String[0]));
+			}
+		}
+		return splits;
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public RecordReader<Text, BytesWritable> createRecordReader(final InputSplit split, final TaskAttemptContext context) {
+		return new ProjectColumnsRecordReader();
+	}
+
+	/**
+	 * Reads one part of the columnar copy.
+	 */
+	protected static class ProjectColumnsRecordReader extends RecordReader<Text, BytesWritable> {
+		private ProjectColumns.Reader reader;
+		private final Text key = new Text();
+		private final BytesWritable value = new BytesWritable();
+
+		/** {@inheritDoc} */
+		@Override
+		public void initialize(final InputSplit split, final TaskAttemptContext context) throws IOException {
+			final Configuration conf = context.getConfiguration();
+			final Path dir = ((FileSplit) split).getPath();
+			reader = new ProjectColumns.Reader(dir.getFileSystem(conf), dir, Arrays.asList(conf.get("boa.columns", "*").split(",")));
+		}
+
+		/** {@inheritDoc} */
+		@Override
+		public boolean nextKeyValue() throws IOException {
+			final Project p = reader.next();
+			if (p == null)
+				return false;
+
+			key.set(p.getId());
+			final byte[] bytes = p.toByteArray();
+			value.set(bytes, 0, bytes.length);
+			return true;
+		}
+
+		/** {@inheritDoc} */
+		@Override
+		public Text getCurrentKey() {
+			return key;
+		}
+
+		/** {@inheritDoc} */
+		@Override
+		public BytesWritable getCurrentValue() {
+			return value;
+		}
+
+		/** {@inheritDoc} */
+		@Override
+		public float getProgress() {
+			return reader.getRows() == 0 ? 1.0f : (float) reader.getRow() / reader.getRows();
+		}
+
+		/** {@inheritDoc} */
+		@Override
+		public void close() throws IOException {
+			if (reader != null)
+				reader.close();
+		}
+	}
+}
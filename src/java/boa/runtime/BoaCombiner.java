@@ -17,8 +17,11 @@
 package boa.runtime;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.hadoop.conf.Configurable;
 import org.apache.hadoop.conf.Configuration;
@@ -54,6 +57,16 @@ public abstract class BoaCombiner extends Reducer<EmitKey, EmitValue, EmitKey, E
 	private Configuration conf;
 	private boolean robust;
 
+	// the most keys to remember as saturated, so the set stays small
+	private static final int MAX_SATURATED = 1 << 16;
+
+	/**
+	 * The keys whose aggregators are saturated in this task.  The combiner
+	 * has sent on enough values for them, so the mapper (which runs in the
+	 * same task, but a different thread) can drop any more it outputs.
+	 */
+	private static final Set<EmitKey> saturated = Collections.newSetFromMap(new ConcurrentHashMap<EmitKey, Boolean>());
+
 	/**
 	 * Construct a {@link BoaCombiner}.
 	 */
@@ -97,13 +110,40 @@ public abstract class BoaCombiner extends Reducer<EmitKey, EmitValue, EmitKey, E
 			try {
 				for (final String s : value.getData())
 					a.aggregate(s, value.getMetadata());
+
+				// the rest of the values can not change the result
+				if (a.isSaturated()) {
+					saturate(key);
+					break;
+				}
 			} catch (final FinishedException e) {
 				// we are done
-				return;
+				saturate(key);
+				break;
 			} catch (final Throwable e) {
 				throw new RuntimeException(e);
 			}
 
 		a.finish();
 	}
+
+	private static void saturate(final EmitKey key) {
+		// the framework reuses the key, so keep a copy
+		if (saturated.size() < MAX_SATURATED)
+			saturated.add(new EmitKey(key.getIndex(), key.getName(), key.getId()));
+	}
+
+	/**
+	 * @return true if a combiner in this task saw that more values for <code>key</code> are not needed
+	 */
+	public static boolean isSaturated(final EmitKey key) {
+		return !saturated.isEmpty() && saturated.contains(key);
+	}
+
+	/**
+	 * Forgets the saturated keys, such as when a task starts.
+	 */
+	public static void clearSaturated() {
+		saturated.clear();
+	}
 }
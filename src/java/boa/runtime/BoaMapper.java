@@ -59,5 +59,15 @@ public abstract class BoaMapper extends Mapper<Text, BytesWritable, EmitKey, Emi
 		super.setup(context);
 
 		this.context = context;
+		BoaCombiner.clearSaturated();
+	}
+
+	/**
+	 * Outputs a value, unless the combiner already has all the values it
+	 * needs for the key.
+	 */
+	public static void emit(final Mapper<Text, BytesWritable, EmitKey, EmitValue>.Context context, final EmitKey key, final EmitValue value) throws IOException, InterruptedException {
+		if (!BoaCombiner.isSaturated(key))
+			context.write(key, value);
 	}
 }
@@ -22,9 +22,10 @@ import java.util.Map;
 
 import org.apache.hadoop.conf.Configurable;
 import org.apache.hadoop.conf.Configuration;
-import org.apache.hadoop.io.NullWritable;
 import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.Writable;
 import org.apache.hadoop.mapreduce.Reducer;
+import org.apache.hadoop.mapreduce.lib.output.MultipleOutputs;
 import org.apache.log4j.Logger;
 
 import boa.aggregators.Aggregator;
@@ -35,11 +36,15 @@ import boa.io.EmitValue;
 /**
  * A {@link Reducer} that reduces the outputs for a single {@link EmitKey}.
  * 
+ * Aggregators write each output as its key and value, both {@link Text},
+ * except whole lines (such as from graph aggregators), which are the key
+ * with a {@link org.apache.hadoop.io.NullWritable} value.
+ * 
  * @author anthonyu
  * @author rdyer
  * @author ankuraga
  */
-public abstract class BoaReducer extends Reducer<EmitKey, EmitValue, Text, NullWritable> implements Configurable {
+public abstract class BoaReducer extends Reducer<EmitKey, EmitValue, Text, Writable> implements Configurable {
 	/**
 	 * A {@link Logger} that log entries can be written to.
 	 * 
@@ -55,6 +60,9 @@ public abstract class BoaReducer extends Reducer<EmitKey, EmitValue, Text, NullW
 	private Configuration conf;
 	private boolean robust;
 
+	// for output that is not lines of text, such as binary graphs
+	private MultipleOutputs<Text, Writable> outputs;
+
 	/**
 	 * Construct a {@link BoaReducer}.
 	 */
@@ -75,6 +83,22 @@ public abstract class BoaReducer extends Reducer<EmitKey, EmitValue, Text, NullW
 		this.robust = conf.getBoolean("boa.runtime.robust", false);
 	}
 
+	/** {@inheritDoc} */
+	@Override
+	protected void setup(final Context context) throws IOException, InterruptedException {
+		super.setup(context);
+
+		this.outputs = new MultipleOutputs<Text, Writable>(context);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	protected void cleanup(final Context context) throws IOException, InterruptedException {
+		this.outputs.close();
+
+		super.cleanup(context);
+	}
+
 	/** {@inheritDoc} */
 	@Override
 	protected void reduce(final EmitKey key, final Iterable<EmitValue> values, final Context context) throws IOException, InterruptedException {
@@ -84,6 +108,7 @@ public abstract class BoaReducer extends Reducer<EmitKey, EmitValue, Text, NullW
 		a.setCombining(false);
 		a.start(key);
 		a.setContext(context);
+		a.setOutputs(this.outputs);
 
 		for (final EmitValue value : values)
 			try {
@@ -93,9 +118,13 @@ public abstract class BoaReducer extends Reducer<EmitKey, EmitValue, Text, NullW
 				}
 				for (final String s : value.getData())
 					a.aggregate(s, value.getMetadata());
+
+				// the rest of the values can not change the result
+				if (a.isSaturated())
+					break;
 			} catch (final FinishedException e) {
 				// we are done
-				return;
+				break;
 			} catch (final Throwable e) {
 				throw new RuntimeException(e);
 			}
@@ -30,14 +30,17 @@ import org.apache.hadoop.conf.Configured;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.io.compress.CompressionCodec;
 import org.apache.hadoop.io.compress.SnappyCodec;
-import org.apache.hadoop.io.NullWritable;
+import org.apache.hadoop.io.BytesWritable;
 import org.apache.hadoop.io.Text;
 import org.apache.hadoop.mapreduce.Job;
 import org.apache.hadoop.mapreduce.lib.input.FileInputFormat;
 import org.apache.hadoop.mapreduce.lib.output.FileOutputFormat;
+import org.apache.hadoop.mapreduce.lib.output.MultipleOutputs;
+import org.apache.hadoop.mapreduce.lib.output.SequenceFileOutputFormat;
 import org.apache.hadoop.mapreduce.Mapper;
 import org.apache.hadoop.util.Tool;
 
+import boa.aggregators.GraphBinaryAggregator;
 import boa.io.BoaOutputFormat;
 import boa.io.EmitKey;
 import boa.io.EmitValue;
@@ -88,6 +91,9 @@ public abstract class BoaRunner extends Configured implements Tool {
 		configuration.setBoolean("mapred.reduce.tasks.speculative.execution", false);
 		configuration.setLong("mapred.job.reuse.jvm.num.tasks", -1);
 
+		// aggregators output their keys and values apart, but as text they stay one line
+		configuration.set("mapred.textoutputformat.separator", " = ");
+
 		final Job job = new Job(configuration);
 
 		if (ins != null)
@@ -102,7 +108,11 @@ public abstract class BoaRunner extends Configured implements Tool {
 
 		job.setOutputFormatClass(BoaOutputFormat.class);
 		job.setOutputKeyClass(Text.class);
-		job.setOutputValueClass(NullWritable.class);
+		job.setOutputValueClass(Text.class);
+
+		// binary graphs are kept out of the text output
+		MultipleOutputs.addNamedOutput(job, GraphBinaryAggregator.OUTPUT, SequenceFileOutputFormat.class, Text.class, BytesWritable.class);
+		MultipleOutputs.addNamedOutput(job, GraphBinaryAggregator.NAMES, SequenceFileOutputFormat.class, Text.class, BytesWritable.class);
 
 		return job;
 	}
@@ -113,6 +123,7 @@ public abstract class BoaRunner extends Configured implements Tool {
 		options.addOption("p", "profile", false, "if true, profiles the execution of 1 map task");
 		options.addOption("r", "robust", false, "if true, logs non-IO exceptions and continues");
 		options.addOption("b", "block", false, "if true, wait for job to finish and show status");
+		options.addOption("s", "sorted", false, "if true, stores the output sorted by table and index, with an index file");
 		options.addOption(OptionBuilder.withLongOpt("job")
 										.withDescription("sets the MySql ID to update with this job's status")
 										.hasArg()
@@ -34,6 +34,7 @@ public class BoaFunction extends BoaType {
 	private BoaType[] formalParameters;
 	private String name;
 	private String macro;
+	private boolean pure;
 
 	/**
 	 * Construct a BoaFunction.
@@ -239,6 +240,21 @@ public class BoaFunction extends BoaType {
 		this.macro = macro;
 	}
 
+	/**
+	 * Returns whether this function is free of side effects, in which case
+	 * calls whose results are never used may be removed.
+	 * 
+	 * @return True iff this function has no side effects
+	 * 
+	 */
+	public boolean isPure() {
+		return this.pure;
+	}
+
+	public void setPure(final boolean pure) {
+		this.pure = pure;
+	}
+
 	/** {@inheritDoc} */
 	@Override
 	public String toJavaType() {
@@ -21,10 +21,12 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import boa.types.BoaInt;
 import boa.types.BoaProtoTuple;
 import boa.types.BoaString;
 import boa.types.BoaSet;
 import boa.types.BoaType;
+import boa.types.proto.enums.CFGEdgeLabelProtoMap;
 import boa.types.proto.enums.ChangeKindProtoMap;
 import boa.types.proto.enums.FileKindProtoMap;
 import boa.types.BoaProtoList;
@@ -46,6 +48,15 @@ public class CFGProtoTuple extends BoaProtoTuple {
 		names.put("edges", counter++);
 		members.add(new BoaProtoList(new CFGEdgeProtoTuple()));
 
+		names.put("successor_offsets", counter++);
+		members.add(new BoaProtoList(new BoaInt()));
+
+		names.put("successors", counter++);
+		members.add(new BoaProtoList(new BoaInt()));
+
+		names.put("successor_labels", counter++);
+		members.add(new BoaProtoList(new CFGEdgeLabelProtoMap()));
+
 	}
 
 	/**
@@ -0,0 +1,247 @@
+/*
+ * Copyright 2015, Hridesh Rajan, Robert Dyer,
+ *                 and Iowa State University of Science and Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package boa.test.aggregators;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.BytesWritable;
+import org.apache.hadoop.io.DataInputBuffer;
+import org.apache.hadoop.io.NullWritable;
+import org.apache.hadoop.io.SequenceFile;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapred.RawKeyValueIterator;
+import org.apache.hadoop.mapreduce.Job;
+import org.apache.hadoop.mapreduce.RecordWriter;
+import org.apache.hadoop.mapreduce.Reducer;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.TaskAttemptID;
+import org.apache.hadoop.mapreduce.lib.output.FileOutputFormat;
+import org.apache.hadoop.mapreduce.lib.output.MultipleOutputs;
+import org.apache.hadoop.mapreduce.lib.output.SequenceFileOutputFormat;
+import org.apache.hadoop.util.Progress;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import boa.aggregators.Aggregator;
+import boa.aggregators.GraphAggregator;
+import boa.aggregators.GraphBinaryAggregator;
+import boa.aggregators.GraphCSVAggregator;
+import boa.aggregators.GraphvizAggregator;
+import boa.io.EmitKey;
+import boa.io.EmitValue;
+
+/**
+ * Checks the lines and edges written by the {@link GraphAggregator}s.
+ *
+ * @author agent
+ */
+public class TestGraphAggregators {
+	private File dir;
+	private Configuration conf;
+	private final List<String> lines = new ArrayList<String>();
+
+	@Before
+	public void createDir() throws IOException {
+		dir = new File(System.getProperty("java.io.tmpdir"), "boa-graphs-" + System.nanoTime());
+
+		final Job job = new Job(new Configuration());
+		FileOutputFormat.setOutputPath(job, new Path(dir.getPath()));
+		MultipleOutputs.addNamedOutput(job, GraphBinaryAggregator.OUTPUT, SequenceFileOutputFormat.class, Text.class, BytesWritable.class);
+		MultipleOutputs.addNamedOutput(job, GraphBinaryAggregator.NAMES, SequenceFileOutputFormat.class, Text.class, BytesWritable.class);
+		conf = job.getConfiguration();
+	}
+
+	@After
+	public void deleteDir() throws IOException {
+		FileSystem.getLocal(conf).delete(new Path(dir.getPath()), true);
+	}
+
+	@Test
+	public void csvNamesEachNeighborOnce() throws Exception {
+		final Aggregator a = aggregator(new GraphCSVAggregator());
+		add(a, "a", "b", "c", "b", "\"d\"");
+
+		assertEquals(Arrays.asList("\"a\",\"b\",\"c\",\"d\""), lines);
+	}
+
+	@Test
+	public void graphvizKeepsLastWeight() throws Exception {
+		final Aggregator a = aggregator(new GraphvizAggregator());
+		a.start(new EmitKey("[a]", "g", 0));
+		a.aggregate("b", "1");
+		a.aggregate("c");
+		a.aggregate("b", "2");
+		a.finish();
+
+		assertEquals(Arrays.asList("\"a\" -> \"b\" [label=\"2\"];", "\"a\" -> \"c\";"), lines);
+	}
+
+	@Test
+	public void keysDoNotShareNeighbors() throws Exception {
+		final Aggregator a = aggregator(new GraphCSVAggregator());
+		add(a, "a", names(0, 100));
+		add(a, "b", names(90, 110));
+		add(a, "c", names(0, 5000));
+		add(a, "d", "n1", "n0", "n1");
+
+		assertEquals(4, lines.size());
+		assertEquals("\"a\"," + join(names(0, 100)), lines.get(0));
+		assertEquals("\"b\"," + join(names(90, 110)), lines.get(1));
+		assertEquals("\"c\"," + join(names(0, 5000)), lines.get(2));
+		assertEquals("\"d\",\"n1\",\"n0\"", lines.get(3));
+	}
+
+	@Test(timeout = 10000)
+	public void manyKeysWithFewNeighbors() throws Exception {
+		final Aggregator a = aggregator(new GraphCSVAggregator());
+		for (int i = 0; i < 1000; i++)
+			add(a, "k" + i, names(i * 10, i * 10 + 10));
+
+		assertEquals(1000, lines.size());
+		assertEquals("\"k999\"," + join(names(9990, 10000)), lines.get(999));
+	}
+
+	@Test
+	public void binaryEdgesAndNames() throws Exception {
+		final Aggregator a = aggregator(new GraphBinaryAggregator());
+		a.start(new EmitKey("[a]", "g", 0));
+		a.aggregate("b", "2");
+		a.aggregate("c");
+		a.finish();
+		a.start(new EmitKey("[b]", "g", 0));
+		a.aggregate("a", "x");
+		a.finish();
+		a.getOutputs().close();
+
+		assertTrue(lines.isEmpty());
+
+		final Map<String, Long> ids = new HashMap<String, Long>();
+		for (final byte[] b : read(GraphBinaryAggregator.NAMES)) {
+			final String name = new String(b, 8, b.length - 8, "UTF-8");
+			assertEquals(null, ids.put(name, ByteBuffer.wrap(b).getLong()));
+		}
+		assertEquals(3, ids.size());
+
+		final List<String> edges = new ArrayList<String>();
+		final Map<Long, String> names = new HashMap<Long, String>();
+		for (final Map.Entry<String, Long> e : ids.entrySet())
+			names.put(e.getValue(), e.getKey());
+		for (final byte[] b : read(GraphBinaryAggregator.OUTPUT)) {
+			final ByteBuffer edge = ByteBuffer.wrap(b);
+			assertEquals(24, b.length);
+			edges.add(names.get(edge.getLong()) + " " + names.get(edge.getLong()) + " " + edge.getDouble());
+		}
+		assertEquals(Arrays.asList("\"a\" \"b\" 2.0", "\"a\" \"c\" 1.0", "\"b\" \"a\" NaN"), edges);
+	}
+
+	private static void add(final Aggregator a, final String node, final String... neighbors) throws Exception {
+		a.start(new EmitKey("[" + node + "]", "g", 0));
+		for (final String neighbor : neighbors)
+			a.aggregate(neighbor);
+		a.finish();
+	}
+
+	private static String[] names(final int from, final int to) {
+		final String[] names = new String[to - from];
+		for (int i = from; i < to; i++)
+			names[i - from] = "n" + i;
+		return names;
+	}
+
+	private static String join(final String[] names) {
+		final StringBuilder sb = new StringBuilder();
+		for (final String name : names) {
+			if (sb.length() > 0)
+				sb.append(",");
+			sb.append("\"").append(name).append("\"");
+		}
+		return sb.toString();
+	}
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private Aggregator aggregator(final Aggregator a) throws Exception {
+		final RecordWriter<Text, Object> writer = new RecordWriter<Text, Object>() {
+			@Override
+			public void write(final Text key, final Object value) {
+				lines.add(value instanceof NullWritable ? key.toString() : key + "\t" + value);
+			}
+
+			@Override
+			public void close(final TaskAttemptContext context) {
+			}
+		};
+		final RawKeyValueIterator input = new RawKeyValueIterator() {
+			public DataInputBuffer getKey() { return null; }
+			public DataInputBuffer getValue() { return null; }
+			public boolean next() { return false; }
+			public void close() { }
+			public Progress getProgress() { return null; }
+		};
+		final Reducer.Context context = new Reducer<EmitKey, EmitValue, Text, Object>().new Context(conf, new TaskAttemptID(),
+				input, null, null, writer, null, null, null, EmitKey.class, EmitValue.class);
+
+		a.setContext(context);
+		a.setOutputs(new MultipleOutputs(context));
+		return a;
+	}
+
+	// the values in every part of a named output
+	private List<byte[]> read(final String output) throws IOException {
+		final FileSystem fs = FileSystem.getLocal(conf);
+		final List<byte[]> values = new ArrayList<byte[]>();
+		for (final File f : find(dir, output + "-")) {
+			final SequenceFile.Reader r = new SequenceFile.Reader(fs, new Path(f.getPath()), conf);
+			try {
+				final Text key = new Text();
+				final BytesWritable value = new BytesWritable();
+				while (r.next(key, value)) {
+					assertEquals("g", key.toString());
+					values.add(Arrays.copyOf(value.getBytes(), value.getLength()));
+				}
+			} finally {
+				r.close();
+			}
+		}
+		return values;
+	}
+
+	private static List<File> find(final File dir, final String prefix) {
+		final List<File> files = new ArrayList<File>();
+		final File[] children = dir.listFiles();
+		if (children != null)
+			for (final File f : children)
+				if (f.isDirectory())
+					files.addAll(find(f, prefix));
+				else if (f.getName().startsWith(prefix))
+					files.add(f);
+		return files;
+	}
+}
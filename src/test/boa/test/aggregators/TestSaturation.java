@@ -0,0 +1,206 @@
+/*
+ * Copyright 2015, Hridesh Rajan, Robert Dyer,
+ *                 and Iowa State University of Science and Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package boa.test.aggregators;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.BytesWritable;
+import org.apache.hadoop.io.DataInputBuffer;
+import org.apache.hadoop.io.DataOutputBuffer;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapred.RawKeyValueIterator;
+import org.apache.hadoop.mapreduce.Mapper;
+import org.apache.hadoop.mapreduce.RecordWriter;
+import org.apache.hadoop.mapreduce.Reducer;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.TaskAttemptID;
+import org.apache.hadoop.util.Progress;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import boa.aggregators.Aggregator;
+import boa.aggregators.FinishedException;
+import boa.aggregators.IntSumAggregator;
+import boa.aggregators.SetAggregator;
+import boa.io.EmitKey;
+import boa.io.EmitValue;
+import boa.runtime.BoaCombiner;
+import boa.runtime.BoaMapper;
+
+/**
+ * Checks that a saturated aggregator takes no more values, and that the
+ * mapper drops the values of keys a combiner saturated.
+ *
+ * @author agent
+ */
+public class TestSaturation {
+	private static final EmitKey FULL = new EmitKey("[]", "s", 0);
+	private static final EmitKey OTHER = new EmitKey("[]", "t", 1);
+
+	private final Configuration conf = new Configuration();
+	private final List<String> written = new ArrayList<String>();
+
+	@Before
+	@After
+	public void clearSaturated() {
+		BoaCombiner.clearSaturated();
+	}
+
+	@Test
+	public void fullSetIsSaturated() throws Exception {
+		final SetAggregator a = new SetAggregator(2);
+		a.start(FULL);
+		a.aggregate("a");
+		assertFalse(a.isSaturated());
+		a.aggregate("a");
+		assertFalse(a.isSaturated());
+		a.aggregate("b");
+		assertTrue(a.isSaturated());
+
+		try {
+			a.aggregate("c");
+			fail("a full set took another value");
+		} catch (final FinishedException e) {
+			// expected
+		}
+
+		// a new key starts empty
+		a.start(OTHER);
+		assertFalse(a.isSaturated());
+	}
+
+	@Test
+	public void unboundedAggregatorsAreNotSaturated() throws Exception {
+		final Aggregator set = new SetAggregator();
+		final Aggregator sum = new IntSumAggregator();
+		set.start(FULL);
+		sum.start(FULL);
+		for (int i = 0; i < 1000; i++) {
+			set.aggregate("v" + i);
+			sum.aggregate(i);
+		}
+		assertFalse(set.isSaturated());
+		assertFalse(sum.isSaturated());
+	}
+
+	@Test
+	public void combinerStopsAtSaturation() throws Exception {
+		final Combiner combiner = new Combiner(new SetAggregator(2));
+		combiner.combine(FULL, "a", "b", "c", "d");
+		assertEquals("[0::s\ta, 0::s\tb]", new TreeSet<String>(written).toString());
+		assertTrue(BoaCombiner.isSaturated(FULL));
+
+		// values for keys not yet full, and keys with no aggregator, are not
+		written.clear();
+		combiner.combine(new EmitKey("[]", "s", 2), "a");
+		combiner.combine(OTHER, "x", "y", "z");
+		assertEquals(Arrays.asList("2::s\ta", "1::t\tx", "1::t\ty", "1::t\tz"), written);
+		assertFalse(BoaCombiner.isSaturated(new EmitKey("[]", "s", 2)));
+		assertFalse(BoaCombiner.isSaturated(OTHER));
+	}
+
+	@Test
+	public void combinerKeepsCopyOfKey() throws Exception {
+		final EmitKey reused = new EmitKey("[]", "s", 0);
+		new Combiner(new SetAggregator(1)).combine(reused, "a");
+
+		// the framework reads the next key into the same object
+		final DataOutputBuffer out = new DataOutputBuffer();
+		OTHER.write(out);
+		final DataInputBuffer in = new DataInputBuffer();
+		in.reset(out.getData(), out.getLength());
+		reused.readFields(in);
+
+		assertTrue(BoaCombiner.isSaturated(FULL));
+		assertFalse(BoaCombiner.isSaturated(OTHER));
+	}
+
+	@Test
+	public void mapperDropsSaturatedKeys() throws Exception {
+		final Mapper<Text, BytesWritable, EmitKey, EmitValue>.Context context = mapperContext();
+
+		BoaMapper.emit(context, FULL, new EmitValue("a"));
+		new Combiner(new SetAggregator(1)).combine(FULL, "a");
+		written.clear();
+
+		BoaMapper.emit(context, FULL, new EmitValue("b"));
+		BoaMapper.emit(context, OTHER, new EmitValue("c"));
+		BoaMapper.emit(context, new EmitKey("[]", "s", 0), new EmitValue("d"));
+		BoaMapper.emit(context, new EmitKey("[x]", "s", 0), new EmitValue("e"));
+		assertEquals(Arrays.asList("1::t\tc", "0::s\te"), written);
+
+		// a new task forgets them
+		BoaCombiner.clearSaturated();
+		BoaMapper.emit(context, FULL, new EmitValue("f"));
+		assertEquals(Arrays.asList("1::t\tc", "0::s\te", "0::s\tf"), written);
+	}
+
+	/**
+	 * A combiner for one aggregator, whose values are written to
+	 * {@link TestSaturation#written}.
+	 */
+	private class Combiner extends BoaCombiner {
+		Combiner(final Aggregator a) {
+			this.aggregators.put(FULL.getKey(), a);
+			this.aggregators.put(new EmitKey("[]", "s", 2).getKey(), a);
+			setConf(conf);
+		}
+
+		@SuppressWarnings({ "rawtypes", "unchecked" })
+		void combine(final EmitKey key, final String... values) throws Exception {
+			final List<EmitValue> list = new ArrayList<EmitValue>();
+			for (final String v : values)
+				list.add(new EmitValue(v));
+			final RawKeyValueIterator input = new RawKeyValueIterator() {
+				public DataInputBuffer getKey() { return null; }
+				public DataInputBuffer getValue() { return null; }
+				public boolean next() { return false; }
+				public void close() { }
+				public Progress getProgress() { return null; }
+			};
+			reduce(key, list, new Reducer.Context(conf, new TaskAttemptID(), input, null, null, writer(), null, null, null, EmitKey.class, EmitValue.class));
+		}
+	}
+
+	private Mapper<Text, BytesWritable, EmitKey, EmitValue>.Context mapperContext() throws Exception {
+		return new Mapper<Text, BytesWritable, EmitKey, EmitValue>().new Context(conf, new TaskAttemptID(), null, writer(), null, null, null);
+	}
+
+	private RecordWriter<EmitKey, EmitValue> writer() {
+		return new RecordWriter<EmitKey, EmitValue>() {
+			@Override
+			public void write(final EmitKey key, final EmitValue value) {
+				written.add(key.getKey() + "\t" + value.getData()[0]);
+			}
+
+			@Override
+			public void close(final TaskAttemptContext context) {
+			}
+		};
+	}
+}
@@ -55,10 +55,13 @@ import org.stringtemplate.v4.ST;
 
 import boa.compiler.SymbolTable;
 import boa.compiler.ast.Start;
+import boa.compiler.transforms.DeadCodeEliminationTransformer;
 import boa.compiler.transforms.LocalAggregationTransformer;
 import boa.compiler.transforms.VisitorOptimizingTransformer;
 import boa.compiler.visitors.AbstractCodeGeneratingVisitor;
 import boa.compiler.visitors.CodeGeneratingVisitor;
+import boa.compiler.visitors.ColumnFindingVisitor;
+import boa.compiler.visitors.TaskClassifyingVisitor;
 import boa.compiler.visitors.TypeCheckingVisitor;
 
 import boa.parser.BoaLexer;
@@ -236,6 +239,10 @@ public abstract class BaseTest {
 	}
 
 	protected void codegen(final String input, final String error) throws IOException {
+		codegen(input, error, false);
+	}
+
+	protected void codegen(final String input, final String error, final boolean eliminateDeadCode) throws IOException {
 		final Start p = parse(input).ast;
 
 		final File outputRoot = new File(new File(System.getProperty("java.io.tmpdir")), UUID.randomUUID().toString());
@@ -244,14 +251,17 @@ public abstract class BaseTest {
 			throw new IOException("unable to mkdir " + outputSrcDir);
 		final File outputFile = new File(outputSrcDir, "Test.java");
 
-		CodeGeneratingVisitor.combineAggregatorStrings.clear();
-		CodeGeneratingVisitor.reduceAggregatorStrings.clear();
-
 		final List<String> jobnames = new ArrayList<String>();
 		final List<String> jobs = new ArrayList<String>();
 
 		try {
 			new TypeCheckingVisitor().start(p, new SymbolTable());
+			if (eliminateDeadCode)
+				new DeadCodeEliminationTransformer().start(p);
+			final TaskClassifyingVisitor simpleVisitor = new TaskClassifyingVisitor();
+			simpleVisitor.start(p);
+			final ColumnFindingVisitor columnFinder = new ColumnFindingVisitor();
+			columnFinder.start(p);
 			new LocalAggregationTransformer().start(p);
 			new VisitorOptimizingTransformer().start(p);
 
@@ -266,9 +276,15 @@ public abstract class BaseTest {
 			st.add("numreducers", 1);
 			st.add("jobs", jobs);
 			st.add("jobnames", jobnames);
-			st.add("combineTables", CodeGeneratingVisitor.combineAggregatorStrings);
-			st.add("reduceTables", CodeGeneratingVisitor.reduceAggregatorStrings);
+			st.add("combineTables", cg.getCombineAggregatorStrings());
+			st.add("reduceTables", cg.getReduceAggregatorStrings());
 			st.add("splitsize", 64 * 1024 * 1024);
+			if (!simpleVisitor.isComplex() && columnFinder.isMetadataOnly()) {
+				final StringBuilder columns = new StringBuilder("Project.id");
+				for (final String column : columnFinder.getColumns())
+					columns.append(",").append(column);
+				st.add("columns", columns.toString());
+			}
 
 			final BufferedOutputStream o = new BufferedOutputStream(new FileOutputStream(outputFile));
 			try {
@@ -19,8 +19,12 @@ package boa.test.compiler;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
+import org.junit.Assume;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
@@ -33,6 +37,13 @@ import org.junit.runners.Parameterized.Parameters;
 public class TestCodegenGood extends BaseTest {
 	final private static String rootDir = "test/codegen/";
 
+	// files whose generated code does not compile even without dead code elimination
+	final private static Set<String> knownBadCodegen = new HashSet<String>(Arrays.asList(
+		rootDir + "curry.boa",
+		rootDir + "map-protobuf-key.boa",
+		rootDir + "quantified-func-call.boa"
+	));
+
 	@Parameters(name = "{0}")
 	public static List<String[]> data() {
 		final List<String[]> files = new ArrayList<String[]>();
@@ -53,4 +64,11 @@ public class TestCodegenGood extends BaseTest {
 	public void knownGood() throws IOException {
 		codegen(load(fileName));
 	}
+
+	// and again, with dead code removed first
+	@Test
+	public void knownGoodDeadCodeEliminated() throws IOException {
+		Assume.assumeFalse(knownBadCodegen.contains(fileName));
+		codegen(load(fileName), null, true);
+	}
 }
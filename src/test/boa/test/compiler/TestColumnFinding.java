@@ -0,0 +1,128 @@
+/*
+ * Copyright 2015, Hridesh Rajan, Robert Dyer,
+ *                 and Iowa State University of Science and Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package boa.test.compiler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+import boa.compiler.SymbolTable;
+import boa.compiler.ast.Start;
+import boa.compiler.visitors.ColumnFindingVisitor;
+import boa.compiler.visitors.TypeCheckingVisitor;
+
+/**
+ * Checks which programs {@link ColumnFindingVisitor} lets run on the
+ * columnar copy of the project metadata, and which fields it finds.
+ *
+ * @author agent
+ */
+public class TestColumnFinding extends BaseTest {
+	private ColumnFindingVisitor find(final String input) throws IOException {
+		final Start p = parse(input).ast;
+		new TypeCheckingVisitor().start(p, new SymbolTable());
+
+		final ColumnFindingVisitor v = new ColumnFindingVisitor();
+		v.start(p);
+		return v;
+	}
+
+	private static void assertColumns(final ColumnFindingVisitor v, final String... columns) {
+		assertEquals(new TreeSet<String>(Arrays.asList(columns)), v.getColumns());
+		assertTrue(v.isMetadataOnly());
+	}
+
+	@Test
+	public void projectFields() throws IOException {
+		assertColumns(find("o: output sum[string] of int;\n"
+				+ "p: Project = input;\n"
+				+ "foreach (i: int; def(p.programming_languages[i]))\n"
+				+ "\to[p.programming_languages[i]] << len(p.code_repositories);\n"),
+				"Project.programming_languages", "Project.code_repositories");
+	}
+
+	@Test
+	public void visitedRevisions() throws IOException {
+		assertColumns(find("o: output sum[string] of int;\n"
+				+ "visit(input, visitor {\n"
+				+ "\tbefore r: Revision -> o[r.author.username] << 1;\n"
+				+ "});\n"),
+				"Project.code_repositories", "CodeRepository.revisions", "Revision.author");
+	}
+
+	@Test
+	public void builtinsReadingKnownFields() throws IOException {
+		assertColumns(find("o: output sum of int;\n"
+				+ "visit(input, visitor {\n"
+				+ "\tbefore r: Revision -> if (isfixingrevision(r)) o << 1;\n"
+				+ "});\n"),
+				"Project.code_repositories", "CodeRepository.revisions", "Revision.log");
+	}
+
+	@Test
+	public void fieldNotInCopy() throws IOException {
+		assertFalse(find("o: output sum of int;\n"
+				+ "p: Project = input;\n"
+				+ "o << len(p.developers);\n").isMetadataOnly());
+	}
+
+	@Test
+	public void visitBelowFile() throws IOException {
+		assertFalse(find("o: output sum of int;\n"
+				+ "visit(input, visitor {\n"
+				+ "\tbefore f: ChangedFile -> o << len(getast(f).namespaces);\n"
+				+ "});\n").isMetadataOnly());
+		assertFalse(find("o: output sum of int;\n"
+				+ "visit(input, visitor {\n"
+				+ "\tbefore d: Declaration -> o << 1;\n"
+				+ "});\n").isMetadataOnly());
+	}
+
+	@Test
+	public void wildcardVisit() throws IOException {
+		assertFalse(find("o: output sum of int;\n"
+				+ "visit(input, visitor {\n"
+				+ "\tbefore _ -> o << 1;\n"
+				+ "});\n").isMetadataOnly());
+	}
+
+	@Test
+	public void wholeValueCompared() throws IOException {
+		assertFalse(find("o: output sum of int;\n"
+				+ "last: Revision;\n"
+				+ "visit(input, visitor {\n"
+				+ "\tbefore r: Revision -> {\n"
+				+ "\t\tif (def(last) && last == r) o << 1;\n"
+				+ "\t\tlast = r;\n"
+				+ "\t}\n"
+				+ "});\n").isMetadataOnly());
+	}
+
+	@Test
+	public void wholeValuePassedToBuiltin() throws IOException {
+		assertFalse(find("o: output collection of string;\n"
+				+ "visit(input, visitor {\n"
+				+ "\tbefore r: Revision -> o << string(r);\n"
+				+ "});\n").isMetadataOnly());
+	}
+}
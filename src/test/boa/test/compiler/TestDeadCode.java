@@ -0,0 +1,163 @@
+/*
+ * Copyright 2015, Hridesh Rajan, Robert Dyer,
+ *                 and Iowa State University of Science and Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package boa.test.compiler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import boa.compiler.SymbolTable;
+import boa.compiler.ast.Call;
+import boa.compiler.ast.Factor;
+import boa.compiler.ast.Identifier;
+import boa.compiler.ast.Start;
+import boa.compiler.ast.literals.IntegerLiteral;
+import boa.compiler.ast.statements.AssignmentStatement;
+import boa.compiler.ast.statements.IfStatement;
+import boa.compiler.ast.statements.VarDeclStatement;
+import boa.compiler.transforms.DeadCodeEliminationTransformer;
+import boa.compiler.visitors.AbstractVisitorNoArg;
+import boa.compiler.visitors.TypeCheckingVisitor;
+
+/**
+ * Checks what {@link DeadCodeEliminationTransformer} removes and keeps.
+ * 
+ * @author agent
+ */
+public class TestDeadCode extends BaseTest {
+	final private static String fileName = "test/codegen/dead-code.boa";
+	final private static String impureCallFileName = "test/codegen/dead-code-impure-call.boa";
+
+	/**
+	 * Records the statements left in a program.
+	 */
+	private static class StatementFindingVisitor extends AbstractVisitorNoArg {
+		final List<String> decls = new ArrayList<String>();
+		final List<String> stores = new ArrayList<String>();
+		final List<String> literals = new ArrayList<String>();
+		final List<String> calls = new ArrayList<String>();
+		int ifs = 0;
+
+		@Override
+		public void visit(final VarDeclStatement n) {
+			decls.add(n.getId().getToken());
+			super.visit(n);
+		}
+
+		@Override
+		public void visit(final AssignmentStatement n) {
+			final Factor lhs = n.getLhs();
+			if (lhs.getOpsSize() == 0 && lhs.getOperand() instanceof Identifier)
+				stores.add(((Identifier) lhs.getOperand()).getToken());
+			super.visit(n);
+		}
+
+		@Override
+		public void visit(final IntegerLiteral n) {
+			literals.add(n.getLiteral());
+		}
+
+		@Override
+		public void visit(final IfStatement n) {
+			ifs++;
+			super.visit(n);
+		}
+
+		@Override
+		public void visit(final Factor n) {
+			if (n.getOpsSize() > 0 && n.getOp(0) instanceof Call && n.getOperand() instanceof Identifier)
+				calls.add(((Identifier) n.getOperand()).getToken());
+			super.visit(n);
+		}
+	}
+
+	private StatementFindingVisitor eliminate(final String input) throws IOException {
+		final Start p = parse(input).ast;
+		new TypeCheckingVisitor().start(p, new SymbolTable());
+		new DeadCodeEliminationTransformer().start(p);
+
+		final StatementFindingVisitor v = new StatementFindingVisitor();
+		v.start(p);
+		return v;
+	}
+
+	@Test
+	public void unusedCodeIsRemoved() throws IOException {
+		final StatementFindingVisitor v = eliminate(load(fileName));
+
+		// never read, and nothing assigned to them has side effects
+		assertFalse(v.decls.contains("name"));
+		assertFalse(v.decls.contains("overwritten"));
+		assertFalse(v.stores.contains("overwritten"));
+		assertFalse(v.decls.contains("ast"));
+
+		// never emitted to
+		assertFalse(v.decls.contains("unused"));
+		assertTrue(v.decls.contains("counts"));
+
+		// both ifs are decided, and the discarded calls are pure
+		assertEquals(0, v.ifs);
+		assertFalse(v.calls.contains("getast"));
+		assertFalse(v.calls.contains("getsnapshot"));
+		assertFalse(v.literals.contains("100"));
+	}
+
+	@Test
+	public void usedCodeIsKept() throws IOException {
+		final StatementFindingVisitor v = eliminate(load(fileName));
+
+		assertTrue(v.decls.contains("size"));
+		assertTrue(v.decls.contains("next"));
+
+		// 2 * 3 + 4 is folded
+		assertTrue(v.literals.contains("10"));
+		assertFalse(v.literals.contains("2"));
+	}
+
+	@Test
+	public void impureReassignmentKeepsDeclaration() throws IOException {
+		final StatementFindingVisitor v = eliminate(load(fileName));
+
+		// the call may have side effects, so the assignment stays, and so must the variable
+		assertTrue(v.stores.contains("reassigned"));
+		assertTrue(v.calls.contains("next"));
+		assertTrue(v.decls.contains("reassigned"));
+	}
+
+	@Test
+	public void callChangingArgumentIsKept() throws IOException {
+		final StatementFindingVisitor v = eliminate(load(impureCallFileName));
+
+		// the results are not used, but the maps passed in are
+		assertTrue(v.calls.contains("collect_annotations"));
+		assertTrue(v.calls.contains("collect_generic_types"));
+		assertTrue(v.decls.contains("annotations"));
+		assertTrue(v.decls.contains("generics"));
+	}
+
+	@Test
+	public void eliminatedCodeCompiles() throws IOException {
+		codegen(load(fileName), null, true);
+		codegen(load(impureCallFileName), null, true);
+	}
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2015, Hridesh Rajan, Robert Dyer,
+ *                 and Iowa State University of Science and Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package boa.test.compiler;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import boa.compiler.FunctionTrie;
+import boa.types.BoaAny;
+import boa.types.BoaFloat;
+import boa.types.BoaFunction;
+import boa.types.BoaInt;
+import boa.types.BoaName;
+import boa.types.BoaString;
+import boa.types.BoaType;
+import boa.types.BoaVarargs;
+
+/**
+ * Checks how {@link FunctionTrie} resolves overloaded functions.
+ *
+ * @author agent
+ */
+public class TestFunctionTrie {
+	private static final BoaType INT = new BoaInt();
+	private static final BoaType FLOAT = new BoaFloat();
+	private static final BoaType STRING = new BoaString();
+
+	@Test
+	public void exactMatch() {
+		final FunctionTrie trie = new FunctionTrie();
+		final BoaFunction fInt = add(trie, "f", INT);
+		final BoaFunction fFloat = add(trie, "f", FLOAT);
+		final BoaFunction fIntString = add(trie, "f", INT, STRING);
+
+		assertSame(fInt, get(trie, "f", INT));
+		assertSame(fFloat, get(trie, "f", FLOAT));
+		assertSame(fIntString, get(trie, "f", INT, STRING));
+	}
+
+	@Test
+	public void assignableMatch() {
+		final FunctionTrie trie = new FunctionTrie();
+		final BoaFunction fAny = add(trie, "f", new BoaAny());
+		final BoaFunction gFloat = add(trie, "g", FLOAT);
+
+		assertSame(fAny, get(trie, "f", STRING));
+		assertSame(gFloat, get(trie, "g", INT));
+		assertNull(get(trie, "g", STRING));
+	}
+
+	@Test
+	public void exactMatchBeforeAssignable() {
+		final FunctionTrie trie = new FunctionTrie();
+		final BoaFunction fAny = add(trie, "f", new BoaAny(), STRING);
+		final BoaFunction fInt = add(trie, "f", INT, INT);
+
+		assertSame(fInt, get(trie, "f", INT, INT));
+		assertSame(fAny, get(trie, "f", STRING, STRING));
+
+		// an exact match on the first parameter that fails later falls back
+		assertSame(fAny, get(trie, "f", INT, STRING));
+		assertNull(get(trie, "f", STRING, INT));
+	}
+
+	@Test
+	public void namedParameters() {
+		final FunctionTrie trie = new FunctionTrie();
+		final BoaFunction f = new BoaFunction(INT, new BoaType[] { new BoaName(INT, "x") });
+		trie.addFunction("f", f);
+
+		assertSame(f, get(trie, "f", INT));
+	}
+
+	@Test
+	public void fixedBeforeVarargs() {
+		final FunctionTrie trie = new FunctionTrie();
+		final BoaFunction varargs = add(trie, "f", new BoaVarargs(INT));
+		final BoaFunction fixed = add(trie, "f", INT);
+
+		assertSame(fixed, get(trie, "f", INT));
+		assertSame(varargs, get(trie, "f", INT, INT));
+		assertSame(varargs, get(trie, "f", INT, INT, INT));
+		assertNull(get(trie, "f", STRING));
+	}
+
+	@Test
+	public void varargsAfterFixedParameters() {
+		final FunctionTrie trie = new FunctionTrie();
+		final BoaFunction f = add(trie, "f", STRING, new BoaVarargs(INT));
+
+		assertSame(f, get(trie, "f", STRING, INT));
+		assertSame(f, get(trie, "f", STRING, INT, INT));
+		assertNull(get(trie, "f", INT, INT));
+	}
+
+	@Test
+	public void arityMismatch() {
+		final FunctionTrie trie = new FunctionTrie();
+		add(trie, "f", INT);
+		add(trie, "g");
+
+		assertNull(get(trie, "f"));
+		assertNull(get(trie, "f", INT, INT));
+		assertNull(get(trie, "g", INT));
+		assertNull(get(trie, "h", INT));
+	}
+
+	@Test
+	public void memoIsClearedWhenAdding() {
+		final FunctionTrie trie = new FunctionTrie();
+		final BoaFunction fAny = add(trie, "f", new BoaAny());
+
+		assertSame(fAny, get(trie, "f", INT));
+		assertNull(get(trie, "f", INT, INT));
+
+		final BoaFunction fInt = add(trie, "f", INT);
+		final BoaFunction fIntInt = add(trie, "f", INT, INT);
+
+		assertSame(fInt, get(trie, "f", INT));
+		assertSame(fIntInt, get(trie, "f", INT, INT));
+		assertSame(fAny, get(trie, "f", STRING));
+	}
+
+	@Test
+	public void acceptingTypesInOrderAdded() {
+		final FunctionTrie trie = new FunctionTrie();
+		final BoaFunction fAny = add(trie, "f", new BoaAny(), STRING);
+		final BoaFunction fFloat = add(trie, "f", FLOAT, INT);
+
+		// both accept an int first, but only one of them a second string or int
+		assertSame(fAny, get(trie, "f", INT, STRING));
+		assertSame(fFloat, get(trie, "f", INT, INT));
+		assertSame(fAny, get(trie, "f", FLOAT, STRING));
+	}
+
+	@Test
+	public void bucketsFollowNewFunctions() {
+		final FunctionTrie trie = new FunctionTrie();
+		final BoaFunction fAny = add(trie, "f", new BoaAny(), STRING);
+
+		assertSame(fAny, get(trie, "f", INT, STRING));
+		assertNull(get(trie, "f", INT, INT));
+
+		// a float now also accepts the int, as does a later varargs
+		final BoaFunction fFloat = add(trie, "f", FLOAT, INT);
+		assertSame(fFloat, get(trie, "f", INT, INT));
+		assertNull(get(trie, "f", STRING, INT));
+
+		final BoaFunction varargs = add(trie, "f", STRING, new BoaVarargs(INT));
+		assertSame(varargs, get(trie, "f", STRING, INT));
+		assertSame(fAny, get(trie, "f", INT, STRING));
+	}
+
+	@Test
+	public void memoCopiesArguments() {
+		final FunctionTrie trie = new FunctionTrie();
+		final BoaFunction fInt = add(trie, "f", INT);
+		final BoaFunction fString = add(trie, "f", STRING);
+
+		final BoaType[] args = new BoaType[] { INT };
+		assertSame(fInt, trie.getFunction("f", args));
+
+		args[0] = STRING;
+		assertSame(fString, trie.getFunction("f", args));
+		assertSame(fInt, get(trie, "f", INT));
+	}
+
+	private static BoaFunction add(final FunctionTrie trie, final String name, final BoaType... params) {
+		final BoaFunction f = new BoaFunction(INT, params);
+		trie.addFunction(name, f);
+		return f;
+	}
+
+	private static BoaFunction get(final FunctionTrie trie, final String name, final BoaType... args) {
+		return trie.getFunction(name, args);
+	}
+}
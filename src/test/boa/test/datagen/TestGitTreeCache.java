@@ -0,0 +1,241 @@
+/*
+ * Copyright 2015, Hridesh Rajan, Robert Dyer,
+ *                 and Iowa State University of Science and Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package boa.test.datagen;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jgit.diff.DiffEntry;
+import org.eclipse.jgit.diff.DiffFormatter;
+import org.eclipse.jgit.dircache.DirCache;
+import org.eclipse.jgit.dircache.DirCacheBuilder;
+import org.eclipse.jgit.dircache.DirCacheEntry;
+import org.eclipse.jgit.lib.AnyObjectId;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.eclipse.jgit.treewalk.AbstractTreeIterator;
+import org.eclipse.jgit.treewalk.CanonicalTreeParser;
+import org.eclipse.jgit.treewalk.EmptyTreeIterator;
+import org.eclipse.jgit.util.FileUtils;
+import org.eclipse.jgit.util.io.NullOutputStream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks that diffing trees read through the datagen's tree cache gives
+ * what diffing them with jgit's own parser does.
+ *
+ * @author agent
+ */
+public class TestGitTreeCache {
+	private File dir;
+	private Repository repository;
+	private ObjectReader reader;
+
+	// the trees diffed against each other
+	private ObjectId before;
+	private ObjectId after;
+
+	@Before
+	public void createRepository() throws IOException {
+		dir = new File(System.getProperty("java.io.tmpdir"), "boa-trees-" + System.nanoTime());
+		repository = FileRepositoryBuilder.create(dir);
+		repository.create(true);
+		reader = repository.newObjectReader();
+
+		before = tree(
+				"README", FileMode.REGULAR_FILE, "read me",
+				"lib/a.jar", FileMode.REGULAR_FILE, "a",
+				"run.sh", FileMode.REGULAR_FILE, "run",
+				"src/Main.java", FileMode.REGULAR_FILE, "class Main {}",
+				"src/util/Str.java", FileMode.REGULAR_FILE, "class Str { String s; }",
+				"x", FileMode.REGULAR_FILE, "a file, then a directory");
+		after = tree(
+				"README", FileMode.REGULAR_FILE, "read me again",
+				"doc/guide/intro.txt", FileMode.REGULAR_FILE, "intro",
+				"link", FileMode.SYMLINK, "README",
+				"run.sh", FileMode.EXECUTABLE_FILE, "run",
+				"src.txt", FileMode.REGULAR_FILE, "sorts after src/",
+				"src/Main.java", FileMode.REGULAR_FILE, "class Main {}",
+				"src/util/Num.java", FileMode.REGULAR_FILE, "class Num {}",
+				"src/util/Str2.java", FileMode.REGULAR_FILE, "class Str { String s; }",
+				"sub", FileMode.GITLINK, "a commit",
+				"x/y", FileMode.REGULAR_FILE, "a directory");
+	}
+
+	@After
+	public void deleteRepository() throws IOException {
+		reader.close();
+		repository.close();
+		FileUtils.delete(dir, FileUtils.RECURSIVE);
+	}
+
+	@Test
+	public void sameDiffs() throws Exception {
+		final Object cache = cache(1 << 20);
+		for (final boolean renames : new boolean[] { false, true }) {
+			assertSameDiff(cache, before, after, renames);
+			assertSameDiff(cache, after, before, renames);
+			assertSameDiff(cache, before, before, renames);
+		}
+	}
+
+	@Test
+	public void sameDiffsAgainstNothing() throws Exception {
+		final Object cache = cache(1 << 20);
+		final DiffFormatter df = formatter(false);
+		try {
+			final List<String> expected = describe(df.scan(new EmptyTreeIterator(), parser(after)));
+			assertEquals(10, expected.size());
+			assertEquals(expected, describe(df.scan(new EmptyTreeIterator(), iterator(cache, after))));
+			assertEquals(describe(df.scan(parser(after), new EmptyTreeIterator())),
+					describe(df.scan(iterator(cache, after), new EmptyTreeIterator())));
+		} finally {
+			df.close();
+		}
+	}
+
+	@Test
+	public void sameDiffsWhenTreesDoNotFit() throws Exception {
+		// too small for any tree, so each is read every time it is needed
+		assertSameDiff(cache(1), before, after, false);
+
+		// room for a few small trees, so larger ones push them out
+		final Object cache = cache(100);
+		assertSameDiff(cache, before, after, true);
+		assertSameDiff(cache, after, before, true);
+	}
+
+	@Test
+	public void sameEntriesBackAndForth() throws Exception {
+		final AbstractTreeIterator expected = parser(after);
+		final AbstractTreeIterator actual = iterator(cache(1 << 20), after);
+
+		final List<String> entries = new ArrayList<String>();
+		for (; !expected.eof(); expected.next(1), actual.next(1)) {
+			assertEquals(expected.first(), actual.first());
+			entries.add(describe(expected));
+			assertEquals(describe(expected), describe(actual));
+		}
+		assertTrue(actual.eof());
+
+		expected.back(3);
+		actual.back(3);
+		assertEquals(entries.get(entries.size() - 3), describe(actual));
+		assertEquals(describe(expected), describe(actual));
+
+		expected.next(2);
+		actual.next(2);
+		assertEquals(describe(expected), describe(actual));
+
+		actual.reset();
+		assertTrue(actual.first());
+		assertEquals(entries.get(0), describe(actual));
+	}
+
+	private void assertSameDiff(final Object cache, final ObjectId a, final ObjectId b, final boolean renames) throws Exception {
+		final DiffFormatter df = formatter(renames);
+		try {
+			final List<String> expected = describe(df.scan(parser(a), parser(b)));
+			assertEquals(expected, describe(df.scan(iterator(cache, a), iterator(cache, b))));
+			// again, with the trees cached
+			assertEquals(expected, describe(df.scan(iterator(cache, a), iterator(cache, b))));
+		} finally {
+			df.close();
+		}
+	}
+
+	private DiffFormatter formatter(final boolean renames) {
+		final DiffFormatter df = new DiffFormatter(NullOutputStream.INSTANCE);
+		df.setRepository(repository);
+		df.setDetectRenames(renames);
+		return df;
+	}
+
+	private static List<String> describe(final List<DiffEntry> diffs) {
+		final List<String> lines = new ArrayList<String>();
+		for (final DiffEntry d : diffs)
+			lines.add(d.getChangeType() + " " + d.getOldPath() + " " + d.getNewPath()
+					+ " " + d.getOldMode() + " " + d.getNewMode()
+					+ " " + d.getOldId().name() + " " + d.getNewId().name() + " " + d.getScore());
+		return lines;
+	}
+
+	private static String describe(final AbstractTreeIterator i) {
+		return i.getEntryPathString() + " " + i.getEntryFileMode() + " " + i.getEntryObjectId().name();
+	}
+
+	private AbstractTreeIterator parser(final AnyObjectId tree) throws IOException {
+		return new CanonicalTreeParser(null, reader, tree);
+	}
+
+	// the cache is only for the datagen's own package
+	private static Object cache(final long size) throws Exception {
+		final Constructor<?> c = Class.forName("boa.datagen.scm.GitTreeCache").getDeclaredConstructor(long.class);
+		c.setAccessible(true);
+		return c.newInstance(size);
+	}
+
+	private AbstractTreeIterator iterator(final Object cache, final AnyObjectId tree) throws Exception {
+		final Method iterator = cache.getClass().getDeclaredMethod("iterator", ObjectReader.class, AnyObjectId.class);
+		iterator.setAccessible(true);
+		return (AbstractTreeIterator) iterator.invoke(cache, reader, tree);
+	}
+
+	/**
+	 * Writes a tree of triples of paths, modes and contents, where a
+	 * submodule's contents only make up its id.
+	 */
+	private ObjectId tree(final Object... entries) throws IOException {
+		final ObjectInserter inserter = repository.newObjectInserter();
+		try {
+			final DirCache index = DirCache.newInCore();
+			final DirCacheBuilder builder = index.builder();
+			for (int i = 0; i < entries.length; i += 3) {
+				final DirCacheEntry e = new DirCacheEntry((String) entries[i]);
+				final FileMode mode = (FileMode) entries[i + 1];
+				final byte[] contents = Constants.encode((String) entries[i + 2]);
+				e.setFileMode(mode);
+				if (mode == FileMode.GITLINK)
+					e.setObjectId(inserter.idFor(Constants.OBJ_COMMIT, contents));
+				else
+					e.setObjectId(inserter.insert(Constants.OBJ_BLOB, contents));
+				builder.add(e);
+			}
+			builder.finish();
+
+			final ObjectId tree = index.writeTree(inserter);
+			inserter.flush();
+			return tree;
+		} finally {
+			inserter.close();
+		}
+	}
+}
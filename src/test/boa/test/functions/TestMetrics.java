@@ -0,0 +1,143 @@
+/*
+ * Copyright 2015, Hridesh Rajan, Robert Dyer,
+ *                 and Iowa State University of Science and Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package boa.test.functions;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+import boa.functions.BoaMetricIntrinsics;
+import boa.types.Ast.Declaration;
+import boa.types.Ast.Expression;
+import boa.types.Ast.Expression.ExpressionKind;
+import boa.types.Ast.Method;
+import boa.types.Ast.Modifier;
+import boa.types.Ast.Statement;
+import boa.types.Ast.Statement.StatementKind;
+import boa.types.Ast.Type;
+import boa.types.Ast.TypeKind;
+import boa.types.Ast.Variable;
+
+/**
+ * Checks the metrics {@link BoaMetricIntrinsics} finds for small classes.
+ *
+ * @author agent
+ */
+public class TestMetrics {
+	/*
+	 * class C {
+	 *     int a, b;
+	 *     void m1() { a = 1; }
+	 *     void m2() { this.a++; g(); }
+	 *     void m3() { b = 2; m1(); h(); }
+	 *     public void m4() { o.a = 2; }
+	 *     class D { void n() { a = 3; z(); } }
+	 * }
+	 */
+	private static final Declaration C = Declaration.newBuilder().setName("C").setKind(TypeKind.CLASS)
+			.addFields(field("a"))
+			.addFields(field("b"))
+			.addMethods(method("m1", false, assign(var("a"))))
+			.addMethods(method("m2", false, op(ExpressionKind.OP_INC, field(literal("this"), "a")), call("g")))
+			.addMethods(method("m3", false, assign(var("b")), call("m1"), call("h")))
+			.addMethods(method("m4", true, assign(field(var("o"), "a"))))
+			.addNestedDeclarations(Declaration.newBuilder().setName("D").setKind(TypeKind.CLASS)
+					.addMethods(method("n", false, assign(var("a")), call("z"))))
+			.build();
+
+	/*
+	 * class E {
+	 *     int a;
+	 *     public int get() { return a; }
+	 *     public void set() { a = 0; }
+	 * }
+	 */
+	private static final Declaration E = Declaration.newBuilder().setName("E").setKind(TypeKind.CLASS)
+			.addFields(field("a"))
+			.addMethods(method("get", true, var("a")))
+			.addMethods(method("set", true, assign(var("a"))))
+			.build();
+
+	@Test
+	public void everyMetric() throws Exception {
+		assertEquals("{lcoo=4, noa=2, noo=5, npm=1, rfc=6}", new TreeMap<String, Long>(BoaMetricIntrinsics.getMetricsMap(C)).toString());
+	}
+
+	@Test
+	public void singleMetrics() throws Exception {
+		assertEquals(2, BoaMetricIntrinsics.getMetricNOA(C));
+		assertEquals(5, BoaMetricIntrinsics.getMetricNOO(C));
+		assertEquals(1, BoaMetricIntrinsics.getMetricNPM(C));
+		assertEquals(4, BoaMetricIntrinsics.getMetricLCOO(C));
+		assertEquals(6, BoaMetricIntrinsics.getMetricRFC(C));
+	}
+
+	@Test
+	public void cohesiveClass() throws Exception {
+		// asking for another class after C must not keep any of C's values
+		assertEquals(4, BoaMetricIntrinsics.getMetricLCOO(C));
+		assertEquals("{lcoo=0, noa=1, noo=2, npm=2, rfc=2}", new TreeMap<String, Long>(BoaMetricIntrinsics.getMetricsMap(E)).toString());
+		assertEquals(6, BoaMetricIntrinsics.getMetricRFC(C));
+	}
+
+	/*
+	 * ASTs
+	 */
+
+	private static Type type() {
+		return Type.newBuilder().setKind(TypeKind.OTHER).setName(0).build();
+	}
+
+	private static Variable field(final String name) {
+		return Variable.newBuilder().setName(name).setVariableType(type()).build();
+	}
+
+	private static Method method(final String name, final boolean isPublic, final Expression... body) {
+		final Method.Builder m = Method.newBuilder().setName(name).setReturnType(type());
+		if (isPublic)
+			m.addModifiers(Modifier.newBuilder().setKind(Modifier.ModifierKind.VISIBILITY).setVisibility(Modifier.Visibility.PUBLIC));
+		for (final Expression e : body)
+			m.addStatements(Statement.newBuilder().setKind(StatementKind.EXPRESSION).setExpression(e));
+		return m.build();
+	}
+
+	private static Expression var(final String name) {
+		return Expression.newBuilder().setKind(ExpressionKind.VARACCESS).setVariable(name).build();
+	}
+
+	private static Expression field(final Expression target, final String name) {
+		return Expression.newBuilder().setKind(ExpressionKind.VARACCESS).setVariable(name).addExpressions(target).build();
+	}
+
+	private static Expression literal(final String value) {
+		return Expression.newBuilder().setKind(ExpressionKind.LITERAL).setLiteral(value).build();
+	}
+
+	private static Expression op(final ExpressionKind kind, final Expression operand) {
+		return Expression.newBuilder().setKind(kind).addExpressions(operand).build();
+	}
+
+	private static Expression assign(final Expression target) {
+		return Expression.newBuilder().setKind(ExpressionKind.ASSIGN).addExpressions(target).addExpressions(literal("1")).build();
+	}
+
+	private static Expression call(final String name) {
+		return Expression.newBuilder().setKind(ExpressionKind.METHODCALL).setMethod(name).build();
+	}
+}
@@ -0,0 +1,327 @@
+/*
+ * Copyright 2015, Hridesh Rajan, Robert Dyer,
+ *                 and Iowa State University of Science and Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package boa.test.graphs;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import boa.graphs.cfg.CFGBuilder;
+import boa.types.Ast.Expression;
+import boa.types.Ast.Expression.ExpressionKind;
+import boa.types.Ast.Method;
+import boa.types.Ast.Statement;
+import boa.types.Ast.Statement.StatementKind;
+import boa.types.Ast.Type;
+import boa.types.Ast.TypeKind;
+import boa.types.Ast.Variable;
+import boa.types.Control.CFGNode;
+
+/**
+ * Checks the graphs {@link CFGBuilder} builds, which are those the
+ * object-based CFG it replaced built.
+ * 
+ * @author agent
+ */
+public class TestCFGBuilder {
+	private final CFGBuilder builder = new CFGBuilder();
+
+	@Test
+	public void empty() {
+		check(Method.newBuilder().setName("m").setReturnType(type()).build());
+	}
+
+	@Test
+	public void sequence() {
+		check(block(stmt(call("a")), stmt(assign("x")), stmt(newObject())),
+			"0 ENTRY -DEFAULT 1",
+			"1 METHOD METHODCALL a -DEFAULT 2",
+			"2 OTHER ASSIGN -DEFAULT 3",
+			"3 METHOD NEW -DEFAULT 4",
+			"4 ENTRY");
+	}
+
+	@Test
+	public void ifElse() {
+		check(block(
+			ifStmt(var("c"), stmt(call("a"))),
+			ifStmt(var("c"), stmt(call("a")), stmt(call("b"))),
+			stmt(call("c"))),
+			"0 ENTRY -DEFAULT 1",
+			"1 OTHER VARACCESS c -DEFAULT 2",
+			"2 CONTROL VARACCESS c -TRUE 3 -DEFAULT 4",
+			"3 METHOD METHODCALL a -DEFAULT 4",
+			"4 OTHER VARACCESS c -DEFAULT 5",
+			"5 CONTROL VARACCESS c -TRUE 6 -FALSE 7",
+			"6 METHOD METHODCALL a -DEFAULT 8",
+			"7 METHOD METHODCALL b -DEFAULT 8",
+			"8 METHOD METHODCALL c -DEFAULT 9",
+			"9 ENTRY");
+	}
+
+	@Test
+	public void nestedIf() {
+		check(block(ifStmt(var("c"), ifStmt(var("d"), stmt(call("a")), stmt(call("b"))), block()), stmt(call("c"))),
+			"0 ENTRY -DEFAULT 1",
+			"1 OTHER VARACCESS c -DEFAULT 2",
+			"2 CONTROL VARACCESS c -TRUE 3",
+			"3 OTHER VARACCESS d -DEFAULT 4",
+			"4 CONTROL VARACCESS d -TRUE 5 -FALSE 6",
+			"5 METHOD METHODCALL a -DEFAULT 7",
+			"6 METHOD METHODCALL b -DEFAULT 7",
+			"7 METHOD METHODCALL c -DEFAULT 8",
+			"8 ENTRY");
+	}
+
+	@Test
+	public void switchCases() {
+		check(block(
+			Statement.newBuilder().setKind(StatementKind.SWITCH).setExpression(var("x"))
+				.addStatements(caseStmt(literal("1")))
+				.addStatements(stmt(call("a")))
+				.addStatements(Statement.newBuilder().setKind(StatementKind.BREAK))
+				.addStatements(caseStmt(literal("2")))
+				.addStatements(stmt(call("b")))
+				.addStatements(caseStmt(literal("3")))
+				.addStatements(stmt(call("c")))
+				.build(),
+			stmt(call("d"))),
+			"0 ENTRY -DEFAULT 1",
+			"1 OTHER VARACCESS x -DEFAULT 2",
+			"2 CONTROL VARACCESS x -NIL 3 -NIL 6 -NIL 8 -DEFAULT 10",
+			"3 OTHER LITERAL 1 -DEFAULT 4",
+			"4 METHOD METHODCALL a -DEFAULT 5",
+			"5 OTHER BREAK",
+			"6 OTHER LITERAL 2 -DEFAULT 7",
+			"7 METHOD METHODCALL b -DEFAULT 10",
+			"8 OTHER LITERAL 3 -DEFAULT 9",
+			"9 METHOD METHODCALL c -DEFAULT 10",
+			"10 METHOD METHODCALL d -DEFAULT 11",
+			"11 ENTRY");
+	}
+
+	@Test
+	public void loops() {
+		check(block(
+			loop(StatementKind.WHILE, var("c"), stmt(call("a"))),
+			loop(StatementKind.DO, var("c"), block(stmt(call("b")), stmt(call("c")))),
+			Statement.newBuilder().setKind(StatementKind.FOR).addInitializations(assign("i")).setExpression(var("c"))
+				.addUpdates(assign("i")).addStatements(stmt(call("d"))).build(),
+			Statement.newBuilder().setKind(StatementKind.FOR).setExpression(var("c"))
+				.setVariableDeclaration(Variable.newBuilder().setName("e").setVariableType(type()).setInitializer(var("l")))
+				.addStatements(block(stmt(call("e")), Statement.newBuilder().setKind(StatementKind.CONTINUE).build())).build(),
+			stmt(call("f"))),
+			"0 ENTRY -DEFAULT 1",
+			"1 OTHER VARACCESS c -DEFAULT 2",
+			"2 CONTROL VARACCESS c -TRUE 3 -DEFAULT 4",
+			"3 METHOD METHODCALL a -BACKEDGE 2 -DEFAULT 4",
+			"4 OTHER VARACCESS c -DEFAULT 5",
+			"5 CONTROL VARACCESS c -TRUE 6 -DEFAULT 8",
+			"6 METHOD METHODCALL b -DEFAULT 7",
+			"7 METHOD METHODCALL c -BACKEDGE 5 -DEFAULT 8",
+			"8 OTHER ASSIGN -DEFAULT 9",
+			"9 OTHER VARACCESS c -DEFAULT 10",
+			"10 CONTROL VARACCESS c -TRUE 11 -DEFAULT 12",
+			"11 METHOD METHODCALL d -BACKEDGE 10 -DEFAULT 12",
+			"12 OTHER VARACCESS l -DEFAULT 13",
+			"13 OTHER VARACCESS c -DEFAULT 14",
+			"14 CONTROL VARACCESS c -TRUE 15 -DEFAULT 17",
+			"15 METHOD METHODCALL e -DEFAULT 16",
+			"16 OTHER CONTINUE",
+			"17 METHOD METHODCALL f -DEFAULT 18",
+			"18 ENTRY");
+	}
+
+	@Test
+	public void tryCatch() {
+		check(block(
+			Statement.newBuilder().setKind(StatementKind.TRY)
+				.addStatements(block(stmt(call("a")), stmt(call("b"))))
+				.addStatements(Statement.newBuilder().setKind(StatementKind.CATCH).addStatements(stmt(call("c"))))
+				.addStatements(Statement.newBuilder().setKind(StatementKind.CATCH).addStatements(block()))
+				.build(),
+			stmt(call("d"))),
+			"0 ENTRY -DEFAULT 1",
+			"1 CONTROL TRY -TRUE 2 -FALSE 4 -FALSE 6 -TRUE 7",
+			"2 METHOD METHODCALL a -DEFAULT 3",
+			"3 METHOD METHODCALL b -DEFAULT 7",
+			"4 OTHER CATCH -DEFAULT 5",
+			"5 METHOD METHODCALL c -DEFAULT 7",
+			"6 OTHER CATCH -DEFAULT 7",
+			"7 METHOD METHODCALL d -DEFAULT 8",
+			"8 ENTRY");
+	}
+
+	@Test
+	public void returnAndThrow() {
+		check(block(
+			ifStmt(var("c"), Statement.newBuilder().setKind(StatementKind.RETURN).setExpression(var("x")).build()),
+			ifStmt(var("d"), Statement.newBuilder().setKind(StatementKind.THROW).setExpression(newObject()).build(), stmt(call("a"))),
+			Statement.newBuilder().setKind(StatementKind.RETURN).setExpression(literal("0")).build()),
+			"0 ENTRY -DEFAULT 1",
+			"1 OTHER VARACCESS c -DEFAULT 2",
+			"2 CONTROL VARACCESS c -TRUE 3 -DEFAULT 5",
+			"3 OTHER VARACCESS x -DEFAULT 4",
+			"4 OTHER RETURN -DEFAULT 12",
+			"5 OTHER VARACCESS d -DEFAULT 6",
+			"6 CONTROL VARACCESS d -TRUE 7 -FALSE 9",
+			"7 METHOD NEW -DEFAULT 8",
+			"8 OTHER THROW -DEFAULT 12",
+			"9 METHOD METHODCALL a -DEFAULT 10",
+			"10 OTHER LITERAL 0 -DEFAULT 11",
+			"11 OTHER RETURN -DEFAULT 12",
+			"12 ENTRY");
+	}
+
+	@Test
+	public void synchronizedBlock() {
+		check(block(
+			Statement.newBuilder().setKind(StatementKind.SYNCHRONIZED).setExpression(var("lock"))
+				.addStatements(stmt(call("a"))).addStatements(stmt(call("b"))).build(),
+			stmt(call("c"))),
+			"0 ENTRY -DEFAULT 2",
+			"1 OTHER VARACCESS lock -DEFAULT 3",
+			"2 OTHER VARACCESS lock -DEFAULT 1",
+			"3 METHOD METHODCALL a -DEFAULT 4",
+			"4 METHOD METHODCALL b -DEFAULT 5",
+			"5 METHOD METHODCALL c -DEFAULT 6",
+			"6 ENTRY");
+	}
+
+	@Test
+	public void conditional() {
+		check(block(
+			stmt(Expression.newBuilder().setKind(ExpressionKind.CONDITIONAL)
+				.addExpressions(var("c")).addExpressions(call("a")).addExpressions(call("b")).build()),
+			stmt(Expression.newBuilder().setKind(ExpressionKind.CONDITIONAL)
+				.addExpressions(call("a")).addExpressions(literal("1")).build()),
+			stmt(call("c"))),
+			"0 ENTRY -DEFAULT 1",
+			"1 OTHER VARACCESS c -DEFAULT 2",
+			"2 CONTROL CONDITIONAL -TRUE 3 -FALSE 4",
+			"3 OTHER VARACCESS c -DEFAULT 5",
+			"4 METHOD METHODCALL a -DEFAULT 5",
+			"5 CONTROL CONDITIONAL -TRUE 6 -FALSE 7",
+			"6 METHOD METHODCALL a -DEFAULT 8",
+			"7 OTHER LITERAL 1 -DEFAULT 8",
+			"8 METHOD METHODCALL c -DEFAULT 9",
+			"9 ENTRY");
+	}
+
+	@Test
+	public void builderIsReused() {
+		loops();
+		tryCatch();
+		conditional();
+		sequence();
+	}
+
+	/*
+	 * checks
+	 */
+
+	private void check(final Statement body, final String... expected) {
+		check(Method.newBuilder().setName("m").setReturnType(type()).addStatements(body).build(), expected);
+	}
+
+	private void check(final Method method, final String... expected) {
+		final StringBuilder sb = new StringBuilder();
+		for (final String line : expected)
+			sb.append(line).append('\n');
+		assertEquals(sb.toString(), describe(builder.build(method)));
+	}
+
+	/**
+	 * Lists each node with its type and AST, and its out edges with their labels.
+	 */
+	private static String describe(final boa.types.Control.CFG cfg) {
+		final StringBuilder sb = new StringBuilder();
+		for (final CFGNode n : cfg.getNodesList()) {
+			sb.append(n.getId()).append(' ').append(n.getType());
+			if (n.hasStatement())
+				sb.append(' ').append(n.getStatement().getKind());
+			if (n.hasExpression()) {
+				final Expression e = n.getExpression();
+				sb.append(' ').append(e.getKind());
+				if (e.hasMethod())
+					sb.append(' ').append(e.getMethod());
+				if (e.hasVariable())
+					sb.append(' ').append(e.getVariable());
+				if (e.hasLiteral())
+					sb.append(' ').append(e.getLiteral());
+			}
+			for (int i = cfg.getSuccessorOffsets(n.getId()); i < cfg.getSuccessorOffsets(n.getId() + 1); i++)
+				sb.append(" -").append(cfg.getSuccessorLabels(i)).append(' ').append(cfg.getSuccessors(i));
+			sb.append('\n');
+		}
+		return sb.toString();
+	}
+
+	/*
+	 * ASTs
+	 */
+
+	private static Type type() {
+		return Type.newBuilder().setKind(TypeKind.CLASS).setName(0).build();
+	}
+
+	private static Statement block(final Statement... statements) {
+		final Statement.Builder b = Statement.newBuilder().setKind(StatementKind.BLOCK);
+		for (final Statement s : statements)
+			b.addStatements(s);
+		return b.build();
+	}
+
+	private static Statement stmt(final Expression e) {
+		return Statement.newBuilder().setKind(StatementKind.EXPRESSION).setExpression(e).build();
+	}
+
+	private static Statement ifStmt(final Expression cond, final Statement... branches) {
+		final Statement.Builder b = Statement.newBuilder().setKind(StatementKind.IF).setExpression(cond);
+		for (final Statement s : branches)
+			b.addStatements(s);
+		return b.build();
+	}
+
+	private static Statement loop(final StatementKind kind, final Expression cond, final Statement body) {
+		return Statement.newBuilder().setKind(kind).setExpression(cond).addStatements(body).build();
+	}
+
+	private static Statement caseStmt(final Expression e) {
+		return Statement.newBuilder().setKind(StatementKind.CASE).setExpression(e).build();
+	}
+
+	private static Expression call(final String name) {
+		return Expression.newBuilder().setKind(ExpressionKind.METHODCALL).setMethod(name).build();
+	}
+
+	private static Expression newObject() {
+		return Expression.newBuilder().setKind(ExpressionKind.NEW).setNewType(type()).build();
+	}
+
+	private static Expression var(final String name) {
+		return Expression.newBuilder().setKind(ExpressionKind.VARACCESS).setVariable(name).build();
+	}
+
+	private static Expression literal(final String value) {
+		return Expression.newBuilder().setKind(ExpressionKind.LITERAL).setLiteral(value).build();
+	}
+
+	private static Expression assign(final String name) {
+		return Expression.newBuilder().setKind(ExpressionKind.ASSIGN).addExpressions(var(name)).addExpressions(literal("1")).build();
+	}
+}
@@ -0,0 +1,277 @@
+/*
+ * Copyright 2015, Hridesh Rajan, Robert Dyer,
+ *                 and Iowa State University of Science and Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package boa.test.graphs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+import boa.graphs.DataflowAnalysis;
+import boa.graphs.Dominators;
+import boa.graphs.FlowGraph;
+import boa.graphs.LiveVariables;
+import boa.graphs.Loops;
+import boa.graphs.ReachingDefinitions;
+import boa.types.Ast.Expression;
+import boa.types.Ast.Expression.ExpressionKind;
+import boa.types.Ast.Type;
+import boa.types.Ast.TypeKind;
+import boa.types.Ast.Variable;
+import boa.types.Control.CFG;
+import boa.types.Control.CFGEdge.CFGEdgeLabel;
+import boa.types.Control.CFGNode;
+
+/**
+ * Checks the dominators, loops, reaching definitions and live variables
+ * found on small graphs.
+ *
+ * @author agent
+ */
+public class TestDataflow {
+	// 0 -> 1 -> (2 | 3) -> 4 -> 5
+	private static final int[][] DIAMOND = { { 1 }, { 2, 3 }, { 4 }, { 4 }, { 5 }, {} };
+
+	// 1 heads the outer loop, 2 the inner loop of 2, 3 and 4
+	private static final int[][] NESTED = { { 1 }, { 2, 6 }, { 3, 5 }, { 4 }, { 2 }, { 1 }, {} };
+
+	// 1 and 2 form a cycle entered at both, so neither dominates the other
+	private static final int[][] IRREDUCIBLE = { { 1, 2 }, { 2, 3 }, { 1 }, {} };
+
+	// nothing reaches 2, which loops on itself
+	private static final int[][] UNREACHABLE = { { 1 }, { 3 }, { 1, 2 }, {} };
+
+	@Test
+	public void diamondDominators() {
+		final FlowGraph g = graph(DIAMOND);
+		assertEquals("[-1, 0, 1, 1, 1, 4]", idoms(g, false));
+		assertEquals("[1, 4, 4, 4, 5, -1]", idoms(g, true));
+
+		final Dominators d = solve(new Dominators(g, false));
+		assertTrue(d.dominates(1, 4));
+		assertFalse(d.dominates(2, 4));
+		assertTrue(d.dominates(4, 4));
+	}
+
+	@Test
+	public void nestedLoops() {
+		final FlowGraph g = graph(NESTED);
+		assertEquals("[-1, 0, 1, 2, 3, 2, 1]", idoms(g, false));
+
+		final Loops loops = loops(g);
+		assertEquals("[-1, 1, 2, 2, 2, 1, -1]", Arrays.toString(loops.getHeaders()));
+		assertTrue(loops.isHeader(1));
+		assertTrue(loops.isHeader(2));
+		assertFalse(loops.isHeader(3));
+	}
+
+	@Test
+	public void irreducible() {
+		final FlowGraph g = graph(IRREDUCIBLE);
+		assertEquals("[-1, 0, 0, 1]", idoms(g, false));
+
+		// neither edge of the cycle goes back to a node dominating its source
+		assertEquals("[-1, -1, -1, -1]", Arrays.toString(loops(g).getHeaders()));
+	}
+
+	@Test
+	public void unreachable() {
+		final FlowGraph g = graph(UNREACHABLE, null, null, assign("x", literal("1")), call("f", var("x")));
+		assertEquals("[-1, 0, -1, 1]", idoms(g, false));
+		assertEquals("[-1, -1, -1, -1]", Arrays.toString(loops(g).getHeaders()));
+
+		// the definition that can not be reached reaches nothing
+		final ReachingDefinitions r = solve(new ReachingDefinitions(g));
+		assertEquals("{}", r.getIn(3).toString());
+	}
+
+	@Test
+	public void reachingDefinitionsInDiamond() {
+		final FlowGraph g = graph(DIAMOND,
+				null,
+				assign("x", literal("1")),
+				assign("x", literal("2")),
+				assign("y", var("x")),
+				call("f", var("x"), var("y")));
+		final ReachingDefinitions r = solve(new ReachingDefinitions(g));
+
+		assertEquals("{1}", r.getIn(2).toString());
+		assertEquals("{2}", r.getOut(2).toString());
+		assertEquals("{1, 3}", r.getOut(3).toString());
+		assertEquals("{1, 2, 3}", r.getIn(4).toString());
+		assertEquals("{1, 2, 3}", r.getOut(5).toString());
+	}
+
+	@Test
+	public void reachingDefinitionsInLoop() {
+		// i = 0; while (i < n) i++; f(i);
+		final FlowGraph g = graph(new int[][] { { 1 }, { 2 }, { 3, 4 }, { 2 }, { 5 }, {} },
+				null,
+				assign("i", literal("0")),
+				op(ExpressionKind.LT, var("i"), var("n")),
+				op(ExpressionKind.OP_INC, var("i")),
+				call("f", var("i")));
+		final ReachingDefinitions r = solve(new ReachingDefinitions(g));
+
+		assertEquals("{1, 3}", r.getIn(2).toString());
+		assertEquals("{3}", r.getOut(3).toString());
+		assertEquals("{1, 3}", r.getIn(4).toString());
+	}
+
+	@Test
+	public void liveVariablesInLoop() {
+		final FlowGraph g = graph(new int[][] { { 1 }, { 2 }, { 3, 4 }, { 2 }, { 5 }, {} },
+				null,
+				assign("i", literal("0")),
+				op(ExpressionKind.LT, var("i"), var("n")),
+				op(ExpressionKind.OP_INC, var("i")),
+				call("f", var("i")));
+		final LiveVariables l = solve(new LiveVariables(g));
+
+		// going backward, in is the value after a node and out the value before it
+		assertEquals("[n]", names(l, l.getOut(1)));
+		assertEquals("[i, n]", names(l, l.getIn(1)));
+		assertEquals("[i, n]", names(l, l.getIn(3)));
+		assertEquals("[i]", names(l, l.getOut(4)));
+		assertEquals("[]", names(l, l.getIn(4)));
+		assertEquals("[n]", names(l, l.getOut(0)));
+	}
+
+	@Test
+	public void onlyNamesAreVariables() {
+		// int z = w; o.f = z; z += 1; f(z);
+		final Expression field = Expression.newBuilder().setKind(ExpressionKind.VARACCESS).setVariable("f").addExpressions(var("o")).build();
+		final FlowGraph g = graph(new int[][] { { 1 }, { 2 }, { 3 }, { 4 }, { 5 }, {} },
+				null,
+				Expression.newBuilder().setKind(ExpressionKind.VARDECL).addVariableDecls(
+						Variable.newBuilder().setName("z").setVariableType(type()).setInitializer(var("w"))).build(),
+				op(ExpressionKind.ASSIGN, field, var("z")),
+				op(ExpressionKind.ASSIGN_ADD, var("z"), literal("1")),
+				call("f", var("z")));
+
+		final LiveVariables l = solve(new LiveVariables(g));
+		assertEquals("[o, w]", names(l, l.getOut(1)));
+		assertEquals("[o, z]", names(l, l.getOut(2)));
+		assertEquals("[z]", names(l, l.getOut(3)));
+
+		// writing a field defines nothing
+		final ReachingDefinitions r = solve(new ReachingDefinitions(g));
+		assertEquals("{1}", r.getOut(2).toString());
+		assertEquals("{3}", r.getIn(4).toString());
+	}
+
+	@Test
+	public void controlNodesReadNothing() {
+		// the condition is read by the node before the branch
+		final FlowGraph g = graph(DIAMOND, null, var("c"));
+		final CFG cfg = g.getCFG().toBuilder().setNodes(1, node(1, CFGNode.CFGNodeType.CONTROL, var("c"))).build();
+
+		assertEquals("[c]", names(solve(new LiveVariables(g)), 0));
+		assertEquals("[]", names(solve(new LiveVariables(new FlowGraph(cfg))), 0));
+	}
+
+	/*
+	 * checks
+	 */
+
+	private static <T extends DataflowAnalysis> T solve(final T analysis) {
+		analysis.solve();
+		return analysis;
+	}
+
+	private static String idoms(final FlowGraph g, final boolean post) {
+		return Arrays.toString(solve(new Dominators(g, post)).getImmediateDominators());
+	}
+
+	private static Loops loops(final FlowGraph g) {
+		return new Loops(g, solve(new Dominators(g, false)));
+	}
+
+	private static String names(final LiveVariables l, final int before) {
+		return names(l, l.getOut(before));
+	}
+
+	private static String names(final LiveVariables l, final BitSet vars) {
+		final TreeSet<String> names = new TreeSet<String>();
+		for (int i = vars.nextSetBit(0); i >= 0; i = vars.nextSetBit(i + 1))
+			names.add(l.getVariable(i));
+		return names.toString();
+	}
+
+	/*
+	 * graphs
+	 */
+
+	/**
+	 * Builds a graph whose node i has the successors <code>successors[i]</code>
+	 * and the expression <code>expressions[i]</code>, if any.
+	 */
+	private static FlowGraph graph(final int[][] successors, final Expression... expressions) {
+		final CFG.Builder cfg = CFG.newBuilder();
+		for (int i = 0; i < successors.length; i++) {
+			final boolean entry = i == 0 || i == successors.length - 1;
+			cfg.addNodes(node(i, entry ? CFGNode.CFGNodeType.ENTRY : CFGNode.CFGNodeType.OTHER, i < expressions.length ? expressions[i] : null));
+			cfg.addSuccessorOffsets(cfg.getSuccessorsCount());
+			for (final int s : successors[i]) {
+				cfg.addSuccessors(s);
+				cfg.addSuccessorLabels(CFGEdgeLabel.DEFAULT);
+			}
+		}
+		cfg.addSuccessorOffsets(cfg.getSuccessorsCount());
+		return new FlowGraph(cfg.build());
+	}
+
+	private static CFGNode node(final int id, final CFGNode.CFGNodeType type, final Expression e) {
+		final CFGNode.Builder b = CFGNode.newBuilder().setId(id).setType(type);
+		if (e != null)
+			b.setExpression(e);
+		return b.build();
+	}
+
+	/*
+	 * ASTs
+	 */
+
+	private static Type type() {
+		return Type.newBuilder().setKind(TypeKind.CLASS).setName(0).build();
+	}
+
+	private static Expression var(final String name) {
+		return Expression.newBuilder().setKind(ExpressionKind.VARACCESS).setVariable(name).build();
+	}
+
+	private static Expression literal(final String value) {
+		return Expression.newBuilder().setKind(ExpressionKind.LITERAL).setLiteral(value).build();
+	}
+
+	private static Expression op(final ExpressionKind kind, final Expression... operands) {
+		return Expression.newBuilder().setKind(kind).addAllExpressions(Arrays.asList(operands)).build();
+	}
+
+	private static Expression assign(final String name, final Expression value) {
+		return op(ExpressionKind.ASSIGN, var(name), value);
+	}
+
+	private static Expression call(final String name, final Expression... args) {
+		return Expression.newBuilder().setKind(ExpressionKind.METHODCALL).setMethod(name).addAllMethodArgs(Arrays.asList(args)).build();
+	}
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2015, Hridesh Rajan, Robert Dyer,
+ *                 and Iowa State University of Science and Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package boa.test.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import boa.io.ProjectColumns;
+import boa.types.Code.CodeRepository;
+import boa.types.Code.Revision;
+import boa.types.Diff.ChangedFile;
+import boa.types.Shared.ChangeKind;
+import boa.types.Shared.Person;
+import boa.types.Toplevel.Project;
+
+/**
+ * Checks that projects read back from {@link ProjectColumns} are the ones
+ * written.
+ *
+ * @author agent
+ */
+public class TestProjectColumns {
+	private FileSystem fs;
+	private Path dir;
+
+	@Before
+	public void createDir() throws IOException {
+		fs = FileSystem.getLocal(new Configuration());
+		dir = new Path(System.getProperty("java.io.tmpdir"), "boa-columns-" + System.nanoTime());
+	}
+
+	@After
+	public void deleteDir() throws IOException {
+		fs.delete(dir, true);
+	}
+
+	@Test
+	public void everyFieldRoundTrips() throws IOException {
+		final Project[] projects = { full("1"), empty("2"), full("3") };
+		write(projects);
+
+		final ProjectColumns.Reader r = new ProjectColumns.Reader(fs, part(), Arrays.asList("*"));
+		try {
+			assertEquals(3, r.getRows());
+			for (final Project p : projects)
+				assertEquals(p, r.next());
+			assertNull(r.next());
+			assertEquals(3, r.getRow());
+		} finally {
+			r.close();
+		}
+	}
+
+	@Test
+	public void onlyRequestedFieldsAreRead() throws IOException {
+		write(full("1"));
+
+		final ProjectColumns.Reader r = new ProjectColumns.Reader(fs, part(), Arrays.asList("Revision.log"));
+		try {
+			final Project p = r.next();
+			assertEquals("1", p.getId());
+			assertEquals("", p.getName());
+			assertFalse(p.hasHomepageUrl());
+			assertEquals(0, p.getTopicsCount());
+
+			// the lists leading to a revision are read too
+			assertEquals(1, p.getCodeRepositoriesCount());
+			final CodeRepository repo = p.getCodeRepositories(0);
+			assertEquals("", repo.getUrl());
+			assertEquals(3, repo.getRevisionsCount());
+			assertEquals("fix the bug", repo.getRevisions(1).getLog());
+			assertEquals("", repo.getRevisions(1).getAuthor().getEmail());
+			assertEquals(0, repo.getRevisions(1).getCommitDate());
+			assertEquals(0, repo.getRevisions(1).getFilesCount());
+		} finally {
+			r.close();
+		}
+	}
+
+	@Test
+	public void copyOfChangedSourceIsNotCurrent() throws IOException {
+		final Path seq = new Path(dir, "projects.seq");
+		final Path cols = new Path(dir, ProjectColumns.DIR);
+		writeFile(seq, 10);
+
+		fs.mkdirs(cols);
+		assertFalse(ProjectColumns.isCurrent(fs, cols, seq));
+
+		ProjectColumns.writeSource(fs, cols, fs.getFileStatus(seq));
+		assertTrue(ProjectColumns.isCurrent(fs, cols, seq));
+
+		writeFile(seq, 20);
+		assertFalse(ProjectColumns.isCurrent(fs, cols, seq));
+
+		fs.delete(seq, false);
+		assertFalse(ProjectColumns.isCurrent(fs, cols, seq));
+	}
+
+	private Path part() {
+		return new Path(dir, "part-00000");
+	}
+
+	private void write(final Project... projects) throws IOException {
+		final ProjectColumns.Writer w = new ProjectColumns.Writer(fs, part());
+		try {
+			for (final Project p : projects)
+				w.append(p);
+		} finally {
+			w.close();
+		}
+	}
+
+	private void writeFile(final Path p, final int length) throws IOException {
+		final DataOutputStream out = fs.create(p, true);
+		try {
+			out.write(new byte[length]);
+		} finally {
+			out.close();
+		}
+	}
+
+	// every optional field set, with repeated words and dates going back in time
+	private static Project full(final String id) {
+		final Person alice = person("alice", "Alice", "alice@example.com");
+		final Person bob = person("bob", "", "bob@example.com");
+
+		final CodeRepository.Builder repo = CodeRepository.newBuilder();
+		repo.setUrl("https://example.com/" + id + ".git");
+		repo.setKind(CodeRepository.RepositoryKind.GIT);
+		repo.addRevisions(revision("a", alice, alice, 3000000, "start", file(ChangeKind.ADDED, "src/A.java"), file(ChangeKind.ADDED, "src/B.java")));
+		repo.addRevisions(revision("b", bob, alice, 1000000, "fix the bug", file(ChangeKind.MODIFIED, "src/A.java")));
+		repo.addRevisions(revision("c", alice, bob, 2000000, "", file(ChangeKind.DELETED, "src/B.java"), file(ChangeKind.MODIFIED, "src/A.java")));
+
+		final Project.Builder p = Project.newBuilder();
+		p.setId(id);
+		p.setName("project " + id);
+		p.setProjectUrl("https://example.com/" + id);
+		p.setHomepageUrl("");
+		p.setCreatedDate(1234567890);
+		p.setDescription("d\u00e9j\u00e0 vu");
+		p.addAllProgrammingLanguages(Arrays.asList("java", "c", "java"));
+		p.addAllTopics(Arrays.asList("java"));
+		p.addAllLicenses(Arrays.asList(""));
+		p.setDonations(false);
+		p.setKind(Project.ForgeKind.GITHUB);
+		p.addCodeRepositories(repo);
+		return p.build();
+	}
+
+	// no optional fields, and every list empty
+	private static Project empty(final String id) {
+		final Project.Builder p = Project.newBuilder();
+		p.setId(id);
+		p.setName("");
+		p.setProjectUrl("");
+		p.setKind(Project.ForgeKind.OTHER);
+		return p.build();
+	}
+
+	private static Person person(final String username, final String realName, final String email) {
+		return Person.newBuilder().setUsername(username).setRealName(realName).setEmail(email).build();
+	}
+
+	private static Revision revision(final String id, final Person author, final Person committer, final long date, final String log, final ChangedFile... files) {
+		final Revision.Builder rev = Revision.newBuilder();
+		rev.setId(id);
+		rev.setAuthor(author);
+		rev.setCommitter(committer);
+		rev.setCommitDate(date);
+		rev.setLog(log);
+		rev.addAllFiles(Arrays.asList(files));
+		return rev.build();
+	}
+
+	private static ChangedFile file(final ChangeKind change, final String name) {
+		return ChangedFile.newBuilder().setChange(change).setKind(ChangedFile.FileKind.SOURCE_JAVA_JLS4).setName(name).setKey("").build();
+	}
+}
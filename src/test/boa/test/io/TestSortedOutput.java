@@ -0,0 +1,185 @@
+/*
+ * Copyright 2015, Hridesh Rajan, Robert Dyer,
+ *                 and Iowa State University of Science and Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package boa.test.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.DataOutputBuffer;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.MapFile;
+import org.apache.hadoop.io.NullWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.mapreduce.RecordWriter;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.TaskAttemptID;
+import org.apache.hadoop.mapreduce.lib.output.FileOutputCommitter;
+import org.apache.hadoop.mapreduce.lib.output.FileOutputFormat;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import boa.io.BoaOutputCommitter;
+import boa.io.BoaOutputFormat;
+import boa.io.OutputKey;
+
+/**
+ * Checks the order of sorted output and the index into it.
+ *
+ * @author agent
+ */
+public class TestSortedOutput {
+	private FileSystem fs;
+	private Configuration conf;
+	private Path dir;
+
+	@Before
+	public void createDir() throws IOException {
+		conf = new Configuration();
+		conf.setBoolean("boa.output.sorted", true);
+		fs = FileSystem.getLocal(conf);
+		dir = new Path(System.getProperty("java.io.tmpdir"), "boa-sorted-" + System.nanoTime());
+		conf.set("mapred.output.dir", new Path(dir, "out").toString());
+	}
+
+	@After
+	public void deleteDir() throws IOException {
+		fs.delete(dir, true);
+	}
+
+	@Test
+	public void keysCompareTheSameSerialized() throws IOException {
+		final OutputKey[] keys = { key("", 1), key("", 0), key("counts[b]", 0), key("counts[a]", 7), key("counts[a]", 3), key("counts", 9) };
+		final OutputKey[] expected = { keys[1], keys[0], keys[5], keys[4], keys[3], keys[2] };
+
+		final OutputKey[] sorted = keys.clone();
+		Arrays.sort(sorted);
+		assertEquals(Arrays.asList(expected), Arrays.asList(sorted));
+
+		final OutputKey comparator = new OutputKey();
+		for (final OutputKey k1 : keys)
+			for (final OutputKey k2 : keys) {
+				final byte[] b1 = serialize(k1);
+				final byte[] b2 = serialize(k2);
+				assertEquals(Integer.signum(k1.compareTo(k2)), Integer.signum(comparator.compare(b1, 0, b1.length, b2, 0, b2.length)));
+			}
+	}
+
+	@Test
+	public void tiesKeepTheirOrder() throws Exception {
+		final List<FileStatus> parts = new ArrayList<FileStatus>();
+		parts.add(write(0, "counts[b]", "1", "counts[a]", "x2", "\"g\",\"h\"", null, "counts[a]", "x1"));
+		parts.add(write(1, "counts[c]", "3", "max[]", "10"));
+
+		final Path result = new Path(dir, "result");
+		sort(result, parts);
+
+		assertEquals(Arrays.asList("\"g\",\"h\"", "counts[a] = x2", "counts[a] = x1", "counts[b] = 1", "counts[c] = 3", "max[] = 10"),
+				lines(new Path(result, "output.txt"), 0));
+	}
+
+	@Test
+	public void indexFindsFirstLineOfEachKey() throws Exception {
+		final List<FileStatus> parts = new ArrayList<FileStatus>();
+		parts.add(write(0, "\"g\",\"h\"", null, "counts[a]", "x1", "counts[a]", "x2", "counts[b]", "1"));
+
+		final Path result = new Path(dir, "result");
+		sort(result, parts);
+
+		final MapFile.Reader index = new MapFile.Reader(fs, new Path(result, "output.index").toString(), conf);
+		try {
+			final LongWritable offset = new LongWritable();
+			index.get(new Text("counts[a]"), offset);
+			assertEquals(Arrays.asList("counts[a] = x1", "counts[a] = x2", "counts[b] = 1"), lines(new Path(result, "output.txt"), offset.get()));
+
+			index.get(new Text("counts[b]"), offset);
+			assertEquals(Arrays.asList("counts[b] = 1"), lines(new Path(result, "output.txt"), offset.get()));
+
+			// whole lines have no key, so are not indexed
+			assertNull(index.get(new Text(""), offset));
+			assertNull(index.get(new Text("counts[c]"), offset));
+		} finally {
+			index.close();
+		}
+	}
+
+	private static OutputKey key(final String key, final long position) {
+		final OutputKey k = new OutputKey();
+		k.set(key, position);
+		return k;
+	}
+
+	private static byte[] serialize(final OutputKey key) throws IOException {
+		final DataOutputBuffer out = new DataOutputBuffer();
+		key.write(out);
+		return Arrays.copyOf(out.getData(), out.getLength());
+	}
+
+	/**
+	 * Writes a task's output, as pairs of keys and values, where a null
+	 * value makes the key a whole line.
+	 */
+	private FileStatus write(final int task, final String... records) throws Exception {
+		final TaskAttemptContext context = new TaskAttemptContext(conf, new TaskAttemptID("sorted", 1, false, task, 0));
+		final BoaOutputFormat format = new BoaOutputFormat();
+		final RecordWriter<Text, Writable> writer = format.getRecordWriter(context);
+		for (int i = 0; i < records.length; i += 2)
+			writer.write(new Text(records[i]), records[i + 1] == null ? NullWritable.get() : new Text(records[i + 1]));
+		writer.close(context);
+
+		final Path work = ((FileOutputCommitter) format.getOutputCommitter(context)).getWorkPath();
+		return fs.getFileStatus(new Path(work, FileOutputFormat.getUniqueFile(context, "part", "")));
+	}
+
+	private void sort(final Path result, final List<FileStatus> parts) throws Exception {
+		final TaskAttemptContext context = new TaskAttemptContext(conf, new TaskAttemptID("sorted", 1, false, 0, 0));
+		final BoaOutputCommitter committer = new BoaOutputCommitter(new Path(dir, "out"), context);
+
+		// the committer sorts while committing the job, which also stores it in the database
+		final Method sort = BoaOutputCommitter.class.getDeclaredMethod("sort", FileSystem.class, Path.class, List.class, Configuration.class);
+		sort.setAccessible(true);
+		sort.invoke(committer, fs, result, parts, conf);
+	}
+
+	private List<String> lines(final Path p, final long offset) throws IOException {
+		final FSDataInputStream in = fs.open(p);
+		try {
+			in.seek(offset);
+			final BufferedReader r = new BufferedReader(new InputStreamReader(in, "UTF-8"));
+			final List<String> lines = new ArrayList<String>();
+			for (String line = r.readLine(); line != null; line = r.readLine())
+				lines.add(line);
+			return lines;
+		} finally {
+			in.close();
+		}
+	}
+}